@@ -0,0 +1,103 @@
+package uk.me.ruthmills.wordsquare.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import uk.me.ruthmills.wordsquare.letters.ArrayAvailableLetters;
+import uk.me.ruthmills.wordsquare.letters.AvailableLetters;
+import uk.me.ruthmills.wordsquare.letters.HashBagAvailableLetters;
+import uk.me.ruthmills.wordsquare.letters.HashMapAvailableLetters;
+
+/**
+ * Benchmarks for the implementations of Available Letters, using the letters
+ * from the 7-letter puzzle.
+ * 
+ * @author ruth
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AvailableLettersBenchmark {
+
+	// A word which can be formed from the letters.
+	private static final String FORMABLE_WORD = "bravado";
+
+	// A word which cannot be formed from the letters (there is no "z").
+	private static final String UNFORMABLE_WORD = "zealous";
+
+	// The implementation of Available Letters to benchmark.
+	@Param({ "array", "hashMap", "hashBag" })
+	public String implementation;
+
+	// The available letters.
+	private AvailableLetters letters;
+
+	/**
+	 * Create the available letters.
+	 */
+	@Setup
+	public void setUp() {
+		final String sevenLetters = Puzzle.SEVEN.getLetters();
+		switch (implementation) {
+		case "array":
+			letters = new ArrayAvailableLetters(sevenLetters);
+			break;
+		case "hashMap":
+			letters = new HashMapAvailableLetters(sevenLetters);
+			break;
+		case "hashBag":
+			letters = new HashBagAvailableLetters(sevenLetters);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown implementation: " + implementation);
+		}
+	}
+
+	/**
+	 * Check a word which can be formed from the letters.
+	 * 
+	 * @return true.
+	 */
+	@Benchmark
+	public boolean isWordFormable() {
+		return letters.isWordFormable(FORMABLE_WORD);
+	}
+
+	/**
+	 * Check a word which cannot be formed from the letters.
+	 * 
+	 * @return false.
+	 */
+	@Benchmark
+	public boolean isWordNotFormable() {
+		return letters.isWordFormable(UNFORMABLE_WORD);
+	}
+
+	/**
+	 * Get the letters remaining after a word has been formed.
+	 * 
+	 * @return The remaining letters.
+	 */
+	@Benchmark
+	public AvailableLetters getRemainingLetters() {
+		return letters.getRemainingLetters(FORMABLE_WORD);
+	}
+
+	/**
+	 * Get the count of the letters.
+	 * 
+	 * @return The count of the letters.
+	 */
+	@Benchmark
+	public int getCount() {
+		return letters.getCount();
+	}
+}
@@ -0,0 +1,40 @@
+package uk.me.ruthmills.wordsquare.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler turned on, so that the allocation
+ * rate and the bytes allocated per operation are reported next to the time.
+ * 
+ * @author ruth
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Main function. Runs the benchmarks.
+	 * 
+	 * @param args Any of the usual JMH command line options, e.g. a regular
+	 *             expression to choose which benchmarks to run.
+	 * @throws CommandLineOptionException Thrown if the command line options are
+	 *                                    invalid.
+	 * @throws RunnerException            Thrown if the benchmarks fail to run.
+	 */
+	public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+		// Run all the benchmarks in this package, unless we have been told which to run.
+		final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		final ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLineOptions)
+				.addProfiler(GCProfiler.class);
+		if (commandLineOptions.getIncludes().isEmpty()) {
+			builder.include(BenchmarkRunner.class.getPackage().getName());
+		}
+		final Options options = builder.build();
+		new Runner(options).run();
+	}
+}
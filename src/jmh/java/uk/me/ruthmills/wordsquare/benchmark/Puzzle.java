@@ -0,0 +1,57 @@
+package uk.me.ruthmills.wordsquare.benchmark;
+
+/**
+ * The example puzzles from the README, used as benchmark parameters.
+ * 
+ * @author ruth
+ */
+public enum Puzzle {
+
+	// 3-letter word square (dog, oxo, god).
+	THREE(3, "ddggoooox"),
+
+	// 4-letter word square (moan, once, acme, need).
+	FOUR(4, "aaccdeeeemmnnnoo"),
+
+	// 5-letter word square (feast, earth, armer, steno, throw).
+	FIVE(5, "aaaeeeefhhmoonssrrrrttttw"),
+
+	// 7-letter word square (bravado, renamed, analogy, valuers, amoebas, degrade,
+	// odyssey).
+	SEVEN(7, "aaaaaaaaabbeeeeeeedddddggmmlloooonnssssrrrruvvyyy");
+
+	// The length of each word in the word square.
+	private final int length;
+
+	// The letters to create the word square from.
+	private final String letters;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param length  The length of each word in the word square.
+	 * @param letters The letters to create the word square from.
+	 */
+	Puzzle(final int length, final String letters) {
+		this.length = length;
+		this.letters = letters;
+	}
+
+	/**
+	 * Get the length of each word in the word square.
+	 * 
+	 * @return The length of each word in the word square.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Get the letters to create the word square from.
+	 * 
+	 * @return The letters to create the word square from.
+	 */
+	public String getLetters() {
+		return letters;
+	}
+}
@@ -0,0 +1,55 @@
+package uk.me.ruthmills.wordsquare.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import uk.me.ruthmills.wordsquare.predicate.ValidWordSquarePredicate;
+import uk.me.ruthmills.wordsquare.solution.WordSquare;
+
+/**
+ * Benchmark for checking if a 7-letter word square is valid.
+ * 
+ * @author ruth
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidWordSquarePredicateBenchmark {
+
+	// The predicate to benchmark.
+	private final ValidWordSquarePredicate predicate = new ValidWordSquarePredicate(7);
+
+	// A valid word square.
+	private final WordSquare validWordSquare = new WordSquare(7, "bravado", "renamed", "analogy", "valuers",
+			"amoebas", "degrade", "odyssey");
+
+	// An invalid word square (the last two words are swapped).
+	private final WordSquare invalidWordSquare = new WordSquare(7, "bravado", "renamed", "analogy", "valuers",
+			"amoebas", "odyssey", "degrade");
+
+	/**
+	 * Check the valid word square.
+	 * 
+	 * @return true.
+	 */
+	@Benchmark
+	public boolean testValidWordSquare() {
+		return predicate.test(validWordSquare);
+	}
+
+	/**
+	 * Check the invalid word square.
+	 * 
+	 * @return false.
+	 */
+	@Benchmark
+	public boolean testInvalidWordSquare() {
+		return predicate.test(invalidWordSquare);
+	}
+}
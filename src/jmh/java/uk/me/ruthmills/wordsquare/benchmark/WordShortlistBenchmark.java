@@ -0,0 +1,61 @@
+package uk.me.ruthmills.wordsquare.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import uk.me.ruthmills.wordsquare.dictionary.Dictionary;
+import uk.me.ruthmills.wordsquare.letters.AvailableLetters;
+import uk.me.ruthmills.wordsquare.letters.AvailableLettersFactory;
+import uk.me.ruthmills.wordsquare.solution.WordShortlist;
+
+/**
+ * Benchmark for getting the word shortlist for each of the README puzzles. The
+ * dictionary is loaded before the benchmark starts, so this measures filtering
+ * the words only.
+ * 
+ * @author ruth
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WordShortlistBenchmark {
+
+	// The puzzle to get the word shortlist for.
+	@Param
+	public Puzzle puzzle;
+
+	// The available letters.
+	private AvailableLetters letters;
+
+	/**
+	 * Load the dictionary, and create the available letters.
+	 * 
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		Dictionary.getWordsOfLengthMatchingPredicate(puzzle.getLength(), word -> true);
+		letters = AvailableLettersFactory.getInstance(puzzle.getLetters());
+	}
+
+	/**
+	 * Get the word shortlist.
+	 * 
+	 * @return The word shortlist.
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	@Benchmark
+	public List<String> getWordShortlist() throws IOException {
+		return WordShortlist.getWordShortlist(puzzle.getLength(), letters);
+	}
+}
@@ -0,0 +1,64 @@
+package uk.me.ruthmills.wordsquare.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import uk.me.ruthmills.wordsquare.WordSquareSolver;
+import uk.me.ruthmills.wordsquare.dictionary.Dictionary;
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.solution.WordSquare;
+
+/**
+ * End-to-end benchmark for solving each of the README puzzles, both stopping at
+ * the first word square (as the command line does) and finding all of them.
+ * The dictionary is loaded before the benchmark starts.
+ * 
+ * @author ruth
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WordSquareSolverBenchmark {
+
+	// The puzzle to solve.
+	@Param
+	public Puzzle puzzle;
+
+	// Flag indicating if we stop at the first word square.
+	@Param({ "true", "false" })
+	public boolean firstMatchOnly;
+
+	/**
+	 * Load the dictionary.
+	 * 
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		Dictionary.getWordsOfLengthMatchingPredicate(puzzle.getLength(), word -> true);
+	}
+
+	/**
+	 * Solve the word square.
+	 * 
+	 * @return The word squares.
+	 * @throws InvalidWordSquareException Thrown if a word square we have found is
+	 *                                    invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	@Benchmark
+	public List<WordSquare> solveWordSquare() throws InvalidWordSquareException, IOException {
+		return WordSquareSolver.solveWordSquare(puzzle.getLength(), puzzle.getLetters(), firstMatchOnly);
+	}
+}
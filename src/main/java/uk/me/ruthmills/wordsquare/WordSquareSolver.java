@@ -1,11 +1,25 @@
 package uk.me.ruthmills.wordsquare;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 
 import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.server.StreamSolver;
+import uk.me.ruthmills.wordsquare.solution.BatchWordSquareGenerator;
+import uk.me.ruthmills.wordsquare.solution.ResultStore;
+import uk.me.ruthmills.wordsquare.solution.SearchOptions;
+import uk.me.ruthmills.wordsquare.solution.SearchResult;
+import uk.me.ruthmills.wordsquare.solution.SearchStatistics;
+import uk.me.ruthmills.wordsquare.solution.SolverMetrics;
 import uk.me.ruthmills.wordsquare.solution.WordSquare;
 import uk.me.ruthmills.wordsquare.solution.WordSquareGenerator;
+import uk.me.ruthmills.wordsquare.solution.WordSquareQuery;
 
 /**
  * Class to solve a word square.
@@ -14,32 +28,86 @@ import uk.me.ruthmills.wordsquare.solution.WordSquareGenerator;
  */
 public class WordSquareSolver {
 
+	// The option to solve the puzzles read from the standard input.
+	private static final String STREAM_OPTION = "--stream";
+
 	/**
 	 * Main function. Executes the word square solver for the supplied arguments.
 	 * 
-	 * @param args Arguments: <length> <letters>
+	 * With just the length and letters, this outputs the first word square. With
+	 * a shard index and count as well, it outputs every word square in that shard
+	 * of the search (see the Search Options), each followed by a blank line, so
+	 * that the outputs of all the shards can be put together with the Shard
+	 * Merger. Shard 0 of 1 is the whole search.
+	 * 
+	 * With --stream, this reads a puzzle from each line of the standard input, and
+	 * writes the results to the standard output as newline-delimited JSON (see the
+	 * Stream Solver), solving on a thread for each processor unless told
+	 * otherwise.
+	 * 
+	 * If the wordsquare.result.store system property is set, all the word squares
+	 * found are kept in a result store in that directory, so the same puzzle is
+	 * not searched for again by a later run.
+	 * 
+	 * @param args Arguments: &lt;length&gt; &lt;letters&gt; [&lt;shard index&gt;
+	 *             &lt;shard count&gt;], or --stream [&lt;threads&gt;]
 	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
 	 *                                    add is invalid.
 	 * @throws IOException                Thrown if we cannot read from the
-	 *                                    dictionary file.
+	 *                                    dictionary file, or the standard input.
 	 */
 	public static void main(final String[] args) throws InvalidWordSquareException, IOException {
-		if (args.length != 2) {
+		if (args.length >= 1 && args.length <= 2 && STREAM_OPTION.equals(args[0])) {
+			try {
+				// Solve the puzzles from the standard input, with the solver metrics
+				// registered with JMX.
+				final int threads = args.length == 2 ? Integer.parseInt(args[1])
+						: Runtime.getRuntime().availableProcessors();
+				SolverMetrics.register();
+				try (ResultStore resultStore = ResultStore.openFromSystemProperty()) {
+					new StreamSolver(threads, resultStore).solve(
+							new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+							new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+				}
+			} catch (NumberFormatException ex) {
+				System.out.println("Threads must be an integer");
+			} catch (IllegalArgumentException ex) {
+				System.out.println(ex.getMessage());
+			}
+		} else if (args.length != 2 && args.length != 4) {
 			// Output the required parameters.
-			System.out.println("Required parameters: <length> <letters>");
+			System.out.println("Required parameters: <length> <letters> [<shard index> <shard count>]");
+			System.out.println("                  or --stream [<threads>]");
 		} else {
 			try {
 				// Get the length and letters from the parameters.
 				int length = Integer.parseInt(args[0]);
 				String letters = args[1];
-				final List<WordSquare> solutions = WordSquareSolver.solveWordSquare(length, letters, true);
-				if (solutions.size() > 0) {
-					System.out.println(solutions.get(0).toString());
-				} else {
-					System.out.println("No solution exists for this word square");
+				try (ResultStore resultStore = ResultStore.openFromSystemProperty()) {
+					if (args.length == 4) {
+						// Output every word square in the shard.
+						final SearchOptions options = new SearchOptions()
+								.setShard(Integer.parseInt(args[2]), Integer.parseInt(args[3]))
+								.setResultStore(resultStore);
+						for (final WordSquare solution : WordSquareGenerator.getValidWordSquares(length, letters,
+								options, new SearchStatistics())) {
+							System.out.println(solution.toString());
+						}
+					} else {
+						final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(length, letters,
+								new SearchOptions().setFirstMatchOnly(true).setResultStore(resultStore),
+								new SearchStatistics());
+						if (solutions.size() > 0) {
+							System.out.println(solutions.get(0).toString());
+						} else {
+							System.out.println("No solution exists for this word square");
+						}
+					}
 				}
 			} catch (NumberFormatException ex) {
-				System.out.println("First parameter (length) must be an integer");
+				System.out.println("Length, shard index and shard count must be integers");
+			} catch (IllegalArgumentException ex) {
+				System.out.println(ex.getMessage());
 			}
 		}
 	}
@@ -80,4 +148,93 @@ public class WordSquareSolver {
 		// firstMatchOnly is true.
 		return WordSquareGenerator.getValidWordSquares(length, letters, firstMatchOnly);
 	}
+
+	/**
+	 * Solve the word square, stopping at a deadline.
+	 * 
+	 * @param length         Number of letters in each word.
+	 * @param letters        Available letters to create the words from.
+	 * @param firstMatchOnly true to stop at the first matching word square, false
+	 *                       to carry on until all possible words are exhausted.
+	 * @param deadline       The time at which to stop searching.
+	 * @return The possible solutions to the word square found before the deadline,
+	 *         and the status saying whether the search finished.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public static SearchResult solveWordSquare(final int length, final String letters, final boolean firstMatchOnly,
+			final Instant deadline) throws InvalidWordSquareException, IOException {
+		return solveWordSquare(length, letters, firstMatchOnly, deadline, 0);
+	}
+
+	/**
+	 * Solve the word square, stopping after visiting a maximum number of nodes of
+	 * the search.
+	 * 
+	 * @param length         Number of letters in each word.
+	 * @param letters        Available letters to create the words from.
+	 * @param firstMatchOnly true to stop at the first matching word square, false
+	 *                       to carry on until all possible words are exhausted.
+	 * @param maxNodes       The maximum number of nodes to visit.
+	 * @return The possible solutions to the word square found within the maximum
+	 *         number of nodes, and the status saying whether the search finished.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public static SearchResult solveWordSquare(final int length, final String letters, final boolean firstMatchOnly,
+			final long maxNodes) throws InvalidWordSquareException, IOException {
+		return solveWordSquare(length, letters, firstMatchOnly, null, maxNodes);
+	}
+
+	/**
+	 * Solve the word square, stopping at a deadline or after visiting a maximum
+	 * number of nodes of the search, whichever comes first.
+	 * 
+	 * @param length         Number of letters in each word.
+	 * @param letters        Available letters to create the words from.
+	 * @param firstMatchOnly true to stop at the first matching word square, false
+	 *                       to carry on until all possible words are exhausted.
+	 * @param deadline       The time at which to stop searching, or null for no
+	 *                       deadline.
+	 * @param maxNodes       The maximum number of nodes to visit, or 0 for no
+	 *                       limit.
+	 * @return The possible solutions to the word square found within the budget,
+	 *         and the status saying whether the search finished.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public static SearchResult solveWordSquare(final int length, final String letters, final boolean firstMatchOnly,
+			final Instant deadline, final long maxNodes) throws InvalidWordSquareException, IOException {
+		return WordSquareGenerator.searchWordSquares(length, letters, new SearchOptions()
+				.setFirstMatchOnly(firstMatchOnly).setDeadline(deadline).setMaxNodes(maxNodes),
+				new SearchStatistics());
+	}
+
+	/**
+	 * Solve a batch of word squares. The dictionary words of each length in the
+	 * batch are only bucketed once, and the word squares are solved on a thread
+	 * for each processor.
+	 * 
+	 * @param queries        The lengths and letters of the word squares.
+	 * @param firstMatchOnly true to stop each search at the first matching word
+	 *                       square, false to carry on until all possible words
+	 *                       are exhausted.
+	 * @return List of possible solutions to each word square, in the same order as
+	 *         the queries.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public static List<List<WordSquare>> solveWordSquares(final List<WordSquareQuery> queries,
+			final boolean firstMatchOnly) throws InvalidWordSquareException, IOException {
+		return BatchWordSquareGenerator.getValidWordSquares(queries,
+				new SearchOptions().setFirstMatchOnly(firstMatchOnly), new SearchStatistics());
+	}
 }
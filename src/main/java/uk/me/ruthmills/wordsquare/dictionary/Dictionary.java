@@ -1,16 +1,27 @@
 package uk.me.ruthmills.wordsquare.dictionary;
 
 import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
- * This class represents a dictionary of all the available words.
+ * This class represents a dictionary of all the available words. The dictionary
+ * is only loaded once per JVM - the first time it is needed - after which the
+ * words are served from an in-memory index.
+ * 
+ * If the compiled binary dictionary file is present (see the Dictionary
+ * Compiler), and was compiled from the dictionary text file as it is now, it is
+ * read through a memory-mapped file. Otherwise, we fall back to reading the
+ * dictionary text file.
  * 
  * @author ruth
  */
@@ -18,6 +29,16 @@ public class Dictionary {
 
 	private static final String DICTIONARY_TEXT_FILE_NAME = "dictionary.txt";
 
+	private static final String DICTIONARY_BINARY_FILE_NAME = "dictionary.bin";
+
+	// The system property which may be set to the path of the binary dictionary
+	// file.
+	public static final String DICTIONARY_BINARY_FILE_PROPERTY = "wordsquare.dictionary.binary";
+
+	// The in-memory index of the dictionary. This is volatile, so that once one
+	// thread has built the index, all other threads will see it.
+	private static volatile DictionaryIndex index;
+
 	/**
 	 * Read only the words matching the supplied predicate.
 	 * 
@@ -26,9 +47,145 @@ public class Dictionary {
 	 * @throws IOException Thrown if we cannot read from the dictionary file.
 	 */
 	public static List<String> getWordsMatchingPredicate(final Predicate<String> predicate) throws IOException {
+		return Dictionary.getIndex().getWords().filter(predicate).collect(Collectors.toList());
+	}
+
+	/**
+	 * Read only the words of the required length matching the supplied predicate.
+	 * Only the words of the required length are checked against the predicate.
+	 * 
+	 * @param length    The required length.
+	 * @param predicate The predicate to match the words with.
+	 * @return A list of only those words of the required length matching the
+	 *         predicate.
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	public static List<String> getWordsOfLengthMatchingPredicate(final int length, final Predicate<String> predicate)
+			throws IOException {
+		return Dictionary.getIndex().getWordsOfLength(length).stream().filter(predicate)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get the in-memory index of the dictionary, loading it from the dictionary
+	 * file if this is the first time it has been needed.
+	 * 
+	 * @return The dictionary index.
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	public static DictionaryIndex getIndex() throws IOException {
+		DictionaryIndex dictionaryIndex = index;
+		if (dictionaryIndex == null) {
+			synchronized (Dictionary.class) {
+				// Check again, in case another thread built the index while we were waiting.
+				dictionaryIndex = index;
+				if (dictionaryIndex == null) {
+					dictionaryIndex = Dictionary.loadIndex();
+					index = dictionaryIndex;
+				}
+			}
+		}
+		return dictionaryIndex;
+	}
+
+	/**
+	 * Load the dictionary index - from the compiled binary file if there is one,
+	 * or from the text file if not.
+	 * 
+	 * @return The dictionary index.
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	private static DictionaryIndex loadIndex() throws IOException {
+		final DictionaryIndex mappedIndex = Dictionary.loadMappedIndex(Dictionary.getBinaryFilePath(),
+				Dictionary.getTextFilePath());
+		if (mappedIndex != null) {
+			return mappedIndex;
+		}
 		try (Stream<String> linesStream = Dictionary.getWordsStream()) {
-			return linesStream.filter(predicate).collect(Collectors.toList());
+			return new TextDictionaryIndex(linesStream);
+		}
+	}
+
+	/**
+	 * Load the dictionary index from the compiled binary file, as long as it was
+	 * compiled from the text file as it is now. If we don't have the text file, we
+	 * can't check, so we use the binary file anyway.
+	 * 
+	 * @param binaryPath The path of the binary dictionary file.
+	 * @param textPath   The path of the dictionary text file.
+	 * @return The dictionary index, or null if there is no binary file, or it is
+	 *         stale (i.e. the text file has changed since it was compiled), or
+	 *         it is not in the expected format and we have the text file to read
+	 *         instead.
+	 * @throws IOException Thrown if we cannot read from the dictionary files, or
+	 *                     the binary file is not in the expected format and we
+	 *                     don't have the text file.
+	 */
+	static DictionaryIndex loadMappedIndex(final Path binaryPath, final Path textPath) throws IOException {
+		if (!Files.isRegularFile(binaryPath)) {
+			return null;
+		}
+		final MappedDictionaryIndex mappedIndex;
+		try {
+			mappedIndex = new MappedDictionaryIndex(binaryPath);
+		} catch (IOException ex) {
+			if (Files.isRegularFile(textPath)) {
+				return null;
+			}
+			throw ex;
+		}
+		if (Files.isRegularFile(textPath)
+				&& mappedIndex.getSourceChecksum() != DictionaryCompiler.getChecksum(textPath)) {
+			return null;
+		}
+		return mappedIndex;
+	}
+
+	/**
+	 * Get the path of the compiled binary dictionary file. This is the path in the
+	 * wordsquare.dictionary.binary system property, if it is set. Otherwise, it is
+	 * where the Maven build writes it (see the Dictionary Compiler), i.e. the
+	 * target directory holding our classes or jar, wherever we are run from.
+	 * 
+	 * @return The path of the binary dictionary file.
+	 */
+	public static Path getBinaryFilePath() {
+		final String binaryFile = System.getProperty(DICTIONARY_BINARY_FILE_PROPERTY);
+		if (binaryFile != null) {
+			return FileSystems.getDefault().getPath(binaryFile);
 		}
+		final Path codeLocation = Dictionary.getCodeLocation();
+		if (codeLocation != null && codeLocation.getParent() != null) {
+			return codeLocation.getParent().resolve(DICTIONARY_BINARY_FILE_NAME);
+		}
+		return FileSystems.getDefault().getPath("target", DICTIONARY_BINARY_FILE_NAME);
+	}
+
+	/**
+	 * Get the location our classes were loaded from, i.e. the classes directory
+	 * or the jar file.
+	 * 
+	 * @return The location, or null if it is not known, or is not a local file.
+	 */
+	private static Path getCodeLocation() {
+		final CodeSource codeSource = Dictionary.class.getProtectionDomain().getCodeSource();
+		if (codeSource == null || codeSource.getLocation() == null) {
+			return null;
+		}
+		try {
+			return Paths.get(codeSource.getLocation().toURI());
+		} catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Get the path of the dictionary text file.
+	 * 
+	 * @return The path of the dictionary text file.
+	 */
+	static Path getTextFilePath() {
+		return FileSystems.getDefault().getPath("src/main/resources", DICTIONARY_TEXT_FILE_NAME);
 	}
 
 	/**
@@ -38,7 +195,7 @@ public class Dictionary {
 	 * @throws IOException Thrown if we cannot read from the dictionary file.
 	 */
 	private static Stream<String> getWordsStream() throws IOException {
-		Path path = FileSystems.getDefault().getPath("src/main/resources", DICTIONARY_TEXT_FILE_NAME);
+		Path path = Dictionary.getTextFilePath();
 		return Files.lines(path);
 	}
 }
@@ -0,0 +1,140 @@
+package uk.me.ruthmills.wordsquare.dictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Compiles the dictionary text file into a compact binary file, which can then
+ * be read through a memory-mapped file by the Mapped Dictionary Index (rather
+ * than parsing the text file line by line).
+ * 
+ * The binary file is laid out as follows (all integers are big-endian):
+ * 
+ * <pre>
+ * int    magic number
+ * int    format version
+ * int    checksum (CRC-32) of the text file it was compiled from
+ * int    maximum word length (m)
+ * (m+1) * { int count, int offset }   offset table, one entry per word length
+ * records                             fixed-width records, grouped by length
+ * </pre>
+ * 
+ * Each word of length n is stored as a fixed-width record of n ASCII bytes.
+ * All the n-letter words are stored together, in dictionary order, starting at
+ * the offset given in the offset table for length n.
+ * 
+ * The checksum lets the Dictionary tell whether the text file has changed
+ * since the binary file was compiled, in which case it does not use it.
+ * 
+ * @author ruth
+ */
+public class DictionaryCompiler {
+
+	// Magic number at the start of the binary file ("WSQD").
+	static final int MAGIC_NUMBER = 0x57535144;
+
+	// Version of the binary file format.
+	static final int FORMAT_VERSION = 2;
+
+	// Size of the header before the offset table (magic, version, checksum, max
+	// length).
+	static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+	// Size of the buffer the text file is read through to work out its checksum.
+	private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
+	// Size of each entry in the offset table (count, offset).
+	static final int OFFSET_TABLE_ENTRY_SIZE = 2 * Integer.BYTES;
+
+	/**
+	 * Main function. Compiles the dictionary text file into a binary file.
+	 * 
+	 * @param args Arguments: &lt;text file&gt; &lt;binary file&gt;
+	 * @throws IOException Thrown if we cannot read the text file or write the
+	 *                     binary file.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length != 2) {
+			// Output the required parameters.
+			System.out.println("Required parameters: <text file> <binary file>");
+		} else {
+			DictionaryCompiler.compile(Paths.get(args[0]), Paths.get(args[1]));
+		}
+	}
+
+	/**
+	 * Compile a dictionary text file into a binary file.
+	 * 
+	 * @param textFile   The dictionary text file (one word per line).
+	 * @param binaryFile The binary file to write.
+	 * @throws IOException Thrown if we cannot read the text file or write the
+	 *                     binary file.
+	 */
+	public static void compile(final Path textFile, final Path binaryFile) throws IOException {
+		// Bucket the words by length first, so we know how big each bucket is.
+		final TextDictionaryIndex textDictionaryIndex;
+		try (Stream<String> linesStream = Files.lines(textFile, StandardCharsets.US_ASCII)) {
+			textDictionaryIndex = new TextDictionaryIndex(linesStream);
+		}
+		final int maxLength = Math.max(textDictionaryIndex.getMaxLength(), 0);
+
+		// Make sure the directory we are writing to exists.
+		if (binaryFile.toAbsolutePath().getParent() != null) {
+			Files.createDirectories(binaryFile.toAbsolutePath().getParent());
+		}
+
+		try (DataOutputStream outputStream = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(binaryFile)))) {
+			// Write the header.
+			outputStream.writeInt(MAGIC_NUMBER);
+			outputStream.writeInt(FORMAT_VERSION);
+			outputStream.writeInt(getChecksum(textFile));
+			outputStream.writeInt(maxLength);
+
+			// Write the offset table. The records start immediately after it.
+			int offset = HEADER_SIZE + (maxLength + 1) * OFFSET_TABLE_ENTRY_SIZE;
+			for (int length = 0; length <= maxLength; length++) {
+				final int count = textDictionaryIndex.getWordsOfLength(length).size();
+				outputStream.writeInt(count);
+				outputStream.writeInt(offset);
+				offset += count * length;
+			}
+
+			// Write the fixed-width records, grouped by length.
+			for (int length = 0; length <= maxLength; length++) {
+				final List<String> words = textDictionaryIndex.getWordsOfLength(length);
+				for (final String word : words) {
+					outputStream.write(word.getBytes(StandardCharsets.US_ASCII));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the checksum (CRC-32) of a dictionary text file, which is recorded in
+	 * the binary file compiled from it.
+	 * 
+	 * @param textFile The dictionary text file.
+	 * @return The checksum.
+	 * @throws IOException Thrown if we cannot read the text file.
+	 */
+	public static int getChecksum(final Path textFile) throws IOException {
+		final CRC32 checksum = new CRC32();
+		try (InputStream inputStream = Files.newInputStream(textFile)) {
+			final byte[] buffer = new byte[CHECKSUM_BUFFER_SIZE];
+			for (int count = inputStream.read(buffer); count >= 0; count = inputStream.read(buffer)) {
+				checksum.update(buffer, 0, count);
+			}
+		}
+		return (int) checksum.getValue();
+	}
+}
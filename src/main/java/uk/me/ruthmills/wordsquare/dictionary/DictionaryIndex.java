@@ -0,0 +1,63 @@
+package uk.me.ruthmills.wordsquare.dictionary;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.collections4.IteratorUtils;
+
+/**
+ * Interface representing an index of the words in the dictionary, bucketed by
+ * word length. Implementations MUST be safe for any number of threads to read
+ * at the same time.
+ * 
+ * @author ruth
+ */
+public interface DictionaryIndex {
+
+	/**
+	 * Get all the words of the required length.
+	 * 
+	 * @param length The required length.
+	 * @return Read-only list of the words of the required length, in dictionary
+	 *         order. This will be empty if there are no words of that length.
+	 */
+	public List<String> getWordsOfLength(final int length);
+
+	/**
+	 * Get the maximum word length in the dictionary.
+	 * 
+	 * @return The maximum word length.
+	 */
+	public int getMaxLength();
+
+	/**
+	 * Get the total number of words in the dictionary.
+	 * 
+	 * @return The total number of words in the dictionary.
+	 */
+	public int getCount();
+
+	/**
+	 * Get all the words in the dictionary, in alphabetical order. The dictionary
+	 * file is in alphabetical order, so this is the same order as the file. Each
+	 * bucket is already in alphabetical order, so the buckets are merged, taking
+	 * the alphabetically first of the words at the front of the buckets each time.
+	 * 
+	 * @return A stream of all the words in the dictionary.
+	 */
+	public default Stream<String> getWords() {
+		final List<Iterator<? extends String>> buckets = new ArrayList<>();
+		for (int length = 0; length <= getMaxLength(); length++) {
+			buckets.add(getWordsOfLength(length).iterator());
+		}
+		return StreamSupport.stream(Spliterators.spliterator(
+				IteratorUtils.collatedIterator(Comparator.<String>naturalOrder(), buckets), getCount(),
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+}
@@ -0,0 +1,181 @@
+package uk.me.ruthmills.wordsquare.dictionary;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Memory-mapped implementation of the dictionary index. This reads the binary
+ * file written by the Dictionary Compiler through a memory-mapped file. There
+ * is no line parsing: only the offset table is read up front, and each length
+ * bucket is decoded straight from its fixed-width records the first time it is
+ * needed. Buckets that are never asked for are never decoded.
+ * 
+ * @author ruth
+ */
+public class MappedDictionaryIndex implements DictionaryIndex {
+
+	// The memory-mapped binary file.
+	private final MappedByteBuffer buffer;
+
+	// The number of words of each length.
+	private final int[] counts;
+
+	// The offset into the file of the records for each length.
+	private final int[] offsets;
+
+	// The total number of words in the dictionary.
+	private final int count;
+
+	// The checksum of the text file the binary file was compiled from.
+	private final int sourceChecksum;
+
+	// The buckets of words that have been decoded so far (null if not yet
+	// decoded).
+	private final AtomicReferenceArray<List<String>> wordsByLength;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param binaryFile The binary file written by the Dictionary Compiler.
+	 * @throws IOException Thrown if we cannot read from the binary file, or it is
+	 *                     not in the expected format.
+	 */
+	public MappedDictionaryIndex(final Path binaryFile) throws IOException {
+		// Map the file into memory. The mapping remains valid after the channel is
+		// closed.
+		try (FileChannel fileChannel = FileChannel.open(binaryFile, StandardOpenOption.READ)) {
+			buffer = fileChannel.map(MapMode.READ_ONLY, 0, fileChannel.size());
+		}
+
+		// Check the header.
+		if (buffer.limit() < DictionaryCompiler.HEADER_SIZE
+				|| buffer.getInt(0) != DictionaryCompiler.MAGIC_NUMBER) {
+			throw new IOException("Not a compiled dictionary file: " + binaryFile);
+		}
+		if (buffer.getInt(Integer.BYTES) != DictionaryCompiler.FORMAT_VERSION) {
+			throw new IOException("Unsupported compiled dictionary version: " + buffer.getInt(Integer.BYTES));
+		}
+
+		// Read the checksum, and the offset table, checking that the table fits in the
+		// file, and that every bucket it points to lies between the end of the table
+		// and the end of the file. The sums are done in longs, so that no corrupt
+		// entry can overflow them.
+		sourceChecksum = buffer.getInt(2 * Integer.BYTES);
+		final int maxLength = buffer.getInt(3 * Integer.BYTES);
+		final long tableEnd = DictionaryCompiler.HEADER_SIZE
+				+ (maxLength + 1L) * DictionaryCompiler.OFFSET_TABLE_ENTRY_SIZE;
+		if (maxLength < 0 || tableEnd > buffer.limit()) {
+			throw new IOException("Compiled dictionary file has a bad maximum word length: " + maxLength);
+		}
+		counts = new int[maxLength + 1];
+		offsets = new int[maxLength + 1];
+		long count = 0;
+		for (int length = 0; length <= maxLength; length++) {
+			final int entry = DictionaryCompiler.HEADER_SIZE + length * DictionaryCompiler.OFFSET_TABLE_ENTRY_SIZE;
+			counts[length] = buffer.getInt(entry);
+			offsets[length] = buffer.getInt(entry + Integer.BYTES);
+			if (counts[length] < 0 || offsets[length] < tableEnd) {
+				throw new IOException("Compiled dictionary file has a bad offset table entry for length " + length
+						+ ": " + binaryFile);
+			}
+			if (offsets[length] + (long) counts[length] * length > buffer.limit()) {
+				throw new IOException("Compiled dictionary file is truncated: " + binaryFile);
+			}
+			count += counts[length];
+		}
+		if (count > Integer.MAX_VALUE) {
+			throw new IOException("Compiled dictionary file has too many words: " + binaryFile);
+		}
+		this.count = (int) count;
+		this.wordsByLength = new AtomicReferenceArray<>(maxLength + 1);
+	}
+
+	/**
+	 * Get all the words of the required length. The bucket is decoded from the
+	 * memory-mapped file the first time it is asked for.
+	 * 
+	 * @param length The required length.
+	 * @return Read-only list of the words of the required length, in dictionary
+	 *         order. This will be empty if there are no words of that length.
+	 */
+	@Override
+	public List<String> getWordsOfLength(final int length) {
+		if (length < 0 || length >= counts.length) {
+			return Collections.emptyList();
+		}
+		List<String> words = wordsByLength.get(length);
+		if (words == null) {
+			// If two threads decode the same bucket at once, the first one wins - the
+			// buckets are identical, so it doesn't matter which.
+			wordsByLength.compareAndSet(length, null, decodeBucket(length));
+			words = wordsByLength.get(length);
+		}
+		return words;
+	}
+
+	/**
+	 * Get the maximum word length in the dictionary.
+	 * 
+	 * @return The maximum word length.
+	 */
+	@Override
+	public int getMaxLength() {
+		return counts.length - 1;
+	}
+
+	/**
+	 * Get the total number of words in the dictionary.
+	 * 
+	 * @return The total number of words in the dictionary.
+	 */
+	@Override
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the checksum of the text file the binary file was compiled from (see
+	 * the Dictionary Compiler).
+	 * 
+	 * @return The checksum.
+	 */
+	public int getSourceChecksum() {
+		return sourceChecksum;
+	}
+
+	/**
+	 * Decode the fixed-width records for a given length into words.
+	 * 
+	 * @param length The word length.
+	 * @return Read-only list of the words of that length.
+	 */
+	private List<String> decodeBucket(final int length) {
+		// Copy the whole bucket out of the mapped file in one bulk read. We read
+		// through a duplicate of the buffer, which has its own position, so that we
+		// never disturb the position of the buffer for any other threads. (The
+		// position is set through Buffer, as ByteBuffer.position() is only there from
+		// Java 9.)
+		final byte[] records = new byte[counts[length] * length];
+		final ByteBuffer bucket = buffer.duplicate();
+		((Buffer) bucket).position(offsets[length]);
+		bucket.get(records);
+
+		// Each record is exactly one word.
+		final List<String> words = new ArrayList<>(counts[length]);
+		for (int index = 0; index < counts[length]; index++) {
+			words.add(new String(records, index * length, length, StandardCharsets.US_ASCII));
+		}
+		return Collections.unmodifiableList(words);
+	}
+}
@@ -0,0 +1,85 @@
+package uk.me.ruthmills.wordsquare.dictionary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Text implementation of the dictionary index. All the words are read up front
+ * from a stream of lines, and held in memory bucketed by length. The index is
+ * immutable once constructed, so it can safely be read by any number of threads
+ * at the same time.
+ * 
+ * @author ruth
+ */
+public class TextDictionaryIndex implements DictionaryIndex {
+
+	// The words in the dictionary, bucketed by length (the list at index n holds
+	// all the n-letter words, in dictionary order).
+	private final List<List<String>> wordsByLength;
+
+	// The total number of words in the dictionary.
+	private final int count;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param words Stream of words (one string for each word in the dictionary).
+	 */
+	public TextDictionaryIndex(final Stream<String> words) {
+		// Sort the words into buckets by length.
+		final List<List<String>> buckets = new ArrayList<>();
+		int count = 0;
+		for (final String word : (Iterable<String>) words::iterator) {
+			while (buckets.size() <= word.length()) {
+				buckets.add(new ArrayList<>());
+			}
+			buckets.get(word.length()).add(word);
+			count++;
+		}
+
+		// Make each of the buckets read-only, so they can be shared between threads.
+		final List<List<String>> wordsByLength = new ArrayList<>(buckets.size());
+		for (final List<String> bucket : buckets) {
+			wordsByLength.add(Collections.unmodifiableList(bucket));
+		}
+		this.wordsByLength = Collections.unmodifiableList(wordsByLength);
+		this.count = count;
+	}
+
+	/**
+	 * Get all the words of the required length.
+	 * 
+	 * @param length The required length.
+	 * @return Read-only list of the words of the required length, in dictionary
+	 *         order. This will be empty if there are no words of that length.
+	 */
+	@Override
+	public List<String> getWordsOfLength(final int length) {
+		if (length < 0 || length >= wordsByLength.size()) {
+			return Collections.emptyList();
+		}
+		return wordsByLength.get(length);
+	}
+
+	/**
+	 * Get the maximum word length in the dictionary.
+	 * 
+	 * @return The maximum word length.
+	 */
+	@Override
+	public int getMaxLength() {
+		return wordsByLength.size() - 1;
+	}
+
+	/**
+	 * Get the total number of words in the dictionary.
+	 * 
+	 * @return The total number of words in the dictionary.
+	 */
+	@Override
+	public int getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,34 @@
+package uk.me.ruthmills.wordsquare.exception;
+
+/**
+ * Unchecked exception wrapping an Invalid Word Square Exception, so that it can
+ * be thrown from places which cannot throw checked exceptions, such as a
+ * fork/join task or a stream of word squares.
+ * 
+ * @author ruth
+ * 
+ */
+public class UncheckedInvalidWordSquareException extends RuntimeException {
+
+	// Serial version UID.
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param cause The Invalid Word Square Exception.
+	 */
+	public UncheckedInvalidWordSquareException(final InvalidWordSquareException cause) {
+		super(cause);
+	}
+
+	/**
+	 * Get the Invalid Word Square Exception.
+	 * 
+	 * @return The Invalid Word Square Exception.
+	 */
+	@Override
+	public InvalidWordSquareException getCause() {
+		return (InvalidWordSquareException) super.getCause();
+	}
+}
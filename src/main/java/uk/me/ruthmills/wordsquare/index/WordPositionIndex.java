@@ -0,0 +1,146 @@
+package uk.me.ruthmills.wordsquare.index;
+
+import java.util.List;
+
+/**
+ * Inverted index over a list of words, mapping each (position, letter) pair to
+ * a bitset of the words with that letter at that position. Each word is
+ * identified by its position in the list, and each bit in the bitset is one
+ * word, so we can combine the conditions on several positions 64 words at a
+ * time with bitwise operations, rather than checking each word in turn.
+ * 
+ * Only the letters 'a' to 'z' are indexed (which is all the dictionary
+ * contains). A word with any other letter at a position is not in the bitset
+ * for any letter at that position.
+ * 
+ * The index is immutable once constructed, so it can safely be shared between
+ * threads.
+ * 
+ * @author ruth
+ */
+public class WordPositionIndex {
+
+	// The number of letters in the alphabet.
+	private static final int ALPHABET_SIZE = 26;
+
+	// The number of words in each long of a bitset.
+	private static final int BITS_PER_LONG = 64;
+
+	// The number of words indexed.
+	private final int size;
+
+	// The length of the longest word indexed.
+	private final int maxLength;
+
+	// The bitsets, indexed by position * ALPHABET_SIZE + letter.
+	private final long[][] bitsets;
+
+	// The bitsets of the words containing each letter at any position, indexed by
+	// letter.
+	private final long[][] containingBitsets;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param words The words to index. Each word is identified by its position in
+	 *              this list.
+	 */
+	public WordPositionIndex(final List<String> words) {
+		this.size = words.size();
+		int longestLength = 0;
+		for (final String word : words) {
+			longestLength = Math.max(longestLength, word.length());
+		}
+		this.maxLength = longestLength;
+
+		// Set the bit for each word in the bitset for each of its letters.
+		final int longCount = getLongCount(size);
+		this.bitsets = new long[maxLength * ALPHABET_SIZE][longCount];
+		this.containingBitsets = new long[ALPHABET_SIZE][longCount];
+		for (int wordIndex = 0; wordIndex < size; wordIndex++) {
+			final String word = words.get(wordIndex);
+			for (int position = 0; position < word.length(); position++) {
+				final char letter = word.charAt(position);
+				if (letter >= 'a' && letter <= 'z') {
+					bitsets[position * ALPHABET_SIZE + letter - 'a'][wordIndex / BITS_PER_LONG] |= 1L << wordIndex;
+					containingBitsets[letter - 'a'][wordIndex / BITS_PER_LONG] |= 1L << wordIndex;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the number of words indexed.
+	 * 
+	 * @return The number of words indexed.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the bitset of the words with the supplied letter at the supplied
+	 * position. This is shared, so it MUST NOT be changed.
+	 * 
+	 * @param position The position in the word, from 0.
+	 * @param letter   The letter.
+	 * @return The bitset of the words, with bit n set if word n matches. If no
+	 *         words match, every bit is clear.
+	 */
+	public long[] getWordsWithLetterAt(final int position, final char letter) {
+		if (position >= maxLength || letter < 'a' || letter > 'z') {
+			return new long[getLongCount(size)];
+		}
+		return bitsets[position * ALPHABET_SIZE + letter - 'a'];
+	}
+
+	/**
+	 * Get the bitset of the words containing the supplied letter at any position.
+	 * This is shared, so it MUST NOT be changed.
+	 * 
+	 * @param letter The letter.
+	 * @return The bitset of the words, with bit n set if word n contains the
+	 *         letter. If no words contain it, every bit is clear.
+	 */
+	public long[] getWordsContainingLetter(final char letter) {
+		if (letter < 'a' || letter > 'z') {
+			return new long[getLongCount(size)];
+		}
+		return containingBitsets[letter - 'a'];
+	}
+
+	/**
+	 * Get the number of longs needed for a bitset of the supplied number of words.
+	 * 
+	 * @param size The number of words.
+	 * @return The number of longs.
+	 */
+	public static int getLongCount(final int size) {
+		return (size + BITS_PER_LONG - 1) / BITS_PER_LONG;
+	}
+
+	/**
+	 * Find the next word in a bitset.
+	 * 
+	 * @param bitset    The bitset.
+	 * @param fromIndex The index of the first word to look at.
+	 * @param toIndex   The index after the last word to look at.
+	 * @return The index of the first word from fromIndex onwards whose bit is set,
+	 *         or toIndex if there are none before it.
+	 */
+	public static int nextSetBit(final long[] bitset, final int fromIndex, final int toIndex) {
+		if (fromIndex >= toIndex) {
+			return toIndex;
+		}
+		int longIndex = fromIndex / BITS_PER_LONG;
+		long bits = bitset[longIndex] & (-1L << fromIndex);
+		while (bits == 0) {
+			longIndex++;
+			if (longIndex * BITS_PER_LONG >= toIndex) {
+				return toIndex;
+			}
+			bits = bitset[longIndex];
+		}
+		return Math.min(longIndex * BITS_PER_LONG + Long.numberOfTrailingZeros(bits), toIndex);
+	}
+}
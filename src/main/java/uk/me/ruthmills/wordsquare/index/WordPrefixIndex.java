@@ -0,0 +1,140 @@
+package uk.me.ruthmills.wordsquare.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sorted prefix index over a list of words. All the words beginning with a
+ * given prefix sit next to each other in a sorted list, so we can find them
+ * with a pair of binary searches, rather than checking every word in turn.
+ * 
+ * The index is immutable once constructed, so it can safely be shared between
+ * threads.
+ * 
+ * @author ruth
+ */
+public class WordPrefixIndex {
+
+	// The words, in sorted order.
+	private final List<String> words;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param words The words to index.
+	 */
+	public WordPrefixIndex(final List<String> words) {
+		final List<String> sortedWords = new ArrayList<>(words);
+		Collections.sort(sortedWords);
+		this.words = Collections.unmodifiableList(sortedWords);
+	}
+
+	/**
+	 * Get the indexed words, in sorted order.
+	 * 
+	 * @return Read-only list of the indexed words.
+	 */
+	public List<String> getWords() {
+		return words;
+	}
+
+	/**
+	 * Get the number of indexed words.
+	 * 
+	 * @return The number of indexed words.
+	 */
+	public int size() {
+		return words.size();
+	}
+
+	/**
+	 * Get the word at the given position in the index.
+	 * 
+	 * @param index The position in the index.
+	 * @return The word at that position.
+	 */
+	public String getWord(final int index) {
+		return words.get(index);
+	}
+
+	/**
+	 * Get the position of the first word beginning with the supplied prefix.
+	 * 
+	 * @param prefix The prefix.
+	 * @return The position of the first word beginning with the prefix. If there
+	 *         are no such words, this will be the same as the end position.
+	 */
+	public int getStartIndex(final CharSequence prefix) {
+		// Find the first word which is not before the prefix.
+		int low = 0;
+		int high = words.size();
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (comparePrefix(words.get(middle), prefix) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Get the position after the last word beginning with the supplied prefix.
+	 * 
+	 * @param prefix The prefix.
+	 * @return The position after the last word beginning with the prefix.
+	 */
+	public int getEndIndex(final CharSequence prefix) {
+		// Find the first word which is after the prefix.
+		int low = 0;
+		int high = words.size();
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (comparePrefix(words.get(middle), prefix) <= 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Check if there are any words beginning with the supplied prefix.
+	 * 
+	 * @param prefix The prefix.
+	 * @return true if at least one word begins with the prefix, or false if not.
+	 */
+	public boolean hasPrefix(final CharSequence prefix) {
+		final int startIndex = getStartIndex(prefix);
+		return startIndex < words.size() && comparePrefix(words.get(startIndex), prefix) == 0;
+	}
+
+	/**
+	 * Compare the beginning of a word with a prefix. Only the first
+	 * prefix.length() letters of the word are compared.
+	 * 
+	 * @param word   The word.
+	 * @param prefix The prefix.
+	 * @return Less than zero if the word comes before the prefix, zero if the word
+	 *         begins with the prefix, or greater than zero if the word comes after
+	 *         the prefix.
+	 */
+	static int comparePrefix(final String word, final CharSequence prefix) {
+		final int prefixLength = prefix.length();
+		final int wordLength = word.length();
+		for (int index = 0; index < prefixLength; index++) {
+			if (index == wordLength) {
+				// The word is shorter than the prefix, so it comes first.
+				return -1;
+			}
+			final int difference = word.charAt(index) - prefix.charAt(index);
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,252 @@
+package uk.me.ruthmills.wordsquare.letters;
+
+/**
+ * Array implementation of available letters. The count of each letter from 'a'
+ * to 'z' is held in a primitive int array, and the total count is cached, so
+ * there is no boxing, and checking if a word can be formed does not allocate
+ * anything. This is significantly faster than the Hash Map implementation, but
+ * it only supports the lower-case letters 'a' to 'z' (which is all the
+ * dictionary contains).
+ * 
+ * The letters can also be changed in place (see Mutable Available Letters),
+ * which does not allocate anything either.
+ * 
+ * @author ruth
+ */
+public class ArrayAvailableLetters implements MutableAvailableLetters {
+
+	// The number of letters in the alphabet.
+	private static final int ALPHABET_SIZE = 26;
+
+	// The count of each letter, indexed from 'a'.
+	private final int[] counts;
+
+	// The total count of available letters.
+	private int count;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param letters String containing the available letters. This MUST contain
+	 *                only the letters 'a' to 'z' (see isSupported()).
+	 */
+	public ArrayAvailableLetters(final String letters) {
+		if (!isSupported(letters)) {
+			throw new IllegalArgumentException("Letters must be from 'a' to 'z': " + letters);
+		}
+		counts = new int[ALPHABET_SIZE];
+		for (int index = 0; index < letters.length(); index++) {
+			counts[letters.charAt(index) - 'a']++;
+		}
+		count = letters.length();
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param counts The count of each letter, indexed from 'a'.
+	 * @param count  The total count of the letters.
+	 */
+	private ArrayAvailableLetters(final int[] counts, final int count) {
+		this.counts = counts;
+		this.count = count;
+	}
+
+	/**
+	 * Check if this implementation supports the supplied letters.
+	 * 
+	 * @param letters String containing the letters.
+	 * @return true if the letters are all from 'a' to 'z', or false if not.
+	 */
+	public static boolean isSupported(final String letters) {
+		for (int index = 0; index < letters.length(); index++) {
+			if (!isSupported(letters.charAt(index))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check if this implementation supports the supplied letter.
+	 * 
+	 * @param letter The letter.
+	 * @return true if the letter is from 'a' to 'z', or false if not.
+	 */
+	private static boolean isSupported(final char letter) {
+		return letter >= 'a' && letter <= 'z';
+	}
+
+	/**
+	 * Convert to a String.
+	 * 
+	 * @return String containing the available letters.
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder letters = new StringBuilder(count);
+		for (int index = 0; index < ALPHABET_SIZE; index++) {
+			for (int letter = 0; letter < counts[index]; letter++) {
+				letters.append((char) ('a' + index));
+			}
+		}
+		return letters.toString();
+	}
+
+	/**
+	 * Check if a word can be formed from the available letters.
+	 * 
+	 * @param word The word to check.
+	 * @return true if the word can be formed from the available letters, or false
+	 *         if not.
+	 */
+	@Override
+	public boolean isWordFormable(final String word) {
+		return isWordFormable(word, 0);
+	}
+
+	/**
+	 * Check if the end of a word can be formed from the available letters.
+	 * 
+	 * @param word       The word to check.
+	 * @param beginIndex The index of the first letter of the word to check.
+	 * @return true if the letters from beginIndex onwards can be formed from the
+	 *         available letters, or false if not.
+	 */
+	@Override
+	public boolean isWordFormable(final String word, final int beginIndex) {
+		final int wordLength = word.length();
+		if (wordLength - beginIndex > count) {
+			return false;
+		}
+
+		// Rather than copying the counts and decrementing them, count how many times
+		// each letter has been used so far in the word. Words are short, so this is
+		// cheaper than allocating, and it leaves this object untouched.
+		for (int index = beginIndex; index < wordLength; index++) {
+			final char letter = word.charAt(index);
+			if (!isSupported(letter)) {
+				return false;
+			}
+			int needed = 1;
+			for (int previous = beginIndex; previous < index; previous++) {
+				if (word.charAt(previous) == letter) {
+					needed++;
+				}
+			}
+			if (needed > counts[letter - 'a']) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check if a single letter is available.
+	 * 
+	 * @param letter The letter to check.
+	 * @return true if at least one of the letter is available, or false if not.
+	 */
+	@Override
+	public boolean isLetterAvailable(final char letter) {
+		return isSupported(letter) && counts[letter - 'a'] > 0;
+	}
+
+	/**
+	 * Get the remaining letters, after removing the letters for the supplied word
+	 * from the available letters.
+	 * 
+	 * @param word The word to remove the letters from.
+	 * @return The remaining letters.
+	 * @throws IllegalArgumentException Thrown if the word cannot be formed from
+	 *                                  the available letters (see
+	 *                                  isWordFormable()).
+	 */
+	@Override
+	public AvailableLetters getRemainingLetters(final String word) {
+		final int[] remainingCounts = counts.clone();
+		for (int index = 0; index < word.length(); index++) {
+			final char letter = word.charAt(index);
+			if (!isSupported(letter) || remainingCounts[letter - 'a'] == 0) {
+				throw new IllegalArgumentException("Word cannot be formed from the available letters: " + word);
+			}
+			remainingCounts[letter - 'a']--;
+		}
+		return new ArrayAvailableLetters(remainingCounts, count - word.length());
+	}
+
+	/**
+	 * Get the count of available letters.
+	 * 
+	 * @return The count of available letters.
+	 */
+	@Override
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the number of different letters which are available an odd number of
+	 * times.
+	 * 
+	 * @return The number of letters with an odd count.
+	 */
+	@Override
+	public int getOddLetterCount() {
+		int oddLetterCount = 0;
+		for (int index = 0; index < ALPHABET_SIZE; index++) {
+			oddLetterCount += counts[index] & 1;
+		}
+		return oddLetterCount;
+	}
+
+	/**
+	 * Remove the supplied letters from the available letters, but only if they are
+	 * all available.
+	 * 
+	 * @param letters The letters to remove (e.g. a word).
+	 * @return true if the letters were all available, and have been removed, or
+	 *         false if not (in which case the available letters are unchanged).
+	 */
+	@Override
+	public boolean consume(final CharSequence letters) {
+		final int length = letters.length();
+		for (int index = 0; index < length; index++) {
+			final char letter = letters.charAt(index);
+			if (!isSupported(letter) || counts[letter - 'a'] == 0) {
+				// Not available - put back the letters we have already removed.
+				for (int previous = 0; previous < index; previous++) {
+					counts[letters.charAt(previous) - 'a']++;
+				}
+				return false;
+			}
+			counts[letter - 'a']--;
+		}
+		count -= length;
+		return true;
+	}
+
+	/**
+	 * Put back letters previously removed by consume().
+	 * 
+	 * @param letters The letters to put back.
+	 */
+	@Override
+	public void restore(final CharSequence letters) {
+		final int length = letters.length();
+		for (int index = 0; index < length; index++) {
+			counts[letters.charAt(index) - 'a']++;
+		}
+		count += length;
+	}
+
+	/**
+	 * Get an independent copy of the available letters.
+	 * 
+	 * @return A copy of the available letters.
+	 */
+	@Override
+	public MutableAvailableLetters copy() {
+		return new ArrayAvailableLetters(counts.clone(), count);
+	}
+}
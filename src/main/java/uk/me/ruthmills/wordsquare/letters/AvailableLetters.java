@@ -18,6 +18,29 @@ public interface AvailableLetters {
 	 */
 	public boolean isWordFormable(final String word);
 
+	/**
+	 * Check if the end of a word can be formed from the available letters. This is
+	 * used when the beginning of the word is already in place in the word square.
+	 * 
+	 * @param word       The word to check.
+	 * @param beginIndex The index of the first letter of the word to check.
+	 * @return true if the letters from beginIndex onwards can be formed from the
+	 *         available letters, or false if not.
+	 */
+	public default boolean isWordFormable(final String word, final int beginIndex) {
+		return isWordFormable(word.substring(beginIndex));
+	}
+
+	/**
+	 * Check if a single letter is available.
+	 * 
+	 * @param letter The letter to check.
+	 * @return true if at least one of the letter is available, or false if not.
+	 */
+	public default boolean isLetterAvailable(final char letter) {
+		return isWordFormable(String.valueOf(letter));
+	}
+
 	/**
 	 * Get the remaining letters, after removing the letters for the supplied word
 	 * from the available letters.
@@ -33,4 +56,12 @@ public interface AvailableLetters {
 	 * @return The count of available letters.
 	 */
 	public int getCount();
+
+	/**
+	 * Get the number of different letters which are available an odd number of
+	 * times.
+	 * 
+	 * @return The number of letters with an odd count.
+	 */
+	public int getOddLetterCount();
 }
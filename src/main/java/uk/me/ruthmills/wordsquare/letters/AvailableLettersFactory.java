@@ -17,6 +17,25 @@ public class AvailableLettersFactory {
 	 * @return Instance of the preferred implementation of Available Letters.
 	 */
 	public static AvailableLetters getInstance(final String letters) {
+		// The array implementation is the fastest, but it only supports the letters
+		// 'a' to 'z'. Fall back to the Hash Map implementation for anything else.
+		if (ArrayAvailableLetters.isSupported(letters)) {
+			return new ArrayAvailableLetters(letters);
+		}
+		return new HashMapAvailableLetters(letters);
+	}
+
+	/**
+	 * Get an instance of Available Letters which can be changed in place.
+	 * 
+	 * @param letters String containing the available letters.
+	 * @return Instance of the preferred implementation of Mutable Available
+	 *         Letters.
+	 */
+	public static MutableAvailableLetters getMutableInstance(final String letters) {
+		if (ArrayAvailableLetters.isSupported(letters)) {
+			return new ArrayAvailableLetters(letters);
+		}
 		return new HashMapAvailableLetters(letters);
 	}
 }
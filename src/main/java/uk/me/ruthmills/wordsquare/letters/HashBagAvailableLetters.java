@@ -104,4 +104,16 @@ public class HashBagAvailableLetters implements AvailableLetters {
 	public int getCount() {
 		return availableLetters.size();
 	}
+
+	/**
+	 * Get the number of different letters which are available an odd number of
+	 * times.
+	 * 
+	 * @return The number of letters with an odd count.
+	 */
+	@Override
+	public int getOddLetterCount() {
+		return (int) availableLetters.uniqueSet().stream().filter(letter -> availableLetters.getCount(letter) % 2 != 0)
+				.count();
+	}
 }
@@ -12,7 +12,7 @@ import org.apache.commons.lang3.StringUtils;
  * 
  * @author ruth
  */
-public class HashMapAvailableLetters implements AvailableLetters {
+public class HashMapAvailableLetters implements MutableAvailableLetters {
 
 	// The available letters.
 	private final Map<Byte, Integer> availableLetters;
@@ -125,4 +125,62 @@ public class HashMapAvailableLetters implements AvailableLetters {
 		return availableLetters.entrySet().stream().map(entry -> entry.getValue())
 				.collect(Collectors.summingInt(Integer::intValue));
 	}
+
+	/**
+	 * Get the number of different letters which are available an odd number of
+	 * times.
+	 * 
+	 * @return The number of letters with an odd count.
+	 */
+	@Override
+	public int getOddLetterCount() {
+		return (int) availableLetters.values().stream().filter(count -> count % 2 != 0).count();
+	}
+
+	/**
+	 * Remove the supplied letters from the available letters, but only if they are
+	 * all available.
+	 * 
+	 * @param letters The letters to remove (e.g. a word).
+	 * @return true if the letters were all available, and have been removed, or
+	 *         false if not (in which case the available letters are unchanged).
+	 */
+	@Override
+	public boolean consume(final CharSequence letters) {
+		final String word = letters.toString();
+		if (!isWordFormable(word)) {
+			return false;
+		}
+		for (final Byte letter : word.getBytes()) {
+			final Integer count = availableLetters.get(letter);
+			if (count > 1) {
+				availableLetters.put(letter, count - 1);
+			} else {
+				availableLetters.remove(letter);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Put back letters previously removed by consume().
+	 * 
+	 * @param letters The letters to put back.
+	 */
+	@Override
+	public void restore(final CharSequence letters) {
+		for (final Byte letter : letters.toString().getBytes()) {
+			availableLetters.merge(letter, 1, Integer::sum);
+		}
+	}
+
+	/**
+	 * Get an independent copy of the available letters.
+	 * 
+	 * @return A copy of the available letters.
+	 */
+	@Override
+	public MutableAvailableLetters copy() {
+		return new HashMapAvailableLetters(new HashMap<Byte, Integer>(availableLetters));
+	}
 }
@@ -0,0 +1,38 @@
+package uk.me.ruthmills.wordsquare.letters;
+
+/**
+ * Interface representing available letters which can be changed in place. This
+ * lets us backtrack through the search by removing the letters of each word as
+ * we place it, and putting them back when we take it away again, rather than
+ * creating new remaining letters at every step.
+ * 
+ * Implementations are NOT thread-safe. Each thread should work on its own copy.
+ * 
+ * @author ruth
+ */
+public interface MutableAvailableLetters extends AvailableLetters {
+
+	/**
+	 * Remove the supplied letters from the available letters, but only if they are
+	 * all available.
+	 * 
+	 * @param letters The letters to remove (e.g. a word).
+	 * @return true if the letters were all available, and have been removed, or
+	 *         false if not (in which case the available letters are unchanged).
+	 */
+	public boolean consume(final CharSequence letters);
+
+	/**
+	 * Put back letters previously removed by consume().
+	 * 
+	 * @param letters The letters to put back.
+	 */
+	public void restore(final CharSequence letters);
+
+	/**
+	 * Get an independent copy of the available letters.
+	 * 
+	 * @return A copy of the available letters.
+	 */
+	public MutableAvailableLetters copy();
+}
@@ -0,0 +1,45 @@
+package uk.me.ruthmills.wordsquare.predicate;
+
+import java.util.function.Predicate;
+
+import uk.me.ruthmills.wordsquare.letters.AvailableLetters;
+
+/**
+ * Predicate class to check if a set of letters could possibly fill an n*n word
+ * square. A valid word square is symmetric about its diagonal, so every letter
+ * off the diagonal appears an even number of times. The letters must therefore
+ * total exactly n*n, and no more than n of them (one for each square on the
+ * diagonal) can have an odd count.
+ * 
+ * This is only a necessary condition - the letters may still not make a word
+ * square - but it is cheap to check, so we can reject impossible letters
+ * without searching for a solution.
+ * 
+ * @author ruth
+ */
+public class LetterParityPredicate implements Predicate<AvailableLetters> {
+
+	// Length of each side of the word square.
+	private final int length;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param length Length of each side of the word square.
+	 */
+	public LetterParityPredicate(final int length) {
+		this.length = length;
+	}
+
+	/**
+	 * Check if the letters could possibly fill the word square.
+	 * 
+	 * @param letters The letters to check.
+	 * @return true if the letters total exactly n*n, with no more than n letters
+	 *         having an odd count, or false if not.
+	 */
+	@Override
+	public boolean test(final AvailableLetters letters) {
+		return letters.getCount() == length * length && letters.getOddLetterCount() <= length;
+	}
+}
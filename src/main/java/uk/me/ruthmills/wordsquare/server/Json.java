@@ -0,0 +1,127 @@
+package uk.me.ruthmills.wordsquare.server;
+
+import java.util.List;
+
+import uk.me.ruthmills.wordsquare.solution.SearchResult;
+import uk.me.ruthmills.wordsquare.solution.WordSquare;
+
+/**
+ * Writes the JSON the server sends back. The responses only ever hold strings,
+ * numbers and lists of words, so we write them by hand rather than pulling in a
+ * JSON library.
+ * 
+ * @author ruth
+ */
+class Json {
+
+	/**
+	 * Get the JSON for the result of a search.
+	 * 
+	 * @param length  Number of letters in each word.
+	 * @param letters Available letters the word squares were made from.
+	 * @param result  The result of the search.
+	 * @return JSON object with the length, letters, status of the search, and the
+	 *         word squares, each as a list of its words.
+	 */
+	static String searchResult(final int length, final String letters, final SearchResult result) {
+		final StringBuilder json = new StringBuilder();
+		json.append("{\"length\":").append(length);
+		json.append(",\"letters\":").append(quote(letters));
+		json.append(",\"status\":").append(quote(result.getStatus().name()));
+		json.append(",\"wordSquares\":[");
+		final List<WordSquare> wordSquares = result.getWordSquares();
+		for (int index = 0; index < wordSquares.size(); index++) {
+			if (index > 0) {
+				json.append(',');
+			}
+			json.append('[');
+			final List<String> words = wordSquares.get(index).getWords();
+			for (int wordIndex = 0; wordIndex < words.size(); wordIndex++) {
+				if (wordIndex > 0) {
+					json.append(',');
+				}
+				json.append(quote(words.get(wordIndex)));
+			}
+			json.append(']');
+		}
+		return json.append("]}").toString();
+	}
+
+	/**
+	 * Get the JSON for the result of a search, tagged with the number of the line
+	 * the puzzle was read from.
+	 * 
+	 * @param lineNumber The number of the line, from 1.
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters the word squares were made from.
+	 * @param result     The result of the search.
+	 * @return JSON object with the line number, followed by the same fields as
+	 *         searchResult().
+	 */
+	static String lineResult(final long lineNumber, final int length, final String letters,
+			final SearchResult result) {
+		return "{\"line\":" + lineNumber + "," + searchResult(length, letters, result).substring(1);
+	}
+
+	/**
+	 * Get the JSON for an error, tagged with the number of the line the puzzle was
+	 * read from.
+	 * 
+	 * @param lineNumber The number of the line, from 1.
+	 * @param message    The error message.
+	 * @return JSON object with the line number and error message.
+	 */
+	static String lineError(final long lineNumber, final String message) {
+		return "{\"line\":" + lineNumber + ",\"error\":" + quote(message) + "}";
+	}
+
+	/**
+	 * Get the JSON for an error.
+	 * 
+	 * @param message The error message.
+	 * @return JSON object with the error message.
+	 */
+	static String error(final String message) {
+		return "{\"error\":" + quote(message) + "}";
+	}
+
+	/**
+	 * Quote a string, escaping any characters JSON does not allow in a string.
+	 * 
+	 * @param string The string, or null.
+	 * @return The quoted string, or null.
+	 */
+	static String quote(final String string) {
+		if (string == null) {
+			return "null";
+		}
+		final StringBuilder quoted = new StringBuilder(string.length() + 2).append('"');
+		for (int index = 0; index < string.length(); index++) {
+			final char character = string.charAt(index);
+			switch (character) {
+			case '"':
+				quoted.append("\\\"");
+				break;
+			case '\\':
+				quoted.append("\\\\");
+				break;
+			case '\n':
+				quoted.append("\\n");
+				break;
+			case '\r':
+				quoted.append("\\r");
+				break;
+			case '\t':
+				quoted.append("\\t");
+				break;
+			default:
+				if (character < 0x20) {
+					quoted.append(String.format("\\u%04x", (int) character));
+				} else {
+					quoted.append(character);
+				}
+			}
+		}
+		return quoted.append('"').toString();
+	}
+}
@@ -0,0 +1,226 @@
+package uk.me.ruthmills.wordsquare.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import uk.me.ruthmills.wordsquare.dictionary.Dictionary;
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.solution.ResultCache;
+import uk.me.ruthmills.wordsquare.solution.ResultStore;
+import uk.me.ruthmills.wordsquare.solution.SearchOptions;
+import uk.me.ruthmills.wordsquare.solution.SearchResult;
+import uk.me.ruthmills.wordsquare.solution.SearchStatistics;
+import uk.me.ruthmills.wordsquare.solution.WordSquareGenerator;
+
+/**
+ * Solves a stream of word squares, read one per line, and writes the results
+ * as newline-delimited JSON, so that a batch job can pipe any number of
+ * puzzles through one JVM with the dictionary kept warm. Each input line is:
+ * 
+ * <pre>
+ * &lt;length&gt; &lt;letters&gt; [all]
+ * </pre>
+ * 
+ * and each output line is the same JSON the server returns, tagged with the
+ * number of the input line (from 1):
+ * 
+ * <pre>
+ * {"line":1,"length":3,"letters":"ddggoooox","status":"FINISHED","wordSquares":[["dog","oxo","god"]]}
+ * {"line":2,"error":"Length must be an integer: x"}
+ * </pre>
+ * 
+ * As on the command line, only the first word square is found, unless the
+ * line ends with "all". Blank lines are skipped. The puzzles are solved on a
+ * fixed number of threads, and each result is written as soon as it is ready,
+ * so the results may be in a different order from the input: one slow puzzle
+ * does not hold up the ones after it. Only a few puzzles per thread are read
+ * ahead of the ones being solved, so the input can be any size. The output is
+ * buffered, and flushed whenever there are no puzzles left to solve. The word
+ * squares found are kept in a result cache, so a puzzle which comes up again
+ * (with its letters in any order) is answered without searching. If a result
+ * store is given, all the word squares found are kept there too, so they are
+ * not searched for again even by a later run.
+ * 
+ * @author ruth
+ */
+public class StreamSolver {
+
+	// The number of puzzles per thread which may be read ahead of the ones being
+	// solved.
+	private static final int PENDING_PER_THREAD = 4;
+
+	// The number of threads to solve on.
+	private final int threads;
+
+	// The cache of the word squares found.
+	private final ResultCache resultCache = new ResultCache(ResultCache.DEFAULT_MAX_ENTRIES,
+			ResultCache.DEFAULT_MAX_BYTES);
+
+	// The store of the word squares found, or null for no store.
+	private final ResultStore resultStore;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param threads The number of threads to solve on. This must be at least 1.
+	 */
+	public StreamSolver(final int threads) {
+		this(threads, null);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param threads     The number of threads to solve on. This must be at least
+	 *                    1.
+	 * @param resultStore The store to look in before searching, and add to after,
+	 *                    or null for no store. This is not closed by the stream
+	 *                    solver.
+	 */
+	public StreamSolver(final int threads, final ResultStore resultStore) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be at least 1: " + threads);
+		}
+		this.threads = threads;
+		this.resultStore = resultStore;
+	}
+
+	/**
+	 * Get the cache of the word squares found.
+	 * 
+	 * @return The result cache.
+	 */
+	ResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Solve each puzzle read from the input, and write the results to the output,
+	 * until the end of the input. If we cannot write to the output, we stop
+	 * reading, and throw the exception once the puzzles already read are done.
+	 * 
+	 * @param input  The input to read the puzzles from.
+	 * @param output The output to write the results to. This should be buffered.
+	 * @throws IOException Thrown if we cannot read from the dictionary file or the
+	 *                     input, or write to the output.
+	 */
+	public void solve(final BufferedReader input, final Writer output) throws IOException {
+		// Load the dictionary before reading any puzzles.
+		Dictionary.getIndex();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final int maxPending = threads * PENDING_PER_THREAD;
+		final Semaphore pending = new Semaphore(maxPending);
+		final AtomicReference<IOException> outputException = new AtomicReference<>();
+		try {
+			// Read each line, waiting for room if too many puzzles are pending, until we
+			// run out of lines or can no longer write to the output.
+			long lineNumber = 0;
+			for (String line = input.readLine(); line != null; line = input.readLine()) {
+				lineNumber++;
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				pending.acquireUninterruptibly();
+				if (outputException.get() != null) {
+					pending.release();
+					break;
+				}
+				final long solveLineNumber = lineNumber;
+				final String solveLine = line;
+				executor.execute(() -> {
+					try {
+						write(output, solve(solveLineNumber, solveLine));
+					} catch (IOException ex) {
+						outputException.compareAndSet(null, ex);
+					} finally {
+						pending.release();
+					}
+
+					// If there are no puzzles left to solve, flush while we wait for more.
+					if (pending.availablePermits() == maxPending) {
+						try {
+							flush(output);
+						} catch (IOException ex) {
+							outputException.compareAndSet(null, ex);
+						}
+					}
+				});
+			}
+
+			// Wait for the rest of the puzzles, and flush their results.
+			pending.acquireUninterruptibly(maxPending);
+			if (outputException.get() != null) {
+				throw outputException.get();
+			}
+			flush(output);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Solve the puzzle on a line.
+	 * 
+	 * @param lineNumber The number of the line, from 1.
+	 * @param line       The line.
+	 * @return The JSON for the result, or for the error if the line is not valid.
+	 */
+	String solve(final long lineNumber, final String line) {
+		final String[] fields = line.trim().split("\\s+");
+		if (fields.length < 2 || fields.length > 3 || (fields.length == 3 && !"all".equals(fields[2]))) {
+			return Json.lineError(lineNumber, "Expected: <length> <letters> [all]");
+		}
+		final int length;
+		try {
+			length = Integer.parseInt(fields[0]);
+		} catch (NumberFormatException ex) {
+			return Json.lineError(lineNumber, "Length must be an integer: " + fields[0]);
+		}
+		try {
+			if (length < 1 || length > Dictionary.getIndex().getMaxLength()) {
+				return Json.lineError(lineNumber,
+						"Length must be from 1 to " + Dictionary.getIndex().getMaxLength() + ": " + length);
+			}
+			final SearchResult result = WordSquareGenerator.searchWordSquares(length, fields[1],
+					new SearchOptions().setFirstMatchOnly(fields.length == 2).setResultCache(resultCache)
+							.setResultStore(resultStore),
+					new SearchStatistics());
+			return Json.lineResult(lineNumber, length, fields[1], result);
+		} catch (InvalidWordSquareException | IOException | RuntimeException ex) {
+			return Json.lineError(lineNumber, ex.toString());
+		}
+	}
+
+	/**
+	 * Write a line of JSON to the output. Each line is written whole, so lines
+	 * from different threads are never mixed up.
+	 * 
+	 * @param output The output.
+	 * @param json   The JSON.
+	 * @throws IOException Thrown if we cannot write to the output.
+	 */
+	private static void write(final Writer output, final String json) throws IOException {
+		synchronized (output) {
+			output.write(json);
+			output.write('\n');
+		}
+	}
+
+	/**
+	 * Flush the output.
+	 * 
+	 * @param output The output.
+	 * @throws IOException Thrown if we cannot write to the output.
+	 */
+	private static void flush(final Writer output) throws IOException {
+		synchronized (output) {
+			output.flush();
+		}
+	}
+}
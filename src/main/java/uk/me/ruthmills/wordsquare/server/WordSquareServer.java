@@ -0,0 +1,493 @@
+package uk.me.ruthmills.wordsquare.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import uk.me.ruthmills.wordsquare.dictionary.Dictionary;
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.solution.ResultCache;
+import uk.me.ruthmills.wordsquare.solution.ResultStore;
+import uk.me.ruthmills.wordsquare.solution.SearchOptions;
+import uk.me.ruthmills.wordsquare.solution.SearchResult;
+import uk.me.ruthmills.wordsquare.solution.SearchStatistics;
+import uk.me.ruthmills.wordsquare.solution.SolverMetrics;
+import uk.me.ruthmills.wordsquare.solution.WordSquareGenerator;
+
+/**
+ * Long-lived HTTP server for solving word squares, so that the dictionary is
+ * loaded once, rather than by a new JVM for every word square. It uses the
+ * HTTP server built into the JDK, and answers in JSON:
+ * 
+ * <pre>
+ * GET /solve?length=&lt;length&gt;&amp;letters=&lt;letters&gt;[&amp;all=true][&amp;timeoutMillis=&lt;millis&gt;]
+ *     {"length":4,"letters":"...","status":"FINISHED","wordSquares":[["rose","oven","send","ends"]]}
+ * GET /health
+ *     {"status":"UP","activeSolves":0,"queuedSolves":0}
+ * </pre>
+ * 
+ * By default only the first word square is returned, as on the command line;
+ * all=true returns all of them. Each solve has a deadline, counted from when
+ * the request came in, of the timeout asked for or the server's maximum
+ * timeout, whichever is less. If the deadline is reached, the status is
+ * DEADLINE_REACHED and the word squares are the ones found before then.
+ * 
+ * The solves are carried out on a fixed number of threads, with a limit on the
+ * number of solves waiting for a thread. Once that limit is reached, further
+ * solves are turned away with 503 (Service Unavailable), so a load balancer
+ * can send them elsewhere. Requests are read, and the health endpoint
+ * answered, on the server's own thread, so it stays responsive however busy
+ * the solver threads are. The word squares found are kept in a result cache,
+ * so a puzzle asked for again (with its letters in any order) is answered
+ * without searching. If a result store is given, all the word squares found
+ * are kept there too, so they are not searched for again even after a
+ * restart.
+ * 
+ * @author ruth
+ */
+public class WordSquareServer implements Closeable {
+
+	// HTTP status codes.
+	private static final int OK = 200;
+	private static final int BAD_REQUEST = 400;
+	private static final int NOT_FOUND = 404;
+	private static final int METHOD_NOT_ALLOWED = 405;
+	private static final int INTERNAL_SERVER_ERROR = 500;
+	private static final int SERVICE_UNAVAILABLE = 503;
+
+	// The error for solves turned away because the server is stopping.
+	private static final String SHUTTING_DOWN = "Server is shutting down";
+
+	// The HTTP server.
+	private final HttpServer httpServer;
+
+	// The threads the solves are carried out on.
+	private final ThreadPoolExecutor solverExecutor;
+
+	// The longest a solve may take.
+	private final Duration maxTimeout;
+
+	// The cache of the word squares found.
+	private final ResultCache resultCache = new ResultCache(ResultCache.DEFAULT_MAX_ENTRIES,
+			ResultCache.DEFAULT_MAX_BYTES);
+
+	// The store of the word squares found, or null for no store.
+	private final ResultStore resultStore;
+
+	/**
+	 * Constructor. Loads the dictionary, and binds the server to its address, but
+	 * does not start it.
+	 * 
+	 * @param address    The address to listen on. Port 0 picks any free port.
+	 * @param threads    The number of threads to carry out solves on. This must be
+	 *                   at least 1.
+	 * @param queueLimit The maximum number of solves waiting for a thread. This
+	 *                   must not be negative.
+	 * @param maxTimeout The longest a solve may take. This must be positive.
+	 * @throws IOException Thrown if we cannot read from the dictionary file, or
+	 *                     bind to the address.
+	 */
+	public WordSquareServer(final InetSocketAddress address, final int threads, final int queueLimit,
+			final Duration maxTimeout) throws IOException {
+		this(address, threads, queueLimit, maxTimeout, null);
+	}
+
+	/**
+	 * Constructor. Loads the dictionary, and binds the server to its address, but
+	 * does not start it.
+	 * 
+	 * @param address     The address to listen on. Port 0 picks any free port.
+	 * @param threads     The number of threads to carry out solves on. This must
+	 *                    be at least 1.
+	 * @param queueLimit  The maximum number of solves waiting for a thread. This
+	 *                    must not be negative.
+	 * @param maxTimeout  The longest a solve may take. This must be positive.
+	 * @param resultStore The store to look in before searching, and add to after,
+	 *                    or null for no store. This is not closed with the server.
+	 * @throws IOException Thrown if we cannot read from the dictionary file, or
+	 *                     bind to the address.
+	 */
+	public WordSquareServer(final InetSocketAddress address, final int threads, final int queueLimit,
+			final Duration maxTimeout, final ResultStore resultStore) throws IOException {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be at least 1: " + threads);
+		}
+		if (queueLimit < 0) {
+			throw new IllegalArgumentException("Queue limit must not be negative: " + queueLimit);
+		}
+		if (maxTimeout == null || maxTimeout.isZero() || maxTimeout.isNegative()) {
+			throw new IllegalArgumentException("Maximum timeout must be positive: " + maxTimeout);
+		}
+		this.maxTimeout = maxTimeout;
+		this.resultStore = resultStore;
+
+		// Load the dictionary now, rather than on the first request.
+		Dictionary.getIndex();
+
+		// Set up the solver threads, turning solves away once the queue is full.
+		final BlockingQueue<Runnable> queue = queueLimit == 0 ? new SynchronousQueue<>()
+				: new ArrayBlockingQueue<>(queueLimit);
+		this.solverExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue);
+
+		// Set up the server. With no executor, requests are handled on the server's
+		// own thread.
+		this.httpServer = HttpServer.create(address, 0);
+		httpServer.createContext("/solve", this::handleSolve);
+		httpServer.createContext("/health", this::handleHealth);
+		httpServer.createContext("/", exchange -> sendJson(exchange, NOT_FOUND, Json.error("Not found")));
+	}
+
+	/**
+	 * Main function. Starts the server, which runs until the JVM is stopped. If
+	 * the wordsquare.result.store system property is set, the word squares found
+	 * are kept in a result store in that directory.
+	 * 
+	 * @param args Arguments: &lt;port&gt; [&lt;threads&gt; [&lt;queue limit&gt;
+	 *             [&lt;max timeout millis&gt;]]]
+	 * @throws IOException Thrown if we cannot read from the dictionary file, or
+	 *                     bind to the port.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 1 || args.length > 4) {
+			// Output the required parameters.
+			System.out.println("Required parameters: <port> [<threads> [<queue limit> [<max timeout millis>]]]");
+		} else {
+			try {
+				// Get the settings from the parameters, defaulting to a thread for each
+				// processor, a queue of 100 solves, and a maximum timeout of a minute.
+				final int port = Integer.parseInt(args[0]);
+				final int threads = args.length > 1 ? Integer.parseInt(args[1])
+						: Runtime.getRuntime().availableProcessors();
+				final int queueLimit = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+				final Duration maxTimeout = args.length > 3 ? Duration.ofMillis(Long.parseLong(args[3]))
+						: Duration.ofMinutes(1);
+				final WordSquareServer server = new WordSquareServer(new InetSocketAddress(port), threads,
+						queueLimit, maxTimeout, ResultStore.openFromSystemProperty());
+				server.start();
+				System.out.println("Listening on port " + server.getPort());
+			} catch (NumberFormatException ex) {
+				System.out.println("Port, threads, queue limit and max timeout must be integers");
+			} catch (IllegalArgumentException ex) {
+				System.out.println(ex.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Start the server, and register the solver metrics with JMX, so that they
+	 * can be watched while it runs.
+	 */
+	public void start() {
+		SolverMetrics.register();
+		httpServer.start();
+	}
+
+	/**
+	 * Stop the server. Any more solves are turned away, and the solves still
+	 * waiting for a thread are answered with 503 (Service Unavailable), so their
+	 * clients can try elsewhere. The solves already running are left to finish,
+	 * which they do by their deadlines, and then the server is stopped at once.
+	 */
+	@Override
+	public void close() {
+		// Turn away any more solves, and answer the ones waiting for a thread.
+		solverExecutor.shutdown();
+		final List<Runnable> queuedSolves = new ArrayList<>();
+		solverExecutor.getQueue().drainTo(queuedSolves);
+		for (final Runnable queuedSolve : queuedSolves) {
+			if (queuedSolve instanceof Solve) {
+				((Solve) queuedSolve).turnAway();
+			}
+		}
+
+		// Wait for the solves which are running, and stop the server.
+		try {
+			solverExecutor.awaitTermination(maxTimeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		httpServer.stop(0);
+	}
+
+	/**
+	 * Get the port the server is listening on.
+	 * 
+	 * @return The port.
+	 */
+	public int getPort() {
+		return httpServer.getAddress().getPort();
+	}
+
+	/**
+	 * Get the threads the solves are carried out on.
+	 * 
+	 * @return The solver executor.
+	 */
+	ThreadPoolExecutor getSolverExecutor() {
+		return solverExecutor;
+	}
+
+	/**
+	 * Get the cache of the word squares found.
+	 * 
+	 * @return The result cache.
+	 */
+	ResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Handle a request to solve a word square. The request is checked on the
+	 * server's thread, and the solve queued for a solver thread, which sends the
+	 * response when it is done.
+	 * 
+	 * @param exchange The request and response.
+	 * @throws IOException Thrown if we cannot send the response.
+	 */
+	private void handleSolve(final HttpExchange exchange) throws IOException {
+		// The deadline counts from now, so time spent in the queue is included.
+		final Instant received = Instant.now();
+		if (!"GET".equals(exchange.getRequestMethod())) {
+			sendJson(exchange, METHOD_NOT_ALLOWED, Json.error("Method not allowed"));
+			return;
+		}
+
+		// Get the parameters of the solve.
+		final int length;
+		final String letters;
+		final boolean all;
+		final Duration timeout;
+		try {
+			final Map<String, String> parameters = getParameters(exchange.getRequestURI().getRawQuery());
+			length = getLength(parameters.get("length"));
+			letters = parameters.get("letters");
+			if (letters == null || letters.isEmpty()) {
+				throw new IllegalArgumentException("Letters are required");
+			}
+			all = Boolean.parseBoolean(parameters.get("all"));
+			timeout = getTimeout(parameters.get("timeoutMillis"));
+		} catch (IllegalArgumentException ex) {
+			sendJson(exchange, BAD_REQUEST, Json.error(ex.getMessage()));
+			return;
+		}
+
+		// Queue the solve, or turn it away if the queue is full.
+		final SearchOptions options = new SearchOptions().setFirstMatchOnly(!all)
+				.setDeadline(received.plus(timeout)).setResultCache(resultCache).setResultStore(resultStore);
+		try {
+			solverExecutor.execute(new Solve(exchange, length, letters, options));
+		} catch (RejectedExecutionException ex) {
+			sendJson(exchange, SERVICE_UNAVAILABLE,
+					Json.error(solverExecutor.isShutdown() ? SHUTTING_DOWN : "Too many solves waiting"));
+		}
+	}
+
+	/**
+	 * Handle a health check.
+	 * 
+	 * @param exchange The request and response.
+	 * @throws IOException Thrown if we cannot send the response.
+	 */
+	private void handleHealth(final HttpExchange exchange) throws IOException {
+		sendJson(exchange, OK, "{\"status\":\"UP\",\"activeSolves\":" + solverExecutor.getActiveCount()
+				+ ",\"queuedSolves\":" + solverExecutor.getQueue().size() + "}");
+	}
+
+	/**
+	 * Get the length of each word from its parameter.
+	 * 
+	 * @param value The value of the length parameter.
+	 * @return The length.
+	 * @throws IllegalArgumentException Thrown if the length is missing, not an
+	 *                                  integer, or longer than any word in the
+	 *                                  dictionary.
+	 */
+	private static int getLength(final String value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Length is required");
+		}
+		final int length;
+		try {
+			length = Integer.parseInt(value);
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("Length must be an integer: " + value);
+		}
+		try {
+			if (length < 1 || length > Dictionary.getIndex().getMaxLength()) {
+				throw new IllegalArgumentException("Length must be from 1 to "
+						+ Dictionary.getIndex().getMaxLength() + ": " + value);
+			}
+		} catch (IOException ex) {
+			// The dictionary was loaded when the server was set up, so this cannot happen.
+			throw new IllegalStateException(ex);
+		}
+		return length;
+	}
+
+	/**
+	 * Get the timeout of a solve from its parameter.
+	 * 
+	 * @param value The value of the timeoutMillis parameter, or null for the
+	 *              maximum timeout.
+	 * @return The timeout, which is at most the maximum timeout.
+	 * @throws IllegalArgumentException Thrown if the timeout is not a positive
+	 *                                  integer.
+	 */
+	private Duration getTimeout(final String value) {
+		if (value == null) {
+			return maxTimeout;
+		}
+		final long timeoutMillis;
+		try {
+			timeoutMillis = Long.parseLong(value);
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("Timeout must be an integer: " + value);
+		}
+		if (timeoutMillis < 1) {
+			throw new IllegalArgumentException("Timeout must be positive: " + value);
+		}
+		final Duration timeout = Duration.ofMillis(timeoutMillis);
+		return timeout.compareTo(maxTimeout) < 0 ? timeout : maxTimeout;
+	}
+
+	/**
+	 * Get the parameters from a query string.
+	 * 
+	 * @param query The raw query string, or null if there is none.
+	 * @return The decoded parameters. If a parameter is given more than once, the
+	 *         last value is used.
+	 */
+	static Map<String, String> getParameters(final String query) {
+		final Map<String, String> parameters = new HashMap<>();
+		if (query == null || query.isEmpty()) {
+			return parameters;
+		}
+		for (final String parameter : query.split("&")) {
+			final int equals = parameter.indexOf('=');
+			if (equals < 0) {
+				parameters.put(decode(parameter), "");
+			} else {
+				parameters.put(decode(parameter.substring(0, equals)), decode(parameter.substring(equals + 1)));
+			}
+		}
+		return parameters;
+	}
+
+	/**
+	 * Decode part of a query string.
+	 * 
+	 * @param value The encoded value.
+	 * @return The decoded value.
+	 */
+	private static String decode(final String value) {
+		try {
+			return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+		} catch (UnsupportedEncodingException ex) {
+			// UTF-8 is always supported.
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Send a JSON response, and close the exchange.
+	 * 
+	 * @param exchange The request and response.
+	 * @param status   The HTTP status code.
+	 * @param json     The JSON to send.
+	 * @throws IOException Thrown if we cannot send the response.
+	 */
+	private static void sendJson(final HttpExchange exchange, final int status, final String json)
+			throws IOException {
+		final byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream output = exchange.getResponseBody()) {
+			output.write(body);
+		}
+		exchange.close();
+	}
+
+	/**
+	 * A solve of a word square, waiting for or running on a solver thread.
+	 */
+	private static class Solve implements Runnable {
+
+		// The request and response.
+		private final HttpExchange exchange;
+
+		// Number of letters in each word.
+		private final int length;
+
+		// Available letters to create the words from.
+		private final String letters;
+
+		// The options controlling the search.
+		private final SearchOptions options;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param exchange The request and response.
+		 * @param length   Number of letters in each word.
+		 * @param letters  Available letters to create the words from.
+		 * @param options  The options controlling the search.
+		 */
+		private Solve(final HttpExchange exchange, final int length, final String letters,
+				final SearchOptions options) {
+			this.exchange = exchange;
+			this.length = length;
+			this.letters = letters;
+			this.options = options;
+		}
+
+		/**
+		 * Solve the word square, and send the result. This runs on a solver thread.
+		 */
+		@Override
+		public void run() {
+			try {
+				try {
+					final SearchResult result = WordSquareGenerator.searchWordSquares(length, letters, options,
+							new SearchStatistics());
+					sendJson(exchange, OK, Json.searchResult(length, letters, result));
+				} catch (InvalidWordSquareException | RuntimeException ex) {
+					sendJson(exchange, INTERNAL_SERVER_ERROR, Json.error(ex.toString()));
+				}
+			} catch (IOException ex) {
+				// The client has gone away, so there is no one to tell.
+				exchange.close();
+			}
+		}
+
+		/**
+		 * Turn the solve away, as the server is stopping before it got a thread.
+		 */
+		private void turnAway() {
+			try {
+				sendJson(exchange, SERVICE_UNAVAILABLE, Json.error(SHUTTING_DOWN));
+			} catch (IOException ex) {
+				// The client has gone away, so there is no one to tell.
+				exchange.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.letters.AvailableLetters;
+import uk.me.ruthmills.wordsquare.letters.AvailableLettersFactory;
+import uk.me.ruthmills.wordsquare.predicate.LetterParityPredicate;
+
+/**
+ * This class generates valid word squares for a batch of puzzles at once.
+ * 
+ * The puzzles are grouped by length, and the words of each length are put in a
+ * Word Length Bucket only once, with the mask of the letters used by each word
+ * worked out up front. Each puzzle's word shortlist is then built from the
+ * bucket for its length. The puzzles are searched on a fixed number of
+ * threads, each puzzle on one thread, and the results are returned in the same
+ * order as the puzzles.
+ * 
+ * @author ruth
+ */
+public class BatchWordSquareGenerator {
+
+	/**
+	 * Get valid word square combinations for each puzzle in the batch, with a
+	 * thread for each processor.
+	 * 
+	 * @param queries    The puzzles to solve.
+	 * @param options    The options controlling the search of each puzzle.
+	 * @param statistics The statistics to update during the searches.
+	 * @return The word squares for each puzzle, in the same order as the puzzles.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public static List<List<WordSquare>> getValidWordSquares(final List<WordSquareQuery> queries,
+			final SearchOptions options, final SearchStatistics statistics)
+			throws InvalidWordSquareException, IOException {
+		return getValidWordSquares(queries, options, statistics, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Get valid word square combinations for each puzzle in the batch.
+	 * 
+	 * @param queries    The puzzles to solve.
+	 * @param options    The options controlling the search of each puzzle.
+	 * @param statistics The statistics to update during the searches.
+	 * @param threads    The number of threads to search on.
+	 * @return The word squares for each puzzle, in the same order as the puzzles.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public static List<List<WordSquare>> getValidWordSquares(final List<WordSquareQuery> queries,
+			final SearchOptions options, final SearchStatistics statistics, final int threads)
+			throws InvalidWordSquareException, IOException {
+		final List<List<WordSquare>> wordSquares = new ArrayList<>(queries.size());
+		for (final SearchResult result : searchWordSquares(queries, options, statistics, threads)) {
+			wordSquares.add(result.getWordSquares());
+		}
+		return wordSquares;
+	}
+
+	/**
+	 * Search for valid word square combinations for each puzzle in the batch.
+	 * 
+	 * @param queries    The puzzles to solve.
+	 * @param options    The options controlling the search of each puzzle. Any
+	 *                   deadline or maximum number of nodes applies to each puzzle
+	 *                   separately. The parallel flag is ignored, as each puzzle
+	 *                   is searched on one thread, and there must be no
+	 *                   checkpoint file, as the puzzles would all write to it.
+	 * @param statistics The statistics to update during the searches.
+	 * @param threads    The number of threads to search on.
+	 * @return The word squares and search status for each puzzle, in the same
+	 *         order as the puzzles.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 * @throws IllegalArgumentException   Thrown if the number of threads is less
+	 *                                    than 1, or there is a checkpoint file.
+	 */
+	public static List<SearchResult> searchWordSquares(final List<WordSquareQuery> queries,
+			final SearchOptions options, final SearchStatistics statistics, final int threads)
+			throws InvalidWordSquareException, IOException {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be at least 1");
+		}
+		if (options.getCheckpointFile() != null) {
+			throw new IllegalArgumentException("A batch of searches cannot write checkpoints");
+		}
+
+		// Put the words of each length in the batch in a bucket, only once.
+		final Map<Integer, WordLengthBucket> buckets = new HashMap<>();
+		for (final WordSquareQuery query : queries) {
+			if (!buckets.containsKey(query.getLength())) {
+				buckets.put(query.getLength(), new WordLengthBucket(query.getLength()));
+			}
+		}
+
+		// Search each puzzle on the pool, and wait for the results in order.
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<SearchResult>> futures = new ArrayList<>(queries.size());
+			for (final WordSquareQuery query : queries) {
+				final WordLengthBucket bucket = buckets.get(query.getLength());
+				futures.add(executor.submit(() -> searchWordSquares(query, bucket, options, statistics)));
+			}
+			final List<SearchResult> results = new ArrayList<>(queries.size());
+			for (final Future<SearchResult> future : futures) {
+				results.add(getResult(future));
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Search for valid word square combinations for one puzzle, on this thread.
+	 * 
+	 * @param query      The puzzle to solve.
+	 * @param bucket     The bucket of words of the puzzle's length.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @return The word squares, and the status saying whether the search finished.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 */
+	private static SearchResult searchWordSquares(final WordSquareQuery query, final WordLengthBucket bucket,
+			final SearchOptions options, final SearchStatistics statistics) throws InvalidWordSquareException {
+		// Reject any letters which could never fill the word square, before we even
+		// look at the bucket.
+		final AvailableLetters letters = AvailableLettersFactory.getInstance(query.getLetters());
+		if (!new LetterParityPredicate(query.getLength()).test(letters)) {
+			return new SearchResult(Collections.emptyList(), SearchStatus.FINISHED);
+		}
+
+		// Initialise the solution state from the bucket, and search the whole word
+		// shortlist.
+		final SolutionState solutionState = new SolutionState(query.getLength(), query.getLetters(),
+				bucket.getWordShortlist(letters, query.getLetters()), options, statistics, new StopSignal(), null);
+		return WordSquareGenerator.searchWordSquares(solutionState, Collections.emptyList());
+	}
+
+	/**
+	 * Wait for the result of a search, throwing on any exception the search threw.
+	 * 
+	 * @param future The future result of the search.
+	 * @return The result.
+	 * @throws InvalidWordSquareException Thrown if a word square the search was
+	 *                                    trying to add is invalid.
+	 * @throws IOException                Thrown if we were interrupted while
+	 *                                    waiting.
+	 */
+	private static SearchResult getResult(final Future<SearchResult> future)
+			throws InvalidWordSquareException, IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a batch of searches");
+		} catch (ExecutionException ex) {
+			final Throwable cause = ex.getCause();
+			if (cause instanceof InvalidWordSquareException) {
+				throw (InvalidWordSquareException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checkpoint of the progress of a search for word squares, so that it can be
+ * resumed later (e.g. after a deploy or a crash) rather than starting again.
+ * 
+ * The search is depth first, and always tries the words in shortlist order, so
+ * its progress is just the path of words down to the node it had reached: the
+ * first word from the shortlist, then the second word, and so on. Every word
+ * square which comes before that path has been found, and none of those from
+ * the path onwards. Resuming from the path, and adding the word squares found
+ * before it, gives the same word squares as a search which was never stopped.
+ * 
+ * The checkpoint file is plain text, one item per line:
+ * 
+ * <pre>
+ * length &lt;length&gt;
+ * letters &lt;letters&gt;
+ * finished &lt;true|false&gt;
+ * path &lt;word&gt; &lt;word&gt; ...
+ * square &lt;word&gt; &lt;word&gt; ...       one line for each word square found
+ * </pre>
+ * 
+ * @author ruth
+ */
+public class Checkpoint {
+
+	// The length of each word in the word square.
+	private final int length;
+
+	// The letters the word squares are made from.
+	private final String letters;
+
+	// Flag indicating if the search finished, in which case there is nothing left
+	// to resume.
+	private final boolean finished;
+
+	// The path of words down to the node the search had reached.
+	private final List<String> path;
+
+	// The word squares found before the path.
+	private final List<WordSquare> wordSquares;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param length      The length of each word in the word square.
+	 * @param letters     The letters the word squares are made from.
+	 * @param finished    true if the search finished, or false if not.
+	 * @param path        The path of words down to the node the search had reached
+	 *                    (empty if it finished).
+	 * @param wordSquares The word squares found before the path.
+	 */
+	public Checkpoint(final int length, final String letters, final boolean finished, final List<String> path,
+			final List<WordSquare> wordSquares) {
+		this.length = length;
+		this.letters = letters;
+		this.finished = finished;
+		this.path = path;
+		this.wordSquares = wordSquares;
+	}
+
+	/**
+	 * Get the length of each word in the word square.
+	 * 
+	 * @return The length of each word in the word square.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Get the letters the word squares are made from.
+	 * 
+	 * @return The letters.
+	 */
+	public String getLetters() {
+		return letters;
+	}
+
+	/**
+	 * Get the flag indicating if the search finished.
+	 * 
+	 * @return true if the search finished, or false if there is more to search.
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Get the path of words down to the node the search had reached.
+	 * 
+	 * @return The path.
+	 */
+	public List<String> getPath() {
+		return path;
+	}
+
+	/**
+	 * Get the word squares found before the path.
+	 * 
+	 * @return The word squares.
+	 */
+	public List<WordSquare> getWordSquares() {
+		return wordSquares;
+	}
+
+	/**
+	 * Write the checkpoint to a file. It is written to a temporary file first,
+	 * which then replaces the file, so that a crash part way through writing never
+	 * leaves us without a complete checkpoint.
+	 * 
+	 * @param file The checkpoint file.
+	 * @throws IOException Thrown if we cannot write the file.
+	 */
+	public void write(final Path file) throws IOException {
+		final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.US_ASCII)) {
+			writer.write("length " + length + "\n");
+			writer.write("letters " + letters + "\n");
+			writer.write("finished " + finished + "\n");
+			writer.write(join("path", path));
+			for (final WordSquare wordSquare : wordSquares) {
+				writer.write(join("square", wordSquare.getWords()));
+			}
+		}
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Read a checkpoint from a file.
+	 * 
+	 * @param file The checkpoint file.
+	 * @return The checkpoint.
+	 * @throws IOException Thrown if we cannot read the file, or it is not a valid
+	 *                     checkpoint.
+	 */
+	public static Checkpoint read(final Path file) throws IOException {
+		final List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+		if (lines.size() < 4) {
+			throw new IOException("Checkpoint file is incomplete: " + file);
+		}
+		try {
+			final int length = Integer.parseInt(getValue(lines.get(0), "length"));
+			final String letters = getValue(lines.get(1), "letters");
+			final boolean finished = Boolean.parseBoolean(getValue(lines.get(2), "finished"));
+			final List<String> path = split(getValue(lines.get(3), "path"));
+			final List<WordSquare> wordSquares = new ArrayList<>(lines.size() - 4);
+			for (final String line : lines.subList(4, lines.size())) {
+				wordSquares.add(new WordSquare(length, split(getValue(line, "square"))));
+			}
+			return new Checkpoint(length, letters, finished, path, wordSquares);
+		} catch (IllegalArgumentException ex) {
+			throw new IOException("Checkpoint file is not valid: " + file, ex);
+		}
+	}
+
+	/**
+	 * Join a list of words into a line, after its name.
+	 * 
+	 * @param name  The name of the line.
+	 * @param words The words.
+	 * @return The line, including the new line character.
+	 */
+	private static String join(final String name, final List<String> words) {
+		return words.isEmpty() ? name + "\n" : name + " " + String.join(" ", words) + "\n";
+	}
+
+	/**
+	 * Get the value from a line, after its name.
+	 * 
+	 * @param line The line.
+	 * @param name The name the line must start with.
+	 * @return The rest of the line after the name.
+	 * @throws IllegalArgumentException Thrown if the line does not start with the
+	 *                                  name.
+	 */
+	private static String getValue(final String line, final String name) {
+		if (line.equals(name)) {
+			return "";
+		}
+		if (!line.startsWith(name + " ")) {
+			throw new IllegalArgumentException("Expected " + name + ": " + line);
+		}
+		return line.substring(name.length() + 1);
+	}
+
+	/**
+	 * Split a value into its words.
+	 * 
+	 * @param value The value.
+	 * @return The words, or an empty list if there are none.
+	 */
+	private static List<String> split(final String value) {
+		return value.isEmpty() ? Collections.emptyList() : Arrays.asList(value.split(" "));
+	}
+}
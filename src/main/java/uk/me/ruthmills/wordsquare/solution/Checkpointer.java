@@ -0,0 +1,139 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes checkpoints of a search for word squares at set intervals, and once
+ * more when the search ends (see the Checkpoint). Looking at the clock at every
+ * node would cost more than the node itself, so it is only checked every so
+ * many nodes.
+ * 
+ * This is used by the search on one thread only, so it is NOT thread-safe.
+ * 
+ * @author ruth
+ */
+class Checkpointer {
+
+	// Check the clock once every this many nodes. This must be a power of 2.
+	private static final int CLOCK_CHECK_INTERVAL = 256;
+
+	// The length of each word in the word square.
+	private final int length;
+
+	// The letters the word squares are made from.
+	private final String letters;
+
+	// The file to write the checkpoints to.
+	private final Path file;
+
+	// The time between checkpoints, in milliseconds.
+	private final long intervalMillis;
+
+	// The time at which to write the next checkpoint, in milliseconds since the
+	// epoch.
+	private long nextCheckpointMillis;
+
+	// The number of nodes visited.
+	private long nodes;
+
+	// The path of words down to the node at which the search was stopped, or null
+	// if it has not been stopped.
+	private List<String> stoppedPath;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param length  The length of each word in the word square.
+	 * @param letters The letters the word squares are made from.
+	 * @param options The options controlling the search, with the checkpoint file
+	 *                and interval.
+	 */
+	Checkpointer(final int length, final String letters, final SearchOptions options) {
+		this.length = length;
+		this.letters = letters;
+		this.file = options.getCheckpointFile();
+		this.intervalMillis = options.getCheckpointInterval().toMillis();
+		this.nextCheckpointMillis = System.currentTimeMillis() + intervalMillis;
+	}
+
+	/**
+	 * Record that the search is about to visit a node, and write a checkpoint if it
+	 * is time to.
+	 * 
+	 * @param words       The words placed so far.
+	 * @param word        The word at the node.
+	 * @param wordSquares The word squares found so far.
+	 * @throws UncheckedIOException Thrown if we cannot write the checkpoint file.
+	 */
+	void nodeVisited(final List<String> words, final String word, final List<WordSquare> wordSquares) {
+		if ((++nodes & (CLOCK_CHECK_INTERVAL - 1)) == 0) {
+			final long now = System.currentTimeMillis();
+			if (now >= nextCheckpointMillis) {
+				write(false, getPath(words, word), wordSquares);
+				nextCheckpointMillis = now + intervalMillis;
+			}
+		}
+	}
+
+	/**
+	 * Record that the search was stopped (because it ran out of budget) before
+	 * visiting a node, so that the final checkpoint resumes from there.
+	 * 
+	 * @param words The words placed so far.
+	 * @param word  The word at the node.
+	 */
+	void nodeNotVisited(final List<String> words, final String word) {
+		if (stoppedPath == null) {
+			stoppedPath = getPath(words, word);
+		}
+	}
+
+	/**
+	 * Write the final checkpoint, once the search has ended.
+	 * 
+	 * @param status      The status of the search.
+	 * @param wordSquares The word squares found.
+	 * @throws UncheckedIOException Thrown if we cannot write the checkpoint file.
+	 */
+	void searchEnded(final SearchStatus status, final List<WordSquare> wordSquares) {
+		if (status == SearchStatus.FINISHED) {
+			write(true, new ArrayList<>(), wordSquares);
+		} else {
+			write(false, stoppedPath, wordSquares);
+		}
+	}
+
+	/**
+	 * Write a checkpoint.
+	 * 
+	 * @param finished    true if the search has finished, or false if not.
+	 * @param path        The path of words down to the node the search has reached.
+	 * @param wordSquares The word squares found before the path.
+	 * @throws UncheckedIOException Thrown if we cannot write the checkpoint file.
+	 */
+	private void write(final boolean finished, final List<String> path, final List<WordSquare> wordSquares) {
+		try {
+			new Checkpoint(length, letters, finished, path, wordSquares).write(file);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Get the path of words down to a node.
+	 * 
+	 * @param words The words placed so far.
+	 * @param word  The word at the node.
+	 * @return The path.
+	 */
+	private static List<String> getPath(final List<String> words, final String word) {
+		final List<String> path = new ArrayList<>(words.size() + 1);
+		path.addAll(words);
+		path.add(word);
+		return path;
+	}
+}
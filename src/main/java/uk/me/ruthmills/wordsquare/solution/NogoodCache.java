@@ -0,0 +1,94 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the partial states of the search which have been proven to have no
+ * completion (known as "nogoods"). Different words placed so far can leave the
+ * search in the same state - the same remaining letters, and the same letters
+ * at the start of each column still to be completed - and everything below
+ * that point depends only on the state. So once we have searched below a state
+ * and found no word squares, we can skip it if we come across it again.
+ * 
+ * The cache holds at most a fixed number of states, evicting the least
+ * recently used one when it is full, so that its memory is bounded. It is safe
+ * to share between threads.
+ * 
+ * @author ruth
+ */
+public class NogoodCache {
+
+	// The maximum number of states to hold.
+	private final int capacity;
+
+	// The states, in least recently used order.
+	private final Map<String, Boolean> states;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param capacity The maximum number of states to hold. This must be at least
+	 *                 1.
+	 */
+	public NogoodCache(final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+		}
+		this.capacity = capacity;
+		this.states = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+
+			// Serial version UID.
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * Evict the least recently used state once we are over capacity.
+			 * 
+			 * @param eldest The least recently used state.
+			 * @return true if we are over capacity, or false if not.
+			 */
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Boolean> eldest) {
+				return size() > NogoodCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Check if a state has been proven to have no completion. This counts as a use
+	 * of the state, for eviction.
+	 * 
+	 * @param state The state.
+	 * @return true if the state has no completion, or false if we don't know.
+	 */
+	public synchronized boolean contains(final String state) {
+		return states.get(state) != null;
+	}
+
+	/**
+	 * Remember that a state has been proven to have no completion.
+	 * 
+	 * @param state The state.
+	 */
+	public synchronized void add(final String state) {
+		states.put(state, Boolean.TRUE);
+	}
+
+	/**
+	 * Get the number of states held.
+	 * 
+	 * @return The number of states held.
+	 */
+	public synchronized int size() {
+		return states.size();
+	}
+
+	/**
+	 * Get the maximum number of states to hold.
+	 * 
+	 * @return The capacity.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+}
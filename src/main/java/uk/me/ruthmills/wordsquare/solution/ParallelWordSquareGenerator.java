@@ -0,0 +1,211 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.letters.AvailableLettersFactory;
+import uk.me.ruthmills.wordsquare.predicate.LetterParityPredicate;
+
+/**
+ * This class generates valid word squares for the input parameters, searching
+ * on several threads at once using a fork/join pool.
+ * 
+ * The search is split into a task for each first word, and (down to the split
+ * depth in the search options) each of those into a task for each word which
+ * could come next. The subtrees below the first words differ hugely in size, so
+ * splitting again further down means idle threads can steal work from the big
+ * ones. All the tasks share one stop signal, so if the firstMatchOnly flag is
+ * true, the first task to find a word square stops all the others.
+ * 
+ * @author ruth
+ */
+public class ParallelWordSquareGenerator {
+
+	/**
+	 * Get valid word square combinations, using the common fork/join pool.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public static List<WordSquare> getValidWordSquares(final int length, final String letters,
+			final SearchOptions options, final SearchStatistics statistics)
+			throws InvalidWordSquareException, IOException {
+		return getValidWordSquares(length, letters, options, statistics, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Get valid word square combinations.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @param pool       The fork/join pool to search on.
+	 * @return The word squares, in the same order as a search on one thread. If the
+	 *         firstMatchOnly flag is true, this is whichever word square was found
+	 *         first, which may not be the first in that order.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public static List<WordSquare> getValidWordSquares(final int length, final String letters,
+			final SearchOptions options, final SearchStatistics statistics, final ForkJoinPool pool)
+			throws InvalidWordSquareException, IOException {
+		return searchWordSquares(length, letters, options, statistics, pool).getWordSquares();
+	}
+
+	/**
+	 * Search for valid word square combinations, using the common fork/join pool.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @return The word squares, and the status saying whether the search finished.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public static SearchResult searchWordSquares(final int length, final String letters,
+			final SearchOptions options, final SearchStatistics statistics)
+			throws InvalidWordSquareException, IOException {
+		return searchWordSquares(length, letters, options, statistics, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Search for valid word square combinations, within the deadline and maximum
+	 * number of nodes in the search options (if any). All the tasks spend from the
+	 * same budget, so once it runs out, they all stop.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @param pool       The fork/join pool to search on.
+	 * @return The word squares, in the same order as a search on one thread, and
+	 *         the status saying whether the search finished. If it ran out of
+	 *         budget, the word squares are the ones found by any task before then.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public static SearchResult searchWordSquares(final int length, final String letters,
+			final SearchOptions options, final SearchStatistics statistics, final ForkJoinPool pool)
+			throws InvalidWordSquareException, IOException {
+		// Reject any letters which could never fill the word square, before we even
+		// look at the dictionary.
+		if (!new LetterParityPredicate(length).test(AvailableLettersFactory.getInstance(letters))) {
+			return new SearchResult(Collections.emptyList(), SearchStatus.FINISHED);
+		}
+
+		// Initialise the solution state, which each task will copy.
+		final SolutionState solutionState = new SolutionState(length, letters, options, statistics);
+
+		// Search the whole word shortlist.
+		final List<WordSquare> wordSquares;
+		final long startNanos = SolverMetrics.getInstance().searchStarted();
+		try {
+			wordSquares = pool.invoke(new WordSquareTask(solutionState, Collections.emptyList()));
+		} catch (RuntimeException ex) {
+			throw unwrapInvalidWordSquareException(ex);
+		} finally {
+			SolverMetrics.getInstance().searchEnded(startNanos);
+		}
+
+		// More than one task may have found a word square before they all stopped, so
+		// only keep the first.
+		if (options.isFirstMatchOnly() && wordSquares.size() > 1) {
+			return new SearchResult(Collections.singletonList(wordSquares.get(0)), solutionState.getSearchStatus());
+		}
+		return new SearchResult(wordSquares, solutionState.getSearchStatus());
+	}
+
+	/**
+	 * Count the valid word squares, using the common fork/join pool.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @return The number of word squares.
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	public static long countWordSquares(final int length, final String letters, final SearchOptions options,
+			final SearchStatistics statistics) throws IOException {
+		return countWordSquares(length, letters, options, statistics, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Count the valid word squares, without making any of them. The tasks are
+	 * split in the same way as for getting the word squares, but each one adds the
+	 * word squares it comes to to a counter shared by all of them. This is a
+	 * LongAdder, so the threads each add to their own cell rather than contending
+	 * for one value, and the cells are only summed at the end.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search. If the firstMatchOnly
+	 *                   flag is true, more than one task may find a word square
+	 *                   before they all stop, but the count is at most 1.
+	 * @param statistics The statistics to update during the search.
+	 * @param pool       The fork/join pool to search on.
+	 * @return The number of word squares.
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	public static long countWordSquares(final int length, final String letters, final SearchOptions options,
+			final SearchStatistics statistics, final ForkJoinPool pool) throws IOException {
+		// Reject any letters which could never fill the word square, before we even
+		// look at the dictionary.
+		if (!new LetterParityPredicate(length).test(AvailableLettersFactory.getInstance(letters))) {
+			return 0;
+		}
+
+		// Initialise the solution state, which each task will copy, adding the word
+		// squares to a counter.
+		final LongAdder wordSquareCounter = new LongAdder();
+		final SolutionState solutionState = new SolutionState(length, letters, options, statistics,
+				new StopSignal(), wordSquareCounter);
+
+		// Search the whole word shortlist.
+		final long startNanos = SolverMetrics.getInstance().searchStarted();
+		try {
+			pool.invoke(new WordSquareTask(solutionState, Collections.emptyList()));
+		} finally {
+			SolverMetrics.getInstance().searchEnded(startNanos);
+		}
+		final long count = wordSquareCounter.sum();
+		return options.isFirstMatchOnly() ? Math.min(count, 1) : count;
+	}
+
+	/**
+	 * Find the Invalid Word Square Exception thrown by a task. The fork/join pool
+	 * may have wrapped the exception again when passing it between threads, so we
+	 * look through all of the causes.
+	 * 
+	 * @param ex The exception thrown out of the fork/join pool.
+	 * @return The Invalid Word Square Exception.
+	 * @throws RuntimeException Thrown if the exception was not caused by an
+	 *                          invalid word square.
+	 */
+	private static InvalidWordSquareException unwrapInvalidWordSquareException(final RuntimeException ex) {
+		for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+			if (cause instanceof InvalidWordSquareException) {
+				return (InvalidWordSquareException) cause;
+			}
+		}
+		throw ex;
+	}
+}
@@ -0,0 +1,363 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+
+/**
+ * Cache of the word squares found for each puzzle, so that a puzzle asked for
+ * again is answered without searching. The word squares depend only on the
+ * length and on how many of each letter there are, not on the order of the
+ * letters, so each puzzle is looked up by its length and its letters sorted
+ * into order, as well as the firstMatchOnly flag. If we have all the word
+ * squares for a puzzle, we also use them to answer a request for only the
+ * first one, as the first of them is the one a search for the first match
+ * would find. The cache is used by setting it in the search options of a
+ * search through the Word Square Generator.
+ * 
+ * The cache holds at most a maximum number of puzzles, and/or at most a
+ * maximum estimated number of bytes of word squares, evicting the least
+ * recently used puzzles when it is over either limit. It is safe to share
+ * between threads. The searches are carried out outside the lock, so two
+ * threads asking for the same puzzle at once may both search for it.
+ * 
+ * @author ruth
+ */
+public class ResultCache {
+
+	// The limits used by the server and the stream solver: 10,000 puzzles, and 64
+	// MB of word squares.
+	public static final int DEFAULT_MAX_ENTRIES = 10_000;
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	// The estimated number of bytes used by each entry, each word square, and
+	// each word, not counting their characters.
+	private static final int ENTRY_OVERHEAD_BYTES = 96;
+	private static final int WORD_SQUARE_OVERHEAD_BYTES = 64;
+	private static final int WORD_OVERHEAD_BYTES = 40;
+
+	// The maximum number of puzzles to hold, or 0 for no limit.
+	private final int maxEntries;
+
+	// The maximum estimated number of bytes to hold, or 0 for no limit.
+	private final long maxBytes;
+
+	// The word squares for each puzzle, in least recently used order.
+	private final Map<String, List<WordSquare>> entries;
+
+	// The estimated number of bytes held.
+	private long bytes;
+
+	// The number of puzzles answered from the cache, and not.
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	// The number of puzzles evicted to stay within the limits.
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxEntries The maximum number of puzzles to hold, or 0 for no limit.
+	 * @param maxBytes   The maximum estimated number of bytes of word squares to
+	 *                   hold, or 0 for no limit.
+	 * @throws IllegalArgumentException Thrown if either limit is negative, or
+	 *                                  neither limit is set.
+	 */
+	public ResultCache(final int maxEntries, final long maxBytes) {
+		if (maxEntries < 0) {
+			throw new IllegalArgumentException("Maximum number of entries must not be negative: " + maxEntries);
+		}
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("Maximum number of bytes must not be negative: " + maxBytes);
+		}
+		if (maxEntries == 0 && maxBytes == 0) {
+			throw new IllegalArgumentException("Either the maximum number of entries or bytes must be set");
+		}
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Get valid word square combinations, from the cache if we have them, or by
+	 * searching for them (and adding them to the cache) if not. This is the same
+	 * as a search through the Word Square Generator with this cache set in the
+	 * search options.
+	 * 
+	 * @param length         Number of letters in each word.
+	 * @param letters        Available letters to create the words from, in any
+	 *                       order.
+	 * @param firstMatchOnly true to get only the first matching word square, false
+	 *                       to get all of them.
+	 * @return Read-only list of the word squares.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public List<WordSquare> getValidWordSquares(final int length, final String letters, final boolean firstMatchOnly)
+			throws InvalidWordSquareException, IOException {
+		return WordSquareGenerator.getValidWordSquares(length, letters,
+				new SearchOptions().setFirstMatchOnly(firstMatchOnly).setResultCache(this), new SearchStatistics());
+	}
+
+	/**
+	 * Look up the word squares for a puzzle, counting a hit if we have them, or a
+	 * miss if not.
+	 * 
+	 * @param length         Number of letters in each word.
+	 * @param letters        Available letters to create the words from, in any
+	 *                       order.
+	 * @param firstMatchOnly true to get only the first word square, false to get
+	 *                       all of them.
+	 * @return Read-only list of the word squares, or null if we don't have them.
+	 */
+	List<WordSquare> get(final int length, final String letters, final boolean firstMatchOnly) {
+		final List<WordSquare> wordSquares = find(length, sortLetters(letters), firstMatchOnly);
+		if (wordSquares != null) {
+			hits.increment();
+			SolverMetrics.getInstance().resultCacheHit();
+		} else {
+			misses.increment();
+			SolverMetrics.getInstance().resultCacheMiss();
+		}
+		return wordSquares;
+	}
+
+	/**
+	 * Remember the word squares found by a search which finished.
+	 * 
+	 * @param length         Number of letters in each word.
+	 * @param letters        Available letters to create the words from, in any
+	 *                       order.
+	 * @param firstMatchOnly true if the word squares are only the first, false if
+	 *                       they are all of them.
+	 * @param wordSquares    The word squares.
+	 * @return Read-only copy of the word squares, as held in the cache.
+	 */
+	List<WordSquare> put(final int length, final String letters, final boolean firstMatchOnly,
+			final List<WordSquare> wordSquares) {
+		final List<WordSquare> cachedWordSquares = Collections.unmodifiableList(new ArrayList<>(wordSquares));
+		add(length, sortLetters(letters), firstMatchOnly, cachedWordSquares);
+		return cachedWordSquares;
+	}
+
+	/**
+	 * Look up the word squares for a puzzle. If we only want the first, but have
+	 * all of them, we take the first of them.
+	 * 
+	 * @param length         Number of letters in each word.
+	 * @param sortedLetters  The available letters, sorted into order.
+	 * @param firstMatchOnly true to get only the first word square, false to get
+	 *                       all of them.
+	 * @return The word squares, or null if we don't have them.
+	 */
+	private synchronized List<WordSquare> find(final int length, final String sortedLetters,
+			final boolean firstMatchOnly) {
+		final List<WordSquare> allWordSquares = entries.get(getKey(length, sortedLetters, false));
+		if (allWordSquares != null) {
+			return firstMatchOnly && allWordSquares.size() > 1 ? allWordSquares.subList(0, 1) : allWordSquares;
+		}
+		return firstMatchOnly ? entries.get(getKey(length, sortedLetters, true)) : null;
+	}
+
+	/**
+	 * Remember the word squares for a puzzle, and evict the least recently used
+	 * puzzles until we are within the limits. If we have all the word squares, we
+	 * no longer need the first one on its own.
+	 * 
+	 * @param length         Number of letters in each word.
+	 * @param sortedLetters  The available letters, sorted into order.
+	 * @param firstMatchOnly true if the word squares are only the first, false if
+	 *                       they are all of them.
+	 * @param wordSquares    The word squares.
+	 */
+	private synchronized void add(final int length, final String sortedLetters, final boolean firstMatchOnly,
+			final List<WordSquare> wordSquares) {
+		final String key = getKey(length, sortedLetters, firstMatchOnly);
+		remove(key);
+		if (!firstMatchOnly) {
+			remove(getKey(length, sortedLetters, true));
+		}
+		entries.put(key, wordSquares);
+		bytes += estimateBytes(key, wordSquares);
+
+		// Evict the least recently used puzzles, but always keep the one we have just
+		// added.
+		final Iterator<Map.Entry<String, List<WordSquare>>> iterator = entries.entrySet().iterator();
+		while (entries.size() > 1 && isOverLimit()) {
+			final Map.Entry<String, List<WordSquare>> eldest = iterator.next();
+			bytes -= estimateBytes(eldest.getKey(), eldest.getValue());
+			iterator.remove();
+			evictions.increment();
+		}
+	}
+
+	/**
+	 * Forget the word squares for a puzzle, if we have them.
+	 * 
+	 * @param key The key of the puzzle.
+	 */
+	private void remove(final String key) {
+		final List<WordSquare> wordSquares = entries.remove(key);
+		if (wordSquares != null) {
+			bytes -= estimateBytes(key, wordSquares);
+		}
+	}
+
+	/**
+	 * Check if we are holding more puzzles or bytes than the limits.
+	 * 
+	 * @return true if we are over either limit, or false if not.
+	 */
+	private boolean isOverLimit() {
+		return (maxEntries > 0 && entries.size() > maxEntries) || (maxBytes > 0 && bytes > maxBytes);
+	}
+
+	/**
+	 * Forget all the word squares.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Get the number of puzzles held.
+	 * 
+	 * @return The number of puzzles held.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Get the estimated number of bytes held.
+	 * 
+	 * @return The estimated number of bytes.
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Get the maximum number of puzzles to hold.
+	 * 
+	 * @return The maximum number of puzzles, or 0 for no limit.
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Get the maximum estimated number of bytes to hold.
+	 * 
+	 * @return The maximum number of bytes, or 0 for no limit.
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Get the number of puzzles answered from the cache.
+	 * 
+	 * @return The number of hits.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Get the number of puzzles which had to be searched for.
+	 * 
+	 * @return The number of misses.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Get the number of puzzles evicted to stay within the limits.
+	 * 
+	 * @return The number of evictions.
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Get the proportion of puzzles answered from the cache.
+	 * 
+	 * @return The hit rate, from 0 to 1, or 0 if no puzzles have been asked for.
+	 */
+	public double getHitRate() {
+		final long hitCount = getHits();
+		final long total = hitCount + getMisses();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+	/**
+	 * Convert to a String.
+	 * 
+	 * @return String containing the size and statistics of the cache.
+	 */
+	@Override
+	public String toString() {
+		return "size=" + size() + ", bytes=" + getBytes() + ", hits=" + getHits() + ", misses=" + getMisses()
+				+ ", evictions=" + getEvictions();
+	}
+
+	/**
+	 * Sort the letters into order, so that the same letters in any order give the
+	 * same string.
+	 * 
+	 * @param letters The letters.
+	 * @return The letters, sorted into order.
+	 */
+	static String sortLetters(final String letters) {
+		final char[] sortedLetters = letters.toCharArray();
+		Arrays.sort(sortedLetters);
+		return new String(sortedLetters);
+	}
+
+	/**
+	 * Get the key of a puzzle in the cache.
+	 * 
+	 * @param length         Number of letters in each word.
+	 * @param sortedLetters  The available letters, sorted into order.
+	 * @param firstMatchOnly true for only the first word square, false for all of
+	 *                       them.
+	 * @return The key.
+	 */
+	private static String getKey(final int length, final String sortedLetters, final boolean firstMatchOnly) {
+		return length + (firstMatchOnly ? " first " : " all ") + sortedLetters;
+	}
+
+	/**
+	 * Estimate the number of bytes used by the word squares for a puzzle,
+	 * including its key.
+	 * 
+	 * @param key         The key of the puzzle.
+	 * @param wordSquares The word squares.
+	 * @return The estimated number of bytes.
+	 */
+	static long estimateBytes(final String key, final List<WordSquare> wordSquares) {
+		long estimate = ENTRY_OVERHEAD_BYTES + 2L * key.length();
+		for (final WordSquare wordSquare : wordSquares) {
+			estimate += WORD_SQUARE_OVERHEAD_BYTES;
+			for (final String word : wordSquare.getWords()) {
+				estimate += WORD_OVERHEAD_BYTES + 2L * word.length();
+			}
+		}
+		return estimate;
+	}
+}
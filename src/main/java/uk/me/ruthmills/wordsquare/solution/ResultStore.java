@@ -0,0 +1,625 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Store on disk of all the word squares found for each puzzle, so that a
+ * search which took minutes is never repeated, even after a restart. As with
+ * the Result Cache, each puzzle is stored by its length and its letters sorted
+ * into order, so the same letters in any order find the same word squares.
+ * Only the results of searches which found every word square are stored.
+ * 
+ * The store is a directory holding two files. The log file is only ever
+ * appended to, with a plain text record for each puzzle:
+ * 
+ * <pre>
+ * length &lt;length&gt;
+ * letters &lt;sorted letters&gt;
+ * squares &lt;number of word squares&gt;
+ * &lt;word&gt; &lt;word&gt; ...                one line for each word square
+ * </pre>
+ * 
+ * The index file is a hash table, through a memory-mapped file, of where each
+ * record is in the log. Opening the store only maps the index, so however big
+ * the log gets, it is never read at startup; each lookup probes the index, and
+ * reads just the one record it points to. The index is rebuilt from the log if
+ * it is missing or damaged, and is doubled in size (by writing a new index and
+ * moving it over the old one) whenever it gets half full.
+ * 
+ * The record is always written to the log and forced to disk before it is
+ * added to the index, so a crash part way through can at worst leave a record,
+ * or part of one, at the end of the log with no index entry. When the store is
+ * opened, anything in the log after the last record in the index is read:
+ * complete records are added to the index, and part of a record is cut off, so
+ * that the next record is appended in the right place. When the index is
+ * rebuilt, anything in the log which is not a valid record is skipped over.
+ * Each record found through the index is checked against the puzzle before it
+ * is used.
+ * 
+ * The store is only for one process at a time. The log file is locked while the
+ * store is open, and opening a store which another process (or another Result
+ * Store in the same process) already has open fails. One store can be shared
+ * between threads.
+ * 
+ * The solver, the stream solver and the server use a store only if the
+ * wordsquare.result.store system property is set to its directory.
+ * 
+ * @author ruth
+ */
+public class ResultStore implements Closeable {
+
+	// The system property which may be set to the directory of the result store
+	// used by the solver, the stream solver and the server.
+	public static final String RESULT_STORE_DIRECTORY_PROPERTY = "wordsquare.result.store";
+
+	static final String LOG_FILE_NAME = "results.log";
+
+	static final String INDEX_FILE_NAME = "results.idx";
+
+	// The magic number at the start of the index file ("WSRI").
+	static final int MAGIC_NUMBER = 0x57535249;
+
+	// The version of the index file format.
+	static final int FORMAT_VERSION = 1;
+
+	// The size of the header (magic number, version, capacity, and number of
+	// entries), and of each slot (hash, log offset, record size, and padding).
+	static final int HEADER_SIZE = 4 * Integer.BYTES;
+	static final int SLOT_SIZE = 2 * Long.BYTES + 2 * Integer.BYTES;
+
+	// The number of slots in a new index. This must be a power of 2.
+	static final int INITIAL_CAPACITY = 1024;
+
+	// The directory holding the files.
+	private final Path directory;
+
+	// The log file, open for reading and appending.
+	private final FileChannel log;
+
+	// The memory-mapped index file.
+	private MappedByteBuffer index;
+
+	// The number of slots in the index.
+	private int capacity;
+
+	// The number of entries in the index.
+	private int count;
+
+	/**
+	 * Constructor. Opens the store in a directory, creating it if it does not
+	 * exist.
+	 * 
+	 * @param directory The directory holding the store.
+	 * @throws IOException Thrown if we cannot open or create the store, or it is
+	 *                     already open.
+	 */
+	public ResultStore(final Path directory) throws IOException {
+		this.directory = directory;
+		Files.createDirectories(directory);
+		this.log = FileChannel.open(directory.resolve(LOG_FILE_NAME), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			// Lock the log, so that no other store can write to it while we have it open.
+			// The lock is released when the log is closed.
+			lockLog();
+
+			// Map the index, or rebuild it from the log if it is missing or damaged.
+			if (!mapIndex()) {
+				writeIndex(readEntries(0), INITIAL_CAPACITY);
+			} else {
+				checkLogEnd();
+			}
+		} catch (IOException | RuntimeException ex) {
+			log.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Open the store in the directory the wordsquare.result.store system property
+	 * is set to, if it is set.
+	 * 
+	 * @return The store, or null if the system property is not set.
+	 * @throws IOException Thrown if we cannot open or create the store, or it is
+	 *                     already open.
+	 */
+	public static ResultStore openFromSystemProperty() throws IOException {
+		final String directory = System.getProperty(RESULT_STORE_DIRECTORY_PROPERTY);
+		return directory == null || directory.isEmpty() ? null
+				: new ResultStore(FileSystems.getDefault().getPath(directory));
+	}
+
+	/**
+	 * Get all the word squares for a puzzle, if they have been stored.
+	 * 
+	 * @param length  Number of letters in each word.
+	 * @param letters Available letters to create the words from, in any order.
+	 * @return The word squares, in the same order as a search returns them, or
+	 *         null if they have not been stored.
+	 * @throws IOException Thrown if we cannot read from the log file.
+	 */
+	public synchronized List<WordSquare> get(final int length, final String letters) throws IOException {
+		final String sortedLetters = ResultCache.sortLetters(letters);
+		final long hash = hash(length, sortedLetters);
+
+		// Probe the slots from the one the hash points to, until we come to an empty
+		// one.
+		for (int slot = getFirstSlot(hash);; slot = (slot + 1) & (capacity - 1)) {
+			final int position = HEADER_SIZE + slot * SLOT_SIZE;
+			final int size = index.getInt(position + 2 * Long.BYTES);
+			if (size == 0) {
+				return null;
+			}
+			if (index.getLong(position) == hash) {
+				final Record record = readRecord(index.getLong(position + Long.BYTES), size);
+				if (record != null && record.length == length && record.sortedLetters.equals(sortedLetters)) {
+					return record.wordSquares;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Store all the word squares for a puzzle, unless they have been stored
+	 * already.
+	 * 
+	 * @param length      Number of letters in each word.
+	 * @param letters     Available letters to create the words from, in any order.
+	 * @param wordSquares All the word squares for the puzzle.
+	 * @throws IOException Thrown if we cannot write to the store.
+	 */
+	public synchronized void put(final int length, final String letters, final List<WordSquare> wordSquares)
+			throws IOException {
+		final String sortedLetters = ResultCache.sortLetters(letters);
+		if (!isStorable(sortedLetters) || get(length, letters) != null) {
+			return;
+		}
+
+		// Make the index bigger first if adding the record would make it more than
+		// half full.
+		if (2 * (count + 1) > capacity) {
+			writeIndex(getEntries(), capacity * 2);
+		}
+
+		// Append the record to the log, and make sure it is on disk before the index
+		// points to it.
+		final byte[] bytes = formatRecord(length, sortedLetters, wordSquares).getBytes(StandardCharsets.US_ASCII);
+		final long offset = log.size();
+		final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining()) {
+			log.write(buffer, offset + buffer.position());
+		}
+		log.force(false);
+		addEntry(hash(length, sortedLetters), offset, bytes.length);
+		index.force();
+	}
+
+	/**
+	 * Get the number of puzzles stored.
+	 * 
+	 * @return The number of puzzles.
+	 */
+	public synchronized int size() {
+		return count;
+	}
+
+	/**
+	 * Close the store.
+	 * 
+	 * @throws IOException Thrown if we cannot close the log file.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		log.close();
+	}
+
+	/**
+	 * Lock the log file, so that it is only open in one store at a time.
+	 * 
+	 * @throws IOException Thrown if the log is already locked, by this or another
+	 *                     process, or we cannot lock it.
+	 */
+	private void lockLog() throws IOException {
+		try {
+			if (log.tryLock() != null) {
+				return;
+			}
+		} catch (OverlappingFileLockException ex) {
+			// Another store in this process has the log locked.
+		}
+		throw new IOException("Result store is already open: " + directory);
+	}
+
+	/**
+	 * Check that the log ends where the last record in the index does. If there is
+	 * more after it (left by a crash between writing a record and adding it to the
+	 * index), add any complete records to the index and cut off the rest. If the
+	 * log is shorter, the index does not belong to it, so rebuild the index.
+	 * 
+	 * @throws IOException Thrown if we cannot read or truncate the log, or write
+	 *                     the index.
+	 */
+	private void checkLogEnd() throws IOException {
+		final List<long[]> entries = getEntries();
+		long indexEnd = 0;
+		for (final long[] entry : entries) {
+			indexEnd = Math.max(indexEnd, entry[1] + entry[2]);
+		}
+		if (log.size() < indexEnd) {
+			writeIndex(readEntries(0), INITIAL_CAPACITY);
+		} else if (log.size() > indexEnd) {
+			final List<long[]> tailEntries = readEntries(indexEnd);
+			if (!tailEntries.isEmpty()) {
+				entries.addAll(tailEntries);
+				writeIndex(entries, capacity);
+			}
+		}
+	}
+
+	/**
+	 * Map the index file into memory, and check its header.
+	 * 
+	 * @return true if the index was mapped, or false if it is missing or damaged.
+	 * @throws IOException Thrown if we cannot read the index file.
+	 */
+	private boolean mapIndex() throws IOException {
+		final Path indexFile = directory.resolve(INDEX_FILE_NAME);
+		if (!Files.isRegularFile(indexFile)) {
+			return false;
+		}
+
+		// The mapping remains valid after the channel is closed.
+		final MappedByteBuffer buffer;
+		try (FileChannel fileChannel = FileChannel.open(indexFile, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			if (fileChannel.size() < HEADER_SIZE) {
+				return false;
+			}
+			buffer = fileChannel.map(MapMode.READ_WRITE, 0, fileChannel.size());
+		}
+		final int indexCapacity = buffer.getInt(2 * Integer.BYTES);
+		if (buffer.getInt(0) != MAGIC_NUMBER || buffer.getInt(Integer.BYTES) != FORMAT_VERSION
+				|| indexCapacity < 1 || Integer.bitCount(indexCapacity) != 1
+				|| buffer.limit() != HEADER_SIZE + (long) indexCapacity * SLOT_SIZE) {
+			return false;
+		}
+		index = buffer;
+		capacity = indexCapacity;
+		count = buffer.getInt(3 * Integer.BYTES);
+		return true;
+	}
+
+	/**
+	 * Read the index entries for every complete record in the log, from an offset
+	 * to the end. Anything which is not a valid record is skipped over, a line at
+	 * a time, until a valid record starts. Anything after the last valid record
+	 * (e.g. part of a record left at the end of the log by a crash) is cut off.
+	 * 
+	 * @param start The offset to start reading the log from. This must be the
+	 *              start of a line.
+	 * @return The entries: the hash, log offset, and record size of each record.
+	 * @throws IOException Thrown if we cannot read or truncate the log.
+	 */
+	private List<long[]> readEntries(final long start) throws IOException {
+		final List<long[]> entries = new ArrayList<>();
+		final List<String> lines = Arrays.asList(readLog(start).split("\n", -1));
+		long offset = start;
+		long end = start;
+		int lineIndex = 0;
+		while (lineIndex < lines.size() - 1) {
+			// Is there a valid record starting at this line? If not, skip the line.
+			final Record record = parseRecordAt(lines, lineIndex);
+			if (record == null) {
+				offset += lines.get(lineIndex).length() + 1;
+				lineIndex++;
+				continue;
+			}
+			final int recordLines = 3 + record.wordSquares.size();
+			long size = 0;
+			for (final String line : lines.subList(lineIndex, lineIndex + recordLines)) {
+				size += line.length() + 1;
+			}
+			entries.add(new long[] { hash(record.length, record.sortedLetters), offset, size });
+			offset += size;
+			end = offset;
+			lineIndex += recordLines;
+		}
+		if (log.size() > end) {
+			log.truncate(end);
+		}
+		return entries;
+	}
+
+	/**
+	 * Read the log from an offset to the end.
+	 * 
+	 * @param start The offset to start reading from.
+	 * @return The text of the log from the offset.
+	 * @throws IOException Thrown if we cannot read the log.
+	 */
+	private String readLog(final long start) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate((int) (log.size() - start));
+		while (buffer.hasRemaining()) {
+			if (log.read(buffer, start + buffer.position()) < 0) {
+				break;
+			}
+		}
+		return new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Parse the record starting at a line of the log, if there is one.
+	 * 
+	 * @param lines     The lines of the log, ending with whatever comes after the
+	 *                  last new line.
+	 * @param lineIndex The index of the line the record starts at.
+	 * @return The record, or null if a complete, valid record does not start there.
+	 */
+	private static Record parseRecordAt(final List<String> lines, final int lineIndex) {
+		// Work out how many lines the record has, and make sure they are all there
+		// (the last line has no new line after it, so is never part of a record).
+		if (lineIndex + 3 >= lines.size()) {
+			return null;
+		}
+		final int squares;
+		try {
+			squares = Integer.parseInt(getValue(lines.get(lineIndex + 2), "squares"));
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+		if (squares < 0 || (long) lineIndex + 3 + squares >= lines.size()) {
+			return null;
+		}
+		return parseRecord(lines.subList(lineIndex, lineIndex + 3 + squares));
+	}
+
+	/**
+	 * Get the entries in the index.
+	 * 
+	 * @return The entries: the hash, log offset, and record size of each record.
+	 */
+	private List<long[]> getEntries() {
+		final List<long[]> entries = new ArrayList<>(count);
+		for (int slot = 0; slot < capacity; slot++) {
+			final int position = HEADER_SIZE + slot * SLOT_SIZE;
+			final int size = index.getInt(position + 2 * Long.BYTES);
+			if (size != 0) {
+				entries.add(new long[] { index.getLong(position), index.getLong(position + Long.BYTES), size });
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Write a new index holding the entries, and move it over the old one.
+	 * 
+	 * @param entries     The entries: the hash, log offset, and record size of
+	 *                    each record.
+	 * @param minCapacity The least number of slots the new index must have.
+	 * @throws IOException Thrown if we cannot write the index.
+	 */
+	private void writeIndex(final List<long[]> entries, final int minCapacity) throws IOException {
+		int newCapacity = minCapacity;
+		while (2 * entries.size() > newCapacity) {
+			newCapacity *= 2;
+		}
+
+		// Write the new index to a temporary file, and move it over the old one.
+		final Path indexFile = directory.resolve(INDEX_FILE_NAME);
+		final Path tempFile = indexFile.resolveSibling(INDEX_FILE_NAME + ".tmp");
+		try (FileChannel fileChannel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			index = fileChannel.map(MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * SLOT_SIZE);
+		}
+		index.putInt(0, MAGIC_NUMBER);
+		index.putInt(Integer.BYTES, FORMAT_VERSION);
+		index.putInt(2 * Integer.BYTES, newCapacity);
+		capacity = newCapacity;
+		count = 0;
+		for (final long[] entry : entries) {
+			addEntry(entry[0], entry[1], (int) entry[2]);
+		}
+		index.force();
+		Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Add an entry to the index, in the first empty slot from the one its hash
+	 * points to. There must be at least one empty slot.
+	 * 
+	 * @param hash   The hash of the puzzle.
+	 * @param offset The offset of the record in the log.
+	 * @param size   The size of the record in bytes.
+	 */
+	private void addEntry(final long hash, final long offset, final int size) {
+		int slot = getFirstSlot(hash);
+		while (index.getInt(HEADER_SIZE + slot * SLOT_SIZE + 2 * Long.BYTES) != 0) {
+			slot = (slot + 1) & (capacity - 1);
+		}
+		final int position = HEADER_SIZE + slot * SLOT_SIZE;
+		index.putLong(position, hash);
+		index.putLong(position + Long.BYTES, offset);
+		index.putInt(position + 2 * Long.BYTES, size);
+		index.putInt(3 * Integer.BYTES, ++count);
+	}
+
+	/**
+	 * Get the slot of the index a hash points to.
+	 * 
+	 * @param hash The hash.
+	 * @return The slot.
+	 */
+	private int getFirstSlot(final long hash) {
+		return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+	}
+
+	/**
+	 * Read a record from the log.
+	 * 
+	 * @param offset The offset of the record in the log.
+	 * @param size   The size of the record in bytes.
+	 * @return The record, or null if it is not a valid record.
+	 * @throws IOException Thrown if we cannot read from the log file.
+	 */
+	private Record readRecord(final long offset, final int size) throws IOException {
+		if (offset < 0 || size < 0 || offset + size > log.size()) {
+			return null;
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate(size);
+		while (buffer.hasRemaining()) {
+			if (log.read(buffer, offset + buffer.position()) < 0) {
+				return null;
+			}
+		}
+		final String text = new String(buffer.array(), StandardCharsets.US_ASCII);
+		if (!text.endsWith("\n")) {
+			return null;
+		}
+		return parseRecord(Arrays.asList(text.substring(0, text.length() - 1).split("\n", -1)));
+	}
+
+	/**
+	 * Parse the lines of a record.
+	 * 
+	 * @param lines The lines of the record, without their new line characters.
+	 * @return The record, or null if it is not a valid record.
+	 */
+	private static Record parseRecord(final List<String> lines) {
+		try {
+			final int length = Integer.parseInt(getValue(lines.get(0), "length"));
+			final String sortedLetters = getValue(lines.get(1), "letters");
+			final int squares = Integer.parseInt(getValue(lines.get(2), "squares"));
+			if (lines.size() != 3 + squares) {
+				return null;
+			}
+			final List<WordSquare> wordSquares = new ArrayList<>(squares);
+			for (final String line : lines.subList(3, lines.size())) {
+				final List<String> words = Arrays.asList(line.split(" "));
+				if (words.size() != length) {
+					return null;
+				}
+				wordSquares.add(new WordSquare(length, words));
+			}
+			return new Record(length, sortedLetters, Collections.unmodifiableList(wordSquares));
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Format a record for the log.
+	 * 
+	 * @param length        Number of letters in each word.
+	 * @param sortedLetters The available letters, sorted into order.
+	 * @param wordSquares   The word squares.
+	 * @return The record, including the new line character at the end.
+	 */
+	private static String formatRecord(final int length, final String sortedLetters,
+			final List<WordSquare> wordSquares) {
+		final StringBuilder record = new StringBuilder();
+		record.append("length ").append(length).append('\n');
+		record.append("letters ").append(sortedLetters).append('\n');
+		record.append("squares ").append(wordSquares.size()).append('\n');
+		for (final WordSquare wordSquare : wordSquares) {
+			record.append(String.join(" ", wordSquare.getWords())).append('\n');
+		}
+		return record.toString();
+	}
+
+	/**
+	 * Get the value from a line, after its name.
+	 * 
+	 * @param line The line.
+	 * @param name The name the line must start with.
+	 * @return The rest of the line after the name.
+	 * @throws IllegalArgumentException Thrown if the line does not start with the
+	 *                                  name.
+	 */
+	private static String getValue(final String line, final String name) {
+		if (line.equals(name)) {
+			return "";
+		}
+		if (!line.startsWith(name + " ")) {
+			throw new IllegalArgumentException("Expected " + name + ": " + line);
+		}
+		return line.substring(name.length() + 1);
+	}
+
+	/**
+	 * Check if letters can be stored in a record, i.e. they are plain ASCII with no
+	 * new lines.
+	 * 
+	 * @param letters The letters.
+	 * @return true if the letters can be stored, or false if not.
+	 */
+	private static boolean isStorable(final String letters) {
+		for (int index = 0; index < letters.length(); index++) {
+			final char letter = letters.charAt(index);
+			if (letter > 127 || letter == '\n') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the hash of a puzzle (64-bit FNV-1a of its length and sorted letters).
+	 * 
+	 * @param length        Number of letters in each word.
+	 * @param sortedLetters The available letters, sorted into order.
+	 * @return The hash.
+	 */
+	static long hash(final int length, final String sortedLetters) {
+		long hash = 0xcbf29ce484222325L;
+		final String key = length + " " + sortedLetters;
+		for (int index = 0; index < key.length(); index++) {
+			hash ^= key.charAt(index);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * A record read from the log.
+	 */
+	private static class Record {
+
+		// The length of each word in the word squares.
+		private final int length;
+
+		// The letters the word squares are made from, sorted into order.
+		private final String sortedLetters;
+
+		// The word squares.
+		private final List<WordSquare> wordSquares;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param length        The length of each word in the word squares.
+		 * @param sortedLetters The letters, sorted into order.
+		 * @param wordSquares   The word squares.
+		 */
+		private Record(final int length, final String sortedLetters, final List<WordSquare> wordSquares) {
+			this.length = length;
+			this.sortedLetters = sortedLetters;
+			this.wordSquares = wordSquares;
+		}
+	}
+}
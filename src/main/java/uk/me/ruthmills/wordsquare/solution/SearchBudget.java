@@ -0,0 +1,180 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Budget for a search, i.e. a deadline and/or a maximum number of nodes to
+ * visit. Each node of the search is spent from the budget before it is visited,
+ * and once the budget runs out, the search is told to stop, and the reason is
+ * kept as the status of the search.
+ * 
+ * Looking at the clock at every node would cost more than the node itself, so
+ * the deadline is only checked every so many nodes.
+ * 
+ * The same budget can be shared by searches running on several threads, so
+ * that between them they spend no more than the budget. Each thread's search
+ * has its own copy, which counts the nodes it spends itself, rather than every
+ * thread counting every node on one shared counter. If there is a node limit,
+ * each copy claims nodes from the shared count a batch at a time, and gives
+ * back any it has not spent when its search ends. If there is only a deadline,
+ * the copies share nothing but the status.
+ * 
+ * @author ruth
+ */
+class SearchBudget {
+
+	// Check the deadline once every this many nodes.
+	private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+	// Claim nodes from the shared count this many at a time.
+	private static final int NODE_CLAIM_SIZE = 256;
+
+	// The time at which the search must stop, in milliseconds since the epoch, or
+	// Long.MAX_VALUE if there is no deadline.
+	private final long deadlineMillis;
+
+	// The maximum number of nodes to visit, or Long.MAX_VALUE if there is no
+	// limit.
+	private final long maxNodes;
+
+	// The signal telling the search to stop.
+	private final StopSignal stopSignal;
+
+	// The number of nodes claimed so far by all the copies, less any given back.
+	// This is shared with any copies.
+	private final AtomicLong nodesClaimed;
+
+	// The status of the search. This is shared with any copies.
+	private final AtomicReference<SearchStatus> status;
+
+	// The number of nodes this copy has claimed, but not yet spent.
+	private long nodesLeft;
+
+	// The number of nodes this copy can spend before checking the deadline again.
+	// This starts at 1, so that the deadline is checked at the first node.
+	private int nodesUntilDeadlineCheck = 1;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param options    The options controlling the search, with the deadline and
+	 *                   maximum number of nodes.
+	 * @param stopSignal The signal to tell the search to stop when the budget runs
+	 *                   out.
+	 */
+	SearchBudget(final SearchOptions options, final StopSignal stopSignal) {
+		this.deadlineMillis = options.getDeadline() != null ? options.getDeadline().toEpochMilli() : Long.MAX_VALUE;
+		this.maxNodes = options.getMaxNodes() > 0 ? options.getMaxNodes() : Long.MAX_VALUE;
+		this.stopSignal = stopSignal;
+		this.nodesClaimed = new AtomicLong();
+		this.status = new AtomicReference<>(SearchStatus.FINISHED);
+	}
+
+	/**
+	 * Copy constructor. The copy shares the limits, stop signal, nodes claimed and
+	 * status, but has claimed no nodes of its own yet.
+	 * 
+	 * @param budget The budget to copy.
+	 */
+	private SearchBudget(final SearchBudget budget) {
+		this.deadlineMillis = budget.deadlineMillis;
+		this.maxNodes = budget.maxNodes;
+		this.stopSignal = budget.stopSignal;
+		this.nodesClaimed = budget.nodesClaimed;
+		this.status = budget.status;
+	}
+
+	/**
+	 * Get a copy of the budget, for a search on a different thread.
+	 * 
+	 * @return A copy of the budget, sharing what has been spent so far.
+	 */
+	SearchBudget copy() {
+		return new SearchBudget(this);
+	}
+
+	/**
+	 * Check if the search options set a budget at all.
+	 * 
+	 * @param options The options controlling the search.
+	 * @return true if there is a deadline or a maximum number of nodes, or false if
+	 *         the search is unlimited.
+	 */
+	static boolean isBudgeted(final SearchOptions options) {
+		return options.getDeadline() != null || options.getMaxNodes() > 0;
+	}
+
+	/**
+	 * Spend a node from the budget, before visiting it.
+	 * 
+	 * @return true if the node can be visited, or false if the budget has run out
+	 *         (in which case the search has been told to stop).
+	 */
+	boolean spendNode() {
+		// If there is a node limit, spend one of the nodes we have claimed, claiming
+		// some more first if we have run out.
+		if (maxNodes != Long.MAX_VALUE) {
+			if (nodesLeft == 0) {
+				nodesLeft = claimNodes();
+				if (nodesLeft == 0) {
+					return exhaust(SearchStatus.NODE_LIMIT_REACHED);
+				}
+			}
+			nodesLeft--;
+		}
+
+		// Is it time to check the deadline?
+		if (--nodesUntilDeadlineCheck == 0) {
+			nodesUntilDeadlineCheck = DEADLINE_CHECK_INTERVAL;
+			if (System.currentTimeMillis() >= deadlineMillis) {
+				return exhaust(SearchStatus.DEADLINE_REACHED);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Claim a batch of nodes from the shared count. If there are fewer than a
+	 * batch left, we get the rest of them.
+	 * 
+	 * @return The number of nodes claimed, or 0 if there are none left.
+	 */
+	private long claimNodes() {
+		final long claimed = nodesClaimed.getAndAdd(NODE_CLAIM_SIZE);
+		return Math.max(0, Math.min(NODE_CLAIM_SIZE, maxNodes - claimed));
+	}
+
+	/**
+	 * Give back the nodes this copy has claimed but not spent, once its search has
+	 * ended, so that the searches on other threads can spend them.
+	 */
+	void returnUnspentNodes() {
+		if (nodesLeft > 0) {
+			nodesClaimed.addAndGet(-nodesLeft);
+			nodesLeft = 0;
+		}
+	}
+
+	/**
+	 * Get the status of the search.
+	 * 
+	 * @return FINISHED, unless the budget has run out, in which case the reason it
+	 *         ran out first.
+	 */
+	SearchStatus getStatus() {
+		return status.get();
+	}
+
+	/**
+	 * Record that the budget has run out, and tell the search to stop.
+	 * 
+	 * @param reason The reason the budget has run out.
+	 * @return false, meaning the node cannot be visited.
+	 */
+	private boolean exhaust(final SearchStatus reason) {
+		status.compareAndSet(SearchStatus.FINISHED, reason);
+		stopSignal.stop();
+		return false;
+	}
+}
@@ -0,0 +1,425 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Options controlling how the search for word squares is carried out. The
+ * setters return the options object, so that they can be chained.
+ * 
+ * @author ruth
+ */
+public class SearchOptions {
+
+	// Flag indicating if we are to return the first valid word square only, rather
+	// than checking if there are any others.
+	private boolean firstMatchOnly;
+
+	// Flag indicating if we check every open column after placing each word, and
+	// prune the search as soon as any of them can no longer be completed.
+	private boolean forwardChecking = true;
+
+	// Flag indicating if we check that the letters left over could still fill the
+	// squares which are yet to be decided, after placing each word.
+	private boolean parityChecking = true;
+
+	// Flag indicating if we search on several threads at once, using a fork/join
+	// pool.
+	private boolean parallel;
+
+	// The number of words to place before a parallel search stops splitting into
+	// smaller tasks.
+	private int splitDepth = 2;
+
+	// The maximum number of states to hold in the nogood cache, or 0 for no cache.
+	private int nogoodCacheCapacity;
+
+	// The time at which the search must stop, or null if there is no deadline.
+	private Instant deadline;
+
+	// The maximum number of nodes the search may visit, or 0 for no limit.
+	private long maxNodes;
+
+	// The file to write checkpoints of the search to, or null for no checkpoints.
+	private Path checkpointFile;
+
+	// The time between checkpoints.
+	private Duration checkpointInterval = Duration.ofMinutes(1);
+
+	// The part of the search to carry out, and the number of parts the search is
+	// split into.
+	private int shardIndex;
+	private int shardCount = 1;
+
+	// The store of word squares to look in before searching, and add to after, or
+	// null for no store.
+	private ResultStore resultStore;
+
+	// The cache of word squares to look in before searching, and add to after, or
+	// null for no cache.
+	private ResultCache resultCache;
+
+	/**
+	 * Get the flag indicating if we want to stop after we find the first valid word
+	 * square.
+	 * 
+	 * @return true if we want to stop after finding the first match, or false if we
+	 *         want to continue until all words have been exhausted.
+	 */
+	public boolean isFirstMatchOnly() {
+		return firstMatchOnly;
+	}
+
+	/**
+	 * Set the flag indicating if we want to stop after we find the first valid word
+	 * square. This is false by default.
+	 * 
+	 * @param firstMatchOnly true to stop at the first valid word square, false to
+	 *                       continue until we run out of words.
+	 * @return These search options.
+	 */
+	public SearchOptions setFirstMatchOnly(final boolean firstMatchOnly) {
+		this.firstMatchOnly = firstMatchOnly;
+		return this;
+	}
+
+	/**
+	 * Get the flag indicating if forward checking is enabled.
+	 * 
+	 * @return true if forward checking is enabled, or false if not.
+	 */
+	public boolean isForwardChecking() {
+		return forwardChecking;
+	}
+
+	/**
+	 * Set the flag indicating if forward checking is enabled. When it is, after
+	 * placing each word we check that every column still to be completed has at
+	 * least one word in the shortlist which begins with the letters already in that
+	 * column, and whose remaining letters are still available. If any column fails
+	 * this check, we prune the search there and then, rather than finding out
+	 * several words later. This is true by default.
+	 * 
+	 * @param forwardChecking true to enable forward checking, or false to disable
+	 *                        it.
+	 * @return These search options.
+	 */
+	public SearchOptions setForwardChecking(final boolean forwardChecking) {
+		this.forwardChecking = forwardChecking;
+		return this;
+	}
+
+	/**
+	 * Get the flag indicating if letter parity checking is enabled.
+	 * 
+	 * @return true if letter parity checking is enabled, or false if not.
+	 */
+	public boolean isParityChecking() {
+		return parityChecking;
+	}
+
+	/**
+	 * Set the flag indicating if letter parity checking is enabled. When it is,
+	 * after placing each word we take the letters already decided by the columns
+	 * away from the remaining letters, and check that what is left could fill the
+	 * smaller word square of squares yet to be decided (see the Letter Parity
+	 * Predicate). If not, we prune the search there and then. This is true by
+	 * default.
+	 * 
+	 * @param parityChecking true to enable letter parity checking, or false to
+	 *                       disable it.
+	 * @return These search options.
+	 */
+	public SearchOptions setParityChecking(final boolean parityChecking) {
+		this.parityChecking = parityChecking;
+		return this;
+	}
+
+	/**
+	 * Get the flag indicating if we search on several threads at once.
+	 * 
+	 * @return true if the search is parallel, or false if it runs on the calling
+	 *         thread only.
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Set the flag indicating if we search on several threads at once. When it is,
+	 * the search is split into a task for each first word, and each of those into
+	 * a task for each second word, and so on down to the split depth, and the
+	 * tasks are run on a fork/join pool (see the Parallel Word Square Generator).
+	 * The word squares come back in the same order as a search on one thread, but
+	 * if the firstMatchOnly flag is true, the word square found first may not be
+	 * the same one. This is false by default.
+	 * 
+	 * @param parallel true to search on several threads at once, or false to search
+	 *                 on the calling thread only.
+	 * @return These search options.
+	 */
+	public SearchOptions setParallel(final boolean parallel) {
+		this.parallel = parallel;
+		return this;
+	}
+
+	/**
+	 * Get the number of words to place before a parallel search stops splitting
+	 * into smaller tasks.
+	 * 
+	 * @return The split depth.
+	 */
+	public int getSplitDepth() {
+		return splitDepth;
+	}
+
+	/**
+	 * Set the number of words to place before a parallel search stops splitting
+	 * into smaller tasks, and searches the rest of the subtree on one thread. The
+	 * subtrees below the first words differ hugely in size, so splitting again
+	 * further down keeps every thread busy until the end. This is 2 by default.
+	 * 
+	 * @param splitDepth The split depth. This must be at least 1.
+	 * @return These search options.
+	 */
+	public SearchOptions setSplitDepth(final int splitDepth) {
+		if (splitDepth < 1) {
+			throw new IllegalArgumentException("Split depth must be at least 1: " + splitDepth);
+		}
+		this.splitDepth = splitDepth;
+		return this;
+	}
+
+	/**
+	 * Get the maximum number of states to hold in the nogood cache.
+	 * 
+	 * @return The nogood cache capacity, or 0 if there is no cache.
+	 */
+	public int getNogoodCacheCapacity() {
+		return nogoodCacheCapacity;
+	}
+
+	/**
+	 * Set the maximum number of states to hold in the nogood cache. When this is
+	 * more than 0, the search remembers the states it has proven to have no
+	 * completion (the remaining letters, and the letters at the start of each
+	 * column still to be completed), and skips them if it comes across them again
+	 * (see the Nogood Cache). The hits and misses are counted in the search
+	 * statistics, so the capacity can be sized to suit. This is 0 by default.
+	 * 
+	 * @param nogoodCacheCapacity The nogood cache capacity, or 0 for no cache.
+	 * @return These search options.
+	 */
+	public SearchOptions setNogoodCacheCapacity(final int nogoodCacheCapacity) {
+		if (nogoodCacheCapacity < 0) {
+			throw new IllegalArgumentException("Nogood cache capacity must not be negative: " + nogoodCacheCapacity);
+		}
+		this.nogoodCacheCapacity = nogoodCacheCapacity;
+		return this;
+	}
+
+	/**
+	 * Get the time at which the search must stop.
+	 * 
+	 * @return The deadline, or null if there is no deadline.
+	 */
+	public Instant getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Set the time at which the search must stop. Once it has passed, the search
+	 * stops, and returns the word squares found so far, with a status saying that
+	 * the deadline was reached (see the Search Result). The clock is only checked
+	 * every few hundred nodes, so the search may run very slightly past the
+	 * deadline. There is no deadline by default.
+	 * 
+	 * @param deadline The deadline, or null for no deadline.
+	 * @return These search options.
+	 */
+	public SearchOptions setDeadline(final Instant deadline) {
+		this.deadline = deadline;
+		return this;
+	}
+
+	/**
+	 * Get the maximum number of nodes the search may visit.
+	 * 
+	 * @return The maximum number of nodes, or 0 if there is no limit.
+	 */
+	public long getMaxNodes() {
+		return maxNodes;
+	}
+
+	/**
+	 * Set the maximum number of nodes the search may visit. Once it has visited
+	 * them, the search stops, and returns the word squares found so far, with a
+	 * status saying that the node limit was reached (see the Search Result). Unlike
+	 * a deadline, this stops the search at the same point every time. This is 0 by
+	 * default, meaning no limit.
+	 * 
+	 * @param maxNodes The maximum number of nodes, or 0 for no limit.
+	 * @return These search options.
+	 */
+	public SearchOptions setMaxNodes(final long maxNodes) {
+		if (maxNodes < 0) {
+			throw new IllegalArgumentException("Maximum number of nodes must not be negative: " + maxNodes);
+		}
+		this.maxNodes = maxNodes;
+		return this;
+	}
+
+	/**
+	 * Get the file to write checkpoints of the search to.
+	 * 
+	 * @return The checkpoint file, or null if there are no checkpoints.
+	 */
+	public Path getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	/**
+	 * Set the file to write checkpoints of the search to. When this is set, the
+	 * search writes its progress to the file every checkpoint interval, and once
+	 * more when it ends, so that it can be resumed from there later (see the
+	 * Checkpoint). Checkpoints are only written by a search for the list of word
+	 * squares on one thread - not by a parallel search, a count or a stream. There
+	 * is no checkpoint file by default.
+	 * 
+	 * @param checkpointFile The checkpoint file, or null for no checkpoints.
+	 * @return These search options.
+	 */
+	public SearchOptions setCheckpointFile(final Path checkpointFile) {
+		this.checkpointFile = checkpointFile;
+		return this;
+	}
+
+	/**
+	 * Get the time between checkpoints.
+	 * 
+	 * @return The checkpoint interval.
+	 */
+	public Duration getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Set the time between checkpoints. The clock is only checked every few
+	 * hundred nodes, so checkpoints may be written slightly later than this. This
+	 * is 1 minute by default.
+	 * 
+	 * @param checkpointInterval The checkpoint interval. This must not be negative.
+	 * @return These search options.
+	 */
+	public SearchOptions setCheckpointInterval(final Duration checkpointInterval) {
+		if (checkpointInterval == null || checkpointInterval.isNegative()) {
+			throw new IllegalArgumentException("Checkpoint interval must not be negative: " + checkpointInterval);
+		}
+		this.checkpointInterval = checkpointInterval;
+		return this;
+	}
+
+	/**
+	 * Get the part of the search to carry out.
+	 * 
+	 * @return The shard index, from 0.
+	 */
+	public int getShardIndex() {
+		return shardIndex;
+	}
+
+	/**
+	 * Get the number of parts the search is split into.
+	 * 
+	 * @return The shard count.
+	 */
+	public int getShardCount() {
+		return shardCount;
+	}
+
+	/**
+	 * Set the part of the search to carry out, so that one search can be split
+	 * across several machines or processes, each searching its own part (or shard)
+	 * with no need to talk to the others. Each pair of first and second words is
+	 * given to one of the shards, by hashing their positions in the word
+	 * shortlist, so every shard gets the same pairs whichever machine it runs on,
+	 * and the big and small subtrees are spread evenly between the shards. The
+	 * word squares found by all the shards can then be put together with the
+	 * Shard Merger. Word squares of 1 letter have no second word, so every shard
+	 * finds them all. By default there is only one shard, which is the whole
+	 * search.
+	 * 
+	 * @param shardIndex The shard index, from 0 to one less than the shard count.
+	 * @param shardCount The shard count. This must be at least 1.
+	 * @return These search options.
+	 */
+	public SearchOptions setShard(final int shardIndex, final int shardCount) {
+		if (shardCount < 1) {
+			throw new IllegalArgumentException("Shard count must be at least 1: " + shardCount);
+		}
+		if (shardIndex < 0 || shardIndex >= shardCount) {
+			throw new IllegalArgumentException("Shard index must be from 0 to " + (shardCount - 1) + ": " + shardIndex);
+		}
+		this.shardIndex = shardIndex;
+		this.shardCount = shardCount;
+		return this;
+	}
+
+	/**
+	 * Get the store of word squares to look in before searching, and add to
+	 * after.
+	 * 
+	 * @return The result store, or null if there is none.
+	 */
+	public ResultStore getResultStore() {
+		return resultStore;
+	}
+
+	/**
+	 * Set the store of word squares to look in before searching, and add to after.
+	 * When this is set, a search for the list of word squares through the Word
+	 * Square Generator (on one thread or in parallel) first looks for the puzzle
+	 * in the store, and if it has all the word squares, returns them (or only the
+	 * first, if the firstMatchOnly flag is true) without searching. Otherwise,
+	 * once a search has found every word square, they are added to the store. The
+	 * results of a search for only the first word square, or which ran out of
+	 * budget, or of only one shard, are never added, as they are not all the word
+	 * squares. There is no result store by default.
+	 * 
+	 * @param resultStore The result store, or null for no store.
+	 * @return These search options.
+	 */
+	public SearchOptions setResultStore(final ResultStore resultStore) {
+		this.resultStore = resultStore;
+		return this;
+	}
+
+	/**
+	 * Get the cache of word squares to look in before searching, and add to
+	 * after.
+	 * 
+	 * @return The result cache, or null if there is none.
+	 */
+	public ResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Set the cache of word squares to look in before searching, and add to
+	 * after. When this is set, a search for the list of word squares through the
+	 * Word Square Generator first looks for the puzzle in the cache, and if it is
+	 * there, returns its word squares without searching, or looking in the result
+	 * store. Otherwise, once a search (or the result store) has found every word
+	 * square, or the first if the firstMatchOnly flag is true, they are added to
+	 * the cache. The results of a search which ran out of budget, or of only one
+	 * shard, are never added. There is no result cache by default.
+	 * 
+	 * @param resultCache The result cache, or null for no cache.
+	 * @return These search options.
+	 */
+	public SearchOptions setResultCache(final ResultCache resultCache) {
+		this.resultCache = resultCache;
+		return this;
+	}
+}
@@ -0,0 +1,57 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.util.List;
+
+/**
+ * Result of a search for word squares: the word squares found, and the status
+ * saying whether the search finished or ran out of budget. If it ran out of
+ * budget, the word squares are the ones found before then.
+ * 
+ * @author ruth
+ */
+public class SearchResult {
+
+	// The word squares found.
+	private final List<WordSquare> wordSquares;
+
+	// The status of the search.
+	private final SearchStatus status;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param wordSquares The word squares found.
+	 * @param status      The status of the search.
+	 */
+	public SearchResult(final List<WordSquare> wordSquares, final SearchStatus status) {
+		this.wordSquares = wordSquares;
+		this.status = status;
+	}
+
+	/**
+	 * Get the word squares found.
+	 * 
+	 * @return The word squares.
+	 */
+	public List<WordSquare> getWordSquares() {
+		return wordSquares;
+	}
+
+	/**
+	 * Get the status of the search.
+	 * 
+	 * @return The status.
+	 */
+	public SearchStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * Check if the search finished, so that the word squares are all there are.
+	 * 
+	 * @return true if the search finished, or false if it ran out of budget.
+	 */
+	public boolean isFinished() {
+		return status == SearchStatus.FINISHED;
+	}
+}
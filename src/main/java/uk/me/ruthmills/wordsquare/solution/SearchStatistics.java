@@ -0,0 +1,126 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics gathered during the search for word squares, so that we can
+ * measure the effect of the different search options. The counters are safe to
+ * update from more than one thread.
+ * 
+ * @author ruth
+ */
+public class SearchStatistics {
+
+	// The number of nodes of the search tree visited (i.e. the number of times a
+	// word has been placed in the word square).
+	private final LongAdder nodesVisited = new LongAdder();
+
+	// The number of nodes pruned by forward checking.
+	private final LongAdder nodesPruned = new LongAdder();
+
+	// The number of nodes pruned by letter parity checking.
+	private final LongAdder nodesPrunedByParity = new LongAdder();
+
+	// The number of times a state was found in the nogood cache, and so skipped.
+	private final LongAdder nogoodCacheHits = new LongAdder();
+
+	// The number of times a state was looked up in the nogood cache, but was not
+	// found.
+	private final LongAdder nogoodCacheMisses = new LongAdder();
+
+	/**
+	 * Record that a node of the search tree has been visited.
+	 */
+	void nodeVisited() {
+		nodesVisited.increment();
+	}
+
+	/**
+	 * Record that a node of the search tree has been pruned by forward checking.
+	 */
+	void nodePruned() {
+		nodesPruned.increment();
+	}
+
+	/**
+	 * Record that a node of the search tree has been pruned by letter parity
+	 * checking.
+	 */
+	void nodePrunedByParity() {
+		nodesPrunedByParity.increment();
+	}
+
+	/**
+	 * Record that a state was found in the nogood cache.
+	 */
+	void nogoodCacheHit() {
+		nogoodCacheHits.increment();
+	}
+
+	/**
+	 * Record that a state was not found in the nogood cache.
+	 */
+	void nogoodCacheMiss() {
+		nogoodCacheMisses.increment();
+	}
+
+	/**
+	 * Get the number of nodes of the search tree visited.
+	 * 
+	 * @return The number of nodes visited.
+	 */
+	public long getNodesVisited() {
+		return nodesVisited.sum();
+	}
+
+	/**
+	 * Get the number of nodes of the search tree pruned by forward checking. The
+	 * subtrees below these nodes were never searched.
+	 * 
+	 * @return The number of nodes pruned.
+	 */
+	public long getNodesPruned() {
+		return nodesPruned.sum();
+	}
+
+	/**
+	 * Get the number of nodes of the search tree pruned by letter parity checking.
+	 * 
+	 * @return The number of nodes pruned by letter parity checking.
+	 */
+	public long getNodesPrunedByParity() {
+		return nodesPrunedByParity.sum();
+	}
+
+	/**
+	 * Get the number of times a state was found in the nogood cache. The subtrees
+	 * below these states were never searched.
+	 * 
+	 * @return The number of nogood cache hits.
+	 */
+	public long getNogoodCacheHits() {
+		return nogoodCacheHits.sum();
+	}
+
+	/**
+	 * Get the number of times a state was looked up in the nogood cache, but was
+	 * not found.
+	 * 
+	 * @return The number of nogood cache misses.
+	 */
+	public long getNogoodCacheMisses() {
+		return nogoodCacheMisses.sum();
+	}
+
+	/**
+	 * Convert to a String.
+	 * 
+	 * @return String containing the statistics.
+	 */
+	@Override
+	public String toString() {
+		return "nodesVisited=" + getNodesVisited() + ", nodesPruned=" + getNodesPruned() + ", nodesPrunedByParity="
+				+ getNodesPrunedByParity() + ", nogoodCacheHits=" + getNogoodCacheHits() + ", nogoodCacheMisses="
+				+ getNogoodCacheMisses();
+	}
+}
@@ -0,0 +1,21 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+/**
+ * Status of a search for word squares, saying whether it finished, or was cut
+ * short because it ran out of budget (see the Search Options). If the search was
+ * cut short, the word squares found are only the ones found before then.
+ * 
+ * @author ruth
+ */
+public enum SearchStatus {
+
+	// The search finished. If the firstMatchOnly flag is true, this includes
+	// stopping at the first word square.
+	FINISHED,
+
+	// The search was stopped because the deadline passed.
+	DEADLINE_REACHED,
+
+	// The search was stopped because it visited the maximum number of nodes.
+	NODE_LIMIT_REACHED
+}
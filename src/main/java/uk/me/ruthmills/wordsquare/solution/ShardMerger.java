@@ -0,0 +1,158 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges the word squares found by each shard of a search which was split
+ * across several machines or processes (see the shard option in the Search
+ * Options) into the same output as a search on one machine.
+ * 
+ * Each shard's result file holds its word squares as the command line prints
+ * them: the words of each word square on separate lines, followed by a blank
+ * line. The merged file is in the same format, with the word squares in the
+ * order a search on one machine finds them. A word square found by more than
+ * one shard (which only happens for 1-letter word squares) is only written
+ * once.
+ * 
+ * @author ruth
+ */
+public class ShardMerger {
+
+	/**
+	 * Main function. Merges the shard result files into one file.
+	 * 
+	 * @param args Arguments: &lt;merged file&gt; &lt;shard file&gt;...
+	 * @throws IOException Thrown if we cannot read a shard file or write the merged
+	 *                     file.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 2) {
+			// Output the required parameters.
+			System.out.println("Required parameters: <merged file> <shard file>...");
+		} else {
+			final List<Path> shardFiles = new ArrayList<>(args.length - 1);
+			for (int index = 1; index < args.length; index++) {
+				shardFiles.add(Paths.get(args[index]));
+			}
+			ShardMerger.merge(shardFiles, Paths.get(args[0]));
+		}
+	}
+
+	/**
+	 * Merge the shard result files into one file.
+	 * 
+	 * @param shardFiles The shard result files.
+	 * @param mergedFile The merged file to write.
+	 * @throws IOException Thrown if we cannot read a shard file or write the merged
+	 *                     file.
+	 */
+	public static void merge(final List<Path> shardFiles, final Path mergedFile) throws IOException {
+		writeWordSquares(mergeWordSquares(shardFiles), mergedFile);
+	}
+
+	/**
+	 * Read the word squares from the shard result files, and put them in the order
+	 * a search on one machine finds them.
+	 * 
+	 * @param shardFiles The shard result files.
+	 * @return The word squares, with no duplicates.
+	 * @throws IOException Thrown if we cannot read a shard file.
+	 */
+	public static List<WordSquare> mergeWordSquares(final List<Path> shardFiles) throws IOException {
+		// Read all the word squares, and sort them.
+		final List<WordSquare> wordSquares = new ArrayList<>();
+		for (final Path shardFile : shardFiles) {
+			wordSquares.addAll(readWordSquares(shardFile));
+		}
+		sortInSearchOrder(wordSquares);
+
+		// Take out any duplicates, which are now next to each other.
+		final List<WordSquare> mergedWordSquares = new ArrayList<>(wordSquares.size());
+		for (final WordSquare wordSquare : wordSquares) {
+			if (mergedWordSquares.isEmpty() || compareWords(
+					mergedWordSquares.get(mergedWordSquares.size() - 1).getWords(), wordSquare.getWords()) != 0) {
+				mergedWordSquares.add(wordSquare);
+			}
+		}
+		return mergedWordSquares;
+	}
+
+	/**
+	 * Read the word squares from a result file.
+	 * 
+	 * @param file The result file.
+	 * @return The word squares.
+	 * @throws IOException Thrown if we cannot read the file.
+	 */
+	public static List<WordSquare> readWordSquares(final Path file) throws IOException {
+		final List<WordSquare> wordSquares = new ArrayList<>();
+		List<String> words = new ArrayList<>();
+		for (final String line : Files.readAllLines(file, StandardCharsets.US_ASCII)) {
+			// A blank line ends the word square.
+			if (line.isEmpty()) {
+				if (!words.isEmpty()) {
+					wordSquares.add(new WordSquare(words.size(), words));
+					words = new ArrayList<>();
+				}
+			} else {
+				words.add(line);
+			}
+		}
+		if (!words.isEmpty()) {
+			wordSquares.add(new WordSquare(words.size(), words));
+		}
+		return wordSquares;
+	}
+
+	/**
+	 * Write word squares to a result file.
+	 * 
+	 * @param wordSquares The word squares.
+	 * @param file        The result file.
+	 * @throws IOException Thrown if we cannot write the file.
+	 */
+	public static void writeWordSquares(final List<WordSquare> wordSquares, final Path file) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+			for (final WordSquare wordSquare : wordSquares) {
+				writer.write(wordSquare.toString());
+				writer.write("\n");
+			}
+		}
+	}
+
+	/**
+	 * Sort word squares into the order a search on one machine finds them.
+	 * 
+	 * @param wordSquares The word squares to sort.
+	 */
+	static void sortInSearchOrder(final List<WordSquare> wordSquares) {
+		wordSquares.sort((wordSquare, otherWordSquare) -> compareWords(wordSquare.getWords(),
+				otherWordSquare.getWords()));
+	}
+
+	/**
+	 * Compare the words of two word squares, in the order a search finds them, i.e.
+	 * by the first word, then by the second word, and so on.
+	 * 
+	 * @param words      The words of the first word square.
+	 * @param otherWords The words of the second word square.
+	 * @return A negative number, zero, or a positive number if the first word
+	 *         square comes before, at the same point as, or after the second.
+	 */
+	static int compareWords(final List<String> words, final List<String> otherWords) {
+		for (int index = 0; index < words.size() && index < otherWords.size(); index++) {
+			final int comparison = words.get(index).compareTo(otherWords.get(index));
+			if (comparison != 0) {
+				return comparison;
+			}
+		}
+		return Integer.compare(words.size(), otherWords.size());
+	}
+}
@@ -2,18 +2,20 @@ package uk.me.ruthmills.wordsquare.solution;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.commons.collections4.ListUtils;
 
-import uk.me.ruthmills.wordsquare.exception.FirstWordSquareSolvedException;
 import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.index.WordPositionIndex;
+import uk.me.ruthmills.wordsquare.index.WordPrefixIndex;
 import uk.me.ruthmills.wordsquare.letters.AvailableLetters;
 import uk.me.ruthmills.wordsquare.letters.AvailableLettersFactory;
-import uk.me.ruthmills.wordsquare.predicate.WordContainsAvailableLettersPredicate;
-import uk.me.ruthmills.wordsquare.predicate.WordMeetsRequirementsPredicate;
+import uk.me.ruthmills.wordsquare.letters.MutableAvailableLetters;
+import uk.me.ruthmills.wordsquare.predicate.LetterParityPredicate;
 
 /**
  * This class represents the state of play during the solving of a word square.
@@ -25,25 +27,88 @@ import uk.me.ruthmills.wordsquare.predicate.WordMeetsRequirementsPredicate;
  */
 public class SolutionState {
 
+	// The number of letters in the alphabet.
+	private static final int ALPHABET_SIZE = 26;
+
 	// The length of each word in the word square.
 	private final int length;
 
-	// The remaining letters we have available to make words from.
-	private final AvailableLetters letters;
+	// The remaining letters we have available to make words from. These change
+	// as we place words and take them away again.
+	private final MutableAvailableLetters letters;
+
+	// The options controlling the search.
+	private final SearchOptions options;
+
+	// The statistics gathered during the search.
+	private final SearchStatistics statistics;
+
+	// The signal telling the search to stop early.
+	private final StopSignal stopSignal;
+
+	// The live metrics of every search, updated along with the statistics.
+	private final SolverMetrics metrics;
 
-	// Flag indicating if we are to return the first valid word square only, rather
-	// than checking if there are any others.
-	private final boolean firstMatchOnly;
+	// The budget the search must stay within, or null if it is unlimited. This is
+	// shared with any copies.
+	private final SearchBudget budget;
 
 	// The shortlist of valid words to iterate through.
 	private final List<String> wordShortlist;
 
+	// Prefix index over the word shortlist.
+	private final WordPrefixIndex wordPrefixIndex;
+
+	// Index of the letter at each position of the words in the prefix index.
+	private final WordPositionIndex wordPositionIndex;
+
 	// The current list of words we have in the word square so far.
 	private final List<String> words;
 
 	// The word squares we have solved so far.
 	private final List<WordSquare> wordSquares;
 
+	// The counter to add the word squares to instead, if we are only counting them,
+	// or null if not. This is shared with any copies.
+	private final LongAdder wordSquareCounter;
+
+	// The number of word squares we have come to so far, whether or not we have
+	// added them.
+	private long wordSquaresFound;
+
+	// The writer of checkpoints of the search, or null if there are none.
+	private final Checkpointer checkpointer;
+
+	// Letter parity predicates for the undecided squares, indexed by the number of
+	// words we have so far.
+	private final LetterParityPredicate[] letterParityPredicates;
+
+	// Reusable string builders, so that we don't allocate new strings at each step
+	// of the search.
+	private final StringBuilder prefix;
+	private final StringBuilder columnPrefix;
+	private final StringBuilder decidedLetters;
+
+	// Reusable candidate words for the next word, indexed by the number of words we
+	// have so far, and a reusable array of the bitsets for the letters allowed at a
+	// position.
+	private final WordCandidates[] wordCandidates;
+	private final long[][] allowedLetterBitsets;
+
+	// Bitsets of the words in the prefix index which could still be formed, indexed
+	// by the number of words we have so far. Each is narrowed down from the one
+	// before, by taking away the words containing any letter which has run out.
+	private final long[][] formableWords;
+
+	// The cache of states proven to have no completion, or null if there is no
+	// cache. This is shared with any copies.
+	private final NogoodCache nogoodCache;
+
+	// The states looked up in the nogood cache, indexed by the number of words we
+	// have so far, and a reusable string builder to make them with.
+	private final String[] nogoodStates;
+	private final StringBuilder nogoodState;
+
 	/**
 	 * Constructor. By default we assume that we will return ALL word squares, not
 	 * stopping at the first one.
@@ -66,30 +131,172 @@ public class SolutionState {
 	 * @throws IOException Thrown if there is a problem reading from the dictionary.
 	 */
 	public SolutionState(final int length, final String letters, final boolean firstMatchOnly) throws IOException {
+		this(length, letters, new SearchOptions().setFirstMatchOnly(firstMatchOnly), new SearchStatistics());
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param length     The length of each word in the word square.
+	 * @param letters    The available letters from which to form words.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @throws IOException Thrown if there is a problem reading from the dictionary.
+	 */
+	public SolutionState(final int length, final String letters, final SearchOptions options,
+			final SearchStatistics statistics) throws IOException {
+		this(length, letters, options, statistics, new StopSignal());
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param length     The length of each word in the word square.
+	 * @param letters    The available letters from which to form words.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @param stopSignal The signal telling the search to stop early.
+	 * @throws IOException Thrown if there is a problem reading from the dictionary.
+	 */
+	public SolutionState(final int length, final String letters, final SearchOptions options,
+			final SearchStatistics statistics, final StopSignal stopSignal) throws IOException {
+		this(length, letters, options, statistics, stopSignal, null);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param length            The length of each word in the word square.
+	 * @param letters           The available letters from which to form words.
+	 * @param options           The options controlling the search.
+	 * @param statistics        The statistics to update during the search.
+	 * @param stopSignal        The signal telling the search to stop early.
+	 * @param wordSquareCounter The counter to add the word squares to, rather than
+	 *                          adding them to the list of word squares, or null
+	 *                          to add them to the list.
+	 * @throws IOException Thrown if there is a problem reading from the dictionary.
+	 */
+	SolutionState(final int length, final String letters, final SearchOptions options,
+			final SearchStatistics statistics, final StopSignal stopSignal, final LongAdder wordSquareCounter)
+			throws IOException {
+		this(length, letters, WordShortlist.getWordShortlist(length, AvailableLettersFactory.getInstance(letters)),
+				options, statistics, stopSignal, wordSquareCounter);
+	}
+
+	/**
+	 * Constructor, with a word shortlist which has already been built (e.g. from a
+	 * Word Length Bucket shared by a batch of searches).
+	 * 
+	 * @param length            The length of each word in the word square.
+	 * @param letters           The available letters from which to form words.
+	 * @param wordShortlist     The shortlist of words of the required length which
+	 *                          can be formed from the available letters.
+	 * @param options           The options controlling the search.
+	 * @param statistics        The statistics to update during the search.
+	 * @param stopSignal        The signal telling the search to stop early.
+	 * @param wordSquareCounter The counter to add the word squares to, rather than
+	 *                          adding them to the list of word squares, or null
+	 *                          to add them to the list.
+	 */
+	SolutionState(final int length, final String letters, final List<String> wordShortlist,
+			final SearchOptions options, final SearchStatistics statistics, final StopSignal stopSignal,
+			final LongAdder wordSquareCounter) {
 		this.length = length;
-		this.letters = AvailableLettersFactory.getInstance(letters);
-		this.firstMatchOnly = firstMatchOnly;
-		this.wordShortlist = WordShortlist.getWordShortlist(length, this.letters);
-		this.words = new ArrayList<>();
+		this.letters = AvailableLettersFactory.getMutableInstance(letters);
+		this.options = options;
+		this.statistics = statistics;
+		this.stopSignal = stopSignal;
+		this.metrics = SolverMetrics.getInstance();
+		this.budget = SearchBudget.isBudgeted(options) ? new SearchBudget(options, stopSignal) : null;
+		this.wordShortlist = wordShortlist;
+		this.wordPrefixIndex = new WordPrefixIndex(wordShortlist);
+		this.wordPositionIndex = new WordPositionIndex(wordPrefixIndex.getWords());
+		this.words = new ArrayList<>(length);
 		this.wordSquares = new ArrayList<>();
+		this.wordSquareCounter = wordSquareCounter;
+		this.checkpointer = options.getCheckpointFile() != null && wordSquareCounter == null
+				? new Checkpointer(length, letters, options)
+				: null;
+		this.letterParityPredicates = new LetterParityPredicate[length + 1];
+		for (int numWords = 0; numWords <= length; numWords++) {
+			letterParityPredicates[numWords] = new LetterParityPredicate(length - numWords);
+		}
+		this.prefix = new StringBuilder(length);
+		this.columnPrefix = new StringBuilder(length);
+		this.decidedLetters = new StringBuilder(length * length);
+		this.wordCandidates = createWordCandidates(length, wordPrefixIndex.size());
+		this.allowedLetterBitsets = new long[ALPHABET_SIZE][];
+		this.formableWords = new long[length][WordPositionIndex.getLongCount(wordPrefixIndex.size())];
+		Arrays.fill(formableWords[0], -1L);
+		this.nogoodCache = options.getNogoodCacheCapacity() > 0 ? new NogoodCache(options.getNogoodCacheCapacity())
+				: null;
+		this.nogoodStates = new String[length];
+		this.nogoodState = new StringBuilder(length * length);
 	}
 
 	/**
-	 * Private constructor - for internal use only.
+	 * Copy constructor. The copy shares everything which does not change during
+	 * the search (the options, statistics, metrics, stop signal, word square
+	 * counter, and word shortlist), but
+	 * has its own available letters, words, and word squares, so that it can be
+	 * searched on a different thread. It has its own copy of the budget, which
+	 * shares what has been spent so far. The copy never writes checkpoints.
 	 * 
-	 * @param solutionState Existing solution state.
-	 * @param letters       Available letters.
-	 * @param wordShortlist Word shortlist.
-	 * @param words         Current list of words.
+	 * @param solutionState The solution state to copy.
 	 */
-	private SolutionState(final SolutionState solutionState, final AvailableLetters letters,
-			final List<String> wordShortlist, final List<String> words) {
+	private SolutionState(final SolutionState solutionState) {
 		this.length = solutionState.length;
-		this.letters = letters;
-		this.firstMatchOnly = solutionState.firstMatchOnly;
-		this.wordShortlist = wordShortlist;
-		this.words = words;
-		this.wordSquares = solutionState.wordSquares;
+		this.letters = solutionState.letters.copy();
+		this.options = solutionState.options;
+		this.statistics = solutionState.statistics;
+		this.stopSignal = solutionState.stopSignal;
+		this.metrics = solutionState.metrics;
+		this.budget = solutionState.budget != null ? solutionState.budget.copy() : null;
+		this.wordShortlist = solutionState.wordShortlist;
+		this.wordPrefixIndex = solutionState.wordPrefixIndex;
+		this.wordPositionIndex = solutionState.wordPositionIndex;
+		this.words = new ArrayList<>(solutionState.words);
+		this.wordSquares = new ArrayList<>();
+		this.wordSquareCounter = solutionState.wordSquareCounter;
+		this.checkpointer = null;
+		this.letterParityPredicates = solutionState.letterParityPredicates;
+		this.prefix = new StringBuilder(length);
+		this.columnPrefix = new StringBuilder(length);
+		this.decidedLetters = new StringBuilder(length * length);
+		this.wordCandidates = createWordCandidates(length, wordPrefixIndex.size());
+		this.allowedLetterBitsets = new long[ALPHABET_SIZE][];
+		this.formableWords = new long[length][];
+		for (int numWords = 0; numWords < length; numWords++) {
+			formableWords[numWords] = solutionState.formableWords[numWords].clone();
+		}
+		this.nogoodCache = solutionState.nogoodCache;
+		this.nogoodStates = solutionState.nogoodStates.clone();
+		this.nogoodState = new StringBuilder(length * length);
+	}
+
+	/**
+	 * Create the reusable candidate words for each depth of the search.
+	 * 
+	 * @param length The length of each word in the word square.
+	 * @param size   The number of words in the prefix index.
+	 * @return The candidate words, indexed by the number of words we have so far.
+	 */
+	private static WordCandidates[] createWordCandidates(final int length, final int size) {
+		final WordCandidates[] wordCandidates = new WordCandidates[length];
+		for (int numWords = 0; numWords < length; numWords++) {
+			wordCandidates[numWords] = new WordCandidates(size);
+		}
+		return wordCandidates;
+	}
+
+	/**
+	 * Get a copy of the solution state, which can be searched on a different
+	 * thread. The copy starts with the same words placed, but no word squares.
+	 * 
+	 * @return A copy of the solution state.
+	 */
+	SolutionState copy() {
+		return new SolutionState(this);
 	}
 
 	/**
@@ -118,7 +325,52 @@ public class SolutionState {
 	 *         want to continue until all words have been exhausted.
 	 */
 	public boolean isFirstMatchOnly() {
-		return firstMatchOnly;
+		return options.isFirstMatchOnly();
+	}
+
+	/**
+	 * Get the options controlling the search.
+	 * 
+	 * @return The search options.
+	 */
+	public SearchOptions getOptions() {
+		return options;
+	}
+
+	/**
+	 * Get the statistics gathered during the search.
+	 * 
+	 * @return The search statistics.
+	 */
+	public SearchStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Get the signal telling the search to stop early.
+	 * 
+	 * @return The stop signal.
+	 */
+	public StopSignal getStopSignal() {
+		return stopSignal;
+	}
+
+	/**
+	 * Get the status of the search, saying whether it has run out of budget.
+	 * 
+	 * @return The search status. This is FINISHED unless the budget has run out.
+	 */
+	public SearchStatus getSearchStatus() {
+		return budget != null ? budget.getStatus() : SearchStatus.FINISHED;
+	}
+
+	/**
+	 * Get the cache of states proven to have no completion.
+	 * 
+	 * @return The nogood cache, or null if there is no cache.
+	 */
+	public NogoodCache getNogoodCache() {
+		return nogoodCache;
 	}
 
 	/**
@@ -130,6 +382,15 @@ public class SolutionState {
 		return wordShortlist;
 	}
 
+	/**
+	 * Get the prefix index over the word shortlist.
+	 * 
+	 * @return The word prefix index.
+	 */
+	WordPrefixIndex getWordPrefixIndex() {
+		return wordPrefixIndex;
+	}
+
 	/**
 	 * Get the list of words - this is the valid words we have so far on the way to
 	 * completing a word square.
@@ -151,114 +412,627 @@ public class SolutionState {
 	 * Get valid word squares for a given starting word, available letters, and word
 	 * shortlist.
 	 * 
+	 * The same solution state is used all the way down the search: we place each
+	 * word by removing its letters from the available letters and adding it to the
+	 * list of words, and then take it away again once we have searched everything
+	 * below it. This means the search allocates almost nothing.
+	 * 
 	 * @param word The current word.
-	 * @throws FirstWordSquareSolvedException Thrown if the firstMatchOnly flag is
-	 *                                        true (we have found the first match,
-	 *                                        so there is no need to find any more).
-	 * @throws InvalidWordSquareException     Thrown if a word square we are trying
-	 *                                        to add is invalid.
-	 */
-	public void getValidWordSquares(final String word)
-			throws FirstWordSquareSolvedException, InvalidWordSquareException {
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 */
+	public void getValidWordSquares(final String word) throws InvalidWordSquareException {
+		getValidWordSquares(word, Collections.emptyList());
+	}
+
+	/**
+	 * Get valid word squares for a given starting word, resuming the search from a
+	 * path of words below it, i.e. skipping all the word squares which come before
+	 * the path (see the Checkpoint).
+	 * 
+	 * @param word       The current word.
+	 * @param resumePath The words to resume the search from, after the current
+	 *                   word. If this is empty, the whole subtree is searched.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 */
+	void getValidWordSquares(final String word, final List<String> resumePath) throws InvalidWordSquareException {
+		// Have we run out of budget? If so, stop here - and if we are writing
+		// checkpoints, remember that this is where to resume from.
+		if (!visitNode()) {
+			if (checkpointer != null) {
+				checkpointer.nodeNotVisited(words, word);
+			}
+			return;
+		}
+		if (checkpointer != null) {
+			checkpointer.nodeVisited(words, word, wordSquares);
+		}
+
 		// Do we have the required number of words in the list of words to make a word
 		// square, once we have added the current word to them?
 		if (words.size() == length - 1) {
-			// Add a new word square to end of the list of word squares.
-			addWordSquare(new WordSquare(length, ListUtils.union(words, Collections.singletonList(word))));
+			wordSquaresFound++;
+			metrics.solutionFound();
+
+			// Are we only counting the word squares? If so, we don't need to make one.
+			if (wordSquareCounter != null) {
+				countWordSquare();
+			} else {
+				// Add a new word square to end of the list of word squares.
+				addWordSquare(new WordSquare(length, ListUtils.union(words, Collections.singletonList(word))));
+			}
 		} else {
-			// Get the remaining letters left, after removing those from the current word
-			// from the available letters.
-			final AvailableLetters remainingLetters = letters.getRemainingLetters(word);
-
-			// Do we have enough letters left to make a word?
-			if (remainingLetters.getCount() >= length) {
-				// Get the remaining word shortlist.
-				List<String> remainingWordShortlist = getRemainingWordShortlist(remainingLetters);
-
-				// Are there any remaining words? If so, iterate through them.
-				if (remainingWordShortlist.size() > 0) {
-					iterateThroughRemainingWords(word, remainingLetters, remainingWordShortlist);
+			// Place the current word, removing its letters from the available letters.
+			placeWord(word);
+			try {
+				// Do we have enough letters left to make a word? If so, iterate through the
+				// words which could come next.
+				if (letters.getCount() >= length) {
+					iterateThroughRemainingWords(resumePath);
+				}
+			} finally {
+				// Take the current word away again, putting its letters back.
+				removeWord(word);
+			}
+		}
+	}
+
+	/**
+	 * Get the words which could come next after a given word, without searching
+	 * any further. This visits the same node as getValidWordSquares() would, and
+	 * applies the same pruning, so that a parallel search can hand each of the next
+	 * words to a separate task. The solution state is left unchanged.
+	 * 
+	 * This must not be called for the last word of a word square.
+	 * 
+	 * @param word The current word.
+	 * @return The words which could come next, in shortlist order (or none if the
+	 *         budget has run out).
+	 */
+	List<String> getNextWords(final String word) {
+		final List<String> nextWords = new ArrayList<>();
+		if (!visitNode()) {
+			return nextWords;
+		}
+
+		// Place the current word, and collect the words which could come next.
+		placeWord(word);
+		try {
+			final WordCandidates candidates = letters.getCount() >= length ? findNextWordCandidates() : null;
+			if (candidates != null) {
+				int tested = 0;
+				final int endIndex = candidates.getEndIndex();
+				for (int index = candidates.next(candidates.getStartIndex()); index < endIndex; index = candidates
+						.next(index + 1)) {
+					tested++;
+					final String nextWord = wordPrefixIndex.getWord(index);
+					if (letters.isWordFormable(nextWord)) {
+						nextWords.add(nextWord);
+					}
+				}
+				metrics.candidatesTested(words.size(), tested, tested - nextWords.size());
+			}
+		} finally {
+			// Take the current word away again.
+			removeWord(word);
+		}
+		return nextWords;
+	}
+
+	/**
+	 * Visit a node of the search, spending it from the budget if there is one.
+	 * 
+	 * @return true if the node can be visited, or false if the budget has run out,
+	 *         in which case the search has been told to stop.
+	 */
+	boolean visitNode() {
+		if (budget != null && !budget.spendNode()) {
+			return false;
+		}
+		statistics.nodeVisited();
+		metrics.nodeVisited();
+		return true;
+	}
+
+	/**
+	 * Place a word, removing its letters from the available letters and adding it
+	 * to the list of words.
+	 * 
+	 * @param word The word to place.
+	 */
+	void placeWord(final String word) {
+		final int numWords = words.size();
+		letters.consume(word);
+		words.add(word);
+
+		// Narrow down the words which could still be formed, for the next depth.
+		if (numWords + 1 < length) {
+			narrowFormableWords(word, formableWords[numWords], formableWords[numWords + 1]);
+		}
+	}
+
+	/**
+	 * Narrow down the words which could still be formed after placing a word. Any
+	 * letter of the word which has now run out rules out every word containing it.
+	 * This only looks at the letters of the word just placed, rather than checking
+	 * every word again, and it reuses the bitsets, so it allocates nothing.
+	 * 
+	 * Words needing more of a letter than is left are not ruled out here, so the
+	 * candidates must still be checked against the available letters.
+	 * 
+	 * @param word     The word just placed.
+	 * @param previous The words which could be formed before placing it.
+	 * @param next     The bitset to fill in with the words which can still be
+	 *                 formed.
+	 */
+	private void narrowFormableWords(final String word, final long[] previous, final long[] next) {
+		System.arraycopy(previous, 0, next, 0, previous.length);
+		for (int index = 0; index < word.length(); index++) {
+			final char letter = word.charAt(index);
+			if (!letters.isLetterAvailable(letter) && word.indexOf(letter) == index) {
+				final long[] containingLetter = wordPositionIndex.getWordsContainingLetter(letter);
+				for (int longIndex = 0; longIndex < next.length; longIndex++) {
+					next[longIndex] &= ~containingLetter[longIndex];
 				}
 			}
 		}
 	}
 
+	/**
+	 * Take away the word placed last, putting its letters back.
+	 * 
+	 * @param word The word placed last.
+	 */
+	void removeWord(final String word) {
+		words.remove(words.size() - 1);
+		letters.restore(word);
+	}
+
 	/**
 	 * Add a word square (after having found a valid solution).
 	 * 
+	 * If the firstMatchOnly flag is true, this also raises the stop signal, so that
+	 * the search unwinds without looking for any more word squares.
+	 * 
 	 * @param wordSquare The word square to add.
-	 * @throws FirstWordSquareSolvedException Thrown if the firstMatchOnly flag is
-	 *                                        true (we have found the first match,
-	 *                                        so there is no need to find any more).
-	 * @throws InvalidWordSquareException     Thrown if the word square we are
-	 *                                        trying to add is invalid.
+	 * @throws InvalidWordSquareException Thrown if the word square we are trying to
+	 *                                    add is invalid.
 	 */
-	void addWordSquare(final WordSquare wordSquare) throws FirstWordSquareSolvedException, InvalidWordSquareException {
+	void addWordSquare(final WordSquare wordSquare) throws InvalidWordSquareException {
 		// Make sure that the word square is valid.
 		if (!wordSquare.isValid()) {
 			throw new InvalidWordSquareException(wordSquare);
 		}
 
-		// Is the firstMatchOnly flag true?
-		if (firstMatchOnly) {
-			// We only want the first valid word square. Throw a
-			// FirstWordSquareSolvedException.
-			throw new FirstWordSquareSolvedException(wordSquare);
-		}
-
 		// Add the word square to the list of word squares.
 		wordSquares.add(wordSquare);
+
+		// Is the firstMatchOnly flag true? If so, we don't need to find any more, so
+		// tell the search to stop.
+		if (options.isFirstMatchOnly()) {
+			stopSignal.stop();
+		}
+	}
+
+	/**
+	 * Count the word square completed by the last word, without making it. The
+	 * words all fit their columns, as the search only tries words beginning with
+	 * the letters already in their column, so there is no need to check it. If the
+	 * firstMatchOnly flag is true, this also raises the stop signal, as for adding
+	 * a word square.
+	 */
+	private void countWordSquare() {
+		wordSquareCounter.increment();
+		if (options.isFirstMatchOnly()) {
+			stopSignal.stop();
+		}
+	}
+
+	/**
+	 * Iterate through remaining words, i.e. those which could come after the words
+	 * we have so far.
+	 * 
+	 * @param resumePath The words to resume the search from. If this is not empty,
+	 *                   we skip the candidate words before the first of them, and
+	 *                   carry on resuming below it.
+	 * @throws InvalidWordSquareException Thrown if the word square we are trying to
+	 *                                    add is invalid.
+	 */
+	private void iterateThroughRemainingWords(final List<String> resumePath) throws InvalidWordSquareException {
+		// Find the candidate words which could come next. If there are none, there is
+		// no point going any further.
+		final WordCandidates candidates = findNextWordCandidates();
+		if (candidates == null) {
+			return;
+		}
+
+		// If we are resuming, skip the words before the one we are resuming from.
+		int startIndex = candidates.getStartIndex();
+		final String resumeWord = resumePath.isEmpty() ? null : resumePath.get(0);
+		if (resumeWord != null) {
+			startIndex = Math.max(startIndex, wordPrefixIndex.getStartIndex(resumeWord));
+		}
+
+		// Iterate for each candidate word, until we are told to stop, counting the
+		// candidates tested and pruned here.
+		final long numWordSquaresFound = wordSquaresFound;
+		int tested = 0;
+		int pruned = 0;
+		final int endIndex = candidates.getEndIndex();
+		for (int index = candidates.next(startIndex); index < endIndex
+				&& !stopSignal.isStopped(); index = candidates.next(index + 1)) {
+			final String remainingWord = wordPrefixIndex.getWord(index);
+			tested++;
+
+			// Can the word be formed from the remaining letters? If so, get valid word
+			// squares starting from the remaining word.
+			if (letters.isWordFormable(remainingWord)) {
+				getValidWordSquares(remainingWord, remainingWord.equals(resumeWord)
+						? resumePath.subList(1, resumePath.size())
+						: Collections.emptyList());
+			} else {
+				pruned++;
+			}
+		}
+		metrics.candidatesTested(words.size(), tested, pruned);
+
+		// If we have searched everything below here without finding a word square,
+		// remember that there is no completion from this state. If we were resuming,
+		// we have not searched everything.
+		if (wordSquaresFound == numWordSquaresFound && resumeWord == null && !stopSignal.isStopped()) {
+			addNogood();
+		}
+	}
+
+	/**
+	 * Add the word squares found before the search was resumed, so that they come
+	 * first in the list of word squares.
+	 * 
+	 * @param previousWordSquares The word squares found before.
+	 */
+	void addPreviousWordSquares(final List<WordSquare> previousWordSquares) {
+		wordSquares.addAll(previousWordSquares);
+	}
+
+	/**
+	 * Write the final checkpoint (if we are writing checkpoints), once the search
+	 * has ended.
+	 */
+	void searchEnded() {
+		if (checkpointer != null) {
+			checkpointer.searchEnded(getSearchStatus(), wordSquares);
+		}
+	}
+
+	/**
+	 * Give back any nodes claimed from the budget but not spent, once the search
+	 * of a copy has ended, so that the copies searching on other threads can spend
+	 * them.
+	 */
+	void returnUnspentBudget() {
+		if (budget != null) {
+			budget.returnUnspentNodes();
+		}
+	}
+
+	/**
+	 * Find the candidate words which could come next after the words we have so
+	 * far, using whichever pruning checks are enabled, and update the statistics
+	 * if the search can be pruned here.
+	 * 
+	 * The first letters of the next word are already fixed by the columns of the
+	 * words we have so far, so only the words beginning with those letters can
+	 * come next, and the prefix index takes us straight to them. If forward
+	 * checking is enabled, each of the other letters of the next word must also be
+	 * one which its column can still be completed with, so we narrow the
+	 * candidates down by those letters too, 64 words at a time.
+	 * 
+	 * @return The candidate words (reused at each depth of the search), or null if
+	 *         the search can be pruned here.
+	 */
+	WordCandidates findNextWordCandidates() {
+		// If letter parity checking is enabled, make sure the letters left over could
+		// still fill the squares yet to be decided.
+		if (options.isParityChecking() && !canFillUndecidedSquares(words, letters)) {
+			statistics.nodePrunedByParity();
+			metrics.nodePruned(words.size());
+			return null;
+		}
+
+		// If the nogood cache is enabled, make sure we haven't already proven that
+		// there is no completion from this state.
+		if (nogoodCache != null && isNogood()) {
+			metrics.nodePruned(words.size());
+			return null;
+		}
+
+		// Start with the words beginning with the letters already fixed.
+		final CharSequence nextWordPrefix = getNextWordPrefix();
+		final WordCandidates candidates = wordCandidates[words.size()].reset(
+				wordPrefixIndex.getStartIndex(nextWordPrefix), wordPrefixIndex.getEndIndex(nextWordPrefix));
+
+		// Take away the words which can no longer be formed.
+		final long[] formable = formableWords[words.size()];
+		candidates.retainAll(formable);
+
+		// If forward checking is enabled, make sure every column still to be completed
+		// can be completed, and narrow down the candidates. If any column cannot be
+		// completed, there is no point going any further.
+		if (options.isForwardChecking() && !canCompleteAllColumns(words, letters, formable, candidates)) {
+			statistics.nodePruned();
+			metrics.nodePruned(words.size());
+			return null;
+		}
+
+		// If the search is split into shards, and this is the second word, take away
+		// the words which are in other shards.
+		if (options.getShardCount() > 1 && words.size() == 1) {
+			retainShard(candidates);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Take away the candidates for the second word which, along with the first
+	 * word, are given to a different shard.
+	 * 
+	 * @param candidates The candidates for the second word.
+	 */
+	private void retainShard(final WordCandidates candidates) {
+		final int firstIndex = wordPrefixIndex.getStartIndex(words.get(0));
+		final int endIndex = candidates.getEndIndex();
+		for (int index = candidates.next(candidates.getStartIndex()); index < endIndex; index = candidates
+				.next(index + 1)) {
+			if (getShardIndex(firstIndex, index, wordPrefixIndex.size(), options.getShardCount()) != options
+					.getShardIndex()) {
+				candidates.remove(index);
+			}
+		}
+	}
+
+	/**
+	 * Get the shard a pair of first and second words is given to. Their positions
+	 * in the prefix index are combined into one number, and its bits are mixed up
+	 * (with the finaliser of the MurmurHash3 hash function), so that neighbouring
+	 * pairs - which often have similar sized subtrees - go to different shards.
+	 * This only depends on the word shortlist, so it is the same on every machine.
+	 * 
+	 * @param firstIndex  The position of the first word in the prefix index.
+	 * @param secondIndex The position of the second word in the prefix index.
+	 * @param size        The number of words in the prefix index.
+	 * @param shardCount  The number of shards.
+	 * @return The shard index, from 0 to one less than the shard count.
+	 */
+	static int getShardIndex(final int firstIndex, final int secondIndex, final int size, final int shardCount) {
+		long key = (long) firstIndex * size + secondIndex;
+		key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+		key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) Math.floorMod(key, (long) shardCount);
+	}
+
+	/**
+	 * Get the letters the next word must begin with. These are already fixed by
+	 * the columns of the words we have so far.
+	 * 
+	 * @return The prefix of the next word. This is reused, so it is only valid until
+	 *         the words change.
+	 */
+	private CharSequence getNextWordPrefix() {
+		return appendColumnPrefix(words, words.size(), clear(prefix));
+	}
+
+	/**
+	 * Check if the current state is in the nogood cache, and update the statistics.
+	 * The state is the remaining letters (in sorted order) and the letters already
+	 * in each column still to be completed, which is all the search below here
+	 * depends on. It is kept, so that it can be added to the cache if we find no
+	 * word squares below here.
+	 * 
+	 * @return true if there is no completion from the current state, or false if
+	 *         we don't know.
+	 */
+	private boolean isNogood() {
+		final int numWords = words.size();
+		clear(nogoodState).append(letters);
+		for (int column = numWords; column < length; column++) {
+			nogoodState.append('|');
+			appendColumnPrefix(words, column, nogoodState);
+		}
+		final String state = nogoodState.toString();
+		nogoodStates[numWords] = state;
+		if (nogoodCache.contains(state)) {
+			statistics.nogoodCacheHit();
+			metrics.nogoodCacheHit();
+			return true;
+		}
+		statistics.nogoodCacheMiss();
+		metrics.nogoodCacheMiss();
+		return false;
+	}
+
+	/**
+	 * Add the current state to the nogood cache (if it is enabled), once we have
+	 * searched everything below it without finding a word square.
+	 */
+	void addNogood() {
+		final String state = nogoodStates[words.size()];
+		if (nogoodCache != null && state != null) {
+			nogoodCache.add(state);
+		}
+	}
+
+	/**
+	 * Check that the remaining letters could still fill the squares which are yet
+	 * to be decided. The words so far fill the top rows, and (as the word square is
+	 * symmetric) the same letters are also decided in the left-hand columns below
+	 * them. The remaining letters must include those decided letters, and what is
+	 * left after taking them away must be able to fill the smaller word square in
+	 * the bottom right-hand corner.
+	 * 
+	 * @param words            The words we have so far.
+	 * @param remainingLetters The remaining letters.
+	 * @return true if the undecided squares could still be filled, or false if not.
+	 */
+	boolean canFillUndecidedSquares(final List<String> words, final MutableAvailableLetters remainingLetters) {
+		// Get the letters already decided below the words we have so far.
+		clear(decidedLetters);
+		for (int column = words.size(); column < length; column++) {
+			appendColumnPrefix(words, column, decidedLetters);
+		}
+
+		// Are the decided letters available? If so, could the rest fill the smaller
+		// word square?
+		if (!remainingLetters.consume(decidedLetters)) {
+			return false;
+		}
+		try {
+			return letterParityPredicates[words.size()].test(remainingLetters);
+		} finally {
+			remainingLetters.restore(decidedLetters);
+		}
+	}
+
+	/**
+	 * Check that every column still to be completed has at least one word in the
+	 * shortlist which begins with the letters already in that column, and whose
+	 * remaining letters can still be formed from the remaining letters.
+	 * 
+	 * @param words            The words we have so far.
+	 * @param remainingLetters The remaining letters.
+	 * @return true if every open column can still be completed, or false if at
+	 *         least one of them cannot.
+	 */
+	boolean canCompleteAllColumns(final List<String> words, final AvailableLetters remainingLetters) {
+		return canCompleteAllColumns(words, remainingLetters, null, null);
 	}
 
 	/**
-	 * Get the remaining word shortlist.
+	 * Check that every column still to be completed can be completed (as above),
+	 * and narrow down the candidates for the next word to those which only use
+	 * letters their columns can be completed with.
 	 * 
+	 * @param words            The words we have so far.
 	 * @param remainingLetters The remaining letters.
-	 * @return The remaining word shortlist for next time round.
-	 */
-	private List<String> getRemainingWordShortlist(AvailableLetters remainingLetters) {
-		// Create a predicate based on the remaining letters.
-		final WordContainsAvailableLettersPredicate wordContainsAvailableLettersPredicate = new WordContainsAvailableLettersPredicate(
-				remainingLetters);
-
-		// Get the remaining words available, by filtering only those left where the
-		// word shortlist contains the remaining letters.
-		return wordShortlist.stream().filter(wordContainsAvailableLettersPredicate).collect(Collectors.toList());
-	}
-
-	/**
-	 * Iterate through remaining words.
-	 * 
-	 * @param word                   The current word.
-	 * @param remainingLetters       The remaining letters.
-	 * @param remainingWordShortlist The remaining word shortlist.
-	 * @throws FirstWordSquareSolvedException Thrown if the firstMatchOnly flag is
-	 *                                        true (we have found the first match,
-	 *                                        so there is no need to find any more).
-	 * @throws InvalidWordSquareException     Thrown if the word square we are
-	 *                                        trying to add is invalid.
-	 */
-	private void iterateThroughRemainingWords(String word, AvailableLetters remainingLetters,
-			List<String> remainingWordShortlist) throws FirstWordSquareSolvedException, InvalidWordSquareException {
-		// Add the current word to the list of words.
-		final List<String> updatedWords = ListUtils.union(words, Collections.singletonList(word));
-
-		// Create a predicate based on the words being valid at the next position in the
-		// word square.
-		WordMeetsRequirementsPredicate wordMeetsRequirementsPredicate = new WordMeetsRequirementsPredicate(
-				updatedWords);
-
-		// Iterate for each remaining word in the shortlist.
-		for (final String remainingWord : remainingWordShortlist) {
-			// Are the requirements met for this being the next word in the word square?
-			if (wordMeetsRequirementsPredicate.test(remainingWord)) {
-				// Create a new Solution State for the word.
-				SolutionState solutionState = new SolutionState(this, remainingLetters, remainingWordShortlist,
-						updatedWords);
-
-				// Get valid word squares starting from the remaining word.
-				solutionState.getValidWordSquares(remainingWord);
+	 * @param formable         The words which could still be formed from the
+	 *                         remaining letters, or null to check every word.
+	 * @param candidates       The candidates for the next word to narrow down, or
+	 *                         null to check the columns only.
+	 * @return true if every open column can still be completed, or false if at
+	 *         least one of them cannot.
+	 */
+	private boolean canCompleteAllColumns(final List<String> words, final AvailableLetters remainingLetters,
+			final long[] formable, final WordCandidates candidates) {
+		final int numWords = words.size();
+		for (int column = numWords; column < length; column++) {
+			appendColumnPrefix(words, column, clear(columnPrefix));
+			final int allowedLetterCount = findAllowedLetters(columnPrefix, column, remainingLetters, formable);
+			if (allowedLetterCount == 0) {
+				return false;
+			}
+
+			// The column for the next word itself is the next word, so that doesn't narrow
+			// it down any further.
+			if (candidates != null && column > numWords) {
+				candidates.retainAny(allowedLetterBitsets, allowedLetterCount);
 			}
 		}
+		return true;
+	}
+
+	/**
+	 * Find the letters a column can be completed with at the next position, i.e.
+	 * the next letters of the words in the shortlist which begin with the letters
+	 * already in the column, and whose remaining letters can still be formed from
+	 * the remaining letters. For each of them, put the bitset of the words with
+	 * that letter at the column's position into the allowed letter bitsets.
+	 * 
+	 * @param prefix           The letters already in the column. This is
+	 *                         appended to, but put back as it was.
+	 * @param column           The integer index of the column.
+	 * @param remainingLetters The remaining letters.
+	 * @param formable         The words which could still be formed from the
+	 *                         remaining letters, or null to check every word.
+	 * @return The number of letters the column can be completed with (0 if it
+	 *         cannot be completed at all).
+	 */
+	private int findAllowedLetters(final StringBuilder prefix, final int column,
+			final AvailableLetters remainingLetters, final long[] formable) {
+		final int prefixLength = prefix.length();
+		final int endIndex = wordPrefixIndex.getEndIndex(prefix);
+		int allowedLetterCount = 0;
+		int index = wordPrefixIndex.getStartIndex(prefix);
+		while (index < endIndex) {
+			// Find the words with the same next letter. They all sit together.
+			final char letter = wordPrefixIndex.getWord(index).charAt(prefixLength);
+			prefix.append(letter);
+			final int letterEndIndex = wordPrefixIndex.getEndIndex(prefix);
+			prefix.setLength(prefixLength);
+
+			// Can any of them be completed from the remaining letters?
+			for (int letterIndex = nextWord(formable, index, letterEndIndex); letterIndex < letterEndIndex; letterIndex = nextWord(
+					formable, letterIndex + 1, letterEndIndex)) {
+				if (remainingLetters.isWordFormable(wordPrefixIndex.getWord(letterIndex), prefixLength)) {
+					allowedLetterBitsets[allowedLetterCount++] = wordPositionIndex.getWordsWithLetterAt(column,
+							letter);
+					break;
+				}
+			}
+			index = letterEndIndex;
+		}
+		return allowedLetterCount;
+	}
+
+	/**
+	 * Get the position of the next word which could still be formed.
+	 * 
+	 * @param formable  The words which could still be formed, or null if any word
+	 *                  could be.
+	 * @param fromIndex The position to look from.
+	 * @param toIndex   The position after the last word to look at.
+	 * @return The position of the next word, or toIndex if there are none.
+	 */
+	private static int nextWord(final long[] formable, final int fromIndex, final int toIndex) {
+		return formable == null ? fromIndex : WordPositionIndex.nextSetBit(formable, fromIndex, toIndex);
+	}
+
+	/**
+	 * Get the letters already fixed in a column by the words we have so far.
+	 * 
+	 * @param words  The words we have so far.
+	 * @param column The integer index of the column.
+	 * @return The letters in the column, one from each word.
+	 */
+	static String getColumnPrefix(final List<String> words, final int column) {
+		return appendColumnPrefix(words, column, new StringBuilder(words.size())).toString();
+	}
+
+	/**
+	 * Append the letters already fixed in a column by the words we have so far.
+	 * 
+	 * @param words   The words we have so far.
+	 * @param column  The integer index of the column.
+	 * @param builder The string builder to append the letters to.
+	 * @return The string builder.
+	 */
+	private static StringBuilder appendColumnPrefix(final List<String> words, final int column,
+			final StringBuilder builder) {
+		final int numWords = words.size();
+		for (int index = 0; index < numWords; index++) {
+			builder.append(words.get(index).charAt(column));
+		}
+		return builder;
+	}
+
+	/**
+	 * Clear a string builder, so it can be reused.
+	 * 
+	 * @param builder The string builder.
+	 * @return The string builder, now empty.
+	 */
+	private static StringBuilder clear(final StringBuilder builder) {
+		builder.setLength(0);
+		return builder;
 	}
 }
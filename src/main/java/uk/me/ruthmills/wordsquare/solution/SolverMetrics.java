@@ -0,0 +1,450 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * Live metrics of every search carried out in the JVM, exposed through JMX
+ * once registered, so that we can see inside the solver when it is running as
+ * a service (e.g. with JConsole). Unlike the Search Statistics, which are
+ * gathered for one search, these are added up over all of them.
+ * 
+ * The search updates the metrics from many threads at once, so every counter
+ * is a LongAdder: each thread adds to its own cell rather than contending for
+ * one value, and the cells are only summed when the metrics are read. The
+ * candidates at each node are counted as the search goes through them, and
+ * added once the node is done, rather than once per candidate.
+ * 
+ * Streams of word squares are searched lazily, as they are consumed, so they
+ * are not counted as searches in flight, nor in the search time.
+ * 
+ * @author ruth
+ */
+public class SolverMetrics implements SolverMetricsMBean {
+
+	// The name the metrics are registered under.
+	public static final String OBJECT_NAME = "uk.me.ruthmills.wordsquare:type=SolverMetrics";
+
+	// The number of depths of the search counted separately. This is more than the
+	// length of the longest word in the dictionary, but any deeper are counted
+	// with the deepest.
+	static final int MAX_DEPTH = 32;
+
+	// The metrics of every search.
+	private static final SolverMetrics INSTANCE = new SolverMetrics();
+
+	// The number of searches going through their word shortlist, and the number
+	// which have ended.
+	private final LongAdder searchesInFlight = new LongAdder();
+	private final LongAdder searchesEnded = new LongAdder();
+
+	// The number of nodes of the search tree visited, and word squares found.
+	private final LongAdder nodesVisited = new LongAdder();
+	private final LongAdder solutionsFound = new LongAdder();
+
+	// The number of candidates tested and pruned, and nodes pruned, indexed by the
+	// number of words already placed.
+	private final LongAdder[] candidatesTested = createCounters();
+	private final LongAdder[] candidatesPruned = createCounters();
+	private final LongAdder[] nodesPruned = createCounters();
+
+	// The number of word shortlists built, the total and largest number of words
+	// in them, and the time spent building them.
+	private final LongAdder shortlistsBuilt = new LongAdder();
+	private final LongAdder shortlistWords = new LongAdder();
+	private final LongAccumulator maxShortlistSize = new LongAccumulator(Math::max, 0);
+	private final LongAdder shortlistNanos = new LongAdder();
+
+	// The time spent searching.
+	private final LongAdder searchNanos = new LongAdder();
+
+	// The number of hits and misses of the nogood caches, result caches, and
+	// result stores.
+	private final LongAdder nogoodCacheHits = new LongAdder();
+	private final LongAdder nogoodCacheMisses = new LongAdder();
+	private final LongAdder resultCacheHits = new LongAdder();
+	private final LongAdder resultCacheMisses = new LongAdder();
+	private final LongAdder resultStoreHits = new LongAdder();
+	private final LongAdder resultStoreMisses = new LongAdder();
+
+	/**
+	 * Constructor. Everything but the tests uses the one instance.
+	 */
+	SolverMetrics() {
+	}
+
+	/**
+	 * Get the metrics of every search.
+	 * 
+	 * @return The solver metrics.
+	 */
+	public static SolverMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Register the metrics with the platform MBean server, under OBJECT_NAME, if
+	 * they are not registered already.
+	 * 
+	 * @throws IllegalStateException Thrown if the metrics cannot be registered.
+	 */
+	public static void register() {
+		final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName objectName = getObjectName();
+		if (!mbeanServer.isRegistered(objectName)) {
+			try {
+				mbeanServer.registerMBean(INSTANCE, objectName);
+			} catch (InstanceAlreadyExistsException ex) {
+				// Another thread has just registered them.
+			} catch (JMException ex) {
+				throw new IllegalStateException("Cannot register the solver metrics", ex);
+			}
+		}
+	}
+
+	/**
+	 * Get the name the metrics are registered under.
+	 * 
+	 * @return The object name.
+	 */
+	public static ObjectName getObjectName() {
+		try {
+			return new ObjectName(OBJECT_NAME);
+		} catch (MalformedObjectNameException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Create a counter for each depth of the search.
+	 * 
+	 * @return The counters.
+	 */
+	private static LongAdder[] createCounters() {
+		final LongAdder[] counters = new LongAdder[MAX_DEPTH];
+		for (int depth = 0; depth < MAX_DEPTH; depth++) {
+			counters[depth] = new LongAdder();
+		}
+		return counters;
+	}
+
+	/**
+	 * Record that a search has started going through its word shortlist.
+	 * 
+	 * @return The time it started, to pass to searchEnded().
+	 */
+	long searchStarted() {
+		searchesInFlight.increment();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Record that a search has ended.
+	 * 
+	 * @param startNanos The time it started, from searchStarted().
+	 */
+	void searchEnded(final long startNanos) {
+		searchNanos.add(System.nanoTime() - startNanos);
+		searchesEnded.increment();
+		searchesInFlight.decrement();
+	}
+
+	/**
+	 * Record that a node of the search tree has been visited.
+	 */
+	void nodeVisited() {
+		nodesVisited.increment();
+	}
+
+	/**
+	 * Record that a word square has been found.
+	 */
+	void solutionFound() {
+		solutionsFound.increment();
+	}
+
+	/**
+	 * Record the candidates tested at a node of the search tree.
+	 * 
+	 * @param depth  The number of words already placed.
+	 * @param tested The number of candidates checked against the remaining
+	 *               letters.
+	 * @param pruned The number of those which could not be formed from them.
+	 */
+	void candidatesTested(final int depth, final int tested, final int pruned) {
+		final int index = Math.min(depth, MAX_DEPTH - 1);
+		candidatesTested[index].add(tested);
+		candidatesPruned[index].add(pruned);
+	}
+
+	/**
+	 * Record that a node of the search tree has been pruned before looking at any
+	 * candidates.
+	 * 
+	 * @param depth The number of words already placed.
+	 */
+	void nodePruned(final int depth) {
+		nodesPruned[Math.min(depth, MAX_DEPTH - 1)].increment();
+	}
+
+	/**
+	 * Record that a word shortlist has been built.
+	 * 
+	 * @param size  The number of words in it.
+	 * @param nanos The time taken to build it, in nanoseconds.
+	 */
+	void shortlistBuilt(final int size, final long nanos) {
+		shortlistsBuilt.increment();
+		shortlistWords.add(size);
+		maxShortlistSize.accumulate(size);
+		shortlistNanos.add(nanos);
+	}
+
+	/**
+	 * Record that a state was found in a nogood cache.
+	 */
+	void nogoodCacheHit() {
+		nogoodCacheHits.increment();
+	}
+
+	/**
+	 * Record that a state was not found in a nogood cache.
+	 */
+	void nogoodCacheMiss() {
+		nogoodCacheMisses.increment();
+	}
+
+	/**
+	 * Record that a puzzle was answered from a Result Cache.
+	 */
+	void resultCacheHit() {
+		resultCacheHits.increment();
+	}
+
+	/**
+	 * Record that a puzzle was not in a Result Cache.
+	 */
+	void resultCacheMiss() {
+		resultCacheMisses.increment();
+	}
+
+	/**
+	 * Record that a puzzle was answered from a Result Store.
+	 */
+	void resultStoreHit() {
+		resultStoreHits.increment();
+	}
+
+	/**
+	 * Record that a puzzle was not in a Result Store.
+	 */
+	void resultStoreMiss() {
+		resultStoreMisses.increment();
+	}
+
+	/**
+	 * Get the number of searches going through their word shortlist right now.
+	 * 
+	 * @return The number of searches in flight.
+	 */
+	@Override
+	public long getSearchesInFlight() {
+		return searchesInFlight.sum();
+	}
+
+	/**
+	 * Get the number of searches which have ended, whether or not they finished.
+	 * 
+	 * @return The number of searches ended.
+	 */
+	@Override
+	public long getSearchesEnded() {
+		return searchesEnded.sum();
+	}
+
+	/**
+	 * Get the number of nodes of the search tree visited, by every search.
+	 * 
+	 * @return The number of nodes visited.
+	 */
+	@Override
+	public long getNodesVisited() {
+		return nodesVisited.sum();
+	}
+
+	/**
+	 * Get the number of word squares found, by every search.
+	 * 
+	 * @return The number of word squares found.
+	 */
+	@Override
+	public long getSolutionsFound() {
+		return solutionsFound.sum();
+	}
+
+	/**
+	 * Get the number of candidate words checked against the remaining letters, at
+	 * each depth of the search.
+	 * 
+	 * @return The number of candidates tested, indexed by the number of words
+	 *         already placed.
+	 */
+	@Override
+	public long[] getCandidatesTested() {
+		return sum(candidatesTested);
+	}
+
+	/**
+	 * Get the number of candidate words which could not be formed from the
+	 * remaining letters, at each depth of the search.
+	 * 
+	 * @return The number of candidates pruned, indexed by the number of words
+	 *         already placed.
+	 */
+	@Override
+	public long[] getCandidatesPruned() {
+		return sum(candidatesPruned);
+	}
+
+	/**
+	 * Get the number of nodes at which the search was pruned before looking at any
+	 * candidates (by letter parity checking, the nogood cache, or forward
+	 * checking), at each depth of the search.
+	 * 
+	 * @return The number of nodes pruned, indexed by the number of words already
+	 *         placed.
+	 */
+	@Override
+	public long[] getNodesPruned() {
+		return sum(nodesPruned);
+	}
+
+	/**
+	 * Get the number of word shortlists built.
+	 * 
+	 * @return The number of shortlists built.
+	 */
+	@Override
+	public long getShortlistsBuilt() {
+		return shortlistsBuilt.sum();
+	}
+
+	/**
+	 * Get the average number of words in each word shortlist built.
+	 * 
+	 * @return The average shortlist size, or 0 if none have been built.
+	 */
+	@Override
+	public double getAverageShortlistSize() {
+		final long built = getShortlistsBuilt();
+		return built == 0 ? 0 : (double) shortlistWords.sum() / built;
+	}
+
+	/**
+	 * Get the largest number of words in any word shortlist built.
+	 * 
+	 * @return The largest shortlist size, or 0 if none have been built.
+	 */
+	@Override
+	public long getMaxShortlistSize() {
+		return maxShortlistSize.get();
+	}
+
+	/**
+	 * Get the time spent building word shortlists.
+	 * 
+	 * @return The time in milliseconds, added up over every thread.
+	 */
+	@Override
+	public long getShortlistMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(shortlistNanos.sum());
+	}
+
+	/**
+	 * Get the time spent searching, i.e. going through the word shortlists.
+	 * 
+	 * @return The time in milliseconds, added up over every search.
+	 */
+	@Override
+	public long getSearchMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(searchNanos.sum());
+	}
+
+	/**
+	 * Get the proportion of nogood cache lookups which found the state.
+	 * 
+	 * @return The hit rate, from 0 to 1, or 0 if there have been no lookups.
+	 */
+	@Override
+	public double getNogoodCacheHitRate() {
+		return getHitRate(nogoodCacheHits, nogoodCacheMisses);
+	}
+
+	/**
+	 * Get the proportion of puzzles answered from a Result Cache.
+	 * 
+	 * @return The hit rate, from 0 to 1, or 0 if no puzzles have been asked for.
+	 */
+	@Override
+	public double getResultCacheHitRate() {
+		return getHitRate(resultCacheHits, resultCacheMisses);
+	}
+
+	/**
+	 * Get the proportion of puzzles answered from a Result Store.
+	 * 
+	 * @return The hit rate, from 0 to 1, or 0 if no puzzles have been looked up.
+	 */
+	@Override
+	public double getResultStoreHitRate() {
+		return getHitRate(resultStoreHits, resultStoreMisses);
+	}
+
+	/**
+	 * Sum the counters for each depth of the search.
+	 * 
+	 * @param counters The counters.
+	 * @return The sum of each counter.
+	 */
+	private static long[] sum(final LongAdder[] counters) {
+		final long[] sums = new long[counters.length];
+		for (int depth = 0; depth < counters.length; depth++) {
+			sums[depth] = counters[depth].sum();
+		}
+		return sums;
+	}
+
+	/**
+	 * Get the proportion of lookups which were hits.
+	 * 
+	 * @param hits   The number of hits.
+	 * @param misses The number of misses.
+	 * @return The hit rate, from 0 to 1, or 0 if there have been no lookups.
+	 */
+	private static double getHitRate(final LongAdder hits, final LongAdder misses) {
+		final long hitCount = hits.sum();
+		final long total = hitCount + misses.sum();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+	/**
+	 * Convert to a String.
+	 * 
+	 * @return String containing the main metrics.
+	 */
+	@Override
+	public String toString() {
+		return "searchesInFlight=" + getSearchesInFlight() + ", searchesEnded=" + getSearchesEnded()
+				+ ", nodesVisited=" + getNodesVisited() + ", solutionsFound=" + getSolutionsFound()
+				+ ", shortlistsBuilt=" + getShortlistsBuilt() + ", shortlistMillis=" + getShortlistMillis()
+				+ ", searchMillis=" + getSearchMillis();
+	}
+}
@@ -0,0 +1,123 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+/**
+ * Management interface of the Solver Metrics, which JMX exposes as the
+ * attributes of the MBean. Each getter is an attribute, named without the
+ * "get", e.g. NodesVisited.
+ * 
+ * @author ruth
+ */
+public interface SolverMetricsMBean {
+
+	/**
+	 * Get the number of searches going through their word shortlist right now.
+	 * 
+	 * @return The number of searches in flight.
+	 */
+	long getSearchesInFlight();
+
+	/**
+	 * Get the number of searches which have ended, whether or not they finished.
+	 * 
+	 * @return The number of searches ended.
+	 */
+	long getSearchesEnded();
+
+	/**
+	 * Get the number of nodes of the search tree visited, by every search.
+	 * 
+	 * @return The number of nodes visited.
+	 */
+	long getNodesVisited();
+
+	/**
+	 * Get the number of word squares found, by every search.
+	 * 
+	 * @return The number of word squares found.
+	 */
+	long getSolutionsFound();
+
+	/**
+	 * Get the number of candidate words checked against the remaining letters, at
+	 * each depth of the search.
+	 * 
+	 * @return The number of candidates tested, indexed by the number of words
+	 *         already placed.
+	 */
+	long[] getCandidatesTested();
+
+	/**
+	 * Get the number of candidate words which could not be formed from the
+	 * remaining letters, at each depth of the search.
+	 * 
+	 * @return The number of candidates pruned, indexed by the number of words
+	 *         already placed.
+	 */
+	long[] getCandidatesPruned();
+
+	/**
+	 * Get the number of nodes at which the search was pruned before looking at any
+	 * candidates (by letter parity checking, the nogood cache, or forward
+	 * checking), at each depth of the search.
+	 * 
+	 * @return The number of nodes pruned, indexed by the number of words already
+	 *         placed.
+	 */
+	long[] getNodesPruned();
+
+	/**
+	 * Get the number of word shortlists built.
+	 * 
+	 * @return The number of shortlists built.
+	 */
+	long getShortlistsBuilt();
+
+	/**
+	 * Get the average number of words in each word shortlist built.
+	 * 
+	 * @return The average shortlist size, or 0 if none have been built.
+	 */
+	double getAverageShortlistSize();
+
+	/**
+	 * Get the largest number of words in any word shortlist built.
+	 * 
+	 * @return The largest shortlist size, or 0 if none have been built.
+	 */
+	long getMaxShortlistSize();
+
+	/**
+	 * Get the time spent building word shortlists.
+	 * 
+	 * @return The time in milliseconds, added up over every thread.
+	 */
+	long getShortlistMillis();
+
+	/**
+	 * Get the time spent searching, i.e. going through the word shortlists.
+	 * 
+	 * @return The time in milliseconds, added up over every search.
+	 */
+	long getSearchMillis();
+
+	/**
+	 * Get the proportion of nogood cache lookups which found the state.
+	 * 
+	 * @return The hit rate, from 0 to 1, or 0 if there have been no lookups.
+	 */
+	double getNogoodCacheHitRate();
+
+	/**
+	 * Get the proportion of puzzles answered from a Result Cache.
+	 * 
+	 * @return The hit rate, from 0 to 1, or 0 if no puzzles have been asked for.
+	 */
+	double getResultCacheHitRate();
+
+	/**
+	 * Get the proportion of puzzles answered from a Result Store.
+	 * 
+	 * @return The hit rate, from 0 to 1, or 0 if no puzzles have been looked up.
+	 */
+	double getResultStoreHitRate();
+}
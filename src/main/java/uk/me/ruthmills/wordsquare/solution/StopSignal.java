@@ -0,0 +1,35 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+/**
+ * Signal telling a search to stop early - for example, because we only want the
+ * first valid word square and we have found it. Every level of the search
+ * checks the signal before trying the next word, so the search winds down
+ * quickly without having to throw an exception up through it.
+ * 
+ * The same signal can be shared by searches running on several threads, so
+ * that stopping one of them stops them all.
+ * 
+ * @author ruth
+ */
+public class StopSignal {
+
+	// Flag indicating if the search should stop. This is volatile, so that once
+	// one thread has set it, all other threads will see it.
+	private volatile boolean stopped;
+
+	/**
+	 * Tell the search to stop.
+	 */
+	public void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * Check if the search should stop.
+	 * 
+	 * @return true if the search should stop, or false if it should carry on.
+	 */
+	public boolean isStopped() {
+		return stopped;
+	}
+}
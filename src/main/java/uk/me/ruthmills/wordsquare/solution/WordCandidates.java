@@ -0,0 +1,156 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import uk.me.ruthmills.wordsquare.index.WordPositionIndex;
+
+/**
+ * The candidate words for the next word in the word square, as a bitset over
+ * the positions of the words in the prefix index. The candidates start off as
+ * the range of words beginning with the letters already fixed by the columns,
+ * and are then narrowed down 64 words at a time by the letters still allowed
+ * at each of the other positions (see the Word Position Index).
+ * 
+ * Instances are reused at each depth of the search, so they are NOT
+ * thread-safe.
+ * 
+ * @author ruth
+ */
+class WordCandidates {
+
+	// The number of words in each long of the bitset.
+	private static final int BITS_PER_LONG = 64;
+
+	// The bitset of the candidate words. Only the bits from the start index to the
+	// end index mean anything.
+	private final long[] bitset;
+
+	// The position of the first word in the range of candidates.
+	private int startIndex;
+
+	// The position after the last word in the range of candidates.
+	private int endIndex;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param size The number of words in the prefix index.
+	 */
+	WordCandidates(final int size) {
+		this.bitset = new long[WordPositionIndex.getLongCount(size)];
+	}
+
+	/**
+	 * Make every word in a range a candidate.
+	 * 
+	 * @param startIndex The position of the first word in the range.
+	 * @param endIndex   The position after the last word in the range.
+	 * @return These candidates.
+	 */
+	WordCandidates reset(final int startIndex, final int endIndex) {
+		this.startIndex = startIndex;
+		this.endIndex = endIndex;
+		for (int longIndex = getFirstLongIndex(); longIndex < getEndLongIndex(); longIndex++) {
+			bitset[longIndex] = -1L;
+		}
+		return this;
+	}
+
+	/**
+	 * Keep only the candidates which are also in the supplied bitset.
+	 * 
+	 * @param bitset The bitset.
+	 */
+	void retainAll(final long[] bitset) {
+		for (int longIndex = getFirstLongIndex(); longIndex < getEndLongIndex(); longIndex++) {
+			this.bitset[longIndex] &= bitset[longIndex];
+		}
+	}
+
+	/**
+	 * Keep only the candidates which are in at least one of the supplied bitsets,
+	 * e.g. those with any of the allowed letters at a given position.
+	 * 
+	 * @param bitsets The bitsets.
+	 * @param count   The number of bitsets to use from the start of the array.
+	 */
+	void retainAny(final long[][] bitsets, final int count) {
+		for (int longIndex = getFirstLongIndex(); longIndex < getEndLongIndex(); longIndex++) {
+			long bits = 0L;
+			for (int index = 0; index < count; index++) {
+				bits |= bitsets[index][longIndex];
+			}
+			bitset[longIndex] &= bits;
+		}
+	}
+
+	/**
+	 * Take away a candidate word.
+	 * 
+	 * @param index The position of the word.
+	 */
+	void remove(final int index) {
+		bitset[index / BITS_PER_LONG] &= ~(1L << index);
+	}
+
+	/**
+	 * Get the position of the next candidate word.
+	 * 
+	 * @param fromIndex The position to look from. This must not be before the
+	 *                  start index.
+	 * @return The position of the first candidate word from fromIndex onwards, or
+	 *         the end index if there are no more.
+	 */
+	int next(final int fromIndex) {
+		return WordPositionIndex.nextSetBit(bitset, fromIndex, endIndex);
+	}
+
+	/**
+	 * Get the position of the first word in the range of candidates.
+	 * 
+	 * @return The start index.
+	 */
+	int getStartIndex() {
+		return startIndex;
+	}
+
+	/**
+	 * Get the position after the last word in the range of candidates.
+	 * 
+	 * @return The end index.
+	 */
+	int getEndIndex() {
+		return endIndex;
+	}
+
+	/**
+	 * Get a copy of these candidates, limited to a smaller range.
+	 * 
+	 * @param startIndex The position of the first word in the smaller range.
+	 * @param endIndex   The position after the last word in the smaller range.
+	 * @return The copy.
+	 */
+	WordCandidates copy(final int startIndex, final int endIndex) {
+		final WordCandidates copy = new WordCandidates(bitset.length * BITS_PER_LONG);
+		System.arraycopy(bitset, 0, copy.bitset, 0, bitset.length);
+		copy.startIndex = startIndex;
+		copy.endIndex = endIndex;
+		return copy;
+	}
+
+	/**
+	 * Get the index of the long holding the start index.
+	 * 
+	 * @return The index of the first long in the range.
+	 */
+	private int getFirstLongIndex() {
+		return startIndex / BITS_PER_LONG;
+	}
+
+	/**
+	 * Get the index after the long holding the last word in the range.
+	 * 
+	 * @return The index after the last long in the range.
+	 */
+	private int getEndLongIndex() {
+		return WordPositionIndex.getLongCount(endIndex);
+	}
+}
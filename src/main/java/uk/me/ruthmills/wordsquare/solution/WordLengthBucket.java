@@ -0,0 +1,110 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.me.ruthmills.wordsquare.dictionary.Dictionary;
+import uk.me.ruthmills.wordsquare.letters.AvailableLetters;
+
+/**
+ * The words in the dictionary of one length, each with a bitmask of the letters
+ * it uses, so that the word shortlists for many sets of letters can be built
+ * from the same bucket. A word can only be formed from the letters if every
+ * letter it uses is one of them, which we can check with one AND of the masks;
+ * only the words which pass are then checked for the number of each letter.
+ * 
+ * The bucket does not change once built, so it can be shared by any number of
+ * threads.
+ * 
+ * @author ruth
+ */
+class WordLengthBucket {
+
+	// The mask for a word using a letter outside 'a' to 'z', so that it is always
+	// checked in full.
+	private static final int ALL_LETTERS_MASK = -1;
+
+	// The length of each word in the bucket.
+	private final int length;
+
+	// The words of the required length, in dictionary order.
+	private final List<String> words;
+
+	// The mask of the letters used by each word.
+	private final int[] letterMasks;
+
+	/**
+	 * Constructor. Reads the words of the required length from the dictionary,
+	 * and works out the mask of the letters used by each of them.
+	 * 
+	 * @param length The length of each word.
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	WordLengthBucket(final int length) throws IOException {
+		this.length = length;
+		this.words = Dictionary.getIndex().getWordsOfLength(length);
+		this.letterMasks = new int[words.size()];
+		for (int index = 0; index < letterMasks.length; index++) {
+			letterMasks[index] = getLetterMask(words.get(index));
+		}
+	}
+
+	/**
+	 * Get the length of each word in the bucket.
+	 * 
+	 * @return The length.
+	 */
+	int getLength() {
+		return length;
+	}
+
+	/**
+	 * Get the word shortlist for the available letters, i.e. the words in the
+	 * bucket which can be formed from them. This is the same as the Word Shortlist
+	 * returns for the same length and letters.
+	 * 
+	 * @param letters       The available letters.
+	 * @param lettersString The available letters, as the string they were made
+	 *                      from.
+	 * @return The shortlist of words.
+	 */
+	List<String> getWordShortlist(final AvailableLetters letters, final String lettersString) {
+		// Work out which letters we have, and only check the words using none but
+		// those letters in full.
+		final long startNanos = System.nanoTime();
+		final int availableMask = getLetterMask(lettersString);
+		final List<String> wordShortlist = new ArrayList<>();
+		for (int index = 0; index < letterMasks.length; index++) {
+			if ((letterMasks[index] & ~availableMask) == 0 || letterMasks[index] == ALL_LETTERS_MASK) {
+				final String word = words.get(index);
+				if (letters.isWordFormable(word)) {
+					wordShortlist.add(word);
+				}
+			}
+		}
+
+		// Record how big it is, and how long it took to build.
+		SolverMetrics.getInstance().shortlistBuilt(wordShortlist.size(), System.nanoTime() - startNanos);
+		return wordShortlist;
+	}
+
+	/**
+	 * Get the mask of the letters used in a string, with a bit for each letter
+	 * from 'a' to 'z'.
+	 * 
+	 * @param string The string.
+	 * @return The mask, or ALL_LETTERS_MASK if the string uses any other letter.
+	 */
+	static int getLetterMask(final String string) {
+		int mask = 0;
+		for (int index = 0; index < string.length(); index++) {
+			final char letter = string.charAt(index);
+			if (letter < 'a' || letter > 'z') {
+				return ALL_LETTERS_MASK;
+			}
+			mask |= 1 << (letter - 'a');
+		}
+		return mask;
+	}
+}
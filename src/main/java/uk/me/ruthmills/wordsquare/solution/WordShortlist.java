@@ -1,14 +1,11 @@
 package uk.me.ruthmills.wordsquare.solution;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.List;
 
 import uk.me.ruthmills.wordsquare.dictionary.Dictionary;
 import uk.me.ruthmills.wordsquare.letters.AvailableLetters;
-import uk.me.ruthmills.wordsquare.predicate.ListPredicate;
 import uk.me.ruthmills.wordsquare.predicate.WordContainsAvailableLettersPredicate;
-import uk.me.ruthmills.wordsquare.predicate.WordLengthPredicate;
 
 /**
  * Word Shortlist. This class will return a shortlist of words of the required
@@ -31,12 +28,15 @@ public class WordShortlist {
 	 * @throws IOException Thrown if we cannot read from the dictionary file.
 	 */
 	public static List<String> getWordShortlist(final int length, final AvailableLetters letters) throws IOException {
-		// This predicate will first match on the required number of letters, and then
-		// ensure that each word contains ONLY a subset of the available letters.
-		final ListPredicate<String> wordPredicate = new ListPredicate<String>(
-				Arrays.asList(new WordLengthPredicate(length), new WordContainsAvailableLettersPredicate(letters)));
+		// The dictionary index already has the words bucketed by length, so we only
+		// need to check that each word of the required length contains ONLY a subset
+		// of the available letters.
+		final long startNanos = System.nanoTime();
+		final List<String> wordShortlist = Dictionary.getWordsOfLengthMatchingPredicate(length,
+				new WordContainsAvailableLettersPredicate(letters));
 
-		// Return the shortlist of words (only those matching the predicate).
-		return Dictionary.getWordsMatchingPredicate(wordPredicate);
+		// Record how big it is, and how long it took to build.
+		SolverMetrics.getInstance().shortlistBuilt(wordShortlist.size(), System.nanoTime() - startNanos);
+		return wordShortlist;
 	}
 }
@@ -1,11 +1,17 @@
 package uk.me.ruthmills.wordsquare.solution;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import uk.me.ruthmills.wordsquare.exception.FirstWordSquareSolvedException;
 import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.exception.UncheckedInvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.letters.AvailableLettersFactory;
+import uk.me.ruthmills.wordsquare.predicate.LetterParityPredicate;
 
 /**
  * This class generates valid word squares for the input parameters.
@@ -29,22 +35,315 @@ public class WordSquareGenerator {
 	 */
 	public static List<WordSquare> getValidWordSquares(final int length, final String letters,
 			final boolean firstMatchOnly) throws InvalidWordSquareException, IOException {
-		try {
-			// Initalise the solution state.
-			final SolutionState solutionState = new SolutionState(length, letters, firstMatchOnly);
+		return getValidWordSquares(length, letters, new SearchOptions().setFirstMatchOnly(firstMatchOnly),
+				new SearchStatistics());
+	}
+
+	/**
+	 * Get valid word square combinations.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search (e.g. the number
+	 *                   of nodes pruned by forward checking).
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	public static List<WordSquare> getValidWordSquares(final int length, final String letters,
+			final SearchOptions options, final SearchStatistics statistics)
+			throws InvalidWordSquareException, IOException {
+		return searchWordSquares(length, letters, options, statistics).getWordSquares();
+	}
+
+	/**
+	 * Search for valid word square combinations, within the deadline and maximum
+	 * number of nodes in the search options (if any). If there is a result cache
+	 * or store in the search options, the word squares are taken from them if they
+	 * are there, and added to them if not.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @return The word squares, and the status saying whether the search finished.
+	 *         If it ran out of budget, the word squares are the ones found before
+	 *         then.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file, or read from or write
+	 *                                    to the result store.
+	 */
+	public static SearchResult searchWordSquares(final int length, final String letters,
+			final SearchOptions options, final SearchStatistics statistics)
+			throws InvalidWordSquareException, IOException {
+		// Have we cached the word squares for these letters already? The cache only
+		// has results for the whole search, not for one shard.
+		final ResultCache resultCache = options.getShardCount() == 1 ? options.getResultCache() : null;
+		if (resultCache != null) {
+			final List<WordSquare> cachedWordSquares = resultCache.get(length, letters, options.isFirstMatchOnly());
+			if (cachedWordSquares != null) {
+				return new SearchResult(cachedWordSquares, SearchStatus.FINISHED);
+			}
+		}
+
+		// If not, look in the store, or search for them, and cache them if we found
+		// them all.
+		final SearchResult result = searchWithoutCache(length, letters, options, statistics);
+		if (resultCache != null && result.isFinished()) {
+			return new SearchResult(
+					resultCache.put(length, letters, options.isFirstMatchOnly(), result.getWordSquares()),
+					SearchStatus.FINISHED);
+		}
+		return result;
+	}
+
+	/**
+	 * Search for valid word square combinations, without looking in or adding to
+	 * any result cache. If there is a result store in the search options, the word
+	 * squares are taken from it if they are there, and added to it if not.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @return The word squares, and the status saying whether the search finished.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file, or read from or write
+	 *                                    to the result store.
+	 */
+	private static SearchResult searchWithoutCache(final int length, final String letters,
+			final SearchOptions options, final SearchStatistics statistics)
+			throws InvalidWordSquareException, IOException {
+		// Have we stored all the word squares for these letters already? The store
+		// only has results for the whole search, not for one shard.
+		final ResultStore resultStore = options.getShardCount() == 1 ? options.getResultStore() : null;
+		if (resultStore != null) {
+			final List<WordSquare> storedWordSquares = resultStore.get(length, letters);
+			if (storedWordSquares != null) {
+				SolverMetrics.getInstance().resultStoreHit();
+				return new SearchResult(options.isFirstMatchOnly() && storedWordSquares.size() > 1
+						? storedWordSquares.subList(0, 1)
+						: storedWordSquares, SearchStatus.FINISHED);
+			}
+			SolverMetrics.getInstance().resultStoreMiss();
+		}
+
+		// If not, search for them, and store them if we found them all.
+		final SearchResult result = searchWithoutStore(length, letters, options, statistics);
+		if (resultStore != null && !options.isFirstMatchOnly() && result.isFinished()) {
+			resultStore.put(length, letters, result.getWordSquares());
+		}
+		return result;
+	}
+
+	/**
+	 * Search for valid word square combinations, without looking in or adding to
+	 * any result cache or store.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @return The word squares, and the status saying whether the search finished.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    dictionary file.
+	 */
+	private static SearchResult searchWithoutStore(final int length, final String letters,
+			final SearchOptions options, final SearchStatistics statistics)
+			throws InvalidWordSquareException, IOException {
+		// Are we searching on several threads at once?
+		if (options.isParallel()) {
+			return ParallelWordSquareGenerator.searchWordSquares(length, letters, options, statistics);
+		}
+
+		// Reject any letters which could never fill the word square, before we even
+		// look at the dictionary.
+		if (!new LetterParityPredicate(length).test(AvailableLettersFactory.getInstance(letters))) {
+			return new SearchResult(Collections.emptyList(), SearchStatus.FINISHED);
+		}
+
+		// Initalise the solution state, and search the whole word shortlist.
+		final SolutionState solutionState = new SolutionState(length, letters, options, statistics);
+		return searchWordSquares(solutionState, Collections.emptyList());
+	}
+
+	/**
+	 * Resume a search for valid word square combinations from a checkpoint file,
+	 * written by an earlier search with a checkpoint file set in its search
+	 * options. The word squares found before the checkpoint are returned along
+	 * with the rest, so the result is the same as if the earlier search had never
+	 * been stopped. The search is always on one thread, so the parallel flag in
+	 * the search options is ignored.
+	 * 
+	 * @param checkpointFile The checkpoint file to resume from.
+	 * @param options        The options controlling the search. These should be
+	 *                       the same as for the earlier search, except for the
+	 *                       budget and checkpoint options, which may be changed
+	 *                       (e.g. to carry on writing checkpoints to the same
+	 *                       file).
+	 * @param statistics     The statistics to update during the search.
+	 * @return The word squares, and the status saying whether the search finished.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 * @throws IOException                Thrown if we cannot read from the
+	 *                                    checkpoint file or the dictionary file.
+	 */
+	public static SearchResult resumeWordSquares(final Path checkpointFile, final SearchOptions options,
+			final SearchStatistics statistics) throws InvalidWordSquareException, IOException {
+		// Has the earlier search already finished? If so, there is nothing to resume.
+		final Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+		if (checkpoint.isFinished()) {
+			return new SearchResult(checkpoint.getWordSquares(), SearchStatus.FINISHED);
+		}
+
+		// Initialise the solution state with the word squares found already, and
+		// carry on from the path the earlier search had reached.
+		final SolutionState solutionState = new SolutionState(checkpoint.getLength(), checkpoint.getLetters(),
+				options, statistics);
+		solutionState.addPreviousWordSquares(checkpoint.getWordSquares());
+		return searchWordSquares(solutionState, checkpoint.getPath());
+	}
 
-			// Iterate through each word in the shortlist.
+	/**
+	 * Search the word shortlist for valid word square combinations, on one thread.
+	 * 
+	 * @param solutionState The solution state, with no words placed.
+	 * @param resumePath    The words to resume the search from, or an empty list
+	 *                      to search the whole word shortlist.
+	 * @return The word squares, and the status saying whether the search finished.
+	 * @throws InvalidWordSquareException Thrown if a word square we are trying to
+	 *                                    add is invalid.
+	 */
+	static SearchResult searchWordSquares(final SolutionState solutionState, final List<String> resumePath)
+			throws InvalidWordSquareException {
+		// Iterate through each word in the shortlist (from the one we are resuming
+		// from, if any), until we are told to stop (e.g. because the firstMatchOnly
+		// flag is true, and we have found the first word square, or we have run out
+		// of budget).
+		final String resumeWord = resumePath.isEmpty() ? null : resumePath.get(0);
+		final long startNanos = SolverMetrics.getInstance().searchStarted();
+		try {
 			for (final String word : solutionState.getWordShortlist()) {
+				if (solutionState.getStopSignal().isStopped()) {
+					break;
+				}
+				if (resumeWord != null && word.compareTo(resumeWord) < 0) {
+					continue;
+				}
+
 				// Get any valid word squares beginning with the current word from the
 				// shortlist.
+				solutionState.getValidWordSquares(word,
+						word.equals(resumeWord) ? resumePath.subList(1, resumePath.size()) : Collections.emptyList());
+			}
+		} finally {
+			SolverMetrics.getInstance().searchEnded(startNanos);
+		}
+
+		// Write the final checkpoint, and return the word squares.
+		solutionState.searchEnded();
+		return new SearchResult(solutionState.getWordSquares(), solutionState.getSearchStatus());
+	}
+
+	/**
+	 * Count the valid word squares, without making any of them.
+	 * 
+	 * @param length  Number of letters in each word.
+	 * @param letters Available letters to create the words from.
+	 * @return The number of word squares.
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	public static long countWordSquares(final int length, final String letters) throws IOException {
+		return countWordSquares(length, letters, new SearchOptions(), new SearchStatistics());
+	}
+
+	/**
+	 * Count the valid word squares. This carries out the same search as
+	 * getValidWordSquares(), but only adds each word square it comes to to a
+	 * counter, rather than making it and holding it in a list. If the parallel
+	 * flag is set in the search options, the threads all add to the same counter.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search. If the firstMatchOnly
+	 *                   flag is true, the count is at most 1.
+	 * @param statistics The statistics to update during the search.
+	 * @return The number of word squares. If the search ran out of budget, this is
+	 *         the number found before then.
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	public static long countWordSquares(final int length, final String letters, final SearchOptions options,
+			final SearchStatistics statistics) throws IOException {
+		// Are we searching on several threads at once?
+		if (options.isParallel()) {
+			return ParallelWordSquareGenerator.countWordSquares(length, letters, options, statistics);
+		}
+
+		// Reject any letters which could never fill the word square, before we even
+		// look at the dictionary.
+		if (!new LetterParityPredicate(length).test(AvailableLettersFactory.getInstance(letters))) {
+			return 0;
+		}
+
+		// Initialise the solution state, adding the word squares to a counter.
+		final LongAdder wordSquareCounter = new LongAdder();
+		final SolutionState solutionState = new SolutionState(length, letters, options, statistics,
+				new StopSignal(), wordSquareCounter);
+
+		// Iterate through each word in the shortlist, until we are told to stop.
+		final long startNanos = SolverMetrics.getInstance().searchStarted();
+		try {
+			for (final String word : solutionState.getWordShortlist()) {
+				if (solutionState.getStopSignal().isStopped()) {
+					break;
+				}
 				solutionState.getValidWordSquares(word);
 			}
+		} catch (InvalidWordSquareException ex) {
+			// We never make a word square when counting, so this cannot happen.
+			throw new UncheckedInvalidWordSquareException(ex);
+		} finally {
+			SolverMetrics.getInstance().searchEnded(startNanos);
+		}
 
-			// Return the word squares.
-			return solutionState.getWordSquares();
-		} catch (FirstWordSquareSolvedException ex) {
-			// The firstMatchOnly flag is true, and we have found the first word square.
-			return Collections.singletonList(ex.getWordSquare());
+		// Return the count.
+		return wordSquareCounter.sum();
+	}
+
+	/**
+	 * Get a stream of valid word square combinations. Nothing is searched for until
+	 * the stream is consumed, and then only as far as the next word square each
+	 * time, so the caller can stop whenever they like (e.g. with limit()), and does
+	 * not have to hold all the word squares in memory. If the parallel flag is set
+	 * in the search options, the stream is parallel.
+	 * 
+	 * @param length     Number of letters in each word.
+	 * @param letters    Available letters to create the words from.
+	 * @param options    The options controlling the search.
+	 * @param statistics The statistics to update during the search.
+	 * @return Stream of the word squares, in the same order as getValidWordSquares()
+	 *         returns them. If a word square is found to be invalid, the stream
+	 *         throws an Unchecked Invalid Word Square Exception.
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	public static Stream<WordSquare> streamValidWordSquares(final int length, final String letters,
+			final SearchOptions options, final SearchStatistics statistics) throws IOException {
+		// Reject any letters which could never fill the word square, before we even
+		// look at the dictionary.
+		if (!new LetterParityPredicate(length).test(AvailableLettersFactory.getInstance(letters))) {
+			return Stream.empty();
 		}
+
+		// Initialise the solution state, and stream the word squares from it.
+		final SolutionState solutionState = new SolutionState(length, letters, options, statistics);
+		return StreamSupport.stream(new WordSquareSpliterator(solutionState), options.isParallel());
 	}
 }
@@ -0,0 +1,85 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.util.Objects;
+
+/**
+ * A word square puzzle to solve: the length of each word, and the letters to
+ * make the words from.
+ * 
+ * @author ruth
+ */
+public class WordSquareQuery {
+
+	// The length of each word in the word square.
+	private final int length;
+
+	// The available letters to create the words from.
+	private final String letters;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param length  Number of letters in each word.
+	 * @param letters Available letters to create the words from.
+	 */
+	public WordSquareQuery(final int length, final String letters) {
+		this.length = length;
+		this.letters = letters;
+	}
+
+	/**
+	 * Get the length of each word in the word square.
+	 * 
+	 * @return The length.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Get the available letters to create the words from.
+	 * 
+	 * @return The letters.
+	 */
+	public String getLetters() {
+		return letters;
+	}
+
+	/**
+	 * Check if another query is for the same length and letters.
+	 * 
+	 * @param object The other object.
+	 * @return true if the other object is a query for the same length and letters.
+	 */
+	@Override
+	public boolean equals(final Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof WordSquareQuery)) {
+			return false;
+		}
+		final WordSquareQuery query = (WordSquareQuery) object;
+		return length == query.length && Objects.equals(letters, query.letters);
+	}
+
+	/**
+	 * Get the hash code of the query.
+	 * 
+	 * @return The hash code.
+	 */
+	@Override
+	public int hashCode() {
+		return Objects.hash(length, letters);
+	}
+
+	/**
+	 * Get the query as a string.
+	 * 
+	 * @return The length and letters, separated by a space.
+	 */
+	@Override
+	public String toString() {
+		return length + " " + letters;
+	}
+}
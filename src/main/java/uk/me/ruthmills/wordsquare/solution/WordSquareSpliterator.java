@@ -0,0 +1,257 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.apache.commons.collections4.ListUtils;
+
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.exception.UncheckedInvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.index.WordPrefixIndex;
+
+/**
+ * Spliterator over the valid word squares, which carries out the same depth
+ * first search as the Solution State, but only as far as the next word square
+ * each time it is asked for one. Rather than recursing, it keeps its own stack
+ * of the candidate words at each depth, and the next one to try, so it can stop
+ * and pick up again where it left off.
+ * 
+ * Before it has been advanced, it can be split for a parallel stream. The range
+ * of candidate words at its root is split in half; if only one candidate word
+ * is left, that word is placed and the words which could come next become the
+ * new root, so that large subtrees can be split further down.
+ * 
+ * @author ruth
+ */
+class WordSquareSpliterator implements Spliterator<WordSquare> {
+
+	// Our own solution state. The words placed before the root depth are fixed.
+	private final SolutionState state;
+
+	// The length of each word in the word square.
+	private final int length;
+
+	// The candidate words at each depth. The candidates at the root depth are our
+	// own; the others are reused from the solution state.
+	private final WordCandidates[] candidates;
+
+	// The index of the next candidate word to try at each depth.
+	private final int[] nextIndexes;
+
+	// Flags indicating if we have found a word square below each depth, so that we
+	// know which states have no completion.
+	private final boolean[] found;
+
+	// The depth at which this spliterator starts, i.e. the number of fixed words.
+	private int rootDepth;
+
+	// Flag indicating if we have started advancing, after which we cannot split.
+	private boolean started;
+
+	/**
+	 * Constructor, to search the whole of the word shortlist.
+	 * 
+	 * @param state The solution state, with no words placed. This spliterator
+	 *              takes it over.
+	 */
+	WordSquareSpliterator(final SolutionState state) {
+		this(state, new WordCandidates(state.getWordPrefixIndex().size()).reset(0,
+				state.getWordPrefixIndex().size()));
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param state          The solution state, with the fixed words placed. This
+	 *                       spliterator takes it over.
+	 * @param rootCandidates The candidate words for the next word.
+	 */
+	private WordSquareSpliterator(final SolutionState state, final WordCandidates rootCandidates) {
+		this.state = state;
+		this.length = state.getLength();
+		this.candidates = new WordCandidates[length];
+		this.nextIndexes = new int[length];
+		this.found = new boolean[length];
+		this.rootDepth = state.getWords().size();
+		candidates[rootDepth] = rootCandidates;
+		nextIndexes[rootDepth] = rootCandidates.getStartIndex();
+	}
+
+	/**
+	 * Find the next valid word square, and pass it to the action.
+	 * 
+	 * @param action The action to pass the word square to.
+	 * @return true if there was another word square, or false if there are no more.
+	 * @throws UncheckedInvalidWordSquareException Thrown if a word square we have
+	 *                                             found is invalid.
+	 */
+	@Override
+	public boolean tryAdvance(final Consumer<? super WordSquare> action) {
+		started = true;
+		final List<String> words = state.getWords();
+		final WordPrefixIndex wordPrefixIndex = state.getWordPrefixIndex();
+
+		// Carry on with the search until we find a word square, or run out of words,
+		// or are told to stop.
+		while (!state.getStopSignal().isStopped()) {
+			final int depth = words.size();
+
+			// Have we tried all the candidate words at this depth? If so, go back up to
+			// the previous depth - unless this is the root, in which case we are done.
+			final int index = candidates[depth].next(nextIndexes[depth]);
+			if (index >= candidates[depth].getEndIndex()) {
+				nextIndexes[depth] = index;
+				if (depth == rootDepth) {
+					state.returnUnspentBudget();
+					return false;
+				}
+
+				// If we found no word squares, remember that there is no completion from here.
+				if (!found[depth] && !state.getStopSignal().isStopped()) {
+					state.addNogood();
+				}
+				state.removeWord(words.get(depth - 1));
+				continue;
+			}
+
+			// Get the next candidate word, and make sure it can be formed from the
+			// remaining letters.
+			nextIndexes[depth] = index + 1;
+			final String word = wordPrefixIndex.getWord(index);
+			if (!state.getLetters().isWordFormable(word)) {
+				continue;
+			}
+			if (!state.visitNode()) {
+				continue;
+			}
+
+			// Is this the last word? If so, we have found a word square.
+			if (depth == length - 1) {
+				Arrays.fill(found, rootDepth, length, true);
+				action.accept(completeWordSquare(word));
+				return true;
+			}
+
+			// Otherwise, place the word, and if we can carry on, go down to the next depth.
+			if (!placeWord(word)) {
+				state.removeWord(word);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Split off the first part of the word squares into a new spliterator.
+	 * 
+	 * @return The new spliterator, or null if we cannot be split.
+	 */
+	@Override
+	public Spliterator<WordSquare> trySplit() {
+		if (started) {
+			return null;
+		}
+
+		while (true) {
+			// Are there at least two candidate words left at the root? If so, split them
+			// in half, keeping the second half.
+			final WordCandidates rootCandidates = candidates[rootDepth];
+			final int endIndex = rootCandidates.getEndIndex();
+			final int firstIndex = rootCandidates.next(nextIndexes[rootDepth]);
+			if (firstIndex >= endIndex) {
+				return null;
+			}
+			if (rootCandidates.next(firstIndex + 1) < endIndex) {
+				final int middleIndex = Math.max((firstIndex + endIndex) >>> 1, firstIndex + 1);
+				nextIndexes[rootDepth] = middleIndex;
+				return new WordSquareSpliterator(state.copy(), rootCandidates.copy(firstIndex, middleIndex));
+			}
+
+			// Otherwise, place the only candidate word, and make the words which could
+			// come next the new root.
+			if (rootDepth == length - 1) {
+				return null;
+			}
+			nextIndexes[rootDepth] = firstIndex + 1;
+			final String word = state.getWordPrefixIndex().getWord(firstIndex);
+			if (!state.getLetters().isWordFormable(word) || !state.visitNode()) {
+				return null;
+			}
+			if (!placeWord(word)) {
+				state.removeWord(word);
+				return null;
+			}
+			rootDepth++;
+			candidates[rootDepth] = candidates[rootDepth].copy(candidates[rootDepth].getStartIndex(),
+					candidates[rootDepth].getEndIndex());
+		}
+	}
+
+	/**
+	 * Estimate the number of word squares left. We have no idea until we search.
+	 * 
+	 * @return Long.MAX_VALUE, meaning unknown.
+	 */
+	@Override
+	public long estimateSize() {
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * Get the characteristics of the spliterator. The word squares come in the same
+	 * order as the search on one thread, and are never null.
+	 * 
+	 * @return The characteristics.
+	 */
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+	/**
+	 * Place a word, and if the search could still lead to a word square, find the
+	 * candidate words for the next depth.
+	 * 
+	 * @param word The word to place.
+	 * @return true if we have gone down to the next depth, or false if the search
+	 *         can be pruned here (in which case the word is still placed).
+	 */
+	private boolean placeWord(final String word) {
+		state.placeWord(word);
+		if (state.getLetters().getCount() < length) {
+			return false;
+		}
+		final WordCandidates nextCandidates = state.findNextWordCandidates();
+		if (nextCandidates == null) {
+			return false;
+		}
+		final int depth = state.getWords().size();
+		candidates[depth] = nextCandidates;
+		nextIndexes[depth] = nextCandidates.getStartIndex();
+		found[depth] = false;
+		return true;
+	}
+
+	/**
+	 * Complete a word square with its last word, and make sure it is valid. If the
+	 * firstMatchOnly flag is true, tell the search to stop.
+	 * 
+	 * @param word The last word.
+	 * @return The word square.
+	 * @throws UncheckedInvalidWordSquareException Thrown if the word square is
+	 *                                             invalid.
+	 */
+	private WordSquare completeWordSquare(final String word) {
+		final WordSquare wordSquare = new WordSquare(length,
+				ListUtils.union(state.getWords(), Collections.singletonList(word)));
+		if (!wordSquare.isValid()) {
+			throw new UncheckedInvalidWordSquareException(new InvalidWordSquareException(wordSquare));
+		}
+		if (state.getOptions().isFirstMatchOnly()) {
+			state.getStopSignal().stop();
+		}
+		return wordSquare;
+	}
+}
@@ -0,0 +1,95 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.exception.UncheckedInvalidWordSquareException;
+
+/**
+ * Fork/join task which searches for the word squares beginning with a given
+ * list of words. Until the split depth is reached, the task splits into a
+ * subtask for each word which could come next, and joins their word squares
+ * back together in order. After that, it searches the rest of the subtree on
+ * its own copy of the solution state.
+ * 
+ * @author ruth
+ */
+class WordSquareTask extends RecursiveTask<List<WordSquare>> {
+
+	// Serial version UID.
+	private static final long serialVersionUID = 1L;
+
+	// The solution state to copy, with no words placed.
+	private final SolutionState solutionState;
+
+	// The words the word squares begin with. The last of these is the current word.
+	private final List<String> words;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param solutionState The solution state to copy, with no words placed.
+	 * @param words         The words the word squares begin with. If this is empty,
+	 *                      the task searches the whole word shortlist.
+	 */
+	WordSquareTask(final SolutionState solutionState, final List<String> words) {
+		this.solutionState = solutionState;
+		this.words = words;
+	}
+
+	/**
+	 * Search for the word squares beginning with the words.
+	 * 
+	 * @return The word squares, in the same order as a search on one thread.
+	 */
+	@Override
+	protected List<WordSquare> compute() {
+		// Has another task already told the search to stop?
+		if (solutionState.getStopSignal().isStopped()) {
+			return Collections.emptyList();
+		}
+
+		// Get our own copy of the solution state, and place all the words before the
+		// current one.
+		final SolutionState state = solutionState.copy();
+		final int numWords = words.size();
+		for (int index = 0; index < numWords - 1; index++) {
+			state.placeWord(words.get(index));
+		}
+
+		// Have we reached the split depth (or the last word of the word square)? If so,
+		// search the rest of the subtree here.
+		if (numWords >= state.getOptions().getSplitDepth() || numWords == state.getLength()) {
+			try {
+				state.getValidWordSquares(words.get(numWords - 1));
+			} catch (InvalidWordSquareException ex) {
+				throw new UncheckedInvalidWordSquareException(ex);
+			} finally {
+				state.returnUnspentBudget();
+			}
+			return state.getWordSquares();
+		}
+
+		// Otherwise, split into a subtask for each word which could come next.
+		final List<String> nextWords = numWords == 0 ? state.getWordShortlist()
+				: state.getNextWords(words.get(numWords - 1));
+		final List<WordSquareTask> subtasks = new ArrayList<>(nextWords.size());
+		for (final String nextWord : nextWords) {
+			final List<String> subtaskWords = new ArrayList<>(numWords + 1);
+			subtaskWords.addAll(words);
+			subtaskWords.add(nextWord);
+			subtasks.add(new WordSquareTask(solutionState, subtaskWords));
+		}
+		invokeAll(subtasks);
+
+		// Join the word squares back together in order.
+		final List<WordSquare> wordSquares = new ArrayList<>();
+		for (final WordSquareTask subtask : subtasks) {
+			wordSquares.addAll(subtask.join());
+		}
+		return wordSquares;
+	}
+}
@@ -5,13 +5,17 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
 
-import org.junit.Ignore;
 import org.junit.Test;
 
 import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.solution.SearchResult;
+import uk.me.ruthmills.wordsquare.solution.SearchStatus;
 import uk.me.ruthmills.wordsquare.solution.WordSquare;
+import uk.me.ruthmills.wordsquare.solution.WordSquareQuery;
 
 /**
  * Test suite for the Word Square Solver class.
@@ -162,11 +166,7 @@ public class WordSquareSolverTest {
 
 	/**
 	 * Test that we can solve the 7-letter word square.
-	 * 
-	 * N.B. This test is ignored by default, as it takes several minutes to execute.
-	 * If you REALLY want to run it, please remove the @Ignore annotation.
 	 */
-	@Ignore
 	@Test
 	public void shouldSolve7LetterWordSquare() throws InvalidWordSquareException, IOException {
 		// given
@@ -189,4 +189,68 @@ public class WordSquareSolverTest {
 		assertThat(solution, hasSize(7));
 		assertThat(solution.toString(), is("[bravado, renamed, analogy, valuers, amoebas, degrade, odyssey]"));
 	}
+
+	/**
+	 * Test that we can solve the 7-letter word square within a deadline and node
+	 * limit which are big enough.
+	 */
+	@Test
+	public void shouldSolve7LetterWordSquare_withinBudget() throws InvalidWordSquareException, IOException {
+		// given
+		final int length = 7;
+		final String letters = "aaaaaaaaabbeeeeeeedddddggmmlloooonnssssrrrruvvyyy";
+
+		// when
+		final SearchResult result = WordSquareSolver.solveWordSquare(length, letters, true,
+				Instant.now().plusSeconds(600), 1000000);
+
+		// then
+		assertThat(result.getStatus(), is(SearchStatus.FINISHED));
+		assertThat(result.getWordSquares(), hasSize(1));
+		assertThat(result.getWordSquares().get(0).getWords().toString(),
+				is("[bravado, renamed, analogy, valuers, amoebas, degrade, odyssey]"));
+	}
+
+	/**
+	 * Test that we get a partial result when the budget runs out before the word
+	 * square is solved.
+	 */
+	@Test
+	public void shouldReturnPartialResult_whenBudgetRunsOut() throws InvalidWordSquareException, IOException {
+		// given
+		final int length = 7;
+		final String letters = "aaaaaaaaabbeeeeeeedddddggmmlloooonnssssrrrruvvyyy";
+
+		// when
+		final SearchResult nodeLimitResult = WordSquareSolver.solveWordSquare(length, letters, true, 10);
+		final SearchResult deadlineResult = WordSquareSolver.solveWordSquare(length, letters, true,
+				Instant.now().minusSeconds(1));
+
+		// then
+		assertThat(nodeLimitResult.getStatus(), is(SearchStatus.NODE_LIMIT_REACHED));
+		assertThat(nodeLimitResult.getWordSquares(), hasSize(0));
+		assertThat(deadlineResult.getStatus(), is(SearchStatus.DEADLINE_REACHED));
+		assertThat(deadlineResult.getWordSquares(), hasSize(0));
+	}
+
+	/**
+	 * Test that we can solve a batch of word squares, getting the solutions in the
+	 * same order as the queries.
+	 */
+	@Test
+	public void shouldSolveBatchOfWordSquares() throws InvalidWordSquareException, IOException {
+		// given
+		final List<WordSquareQuery> queries = Arrays.asList(new WordSquareQuery(4, "eeeeddoonnnsssrv"),
+				new WordSquareQuery(3, "ddggoooox"), new WordSquareQuery(4, "aaccdeeeemmnnnoo"));
+
+		// when
+		final List<List<WordSquare>> solutions = WordSquareSolver.solveWordSquares(queries, true);
+
+		// then
+		assertThat(solutions, hasSize(3));
+		assertThat(solutions.get(0).get(0).getWords().toString(), is("[rose, oven, send, ends]"));
+		assertThat(solutions.get(1).get(0).getWords().toString(), is("[dog, oxo, god]"));
+		assertThat(solutions.get(2).get(0).getWords().toString(),
+				is(WordSquareSolver.solveWordSquare(4, "aaccdeeeemmnnnoo", true).get(0).getWords().toString()));
+	}
 }
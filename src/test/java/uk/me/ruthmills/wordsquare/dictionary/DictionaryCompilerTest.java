@@ -0,0 +1,85 @@
+package uk.me.ruthmills.wordsquare.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test suite for the Dictionary Compiler class.
+ * 
+ * @author ruth
+ */
+public class DictionaryCompilerTest {
+
+	// Temporary folder for the text and binary files.
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * Test that the binary file has the expected header, offset table and
+	 * fixed-width records.
+	 */
+	@Test
+	public void shouldCompileTextFileIntoBinaryFile() throws IOException {
+		// given
+		final Path textFile = temporaryFolder.newFile("dictionary.txt").toPath();
+		Files.write(textFile, Arrays.asList("a", "dog", "go", "god"), StandardCharsets.US_ASCII);
+		final Path binaryFile = temporaryFolder.getRoot().toPath().resolve("dictionary.bin");
+
+		// when
+		DictionaryCompiler.compile(textFile, binaryFile);
+
+		// then
+		try (DataInputStream inputStream = new DataInputStream(Files.newInputStream(binaryFile))) {
+			assertThat(inputStream.readInt(), is(DictionaryCompiler.MAGIC_NUMBER));
+			assertThat(inputStream.readInt(), is(DictionaryCompiler.FORMAT_VERSION));
+			assertThat(inputStream.readInt(), is(DictionaryCompiler.getChecksum(textFile)));
+			assertThat(inputStream.readInt(), is(3)); // maximum word length.
+
+			// Offset table: the records start after the header and 4 table entries.
+			final int recordsOffset = DictionaryCompiler.HEADER_SIZE + 4 * DictionaryCompiler.OFFSET_TABLE_ENTRY_SIZE;
+			assertThat(inputStream.readInt(), is(0)); // no 0-letter words.
+			assertThat(inputStream.readInt(), is(recordsOffset));
+			assertThat(inputStream.readInt(), is(1)); // one 1-letter word.
+			assertThat(inputStream.readInt(), is(recordsOffset));
+			assertThat(inputStream.readInt(), is(1)); // one 2-letter word.
+			assertThat(inputStream.readInt(), is(recordsOffset + 1));
+			assertThat(inputStream.readInt(), is(2)); // two 3-letter words.
+			assertThat(inputStream.readInt(), is(recordsOffset + 3));
+
+			// Fixed-width records, grouped by length.
+			final byte[] records = new byte[9];
+			inputStream.readFully(records);
+			assertThat(new String(records, StandardCharsets.US_ASCII), is("agodoggod"));
+			assertThat(inputStream.read(), is(-1)); // end of file.
+		}
+	}
+
+	/**
+	 * Test that the checksum changes when the text file changes.
+	 */
+	@Test
+	public void shouldChangeChecksum_whenTextFileChanges() throws IOException {
+		// given
+		final Path textFile = temporaryFolder.newFile("dictionary.txt").toPath();
+		Files.write(textFile, Arrays.asList("dog", "god"), StandardCharsets.US_ASCII);
+		final int checksum = DictionaryCompiler.getChecksum(textFile);
+
+		// when
+		Files.write(textFile, Arrays.asList("dog", "god", "oxo"), StandardCharsets.US_ASCII);
+
+		// then
+		assertThat(DictionaryCompiler.getChecksum(textFile), is(not(checksum)));
+	}
+}
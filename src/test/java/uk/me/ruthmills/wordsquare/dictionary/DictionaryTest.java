@@ -3,15 +3,25 @@ package uk.me.ruthmills.wordsquare.dictionary;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.text.CharSequenceLength.hasLength;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import uk.me.ruthmills.wordsquare.letters.AvailableLettersFactory;
 import uk.me.ruthmills.wordsquare.predicate.ListPredicate;
@@ -42,6 +52,10 @@ public class DictionaryTest {
 	// "eeeeddoonnnsssrv".
 	private static final int EXPECTED_NUMBER_OF_4_LETTER_WORDS_CONTAINING_ONLY_SUBSET_OF_AVAILABLE_LETTERS = 84;
 
+	// Temporary folder for the text and binary files.
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	/**
 	 * Test that we can read all the expected words from the dictionary file. We
 	 * won't need ALL the words for our word square, but this is a good place to
@@ -57,6 +71,19 @@ public class DictionaryTest {
 		assertThat(words, hasSize(EXPECTED_NUMBER_OF_ALL_WORDS)); // expected number of all the words!
 	}
 
+	/**
+	 * Test that the words are read in the same order as they are in the
+	 * dictionary file, however the index holds them.
+	 */
+	@Test
+	public void shouldReadWordsInDictionaryFileOrder() throws IOException {
+		// when
+		final List<String> words = Dictionary.getWordsMatchingPredicate(word -> true);
+
+		// then
+		assertThat(words, is(Files.readAllLines(Dictionary.getTextFilePath(), StandardCharsets.US_ASCII)));
+	}
+
 	/**
 	 * Test that we can read only the words that are 4 letters long. We filter out
 	 * all other words that are not of the required length.
@@ -119,4 +146,145 @@ public class DictionaryTest {
 		assertThat(words.size(), lessThan(EXPECTED_NUMBER_OF_WORDS_CONTAINING_ONLY_SUBSET_OF_AVAILABLE_LETTERS));
 		assertThat(words, hasSize(EXPECTED_NUMBER_OF_4_LETTER_WORDS_CONTAINING_ONLY_SUBSET_OF_AVAILABLE_LETTERS));
 	}
+
+	/**
+	 * Test that we can read only the 4-letter words which contain ONLY a subset of
+	 * the available letters, directly from the 4-letter bucket of the dictionary
+	 * index.
+	 */
+	@Test
+	public void shouldReadOnly4LetterWordsWhichContainOnlyASubsetOfAvailableLetters_fromLengthBucket()
+			throws IOException {
+		// given
+		final WordContainsAvailableLettersPredicate wordContainsAvailableLettersPredicate = new WordContainsAvailableLettersPredicate(
+				AvailableLettersFactory.getInstance(AVAILABLE_LETTERS));
+
+		// when
+		final List<String> words = Dictionary.getWordsOfLengthMatchingPredicate(4,
+				wordContainsAvailableLettersPredicate);
+
+		// then
+		assertThat(words, everyItem(hasLength(4))); // every word is 4 letters long.
+		assertThat(words, hasSize(EXPECTED_NUMBER_OF_4_LETTER_WORDS_CONTAINING_ONLY_SUBSET_OF_AVAILABLE_LETTERS));
+	}
+
+	/**
+	 * Test that the dictionary index is only built once, and is then shared.
+	 */
+	@Test
+	public void shouldOnlyBuildDictionaryIndexOnce() throws IOException {
+		// when
+		final DictionaryIndex firstIndex = Dictionary.getIndex();
+		final DictionaryIndex secondIndex = Dictionary.getIndex();
+
+		// then
+		assertThat(secondIndex, sameInstance(firstIndex));
+		assertThat(firstIndex.getCount(), is(EXPECTED_NUMBER_OF_ALL_WORDS));
+		assertThat(firstIndex.getWordsOfLength(4), hasSize(EXPECTED_NUMBER_OF_4_LETTER_WORDS));
+	}
+
+	/**
+	 * Test that the compiled binary file is used when it was compiled from the
+	 * text file as it is now.
+	 */
+	@Test
+	public void shouldLoadMappedIndex_whenBinaryFileIsUpToDate() throws IOException {
+		// given
+		final Path textFile = temporaryFolder.newFile("dictionary.txt").toPath();
+		Files.write(textFile, Arrays.asList("dog", "god"), StandardCharsets.US_ASCII);
+		final Path binaryFile = temporaryFolder.getRoot().toPath().resolve("dictionary.bin");
+		DictionaryCompiler.compile(textFile, binaryFile);
+
+		// when
+		final DictionaryIndex index = Dictionary.loadMappedIndex(binaryFile, textFile);
+
+		// then
+		assertThat(index, is(instanceOf(MappedDictionaryIndex.class)));
+		assertThat(index.getWordsOfLength(3), is(Arrays.asList("dog", "god")));
+	}
+
+	/**
+	 * Test that the compiled binary file is not used when the text file has
+	 * changed since it was compiled.
+	 */
+	@Test
+	public void shouldNotLoadMappedIndex_whenTextFileHasChanged() throws IOException {
+		// given
+		final Path textFile = temporaryFolder.newFile("dictionary.txt").toPath();
+		Files.write(textFile, Arrays.asList("dog", "god"), StandardCharsets.US_ASCII);
+		final Path binaryFile = temporaryFolder.getRoot().toPath().resolve("dictionary.bin");
+		DictionaryCompiler.compile(textFile, binaryFile);
+		Files.write(textFile, Arrays.asList("dog", "god", "oxo"), StandardCharsets.US_ASCII);
+
+		// when
+		final DictionaryIndex index = Dictionary.loadMappedIndex(binaryFile, textFile);
+
+		// then
+		assertThat(index, is(nullValue()));
+	}
+
+	/**
+	 * Test that a corrupt compiled binary file is not used when we have the text
+	 * file to read instead.
+	 */
+	@Test
+	public void shouldNotLoadMappedIndex_whenBinaryFileIsCorrupt() throws IOException {
+		// given
+		final Path textFile = temporaryFolder.newFile("dictionary.txt").toPath();
+		Files.write(textFile, Arrays.asList("dog", "god"), StandardCharsets.US_ASCII);
+		final Path binaryFile = temporaryFolder.newFile("dictionary.bin").toPath();
+		Files.write(binaryFile, Arrays.asList("not a compiled dictionary"), StandardCharsets.US_ASCII);
+
+		// when
+		final DictionaryIndex index = Dictionary.loadMappedIndex(binaryFile, textFile);
+
+		// then
+		assertThat(index, is(nullValue()));
+	}
+
+	/**
+	 * Test that the compiled binary file is used when we don't have the text file
+	 * to check it against, and not when there is no binary file.
+	 */
+	@Test
+	public void shouldLoadMappedIndex_whenThereIsNoTextFile() throws IOException {
+		// given
+		final Path textFile = temporaryFolder.newFile("dictionary.txt").toPath();
+		Files.write(textFile, Arrays.asList("dog", "god"), StandardCharsets.US_ASCII);
+		final Path binaryFile = temporaryFolder.getRoot().toPath().resolve("dictionary.bin");
+		DictionaryCompiler.compile(textFile, binaryFile);
+		Files.delete(textFile);
+
+		// when
+		final DictionaryIndex index = Dictionary.loadMappedIndex(binaryFile, textFile);
+
+		// then
+		assertThat(index.getWordsOfLength(3), is(Arrays.asList("dog", "god")));
+		assertThat(Dictionary.loadMappedIndex(textFile, textFile), is(nullValue()));
+	}
+
+	/**
+	 * Test that the binary file is found next to our classes, wherever we are run
+	 * from, unless the system property says where it is.
+	 */
+	@Test
+	public void shouldGetBinaryFilePath() {
+		// given
+		final Path classesPath = Paths.get(getClass().getResource("/dictionary.txt").getPath()).getParent();
+
+		// when
+		final Path binaryFilePath = Dictionary.getBinaryFilePath();
+
+		// then
+		assertThat(binaryFilePath, is(classesPath.getParent().resolve("dictionary.bin")));
+
+		// when
+		System.setProperty(Dictionary.DICTIONARY_BINARY_FILE_PROPERTY, "/tmp/other.bin");
+		try {
+			// then
+			assertThat(Dictionary.getBinaryFilePath(), is(Paths.get("/tmp/other.bin")));
+		} finally {
+			System.clearProperty(Dictionary.DICTIONARY_BINARY_FILE_PROPERTY);
+		}
+	}
 }
@@ -0,0 +1,173 @@
+package uk.me.ruthmills.wordsquare.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test suite for the Mapped Dictionary Index class.
+ * 
+ * @author ruth
+ */
+public class MappedDictionaryIndexTest {
+
+	// Temporary folder for the text and binary files.
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * Test that the words are read back from the binary file, bucketed by length
+	 * and in dictionary order.
+	 */
+	@Test
+	public void shouldReadWordsFromBinaryFile() throws IOException {
+		// given
+		final Path binaryFile = compile("a", "dog", "door", "god", "oxo", "rose");
+
+		// when
+		final MappedDictionaryIndex dictionaryIndex = new MappedDictionaryIndex(binaryFile);
+
+		// then
+		assertThat(dictionaryIndex.getWordsOfLength(3).toString(), is("[dog, god, oxo]"));
+		assertThat(dictionaryIndex.getWordsOfLength(4).toString(), is("[door, rose]"));
+		assertThat(dictionaryIndex.getWordsOfLength(2), is(empty()));
+		assertThat(dictionaryIndex.getWordsOfLength(5), is(empty()));
+		assertThat(dictionaryIndex.getMaxLength(), is(4));
+		assertThat(dictionaryIndex.getCount(), is(6));
+		assertThat(dictionaryIndex.getWords().collect(Collectors.toList()).toString(),
+				is("[a, dog, door, god, oxo, rose]"));
+	}
+
+	/**
+	 * Test that the compiled dictionary holds exactly the same words as the text
+	 * dictionary.
+	 */
+	@Test
+	public void shouldMatchTextDictionary_whenCompilingFullDictionary() throws IOException {
+		// given
+		final Path textFile = FileSystems.getDefault().getPath("src/main/resources", "dictionary.txt");
+		final Path binaryFile = temporaryFolder.getRoot().toPath().resolve("dictionary.bin");
+		DictionaryCompiler.compile(textFile, binaryFile);
+
+		// when
+		final MappedDictionaryIndex mappedDictionaryIndex = new MappedDictionaryIndex(binaryFile);
+		final TextDictionaryIndex textDictionaryIndex;
+		try (Stream<String> linesStream = Files.lines(textFile)) {
+			textDictionaryIndex = new TextDictionaryIndex(linesStream);
+		}
+
+		// then
+		assertThat(mappedDictionaryIndex.getCount(), is(textDictionaryIndex.getCount()));
+		assertThat(mappedDictionaryIndex.getMaxLength(), is(textDictionaryIndex.getMaxLength()));
+		for (int length = 0; length <= textDictionaryIndex.getMaxLength(); length++) {
+			assertThat(mappedDictionaryIndex.getWordsOfLength(length), is(textDictionaryIndex.getWordsOfLength(length)));
+		}
+	}
+
+	/**
+	 * Test that we refuse to read a file which is not a compiled dictionary.
+	 */
+	@Test(expected = IOException.class)
+	public void shouldThrowIOException_whenFileIsNotACompiledDictionary() throws IOException {
+		// given
+		final Path textFile = temporaryFolder.newFile("dictionary.txt").toPath();
+		Files.write(textFile, Arrays.asList("dog", "god"), StandardCharsets.US_ASCII);
+
+		// when
+		new MappedDictionaryIndex(textFile);
+	}
+
+	/**
+	 * Test that we refuse to read a file whose maximum word length is negative, or
+	 * too big for the offset table to fit in the file.
+	 */
+	@Test
+	public void shouldThrowIOException_whenMaxLengthIsBad() throws IOException {
+		// given
+		final Path binaryFile = compile("dog", "god", "oxo");
+
+		// when/then
+		for (final int maxLength : new int[] { -1, 5, Integer.MAX_VALUE }) {
+			writeInt(binaryFile, 3 * Integer.BYTES, maxLength);
+			assertThrowsIOException(binaryFile);
+		}
+	}
+
+	/**
+	 * Test that we refuse to read a file with a negative count or offset in its
+	 * offset table, or a bucket which would run past the end of the file.
+	 */
+	@Test
+	public void shouldThrowIOException_whenOffsetTableEntryIsBad() throws IOException {
+		// given (the records start at 48, after the offset table)
+		final Path binaryFile = compile("dog", "god", "oxo");
+		final int entry = DictionaryCompiler.HEADER_SIZE + 3 * DictionaryCompiler.OFFSET_TABLE_ENTRY_SIZE;
+		final byte[] compiled = Files.readAllBytes(binaryFile);
+
+		// when/then
+		for (final int[] countAndOffset : new int[][] { { -1, 48 }, { 3, -1 }, { 3, 0 }, { Integer.MAX_VALUE, 48 },
+				{ 3, Integer.MAX_VALUE } }) {
+			Files.write(binaryFile, compiled);
+			writeInt(binaryFile, entry, countAndOffset[0]);
+			writeInt(binaryFile, entry + Integer.BYTES, countAndOffset[1]);
+			assertThrowsIOException(binaryFile);
+		}
+	}
+
+	/**
+	 * Check that we refuse to read a binary file.
+	 * 
+	 * @param binaryFile The binary file.
+	 */
+	private static void assertThrowsIOException(final Path binaryFile) {
+		try {
+			new MappedDictionaryIndex(binaryFile);
+			fail("Expected IOException was not thrown!");
+		} catch (IOException ex) {
+			// then
+			assertThat(ex.getMessage().startsWith("Compiled dictionary file"), is(true));
+		}
+	}
+
+	/**
+	 * Overwrite an int in a binary file.
+	 * 
+	 * @param binaryFile The binary file.
+	 * @param position   The position of the int.
+	 * @param value      The new value of the int.
+	 */
+	private static void writeInt(final Path binaryFile, final int position, final int value) throws IOException {
+		final byte[] bytes = Files.readAllBytes(binaryFile);
+		ByteBuffer.wrap(bytes).putInt(position, value);
+		Files.write(binaryFile, bytes);
+	}
+
+	/**
+	 * Compile the supplied words into a binary file.
+	 * 
+	 * @param words The words.
+	 * @return The path of the binary file.
+	 */
+	private Path compile(final String... words) throws IOException {
+		final Path textFile = temporaryFolder.newFile("dictionary.txt").toPath();
+		Files.write(textFile, Arrays.asList(words), StandardCharsets.US_ASCII);
+		final Path binaryFile = temporaryFolder.getRoot().toPath().resolve("dictionary.bin");
+		DictionaryCompiler.compile(textFile, binaryFile);
+		return binaryFile;
+	}
+}
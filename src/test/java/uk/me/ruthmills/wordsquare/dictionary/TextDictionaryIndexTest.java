@@ -0,0 +1,82 @@
+package uk.me.ruthmills.wordsquare.dictionary;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the Text Dictionary Index class.
+ * 
+ * @author ruth
+ */
+public class TextDictionaryIndexTest {
+
+	/**
+	 * Test that the words are bucketed by length, keeping them in dictionary order.
+	 */
+	@Test
+	public void shouldBucketWordsByLength() {
+		// given
+		final TextDictionaryIndex dictionaryIndex = new TextDictionaryIndex(
+				Stream.of("a", "dog", "door", "god", "oxo", "rose"));
+
+		// when
+		final List<String> threeLetterWords = dictionaryIndex.getWordsOfLength(3);
+		final List<String> fourLetterWords = dictionaryIndex.getWordsOfLength(4);
+
+		// then
+		assertThat(threeLetterWords.toString(), is("[dog, god, oxo]"));
+		assertThat(fourLetterWords.toString(), is("[door, rose]"));
+		assertThat(dictionaryIndex.getCount(), is(6));
+	}
+
+	/**
+	 * Test that we get an empty list when there are no words of the required
+	 * length.
+	 */
+	@Test
+	public void shouldReturnEmptyList_whenThereAreNoWordsOfRequiredLength() {
+		// given
+		final TextDictionaryIndex dictionaryIndex = new TextDictionaryIndex(Stream.of("a", "dog", "rose"));
+
+		// then
+		assertThat(dictionaryIndex.getWordsOfLength(2), is(empty()));
+		assertThat(dictionaryIndex.getWordsOfLength(5), is(empty()));
+		assertThat(dictionaryIndex.getWordsOfLength(-1), is(empty()));
+	}
+
+	/**
+	 * Test that we can stream all the words, in alphabetical order.
+	 */
+	@Test
+	public void shouldGetAllWords_inAlphabeticalOrder() {
+		// given
+		final TextDictionaryIndex dictionaryIndex = new TextDictionaryIndex(
+				Stream.of("a", "dog", "door", "god", "oxo", "rose"));
+
+		// when
+		final List<String> words = dictionaryIndex.getWords().collect(Collectors.toList());
+
+		// then
+		assertThat(words.toString(), is("[a, dog, door, god, oxo, rose]"));
+	}
+
+	/**
+	 * Test that the buckets cannot be modified, as they are shared between
+	 * threads.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void shouldNotAllowBucketsToBeModified() {
+		// given
+		final TextDictionaryIndex dictionaryIndex = new TextDictionaryIndex(Stream.of("dog", "god"));
+
+		// when
+		dictionaryIndex.getWordsOfLength(3).add("oxo");
+	}
+}
@@ -0,0 +1,34 @@
+package uk.me.ruthmills.wordsquare.exception;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+import uk.me.ruthmills.wordsquare.solution.WordSquare;
+
+/**
+ * Test suite for the Unchecked Invalid Word Square exception.
+ * 
+ * @author ruth
+ */
+public class UncheckedInvalidWordSquareExceptionTest {
+
+	/**
+	 * Test that we can get the Invalid Word Square Exception from the exception.
+	 */
+	@Test
+	public void shouldGetInvalidWordSquareExceptionFromException() {
+		// given
+		final WordSquare wordSquare = new WordSquare(3, "dog", "oxo", "dog");
+		final InvalidWordSquareException invalidWordSquareException = new InvalidWordSquareException(wordSquare);
+
+		// when
+		final UncheckedInvalidWordSquareException uncheckedException = new UncheckedInvalidWordSquareException(
+				invalidWordSquareException);
+
+		// then
+		assertThat(uncheckedException.getCause(), is(invalidWordSquareException));
+		assertThat(uncheckedException.getCause().getWordSquare(), is(wordSquare));
+	}
+}
@@ -0,0 +1,128 @@
+package uk.me.ruthmills.wordsquare.index;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the Word Position Index class.
+ * 
+ * @author ruth
+ */
+public class WordPositionIndexTest {
+
+	// Word position index to test.
+	private WordPositionIndex wordPositionIndex;
+
+	/**
+	 * Set up the test dependencies.
+	 */
+	@Before
+	public void setUp() {
+		wordPositionIndex = new WordPositionIndex(Arrays.asList("dog", "god", "goo", "gox", "odd", "oxo"));
+	}
+
+	/**
+	 * Test that we get the number of words indexed.
+	 */
+	@Test
+	public void shouldGetSize() {
+		assertThat(wordPositionIndex.size(), is(6));
+	}
+
+	/**
+	 * Test that we get the words with a letter at a position.
+	 */
+	@Test
+	public void shouldGetWordsWithLetterAtPosition() {
+		// when
+		final long[] gAtStart = wordPositionIndex.getWordsWithLetterAt(0, 'g');
+		final long[] oInMiddle = wordPositionIndex.getWordsWithLetterAt(1, 'o');
+		final long[] xAtEnd = wordPositionIndex.getWordsWithLetterAt(2, 'x');
+
+		// then
+		assertThat(gAtStart[0], is(0b001110L));
+		assertThat(oInMiddle[0], is(0b001111L));
+		assertThat(xAtEnd[0], is(0b001000L));
+	}
+
+	/**
+	 * Test that we get the words containing a letter at any position.
+	 */
+	@Test
+	public void shouldGetWordsContainingLetter() {
+		// when
+		final long[] containingD = wordPositionIndex.getWordsContainingLetter('d');
+		final long[] containingX = wordPositionIndex.getWordsContainingLetter('x');
+		final long[] containingZ = wordPositionIndex.getWordsContainingLetter('z');
+
+		// then
+		assertThat(containingD[0], is(0b010011L));
+		assertThat(containingX[0], is(0b101000L));
+		assertThat(containingZ[0], is(0L));
+	}
+
+	/**
+	 * Test that no words match a letter or position which is not indexed.
+	 */
+	@Test
+	public void shouldGetNoWords_whenLetterOrPositionIsNotIndexed() {
+		assertThat(wordPositionIndex.getWordsWithLetterAt(0, 'z')[0], is(0L));
+		assertThat(wordPositionIndex.getWordsWithLetterAt(3, 'o')[0], is(0L));
+		assertThat(wordPositionIndex.getWordsWithLetterAt(0, 'A')[0], is(0L));
+	}
+
+	/**
+	 * Test that the bitsets work across more than one long.
+	 */
+	@Test
+	public void shouldIndexMoreThan64Words() {
+		// given
+		final List<String> words = new ArrayList<>();
+		for (int index = 0; index < 100; index++) {
+			words.add(index % 2 == 0 ? "ab" : "ba");
+		}
+		final WordPositionIndex largeIndex = new WordPositionIndex(words);
+
+		// when
+		final long[] aAtStart = largeIndex.getWordsWithLetterAt(0, 'a');
+
+		// then
+		assertThat(aAtStart.length, is(2));
+		assertThat(WordPositionIndex.nextSetBit(aAtStart, 63, 100), is(64));
+		assertThat(WordPositionIndex.nextSetBit(aAtStart, 99, 100), is(100));
+		assertThat(WordPositionIndex.nextSetBit(aAtStart, 98, 100), is(98));
+	}
+
+	/**
+	 * Test that we get the number of longs needed for a bitset.
+	 */
+	@Test
+	public void shouldGetLongCount() {
+		assertThat(WordPositionIndex.getLongCount(0), is(0));
+		assertThat(WordPositionIndex.getLongCount(1), is(1));
+		assertThat(WordPositionIndex.getLongCount(64), is(1));
+		assertThat(WordPositionIndex.getLongCount(65), is(2));
+	}
+
+	/**
+	 * Test that we find the next set bit, stopping at the end index.
+	 */
+	@Test
+	public void shouldFindNextSetBit() {
+		// given
+		final long[] bitset = { 0b100100L };
+
+		// then
+		assertThat(WordPositionIndex.nextSetBit(bitset, 0, 6), is(2));
+		assertThat(WordPositionIndex.nextSetBit(bitset, 3, 6), is(5));
+		assertThat(WordPositionIndex.nextSetBit(bitset, 3, 5), is(5));
+		assertThat(WordPositionIndex.nextSetBit(bitset, 6, 6), is(6));
+	}
+}
@@ -0,0 +1,103 @@
+package uk.me.ruthmills.wordsquare.index;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the Word Prefix Index class.
+ * 
+ * @author ruth
+ */
+public class WordPrefixIndexTest {
+
+	// Word prefix index to test.
+	private WordPrefixIndex wordPrefixIndex;
+
+	/**
+	 * Set up the test dependencies.
+	 */
+	@Before
+	public void setUp() {
+		// Deliberately out of order, to check that the index sorts the words.
+		wordPrefixIndex = new WordPrefixIndex(Arrays.asList("oxo", "dog", "goo", "god", "odd", "gox"));
+	}
+
+	/**
+	 * Test that the words are held in sorted order.
+	 */
+	@Test
+	public void shouldSortWords() {
+		assertThat(wordPrefixIndex.getWords().toString(), is("[dog, god, goo, gox, odd, oxo]"));
+		assertThat(wordPrefixIndex.size(), is(6));
+	}
+
+	/**
+	 * Test that we find all the words beginning with a one-letter prefix.
+	 */
+	@Test
+	public void shouldFindWordsBeginningWithOneLetterPrefix() {
+		// when
+		final int startIndex = wordPrefixIndex.getStartIndex("g");
+		final int endIndex = wordPrefixIndex.getEndIndex("g");
+
+		// then
+		assertThat(wordPrefixIndex.getWords().subList(startIndex, endIndex).toString(), is("[god, goo, gox]"));
+	}
+
+	/**
+	 * Test that we find all the words beginning with a two-letter prefix.
+	 */
+	@Test
+	public void shouldFindWordsBeginningWithTwoLetterPrefix() {
+		// when
+		final int startIndex = wordPrefixIndex.getStartIndex("go");
+		final int endIndex = wordPrefixIndex.getEndIndex("go");
+
+		// then
+		assertThat(wordPrefixIndex.getWords().subList(startIndex, endIndex).toString(), is("[god, goo, gox]"));
+		assertThat(wordPrefixIndex.hasPrefix("go"), is(true));
+	}
+
+	/**
+	 * Test that the empty prefix matches every word.
+	 */
+	@Test
+	public void shouldFindAllWords_whenPrefixIsEmpty() {
+		assertThat(wordPrefixIndex.getStartIndex(""), is(0));
+		assertThat(wordPrefixIndex.getEndIndex(""), is(6));
+	}
+
+	/**
+	 * Test that we find no words when none begin with the prefix.
+	 */
+	@Test
+	public void shouldFindNoWords_whenNoneBeginWithPrefix() {
+		// when
+		final int startIndex = wordPrefixIndex.getStartIndex("gp");
+		final int endIndex = wordPrefixIndex.getEndIndex("gp");
+
+		// then
+		assertThat(startIndex, is(endIndex));
+		assertThat(wordPrefixIndex.hasPrefix("gp"), is(false));
+		assertThat(wordPrefixIndex.hasPrefix("z"), is(false));
+	}
+
+	/**
+	 * Test that a whole word is a prefix of itself.
+	 */
+	@Test
+	public void shouldFindWord_whenPrefixIsWholeWord() {
+		// when
+		final int startIndex = wordPrefixIndex.getStartIndex("odd");
+		final int endIndex = wordPrefixIndex.getEndIndex("odd");
+
+		// then
+		assertThat(endIndex - startIndex, is(1));
+		assertThat(wordPrefixIndex.getWord(startIndex), is("odd"));
+	}
+}
@@ -0,0 +1,108 @@
+package uk.me.ruthmills.wordsquare.letters;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the Array implementation of the Available Letters interface.
+ * 
+ * @author ruth
+ */
+public class ArrayAvailableLettersTest extends MutableAvailableLettersTest {
+
+	/**
+	 * Get the Array implementation of the Available Letters interface.
+	 * 
+	 * @return ArrayAvailableLetters object.
+	 */
+	@Override
+	MutableAvailableLetters getAvailableLetters(final String letters) {
+		return new ArrayAvailableLetters(letters);
+	}
+
+	/**
+	 * Test that only the letters 'a' to 'z' are supported.
+	 */
+	@Test
+	public void shouldOnlySupportLowerCaseLetters() {
+		assertThat(ArrayAvailableLetters.isSupported("ddggoooox"), is(true));
+		assertThat(ArrayAvailableLetters.isSupported(""), is(true));
+		assertThat(ArrayAvailableLetters.isSupported("DDGGOOOOX"), is(false));
+		assertThat(ArrayAvailableLetters.isSupported("dog's"), is(false));
+	}
+
+	/**
+	 * Test that we cannot construct from unsupported letters.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenLettersAreNotSupported() {
+		new ArrayAvailableLetters("DOG");
+	}
+
+	/**
+	 * Test that a word containing an unsupported letter is not formable.
+	 */
+	@Test
+	public void shouldReturnFalse_whenWordContainsUnsupportedLetter() {
+		// when
+		final AvailableLetters availableLetters = getAvailableLetters("ddggoooox");
+
+		// then
+		assertThat(availableLetters.isWordFormable("dOg"), is(false));
+	}
+
+	/**
+	 * Test that the remaining letters keep the correct count.
+	 */
+	@Test
+	public void shouldGetCountOfRemainingLetters() {
+		// when
+		final AvailableLetters remainingLetters = getAvailableLetters("ddggoooox").getRemainingLetters("dog")
+				.getRemainingLetters("oxo");
+
+		// then
+		assertThat(remainingLetters.getCount(), is(3));
+		assertThat(remainingLetters.toString(), is("dgo"));
+	}
+
+	/**
+	 * Test that we cannot get the remaining letters for a word which needs more of
+	 * a letter than is available.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenWordCannotBeFormed() {
+		getAvailableLetters("ddggoooox").getRemainingLetters("xxo");
+	}
+
+	/**
+	 * Test that we cannot get the remaining letters for a word containing a
+	 * letter other than 'a' to 'z', rather than going outside the counts.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenWordHasUnsupportedLetter() {
+		getAvailableLetters("ddggoooox").getRemainingLetters("Dog");
+	}
+
+	/**
+	 * Test that the available letters are unchanged after failing to get the
+	 * remaining letters.
+	 */
+	@Test
+	public void shouldLeaveLettersUnchanged_whenWordCannotBeFormed() {
+		// given
+		final AvailableLetters letters = getAvailableLetters("ddggoooox");
+
+		// when
+		try {
+			letters.getRemainingLetters("dogx!");
+		} catch (IllegalArgumentException ex) {
+			// expected.
+		}
+
+		// then
+		assertThat(letters.getCount(), is(9));
+		assertThat(letters.toString(), is("ddggoooox"));
+	}
+}
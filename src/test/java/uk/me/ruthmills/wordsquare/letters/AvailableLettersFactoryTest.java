@@ -1,6 +1,7 @@
 package uk.me.ruthmills.wordsquare.letters;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 
@@ -28,4 +29,29 @@ public class AvailableLettersFactoryTest {
 		assertThat(availableLetters, notNullValue());
 		assertThat(availableLetters.toString(), is(AVAILABLE_LETTERS));
 	}
+
+	/**
+	 * Test that we get the array implementation for the letters 'a' to 'z'.
+	 */
+	@Test
+	public void shouldGetArrayAvailableLetters_whenLettersAreLowerCase() {
+		// when
+		final AvailableLetters availableLetters = AvailableLettersFactory.getInstance("ddggoooox");
+
+		// then
+		assertThat(availableLetters, instanceOf(ArrayAvailableLetters.class));
+	}
+
+	/**
+	 * Test that we fall back to the Hash Map implementation for any other letters.
+	 */
+	@Test
+	public void shouldGetHashMapAvailableLetters_whenLettersAreNotLowerCase() {
+		// when
+		final AvailableLetters availableLetters = AvailableLettersFactory.getInstance("DDGGOOOOX");
+
+		// then
+		assertThat(availableLetters, instanceOf(HashMapAvailableLetters.class));
+		assertThat(availableLetters.toString(), is("DDGGOOOOX"));
+	}
 }
@@ -185,4 +185,69 @@ public abstract class AvailableLettersTest {
 		// then
 		assertThat(count, is(letters.length()));
 	}
+
+	/**
+	 * Test that the end of a word is formable, even though the whole word is not.
+	 */
+	@Test
+	public void shouldReturnTrue_whenEndOfWordIsFormable() {
+		// given
+		final String word = "xrose"; // the "x" is not available, but we only check from "rose" onwards.
+
+		// when
+		final AvailableLetters availableLetters = getAvailableLetters(AVAILABLE_LETTERS);
+
+		// then
+		assertThat(availableLetters.isWordFormable(word), is(false));
+		assertThat(availableLetters.isWordFormable(word, 1), is(true));
+	}
+
+	/**
+	 * Test that the end of a word is not formable when it contains a letter not in
+	 * the available letters.
+	 */
+	@Test
+	public void shouldReturnFalse_whenEndOfWordIsNotFormable() {
+		// given
+		final String word = "rave";
+
+		// when
+		final AvailableLetters availableLetters = getAvailableLetters(AVAILABLE_LETTERS);
+
+		// then
+		assertThat(availableLetters.isWordFormable(word, 1), is(false)); // "ave" - there is no "a".
+		assertThat(availableLetters.isWordFormable(word, 2), is(true)); // "ve"
+	}
+
+	/**
+	 * Test getting the number of letters which are available an odd number of
+	 * times.
+	 */
+	@Test
+	public void shouldGetOddLetterCount() {
+		// given
+		final String letters = "ddggoooox"; // only "x" has an odd count.
+
+		// when
+		final AvailableLetters availableLetters = getAvailableLetters(letters);
+
+		// then
+		assertThat(availableLetters.getOddLetterCount(), is(1));
+		assertThat(availableLetters.getRemainingLetters("dog").getOddLetterCount(), is(4)); // "dgooox"
+	}
+
+	/**
+	 * Test checking if single letters are available.
+	 */
+	@Test
+	public void shouldCheckIfLetterIsAvailable() {
+		// given
+		final AvailableLetters availableLetters = getAvailableLetters("ddggoooox");
+
+		// then
+		assertThat(availableLetters.isLetterAvailable('d'), is(true));
+		assertThat(availableLetters.isLetterAvailable('x'), is(true));
+		assertThat(availableLetters.isLetterAvailable('z'), is(false));
+		assertThat(availableLetters.getRemainingLetters("oxo").isLetterAvailable('x'), is(false));
+	}
 }
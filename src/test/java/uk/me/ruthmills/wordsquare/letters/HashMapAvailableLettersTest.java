@@ -6,7 +6,7 @@ package uk.me.ruthmills.wordsquare.letters;
  * 
  * @author ruth
  */
-public class HashMapAvailableLettersTest extends AvailableLettersTest {
+public class HashMapAvailableLettersTest extends MutableAvailableLettersTest {
 
 	/**
 	 * Get the Hash Map implementation of the Available Letters interface.
@@ -14,7 +14,7 @@ public class HashMapAvailableLettersTest extends AvailableLettersTest {
 	 * @return HashMapAvailableLetters object.
 	 */
 	@Override
-	AvailableLetters getAvailableLetters(final String letters) {
+	MutableAvailableLetters getAvailableLetters(final String letters) {
 		return new HashMapAvailableLetters(letters);
 	}
 }
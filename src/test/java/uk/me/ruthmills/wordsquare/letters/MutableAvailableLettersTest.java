@@ -0,0 +1,95 @@
+package uk.me.ruthmills.wordsquare.letters;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+/**
+ * Abstract class for testing implementations of the Mutable Available Letters
+ * interface. These run in addition to the tests common to ALL implementations
+ * of the Available Letters interface.
+ * 
+ * @author ruth
+ */
+public abstract class MutableAvailableLettersTest extends AvailableLettersTest {
+
+	/**
+	 * Get the mutable available letters instance.
+	 * 
+	 * @param letters String containing the available letters.
+	 */
+	@Override
+	abstract MutableAvailableLetters getAvailableLetters(final String letters);
+
+	/**
+	 * Test that consuming a word removes its letters in place.
+	 */
+	@Test
+	public void shouldRemoveLetters_whenConsumingWord() {
+		// given
+		final MutableAvailableLetters availableLetters = getAvailableLetters("ddggoooox");
+
+		// when
+		final boolean consumed = availableLetters.consume("dog");
+
+		// then
+		assertThat(consumed, is(true));
+		assertThat(availableLetters.toString(), is("dgooox"));
+		assertThat(availableLetters.getCount(), is(6));
+	}
+
+	/**
+	 * Test that consuming a word which cannot be formed leaves the letters
+	 * unchanged.
+	 */
+	@Test
+	public void shouldLeaveLettersUnchanged_whenConsumingWordWhichCannotBeFormed() {
+		// given
+		final MutableAvailableLetters availableLetters = getAvailableLetters("ddggoooox");
+
+		// when
+		final boolean consumed = availableLetters.consume("doxx");
+
+		// then
+		assertThat(consumed, is(false));
+		assertThat(availableLetters.toString(), is("ddggoooox"));
+		assertThat(availableLetters.getCount(), is(9));
+	}
+
+	/**
+	 * Test that restoring a word puts its letters back.
+	 */
+	@Test
+	public void shouldPutLettersBack_whenRestoringWord() {
+		// given
+		final MutableAvailableLetters availableLetters = getAvailableLetters("ddggoooox");
+		availableLetters.consume("dog");
+		availableLetters.consume("oxo");
+
+		// when
+		availableLetters.restore("oxo");
+		availableLetters.restore("dog");
+
+		// then
+		assertThat(availableLetters.toString(), is("ddggoooox"));
+		assertThat(availableLetters.getCount(), is(9));
+	}
+
+	/**
+	 * Test that a copy is independent of the original.
+	 */
+	@Test
+	public void shouldCopyLetters() {
+		// given
+		final MutableAvailableLetters availableLetters = getAvailableLetters("ddggoooox");
+
+		// when
+		final MutableAvailableLetters copy = availableLetters.copy();
+		copy.consume("dog");
+
+		// then
+		assertThat(copy.toString(), is("dgooox"));
+		assertThat(availableLetters.toString(), is("ddggoooox"));
+	}
+}
@@ -0,0 +1,94 @@
+package uk.me.ruthmills.wordsquare.predicate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.me.ruthmills.wordsquare.letters.AvailableLettersFactory;
+
+/**
+ * Test suite for the Letter Parity Predicate class.
+ * 
+ * @author ruth
+ */
+public class LetterParityPredicateTest {
+
+	// Length of the word square to test.
+	private static final int LENGTH = 3;
+
+	// The Letter Parity Predicate class under test.
+	private LetterParityPredicate letterParityPredicate;
+
+	/**
+	 * Set up the test dependencies.
+	 */
+	@Before
+	public void setUp() {
+		letterParityPredicate = new LetterParityPredicate(LENGTH);
+	}
+
+	/**
+	 * Test that the predicate returns true for the letters of a valid word square
+	 * (dog, oxo, god).
+	 */
+	@Test
+	public void shouldReturnTrue_whenLettersCouldFillWordSquare() {
+		// when
+		final boolean result = letterParityPredicate.test(AvailableLettersFactory.getInstance("ddggoooox"));
+
+		// then
+		assertThat(result, is(true));
+	}
+
+	/**
+	 * Test that the predicate returns false if there are too few letters.
+	 */
+	@Test
+	public void shouldReturnFalse_whenThereAreTooFewLetters() {
+		// when
+		final boolean result = letterParityPredicate.test(AvailableLettersFactory.getInstance("ddggoooo"));
+
+		// then
+		assertThat(result, is(false));
+	}
+
+	/**
+	 * Test that the predicate returns false if there are too many letters.
+	 */
+	@Test
+	public void shouldReturnFalse_whenThereAreTooManyLetters() {
+		// when
+		final boolean result = letterParityPredicate.test(AvailableLettersFactory.getInstance("ddggooooxx"));
+
+		// then
+		assertThat(result, is(false));
+	}
+
+	/**
+	 * Test that the predicate returns false if more letters have an odd count than
+	 * there are squares on the diagonal.
+	 */
+	@Test
+	public void shouldReturnFalse_whenTooManyLettersHaveAnOddCount() {
+		// when
+		// "a", "b", "c", "d" and "o" all have an odd count.
+		final boolean result = letterParityPredicate.test(AvailableLettersFactory.getInstance("abcdggooo"));
+
+		// then
+		assertThat(result, is(false));
+	}
+
+	/**
+	 * Test that the predicate returns true for an empty word square.
+	 */
+	@Test
+	public void shouldReturnTrue_whenWordSquareIsEmpty() {
+		// when
+		final boolean result = new LetterParityPredicate(0).test(AvailableLettersFactory.getInstance(""));
+
+		// then
+		assertThat(result, is(true));
+	}
+}
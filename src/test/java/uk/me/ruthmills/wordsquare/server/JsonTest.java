@@ -0,0 +1,86 @@
+package uk.me.ruthmills.wordsquare.server;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import uk.me.ruthmills.wordsquare.solution.SearchResult;
+import uk.me.ruthmills.wordsquare.solution.SearchStatus;
+import uk.me.ruthmills.wordsquare.solution.WordSquare;
+
+/**
+ * Test suite for the Json class.
+ * 
+ * @author ruth
+ */
+public class JsonTest {
+
+	/**
+	 * Test that a search result is written with each word square as a list of its
+	 * words.
+	 */
+	@Test
+	public void shouldWriteSearchResult() {
+		// given
+		final SearchResult result = new SearchResult(Arrays.asList(new WordSquare(3, "dog", "oxo", "god"),
+				new WordSquare(3, "god", "oxo", "dog")), SearchStatus.FINISHED);
+
+		// when
+		final String json = Json.searchResult(3, "ddggoooox", result);
+
+		// then
+		assertThat(json, is("{\"length\":3,\"letters\":\"ddggoooox\",\"status\":\"FINISHED\","
+				+ "\"wordSquares\":[[\"dog\",\"oxo\",\"god\"],[\"god\",\"oxo\",\"dog\"]]}"));
+	}
+
+	/**
+	 * Test that a search result with no word squares has an empty list.
+	 */
+	@Test
+	public void shouldWriteSearchResult_whenThereAreNoWordSquares() {
+		// when
+		final String json = Json.searchResult(3, "dddgooxyz",
+				new SearchResult(Collections.emptyList(), SearchStatus.DEADLINE_REACHED));
+
+		// then
+		assertThat(json, is(
+				"{\"length\":3,\"letters\":\"dddgooxyz\",\"status\":\"DEADLINE_REACHED\",\"wordSquares\":[]}"));
+	}
+
+	/**
+	 * Test that a search result and an error can be tagged with a line number.
+	 */
+	@Test
+	public void shouldWriteLineNumber() {
+		// given
+		final SearchResult result = new SearchResult(Collections.emptyList(), SearchStatus.FINISHED);
+
+		// when/then
+		assertThat(Json.lineResult(7, 3, "dddgooxyz", result), is(
+				"{\"line\":7,\"length\":3,\"letters\":\"dddgooxyz\",\"status\":\"FINISHED\",\"wordSquares\":[]}"));
+		assertThat(Json.lineError(8, "Bad line"), is("{\"line\":8,\"error\":\"Bad line\"}"));
+	}
+
+	/**
+	 * Test that an error is written with its message.
+	 */
+	@Test
+	public void shouldWriteError() {
+		// when/then
+		assertThat(Json.error("Letters are required"), is("{\"error\":\"Letters are required\"}"));
+	}
+
+	/**
+	 * Test that the characters JSON does not allow in a string are escaped.
+	 */
+	@Test
+	public void shouldEscapeCharacters() {
+		// when/then
+		assertThat(Json.quote("a\"b\\c\nd\re\tf\u0001g"), is("\"a\\\"b\\\\c\\nd\\re\\tf\\u0001g\""));
+		assertThat(Json.quote(null), is("null"));
+	}
+}
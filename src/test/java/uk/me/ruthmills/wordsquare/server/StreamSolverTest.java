@@ -0,0 +1,199 @@
+package uk.me.ruthmills.wordsquare.server;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.me.ruthmills.wordsquare.dictionary.Dictionary;
+import uk.me.ruthmills.wordsquare.solution.ResultStore;
+
+/**
+ * Test suite for the Stream Solver class.
+ * 
+ * @author ruth
+ */
+public class StreamSolverTest {
+
+	// Temporary folder for the result store.
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	// The puzzles to solve, including a blank line and some invalid lines.
+	private static final String INPUT = "3 ddggoooox\n" + "\n" + "3 ddggoooox all\n" + "x ddggoooox\n"
+			+ "4 eeeeddoonnnsssrv\n" + "3\n" + "3 dddgooxyz\n" + "0 a\n";
+
+	/**
+	 * Test that with one thread, the results are in the same order as the
+	 * puzzles.
+	 */
+	@Test
+	public void shouldWriteResultsInOrder_whenThereIsOneThread() throws IOException {
+		// given
+		final StringWriter output = new StringWriter();
+
+		// when
+		new StreamSolver(1).solve(new BufferedReader(new StringReader(INPUT)), output);
+
+		// then
+		assertThat(Arrays.asList(output.toString().split("\n")), is(getOutput()));
+	}
+
+	/**
+	 * Test that with several threads, there is a result for every puzzle, each on
+	 * its own line, whatever order they come in.
+	 */
+	@Test
+	public void shouldWriteEveryResult_whenThereAreSeveralThreads() throws IOException {
+		// given
+		final StringWriter output = new StringWriter();
+
+		// when
+		new StreamSolver(3).solve(new BufferedReader(new StringReader(INPUT)), output);
+
+		// then
+		assertThat(Arrays.asList(output.toString().split("\n")), containsInAnyOrder(getOutput().toArray()));
+		assertThat(output.toString().endsWith("\n"), is(true));
+	}
+
+	/**
+	 * Test that a puzzle which comes up again, with its letters in another order,
+	 * is answered from the result cache.
+	 */
+	@Test
+	public void shouldSolveFromResultCache_whenPuzzleComesUpAgain() throws IOException {
+		// given
+		final StreamSolver streamSolver = new StreamSolver(1);
+		final StringWriter output = new StringWriter();
+
+		// when
+		streamSolver.solve(new BufferedReader(new StringReader("3 ddggoooox all\n3 xooooggdd\n")), output);
+
+		// then
+		assertThat(output.toString(), is("{\"line\":1,\"length\":3,\"letters\":\"ddggoooox\",\"status\":\"FINISHED\","
+				+ "\"wordSquares\":[[\"dog\",\"oxo\",\"god\"],[\"god\",\"oxo\",\"dog\"]]}\n"
+				+ "{\"line\":2,\"length\":3,\"letters\":\"xooooggdd\",\"status\":\"FINISHED\","
+				+ "\"wordSquares\":[[\"dog\",\"oxo\",\"god\"]]}\n"));
+		assertThat(streamSolver.getResultCache().getHits(), is(1L));
+	}
+
+	/**
+	 * Test that there is no output when there is no input.
+	 */
+	@Test
+	public void shouldWriteNothing_whenThereIsNoInput() throws IOException {
+		// given
+		final StringWriter output = new StringWriter();
+
+		// when
+		new StreamSolver(2).solve(new BufferedReader(new StringReader("")), output);
+
+		// then
+		assertThat(output.toString(), is(""));
+	}
+
+	/**
+	 * Test that all the word squares found are added to the result store.
+	 */
+	@Test
+	public void shouldAddToResultStore_whenThereIsOne() throws IOException {
+		try (ResultStore store = new ResultStore(temporaryFolder.getRoot().toPath())) {
+			// when
+			new StreamSolver(1, store).solve(new BufferedReader(new StringReader("3 ddggoooox all\n")),
+					new StringWriter());
+
+			// then
+			assertThat(store.size(), is(1));
+			assertThat(store.get(3, "xooooggdd").toString(), is("[dog\noxo\ngod\n, god\noxo\ndog\n]"));
+		}
+	}
+
+	/**
+	 * Test that we stop reading puzzles once we cannot write to the output, and
+	 * throw the exception.
+	 */
+	@Test
+	public void shouldStopReading_whenOutputFails() {
+		// given
+		final StringBuilder lines = new StringBuilder();
+		for (int line = 0; line < 1000; line++) {
+			lines.append("3 ddggoooox\n");
+		}
+		final AtomicInteger linesRead = new AtomicInteger();
+		final BufferedReader input = new BufferedReader(new StringReader(lines.toString())) {
+			@Override
+			public String readLine() throws IOException {
+				linesRead.incrementAndGet();
+				return super.readLine();
+			}
+		};
+		final Writer output = new Writer() {
+			@Override
+			public void write(final char[] buffer, final int offset, final int length) throws IOException {
+				throw new IOException("Broken pipe");
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+
+		// when
+		try {
+			new StreamSolver(1).solve(input, output);
+			fail("Expected IOException was not thrown!");
+		} catch (IOException ex) {
+			// then
+			assertThat(ex.getMessage(), is("Broken pipe"));
+			assertThat(linesRead.get(), is(lessThan(100)));
+		}
+	}
+
+	/**
+	 * Test that there must be at least one thread.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenThreadsIsLessThanOne() {
+		// when
+		new StreamSolver(0);
+	}
+
+	/**
+	 * Get the results expected for the puzzles, tagged with the line numbers.
+	 * 
+	 * @return The results.
+	 * @throws IOException Thrown if we cannot read from the dictionary file.
+	 */
+	private static List<String> getOutput() throws IOException {
+		return Arrays.asList(
+				"{\"line\":1,\"length\":3,\"letters\":\"ddggoooox\",\"status\":\"FINISHED\","
+						+ "\"wordSquares\":[[\"dog\",\"oxo\",\"god\"]]}",
+				"{\"line\":3,\"length\":3,\"letters\":\"ddggoooox\",\"status\":\"FINISHED\","
+						+ "\"wordSquares\":[[\"dog\",\"oxo\",\"god\"],[\"god\",\"oxo\",\"dog\"]]}",
+				"{\"line\":4,\"error\":\"Length must be an integer: x\"}",
+				"{\"line\":5,\"length\":4,\"letters\":\"eeeeddoonnnsssrv\",\"status\":\"FINISHED\","
+						+ "\"wordSquares\":[[\"rose\",\"oven\",\"send\",\"ends\"]]}",
+				"{\"line\":6,\"error\":\"Expected: <length> <letters> [all]\"}",
+				"{\"line\":7,\"length\":3,\"letters\":\"dddgooxyz\",\"status\":\"FINISHED\",\"wordSquares\":[]}",
+				"{\"line\":8,\"error\":\"Length must be from 1 to " + Dictionary.getIndex().getMaxLength()
+						+ ": 0\"}");
+	}
+}
@@ -0,0 +1,335 @@
+package uk.me.ruthmills.wordsquare.server;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test suite for the Word Square Server class.
+ * 
+ * @author ruth
+ */
+public class WordSquareServerTest {
+
+	// The server under test, with one solver thread and room for one solve in the
+	// queue.
+	private WordSquareServer server;
+
+	/**
+	 * Start the server on any free port.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		server = new WordSquareServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 1,
+				Duration.ofSeconds(30));
+		server.start();
+	}
+
+	/**
+	 * Stop the server.
+	 */
+	@After
+	public void tearDown() {
+		server.close();
+	}
+
+	/**
+	 * Test that only the first word square is returned by default.
+	 */
+	@Test
+	public void shouldSolveFirstWordSquare() throws IOException {
+		// when
+		final Response response = get("/solve?length=3&letters=ddggoooox");
+
+		// then
+		assertThat(response.status, is(200));
+		assertThat(response.body, is("{\"length\":3,\"letters\":\"ddggoooox\",\"status\":\"FINISHED\","
+				+ "\"wordSquares\":[[\"dog\",\"oxo\",\"god\"]]}"));
+	}
+
+	/**
+	 * Test that all the word squares are returned when asked for.
+	 */
+	@Test
+	public void shouldSolveAllWordSquares() throws IOException {
+		// when
+		final Response response = get("/solve?length=3&letters=ddggoooox&all=true");
+
+		// then
+		assertThat(response.status, is(200));
+		assertThat(response.body, is("{\"length\":3,\"letters\":\"ddggoooox\",\"status\":\"FINISHED\","
+				+ "\"wordSquares\":[[\"dog\",\"oxo\",\"god\"],[\"god\",\"oxo\",\"dog\"]]}"));
+	}
+
+	/**
+	 * Test that a puzzle asked for again, with its letters in another order, is
+	 * answered from the result cache.
+	 */
+	@Test
+	public void shouldSolveFromResultCache_whenPuzzleIsAskedForAgain() throws IOException {
+		// given
+		get("/solve?length=3&letters=ddggoooox&all=true");
+
+		// when
+		final Response response = get("/solve?length=3&letters=xooooggdd");
+
+		// then
+		assertThat(response.status, is(200));
+		assertThat(response.body, is("{\"length\":3,\"letters\":\"xooooggdd\",\"status\":\"FINISHED\","
+				+ "\"wordSquares\":[[\"dog\",\"oxo\",\"god\"]]}"));
+		assertThat(server.getResultCache().getHits(), is(1L));
+	}
+
+	/**
+	 * Test that a solve which runs out of time says so.
+	 */
+	@Test
+	public void shouldReachDeadline_whenTimeoutIsTooShort() throws IOException {
+		// when
+		final Response response = get(
+				"/solve?length=7&letters=aaaaaaaaabbeeeeeeedddddggmmlloooonnssssrrrruvvyyy&all=true&timeoutMillis=1");
+
+		// then
+		assertThat(response.status, is(200));
+		assertThat(response.body, startsWith("{\"length\":7,"));
+		assertThat(response.body.contains("\"status\":\"DEADLINE_REACHED\""), is(true));
+	}
+
+	/**
+	 * Test that bad parameters are rejected.
+	 */
+	@Test
+	public void shouldReturnBadRequest_whenParametersAreInvalid() throws IOException {
+		// when/then
+		assertThat(get("/solve?letters=ddggoooox").body, is("{\"error\":\"Length is required\"}"));
+		assertThat(get("/solve?length=x&letters=ddggoooox").body, is("{\"error\":\"Length must be an integer: x\"}"));
+		assertThat(get("/solve?length=0&letters=ddggoooox").status, is(400));
+		assertThat(get("/solve?length=3").body, is("{\"error\":\"Letters are required\"}"));
+		assertThat(get("/solve?length=3&letters=ddggoooox&timeoutMillis=0").status, is(400));
+	}
+
+	/**
+	 * Test that the health endpoint says the server is up.
+	 */
+	@Test
+	public void shouldBeHealthy() throws IOException {
+		// when
+		final Response response = get("/health");
+
+		// then
+		assertThat(response.status, is(200));
+		assertThat(response.body, is("{\"status\":\"UP\",\"activeSolves\":0,\"queuedSolves\":0}"));
+	}
+
+	/**
+	 * Test that anything else is not found.
+	 */
+	@Test
+	public void shouldReturnNotFound_whenPathIsUnknown() throws IOException {
+		// when/then
+		assertThat(get("/unknown").status, is(404));
+	}
+
+	/**
+	 * Test that solves must be asked for with GET.
+	 */
+	@Test
+	public void shouldReturnMethodNotAllowed_whenMethodIsNotGet() throws IOException {
+		// given
+		final HttpURLConnection connection = open("/solve?length=3&letters=ddggoooox");
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		connection.getOutputStream().close();
+
+		// when/then
+		assertThat(connection.getResponseCode(), is(405));
+	}
+
+	/**
+	 * Test that solves are turned away once the solver thread is busy and the
+	 * queue is full, while the health endpoint still answers.
+	 */
+	@Test
+	public void shouldReturnServiceUnavailable_whenQueueIsFull() throws IOException, InterruptedException {
+		// given
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		server.getSolverExecutor().execute(() -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		server.getSolverExecutor().execute(() -> {
+		});
+		started.await();
+
+		try {
+			// when
+			final Response response = get("/solve?length=3&letters=ddggoooox");
+
+			// then
+			assertThat(response.status, is(503));
+			assertThat(get("/health").body, is("{\"status\":\"UP\",\"activeSolves\":1,\"queuedSolves\":1}"));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	/**
+	 * Test that closing the server answers the solves waiting for a thread with
+	 * 503, rather than dropping them.
+	 */
+	@Test
+	public void shouldReturnServiceUnavailable_whenServerIsClosedWithSolvesWaiting()
+			throws InterruptedException, ExecutionException {
+		// given
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		server.getSolverExecutor().execute(() -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		started.await();
+		final FutureTask<Response> request = new FutureTask<>(() -> get("/solve?length=3&letters=ddggoooox"));
+		new Thread(request).start();
+		while (server.getSolverExecutor().getQueue().isEmpty()) {
+			Thread.sleep(10);
+		}
+
+		// when
+		final Thread closer = new Thread(server::close);
+		closer.start();
+		try {
+			// then
+			final Response response = request.get();
+			assertThat(response.status, is(503));
+			assertThat(response.body, is("{\"error\":\"Server is shutting down\"}"));
+		} finally {
+			release.countDown();
+			closer.join();
+		}
+	}
+
+	/**
+	 * Test that the parameters are decoded from the query string.
+	 */
+	@Test
+	public void shouldGetParameters() {
+		// when
+		final Map<String, String> parameters = WordSquareServer.getParameters("length=3&letters=a%20b+c&all");
+
+		// then
+		assertThat(parameters.get("length"), is("3"));
+		assertThat(parameters.get("letters"), is("a b c"));
+		assertThat(parameters.get("all"), is(""));
+		assertThat(WordSquareServer.getParameters(null).isEmpty(), is(true));
+	}
+
+	/**
+	 * Test that the number of threads must be at least 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenThreadsIsLessThanOne() throws IOException {
+		// when
+		new WordSquareServer(new InetSocketAddress(0), 0, 1, Duration.ofSeconds(1));
+	}
+
+	/**
+	 * Test that the queue limit must not be negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenQueueLimitIsNegative() throws IOException {
+		// when
+		new WordSquareServer(new InetSocketAddress(0), 1, -1, Duration.ofSeconds(1));
+	}
+
+	/**
+	 * Test that the maximum timeout must be positive.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenMaxTimeoutIsZero() throws IOException {
+		// when
+		new WordSquareServer(new InetSocketAddress(0), 1, 1, Duration.ZERO);
+	}
+
+	/**
+	 * Open a connection to the server.
+	 * 
+	 * @param path The path and query string.
+	 * @return The connection.
+	 * @throws IOException Thrown if we cannot connect.
+	 */
+	private HttpURLConnection open(final String path) throws IOException {
+		return (HttpURLConnection) new URL("http", InetAddress.getLoopbackAddress().getHostAddress(),
+				server.getPort(), path).openConnection();
+	}
+
+	/**
+	 * Send a GET request to the server.
+	 * 
+	 * @param path The path and query string.
+	 * @return The response.
+	 * @throws IOException Thrown if we cannot send the request or read the
+	 *                     response.
+	 */
+	private Response get(final String path) throws IOException {
+		final HttpURLConnection connection = open(path);
+		final int status = connection.getResponseCode();
+		try (InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+			final ByteArrayOutputStream body = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[4096];
+			for (int count = input.read(buffer); count >= 0; count = input.read(buffer)) {
+				body.write(buffer, 0, count);
+			}
+			return new Response(status, new String(body.toByteArray(), StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * A response from the server.
+	 */
+	private static class Response {
+
+		// The HTTP status code.
+		private final int status;
+
+		// The body of the response.
+		private final String body;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param status The HTTP status code.
+		 * @param body   The body of the response.
+		 */
+		private Response(final int status, final String body) {
+			this.status = status;
+			this.body = body;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+
+/**
+ * Test suite for the Batch Word Square Generator class.
+ * 
+ * @author ruth
+ */
+public class BatchWordSquareGeneratorTest {
+
+	// A batch of puzzles of several lengths, including one with letters which
+	// could never fill the word square, and one asked for twice.
+	private static final List<WordSquareQuery> QUERIES = Arrays.asList(new WordSquareQuery(5,
+			"aaaeeeefhhmoonssrrrrttttw"), new WordSquareQuery(3, "ddggoooox"),
+			new WordSquareQuery(4, "eeeeddoonnnsssrv"), new WordSquareQuery(3, "dddgooxyz"),
+			new WordSquareQuery(4, "aaccdeeeemmnnnoo"), new WordSquareQuery(5, "aabbeeeeeeeehmosrrrruttvv"),
+			new WordSquareQuery(3, "ddggoooox"));
+
+	/**
+	 * Test that each puzzle in a batch has the same word squares as when it is
+	 * solved on its own, in the same order as the puzzles, whatever the number of
+	 * threads.
+	 */
+	@Test
+	public void shouldGetSameWordSquaresAsEachPuzzleOnItsOwn() throws InvalidWordSquareException, IOException {
+		for (int threads = 1; threads <= 3; threads++) {
+			// when
+			final List<List<WordSquare>> wordSquares = BatchWordSquareGenerator.getValidWordSquares(QUERIES,
+					new SearchOptions(), new SearchStatistics(), threads);
+
+			// then
+			assertThat(wordSquares, hasSize(QUERIES.size()));
+			for (int index = 0; index < QUERIES.size(); index++) {
+				final WordSquareQuery query = QUERIES.get(index);
+				assertThat(wordSquares.get(index).toString(), is(WordSquareGenerator
+						.getValidWordSquares(query.getLength(), query.getLetters(), false).toString()));
+			}
+		}
+	}
+
+	/**
+	 * Test that the search options apply to each puzzle in the batch.
+	 */
+	@Test
+	public void shouldApplySearchOptionsToEachPuzzle() throws InvalidWordSquareException, IOException {
+		// given
+		final SearchStatistics statistics = new SearchStatistics();
+
+		// when
+		final List<SearchResult> results = BatchWordSquareGenerator.searchWordSquares(
+				Arrays.asList(new WordSquareQuery(3, "ddggoooox"), new WordSquareQuery(3, "dddgooxyz")),
+				new SearchOptions().setFirstMatchOnly(true), statistics, 2);
+
+		// then
+		assertThat(results, hasSize(2));
+		assertThat(results.get(0).getWordSquares().toString(), is("[dog\noxo\ngod\n]"));
+		assertThat(results.get(0).getStatus(), is(SearchStatus.FINISHED));
+		assertThat(results.get(1).getWordSquares(), hasSize(0));
+		assertThat(results.get(1).getStatus(), is(SearchStatus.FINISHED));
+	}
+
+	/**
+	 * Test that an empty batch has no results.
+	 */
+	@Test
+	public void shouldGetNoResults_whenBatchIsEmpty() throws InvalidWordSquareException, IOException {
+		// when
+		final List<List<WordSquare>> wordSquares = BatchWordSquareGenerator
+				.getValidWordSquares(Arrays.asList(), new SearchOptions(), new SearchStatistics());
+
+		// then
+		assertThat(wordSquares, hasSize(0));
+	}
+
+	/**
+	 * Test that there must be at least one thread.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenThreadsIsLessThanOne()
+			throws InvalidWordSquareException, IOException {
+		// when
+		BatchWordSquareGenerator.getValidWordSquares(QUERIES, new SearchOptions(), new SearchStatistics(), 0);
+	}
+
+	/**
+	 * Test that a batch cannot write checkpoints.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenCheckpointFileIsSet()
+			throws InvalidWordSquareException, IOException {
+		// when
+		BatchWordSquareGenerator.getValidWordSquares(QUERIES,
+				new SearchOptions().setCheckpointFile(Paths.get("checkpoint.txt")), new SearchStatistics(), 1);
+	}
+}
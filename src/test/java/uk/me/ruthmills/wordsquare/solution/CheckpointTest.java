@@ -0,0 +1,87 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test suite for the Checkpoint class.
+ * 
+ * @author ruth
+ */
+public class CheckpointTest {
+
+	// Temporary folder for the checkpoint files.
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * Test that a checkpoint can be written to a file and read back.
+	 */
+	@Test
+	public void shouldWriteAndReadCheckpoint() throws IOException {
+		// given
+		final Path file = temporaryFolder.getRoot().toPath().resolve("checkpoint.txt");
+		final Checkpoint checkpoint = new Checkpoint(3, "aaaabbtte", false, Arrays.asList("aba", "bat"),
+				Arrays.asList(new WordSquare(3, "aba", "baa", "aat")));
+
+		// when
+		checkpoint.write(file);
+		final Checkpoint readCheckpoint = Checkpoint.read(file);
+
+		// then
+		assertThat(Files.readAllLines(file, StandardCharsets.US_ASCII),
+				is(Arrays.asList("length 3", "letters aaaabbtte", "finished false", "path aba bat", "square aba baa aat")));
+		assertThat(readCheckpoint.getLength(), is(3));
+		assertThat(readCheckpoint.getLetters(), is("aaaabbtte"));
+		assertThat(readCheckpoint.isFinished(), is(false));
+		assertThat(readCheckpoint.getPath(), is(Arrays.asList("aba", "bat")));
+		assertThat(readCheckpoint.getWordSquares().toString(), is("[aba\nbaa\naat\n]"));
+	}
+
+	/**
+	 * Test that a finished checkpoint, with no path and no word squares, can be
+	 * written to a file and read back.
+	 */
+	@Test
+	public void shouldWriteAndReadFinishedCheckpoint() throws IOException {
+		// given
+		final Path file = temporaryFolder.getRoot().toPath().resolve("checkpoint.txt");
+		final Checkpoint checkpoint = new Checkpoint(3, "dddgooxyz", true, Collections.emptyList(),
+				Collections.emptyList());
+
+		// when
+		checkpoint.write(file);
+		final Checkpoint readCheckpoint = Checkpoint.read(file);
+
+		// then
+		assertThat(readCheckpoint.isFinished(), is(true));
+		assertThat(readCheckpoint.getPath(), is(Collections.emptyList()));
+		assertThat(readCheckpoint.getWordSquares(), is(Collections.emptyList()));
+		assertThat(Files.exists(file.resolveSibling("checkpoint.txt.tmp")), is(false));
+	}
+
+	/**
+	 * Test that reading a file which is not a checkpoint throws an IO Exception.
+	 */
+	@Test(expected = IOException.class)
+	public void shouldThrowIOException_whenFileIsNotCheckpoint() throws IOException {
+		// given
+		final Path file = temporaryFolder.newFile("checkpoint.txt").toPath();
+		Files.write(file, Arrays.asList("length 3", "letters aaaabbtte", "path aba bat", "finished false"),
+				StandardCharsets.US_ASCII);
+
+		// when
+		Checkpoint.read(file);
+	}
+}
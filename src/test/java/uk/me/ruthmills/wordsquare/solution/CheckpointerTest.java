@@ -0,0 +1,77 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test suite for the Checkpointer class.
+ * 
+ * @author ruth
+ */
+public class CheckpointerTest {
+
+	// Temporary folder for the checkpoint files.
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * Test that a checkpoint is written once the interval has passed, at the next
+	 * check of the clock.
+	 */
+	@Test
+	public void shouldWriteCheckpoint_whenIntervalHasPassed() throws IOException {
+		// given
+		final Path file = temporaryFolder.getRoot().toPath().resolve("checkpoint.txt");
+		final Checkpointer checkpointer = new Checkpointer(3, "aaaabbtte",
+				new SearchOptions().setCheckpointFile(file).setCheckpointInterval(Duration.ZERO));
+
+		// when
+		for (int node = 0; node < 255; node++) {
+			checkpointer.nodeVisited(Collections.singletonList("aba"), "baa", Collections.emptyList());
+		}
+		final boolean writtenBefore = Files.exists(file);
+		checkpointer.nodeVisited(Collections.singletonList("aba"), "bat", Collections.emptyList());
+
+		// then
+		assertThat(writtenBefore, is(false));
+		assertThat(Checkpoint.read(file).getPath(), is(Arrays.asList("aba", "bat")));
+		assertThat(Checkpoint.read(file).isFinished(), is(false));
+	}
+
+	/**
+	 * Test that the final checkpoint resumes from the node at which the search ran
+	 * out of budget, or is finished if the search finished.
+	 */
+	@Test
+	public void shouldWriteFinalCheckpoint() throws IOException {
+		// given
+		final Path file = temporaryFolder.getRoot().toPath().resolve("checkpoint.txt");
+		final Checkpointer checkpointer = new Checkpointer(3, "aaaabbtte",
+				new SearchOptions().setCheckpointFile(file));
+
+		// when
+		checkpointer.nodeNotVisited(Collections.singletonList("aba"), "bat");
+		checkpointer.nodeNotVisited(Collections.emptyList(), "abb");
+		checkpointer.searchEnded(SearchStatus.NODE_LIMIT_REACHED, Collections.emptyList());
+		final Checkpoint stoppedCheckpoint = Checkpoint.read(file);
+		checkpointer.searchEnded(SearchStatus.FINISHED, Collections.emptyList());
+		final Checkpoint finishedCheckpoint = Checkpoint.read(file);
+
+		// then
+		assertThat(stoppedCheckpoint.isFinished(), is(false));
+		assertThat(stoppedCheckpoint.getPath(), is(Arrays.asList("aba", "bat")));
+		assertThat(finishedCheckpoint.isFinished(), is(true));
+		assertThat(finishedCheckpoint.getPath(), is(Collections.emptyList()));
+	}
+}
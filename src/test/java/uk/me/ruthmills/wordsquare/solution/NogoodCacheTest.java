@@ -0,0 +1,63 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the Nogood Cache class.
+ * 
+ * @author ruth
+ */
+public class NogoodCacheTest {
+
+	/**
+	 * Test that a state is only in the cache once it has been added.
+	 */
+	@Test
+	public void shouldContainState_onlyOnceAdded() {
+		// given
+		final NogoodCache nogoodCache = new NogoodCache(10);
+
+		// when
+		final boolean containedBefore = nogoodCache.contains("dgo|x");
+		nogoodCache.add("dgo|x");
+
+		// then
+		assertThat(containedBefore, is(false));
+		assertThat(nogoodCache.contains("dgo|x"), is(true));
+		assertThat(nogoodCache.size(), is(1));
+		assertThat(nogoodCache.getCapacity(), is(10));
+	}
+
+	/**
+	 * Test that the least recently used state is evicted once the cache is full.
+	 */
+	@Test
+	public void shouldEvictLeastRecentlyUsedState_whenFull() {
+		// given
+		final NogoodCache nogoodCache = new NogoodCache(2);
+		nogoodCache.add("a");
+		nogoodCache.add("b");
+		nogoodCache.contains("a");
+
+		// when
+		nogoodCache.add("c");
+
+		// then
+		assertThat(nogoodCache.size(), is(2));
+		assertThat(nogoodCache.contains("a"), is(true));
+		assertThat(nogoodCache.contains("b"), is(false));
+		assertThat(nogoodCache.contains("c"), is(true));
+	}
+
+	/**
+	 * Test that the capacity must be at least 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenCapacityIsLessThanOne() {
+		// when
+		new NogoodCache(0);
+	}
+}
@@ -0,0 +1,138 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.oneOf;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+
+/**
+ * Test suite for the Parallel Word Square Generator class.
+ * 
+ * @author ruth
+ */
+public class ParallelWordSquareGeneratorTest {
+
+	// Fork/join pool to search on.
+	private ForkJoinPool pool;
+
+	/**
+	 * Create a fork/join pool with several threads, even on a machine with only one
+	 * core.
+	 */
+	@Before
+	public void setUp() {
+		pool = new ForkJoinPool(4);
+	}
+
+	/**
+	 * Shut down the fork/join pool.
+	 */
+	@After
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Test we can get all valid solutions for a 3-letter word square, in the same
+	 * order as a search on one thread.
+	 */
+	@Test
+	public void shouldGetAllValidSolutionsFor3LetterWordSquare() throws InvalidWordSquareException, IOException {
+		// when
+		final List<WordSquare> solutions = ParallelWordSquareGenerator.getValidWordSquares(3, "ddggoooox",
+				new SearchOptions(), new SearchStatistics(), pool);
+
+		// then
+		assertThat(solutions, hasSize(2));
+		assertThat(solutions.get(0).getWords().toString(), is("[dog, oxo, god]"));
+		assertThat(solutions.get(1).getWords().toString(), is("[god, oxo, dog]"));
+	}
+
+	/**
+	 * Test we can get only one matching solution for a 3-letter word square.
+	 */
+	@Test
+	public void shouldGetOneMatchingSolutionFor3LetterWordSquare() throws InvalidWordSquareException, IOException {
+		// when
+		final List<WordSquare> solutions = ParallelWordSquareGenerator.getValidWordSquares(3, "ddggoooox",
+				new SearchOptions().setFirstMatchOnly(true), new SearchStatistics(), pool);
+
+		// then
+		assertThat(solutions, hasSize(1));
+		assertThat(solutions.get(0).getWords().toString(), oneOf("[dog, oxo, god]", "[god, oxo, dog]"));
+	}
+
+	/**
+	 * Test that we get the same solutions, and visit the same nodes, whatever the
+	 * split depth.
+	 */
+	@Test
+	public void shouldGetSameSolutions_whateverTheSplitDepth() throws InvalidWordSquareException, IOException {
+		// given
+		final int length = 5;
+		final String letters = "aaaeeeefhhmoonssrrrrttttw";
+		final SearchStatistics statistics = new SearchStatistics();
+		final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(length, letters,
+				new SearchOptions(), statistics);
+
+		for (int splitDepth = 1; splitDepth <= length; splitDepth++) {
+			// when
+			final SearchStatistics parallelStatistics = new SearchStatistics();
+			final List<WordSquare> parallelSolutions = ParallelWordSquareGenerator.getValidWordSquares(length,
+					letters, new SearchOptions().setSplitDepth(splitDepth), parallelStatistics, pool);
+
+			// then
+			assertThat(parallelSolutions.toString(), is(solutions.toString()));
+			assertThat(parallelStatistics.toString(), is(statistics.toString()));
+		}
+	}
+
+	/**
+	 * Test that the parallel search counts the same number of word squares as a
+	 * search on one thread, whatever the split depth.
+	 */
+	@Test
+	public void shouldCountSameNumberOfSolutions_whateverTheSplitDepth() throws IOException {
+		// given
+		final int length = 5;
+		final String letters = "aaaeeeefhhmoonssrrrrttttw";
+		final long count = WordSquareGenerator.countWordSquares(length, letters);
+
+		for (int splitDepth = 1; splitDepth <= length; splitDepth++) {
+			// when
+			final long parallelCount = ParallelWordSquareGenerator.countWordSquares(length, letters,
+					new SearchOptions().setSplitDepth(splitDepth), new SearchStatistics(), pool);
+
+			// then
+			assertThat(parallelCount, is(count));
+		}
+	}
+
+	/**
+	 * Test that we reject letters which could never fill the word square, without
+	 * searching for a solution.
+	 */
+	@Test
+	public void shouldGetNoSolutions_whenLettersFailParityCheck() throws InvalidWordSquareException, IOException {
+		// given
+		final SearchStatistics statistics = new SearchStatistics();
+
+		// when
+		final List<WordSquare> solutions = ParallelWordSquareGenerator.getValidWordSquares(3, "dddgooxyz",
+				new SearchOptions(), statistics, pool);
+
+		// then
+		assertThat(solutions, hasSize(0));
+		assertThat(statistics.getNodesVisited(), is(0L));
+	}
+}
@@ -0,0 +1,218 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+
+/**
+ * Test suite for the Result Cache class.
+ * 
+ * @author ruth
+ */
+public class ResultCacheTest {
+
+	/**
+	 * Test that the same letters in a different order are answered from the cache.
+	 */
+	@Test
+	public void shouldHit_whenLettersAreInDifferentOrder() throws InvalidWordSquareException, IOException {
+		// given
+		final ResultCache cache = new ResultCache(10, 0);
+		final List<WordSquare> wordSquares = cache.getValidWordSquares(3, "ddggoooox", false);
+
+		// when
+		final List<WordSquare> cachedWordSquares = cache.getValidWordSquares(3, "xooooggdd", false);
+
+		// then
+		assertThat(cachedWordSquares, is(sameInstance(wordSquares)));
+		assertThat(cachedWordSquares.toString(), is("[dog\noxo\ngod\n, god\noxo\ndog\n]"));
+		assertThat(cache.getHits(), is(1L));
+		assertThat(cache.getMisses(), is(1L));
+		assertThat(cache.getHitRate(), is(closeTo(0.5, 0.0001)));
+		assertThat(cache.size(), is(1));
+	}
+
+	/**
+	 * Test that the length and firstMatchOnly flag are part of the key.
+	 */
+	@Test
+	public void shouldMiss_whenLengthOrFirstMatchOnlyDiffers() throws InvalidWordSquareException, IOException {
+		// given
+		final ResultCache cache = new ResultCache(10, 0);
+		cache.getValidWordSquares(3, "ddggoooox", true);
+
+		// when
+		final List<WordSquare> allWordSquares = cache.getValidWordSquares(3, "ddggoooox", false);
+		final List<WordSquare> noWordSquares = cache.getValidWordSquares(4, "ddggoooox", true);
+
+		// then
+		assertThat(allWordSquares.size(), is(2));
+		assertThat(noWordSquares.size(), is(0));
+		assertThat(cache.getHits(), is(0L));
+		assertThat(cache.getMisses(), is(3L));
+	}
+
+	/**
+	 * Test that all the word squares for a puzzle also answer a request for only
+	 * the first one, with the same word square a search would find.
+	 */
+	@Test
+	public void shouldAnswerFirstMatch_fromAllWordSquares() throws InvalidWordSquareException, IOException {
+		// given
+		final ResultCache cache = new ResultCache(10, 0);
+		cache.getValidWordSquares(3, "ddggoooox", false);
+
+		// when
+		final List<WordSquare> firstWordSquare = cache.getValidWordSquares(3, "ooooxddgg", true);
+
+		// then
+		assertThat(firstWordSquare.toString(),
+				is(WordSquareGenerator.getValidWordSquares(3, "ddggoooox", true).toString()));
+		assertThat(cache.getHits(), is(1L));
+		assertThat(cache.size(), is(1));
+	}
+
+	/**
+	 * Test that the first word square on its own is replaced once we have all of
+	 * them.
+	 */
+	@Test
+	public void shouldReplaceFirstMatch_whenAllWordSquaresAreAdded() throws InvalidWordSquareException, IOException {
+		// given
+		final ResultCache cache = new ResultCache(10, 0);
+		cache.getValidWordSquares(3, "ddggoooox", true);
+
+		// when
+		cache.getValidWordSquares(3, "ddggoooox", false);
+
+		// then
+		assertThat(cache.size(), is(1));
+		assertThat(cache.getBytes(), is(ResultCache.estimateBytes("3 all ddggoooox",
+				WordSquareGenerator.getValidWordSquares(3, "ddggoooox", false))));
+	}
+
+	/**
+	 * Test that the least recently used puzzle is evicted when there are too many.
+	 */
+	@Test
+	public void shouldEvictLeastRecentlyUsed_whenOverMaxEntries() throws InvalidWordSquareException, IOException {
+		// given
+		final ResultCache cache = new ResultCache(2, 0);
+		cache.getValidWordSquares(3, "ddggoooox", false);
+		cache.getValidWordSquares(4, "eeeeddoonnnsssrv", false);
+		cache.getValidWordSquares(3, "ddggoooox", false);
+
+		// when
+		cache.getValidWordSquares(4, "aaccdeeeemmnnnoo", false);
+
+		// then
+		assertThat(cache.size(), is(2));
+		assertThat(cache.getEvictions(), is(1L));
+		cache.getValidWordSquares(3, "ddggoooox", false);
+		assertThat(cache.getHits(), is(2L));
+		cache.getValidWordSquares(4, "eeeeddoonnnsssrv", false);
+		assertThat(cache.getMisses(), is(4L));
+	}
+
+	/**
+	 * Test that puzzles are evicted to keep within the maximum number of bytes,
+	 * but the one just added is always kept.
+	 */
+	@Test
+	public void shouldEvict_whenOverMaxBytes() throws InvalidWordSquareException, IOException {
+		// given
+		final ResultCache cache = new ResultCache(0, 1000);
+
+		// when
+		cache.getValidWordSquares(3, "ddggoooox", false);
+		cache.getValidWordSquares(4, "eeeeddoonnnsssrv", false);
+		cache.getValidWordSquares(4, "aaccdeeeemmnnnoo", false);
+
+		// then
+		assertThat(cache.getBytes(), is(lessThanOrEqualTo(1000L)));
+		assertThat(cache.getEvictions(), is(greaterThan(0L)));
+		assertThat(cache.size() + cache.getEvictions(), is(3L));
+
+		// when
+		final ResultCache tinyCache = new ResultCache(0, 1);
+		tinyCache.getValidWordSquares(3, "ddggoooox", false);
+
+		// then
+		assertThat(tinyCache.size(), is(1));
+	}
+
+	/**
+	 * Test that the cache can be cleared.
+	 */
+	@Test
+	public void shouldClear() throws InvalidWordSquareException, IOException {
+		// given
+		final ResultCache cache = new ResultCache(10, 0);
+		cache.getValidWordSquares(3, "ddggoooox", false);
+
+		// when
+		cache.clear();
+
+		// then
+		assertThat(cache.size(), is(0));
+		assertThat(cache.getBytes(), is(0L));
+		assertThat(cache.toString(), is("size=0, bytes=0, hits=0, misses=1, evictions=0"));
+	}
+
+	/**
+	 * Test that the word squares from the cache cannot be changed.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void shouldThrowUnsupportedOperationException_whenWordSquaresAreChanged()
+			throws InvalidWordSquareException, IOException {
+		// when
+		new ResultCache(10, 0).getValidWordSquares(3, "ddggoooox", false).clear();
+	}
+
+	/**
+	 * Test that the letters are sorted into order.
+	 */
+	@Test
+	public void shouldSortLetters() {
+		// when/then
+		assertThat(ResultCache.sortLetters("xooooggdd"), is("ddggoooox"));
+		assertThat(ResultCache.sortLetters(""), is(""));
+	}
+
+	/**
+	 * Test that a limit must be set.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenNoLimitIsSet() {
+		// when
+		new ResultCache(0, 0);
+	}
+
+	/**
+	 * Test that the maximum number of entries must not be negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenMaxEntriesIsNegative() {
+		// when
+		new ResultCache(-1, 1000);
+	}
+
+	/**
+	 * Test that the maximum number of bytes must not be negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenMaxBytesIsNegative() {
+		// when
+		new ResultCache(10, -1);
+	}
+}
@@ -0,0 +1,363 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test suite for the Result Store class.
+ * 
+ * @author ruth
+ */
+public class ResultStoreTest {
+
+	// Temporary folder for the store.
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	// The directory holding the store.
+	private Path directory;
+
+	// The word squares for the letters "ddggoooox".
+	private static final List<WordSquare> WORD_SQUARES = Arrays.asList(new WordSquare(3, "dog", "oxo", "god"),
+			new WordSquare(3, "god", "oxo", "dog"));
+
+	/**
+	 * Set up the directory for the store.
+	 */
+	@Before
+	public void setUp() {
+		directory = temporaryFolder.getRoot().toPath().resolve("store");
+	}
+
+	/**
+	 * Test that the word squares for the same letters in any order can be got
+	 * back from the store.
+	 */
+	@Test
+	public void shouldGetWordSquares_whenLettersAreInAnyOrder() throws IOException {
+		try (ResultStore store = new ResultStore(directory)) {
+			// when
+			store.put(3, "ddggoooox", WORD_SQUARES);
+
+			// then
+			assertThat(store.get(3, "xooooggdd").toString(), is(WORD_SQUARES.toString()));
+			assertThat(store.get(3, "ddggoooox").toString(), is(WORD_SQUARES.toString()));
+			assertThat(store.get(4, "ddggoooox"), is(nullValue()));
+			assertThat(store.get(3, "ddggooooy"), is(nullValue()));
+			assertThat(store.size(), is(1));
+		}
+	}
+
+	/**
+	 * Test that no word squares at all can be stored too.
+	 */
+	@Test
+	public void shouldGetNoWordSquares_whenNoneWereStored() throws IOException {
+		try (ResultStore store = new ResultStore(directory)) {
+			// when
+			store.put(3, "dddgooxyz", Collections.emptyList());
+
+			// then
+			assertThat(store.get(3, "dddgooxyz"), is(Collections.emptyList()));
+		}
+	}
+
+	/**
+	 * Test that storing the same letters again does not add another record.
+	 */
+	@Test
+	public void shouldNotStoreTwice() throws IOException {
+		try (ResultStore store = new ResultStore(directory)) {
+			// given
+			store.put(3, "ddggoooox", WORD_SQUARES);
+			final long logSize = Files.size(directory.resolve(ResultStore.LOG_FILE_NAME));
+
+			// when
+			store.put(3, "oooxddggo", WORD_SQUARES);
+
+			// then
+			assertThat(store.size(), is(1));
+			assertThat(Files.size(directory.resolve(ResultStore.LOG_FILE_NAME)), is(logSize));
+		}
+	}
+
+	/**
+	 * Test that the word squares are still there after the store is opened again.
+	 */
+	@Test
+	public void shouldGetWordSquares_afterReopening() throws IOException {
+		// given
+		try (ResultStore store = new ResultStore(directory)) {
+			store.put(3, "ddggoooox", WORD_SQUARES);
+		}
+
+		// when
+		try (ResultStore store = new ResultStore(directory)) {
+			// then
+			assertThat(store.size(), is(1));
+			assertThat(store.get(3, "ddggoooox").toString(), is(WORD_SQUARES.toString()));
+		}
+	}
+
+	/**
+	 * Test that the index grows to hold more puzzles than it started with.
+	 */
+	@Test
+	public void shouldGrowIndex_whenItIsHalfFull() throws IOException {
+		// given
+		final int puzzles = ResultStore.INITIAL_CAPACITY;
+
+		// when
+		try (ResultStore store = new ResultStore(directory)) {
+			for (int puzzle = 0; puzzle < puzzles; puzzle++) {
+				store.put(1, getLetters(puzzle), Collections.singletonList(new WordSquare(1, "a")));
+			}
+		}
+
+		// then
+		try (ResultStore store = new ResultStore(directory)) {
+			assertThat(store.size(), is(puzzles));
+			for (int puzzle = 0; puzzle < puzzles; puzzle++) {
+				assertThat(store.get(1, getLetters(puzzle)).toString(), is("[a\n]"));
+			}
+			assertThat(Files.size(directory.resolve(ResultStore.INDEX_FILE_NAME)), is(
+					(long) ResultStore.HEADER_SIZE + 2L * ResultStore.INITIAL_CAPACITY * ResultStore.SLOT_SIZE));
+		}
+	}
+
+	/**
+	 * Test that the index is rebuilt from the log if it is missing.
+	 */
+	@Test
+	public void shouldRebuildIndex_whenItIsMissing() throws IOException {
+		// given
+		try (ResultStore store = new ResultStore(directory)) {
+			store.put(3, "ddggoooox", WORD_SQUARES);
+			store.put(3, "dddgooxyz", Collections.emptyList());
+		}
+		Files.delete(directory.resolve(ResultStore.INDEX_FILE_NAME));
+
+		// when
+		try (ResultStore store = new ResultStore(directory)) {
+			// then
+			assertThat(store.size(), is(2));
+			assertThat(store.get(3, "ddggoooox").toString(), is(WORD_SQUARES.toString()));
+			assertThat(store.get(3, "dddgooxyz"), is(Collections.emptyList()));
+		}
+	}
+
+	/**
+	 * Test that the index is rebuilt from the log if it is damaged.
+	 */
+	@Test
+	public void shouldRebuildIndex_whenItIsDamaged() throws IOException {
+		// given
+		try (ResultStore store = new ResultStore(directory)) {
+			store.put(3, "ddggoooox", WORD_SQUARES);
+		}
+		Files.write(directory.resolve(ResultStore.INDEX_FILE_NAME), new byte[100]);
+
+		// when
+		try (ResultStore store = new ResultStore(directory)) {
+			// then
+			assertThat(store.size(), is(1));
+			assertThat(store.get(3, "ddggoooox").toString(), is(WORD_SQUARES.toString()));
+		}
+	}
+
+	/**
+	 * Test that part of a record left at the end of the log (e.g. by a crash) is
+	 * cut off when the index is rebuilt, and the store carries on from there.
+	 */
+	@Test
+	public void shouldCutOffPartRecord_whenIndexIsRebuilt() throws IOException {
+		// given
+		try (ResultStore store = new ResultStore(directory)) {
+			store.put(3, "ddggoooox", WORD_SQUARES);
+		}
+		final Path logFile = directory.resolve(ResultStore.LOG_FILE_NAME);
+		final long logSize = Files.size(logFile);
+		Files.write(logFile, "length 3\nletters aaaabbtte\nsquares 2\naba bat ate\n".getBytes(StandardCharsets.US_ASCII),
+				StandardOpenOption.APPEND);
+		Files.delete(directory.resolve(ResultStore.INDEX_FILE_NAME));
+
+		// when
+		try (ResultStore store = new ResultStore(directory)) {
+			// then
+			assertThat(Files.size(logFile), is(logSize));
+			assertThat(store.size(), is(1));
+			assertThat(store.get(3, "aaaabbtte"), is(nullValue()));
+
+			// when
+			store.put(3, "aaaabbtte", Collections.singletonList(new WordSquare(3, "aba", "bat", "ate")));
+
+			// then
+			assertThat(store.get(3, "aaaabbtte").toString(), is("[aba\nbat\nate\n]"));
+			assertThat(store.get(3, "ddggoooox").toString(), is(WORD_SQUARES.toString()));
+		}
+	}
+
+	/**
+	 * Test that part of a record left at the end of the log is cut off when the
+	 * store is opened, even though the index is fine, so that the next record is
+	 * not appended after it.
+	 */
+	@Test
+	public void shouldCutOffPartRecord_whenIndexIsNotRebuilt() throws IOException {
+		// given
+		try (ResultStore store = new ResultStore(directory)) {
+			store.put(3, "ddggoooox", WORD_SQUARES);
+		}
+		final Path logFile = directory.resolve(ResultStore.LOG_FILE_NAME);
+		final long logSize = Files.size(logFile);
+		Files.write(logFile, "length 3\nletters aaaabbtte\nsquares 2\naba bat ate\n".getBytes(StandardCharsets.US_ASCII),
+				StandardOpenOption.APPEND);
+
+		// when
+		try (ResultStore store = new ResultStore(directory)) {
+			// then
+			assertThat(Files.size(logFile), is(logSize));
+			assertThat(store.size(), is(1));
+
+			// when
+			store.put(3, "aaaabbtte", Collections.singletonList(new WordSquare(3, "aba", "bat", "ate")));
+		}
+		Files.delete(directory.resolve(ResultStore.INDEX_FILE_NAME));
+
+		// then
+		try (ResultStore store = new ResultStore(directory)) {
+			assertThat(store.size(), is(2));
+			assertThat(store.get(3, "aaaabbtte").toString(), is("[aba\nbat\nate\n]"));
+			assertThat(store.get(3, "ddggoooox").toString(), is(WORD_SQUARES.toString()));
+		}
+	}
+
+	/**
+	 * Test that a complete record at the end of the log with no index entry (e.g.
+	 * left by a crash before the index was written) is added to the index when the
+	 * store is opened.
+	 */
+	@Test
+	public void shouldIndexRecord_whenItIsAfterTheLastIndexEntry() throws IOException {
+		// given
+		try (ResultStore store = new ResultStore(directory)) {
+			store.put(3, "ddggoooox", WORD_SQUARES);
+		}
+		final byte[] index = Files.readAllBytes(directory.resolve(ResultStore.INDEX_FILE_NAME));
+		try (ResultStore store = new ResultStore(directory)) {
+			store.put(3, "aaaabbtte", Collections.singletonList(new WordSquare(3, "aba", "bat", "ate")));
+		}
+		Files.write(directory.resolve(ResultStore.INDEX_FILE_NAME), index);
+
+		// when
+		try (ResultStore store = new ResultStore(directory)) {
+			// then
+			assertThat(store.size(), is(2));
+			assertThat(store.get(3, "aaaabbtte").toString(), is("[aba\nbat\nate\n]"));
+			assertThat(store.get(3, "ddggoooox").toString(), is(WORD_SQUARES.toString()));
+		}
+	}
+
+	/**
+	 * Test that anything in the log which is not a valid record is skipped over
+	 * when the index is rebuilt, and the records after it are still indexed.
+	 */
+	@Test
+	public void shouldSkipBadRecord_whenIndexIsRebuilt() throws IOException {
+		// given
+		final Path logFile = directory.resolve(ResultStore.LOG_FILE_NAME);
+		final String log = "length 3\nletters ddggoooox\nsquares 2\ndog oxo god\ngod oxo dog\n"
+				+ "length 3\nletters aaaabbtte\nsquares 1\naba bat\n" + "length 3\nletters dddgooxyz\nsquares 0\n";
+		Files.createDirectories(directory);
+		Files.write(logFile, (log + "length 3\nletters aaaab").getBytes(StandardCharsets.US_ASCII));
+
+		// when
+		try (ResultStore store = new ResultStore(directory)) {
+			// then
+			assertThat(store.size(), is(2));
+			assertThat(store.get(3, "ddggoooox").toString(), is(WORD_SQUARES.toString()));
+			assertThat(store.get(3, "aaaabbtte"), is(nullValue()));
+			assertThat(store.get(3, "dddgooxyz"), is(Collections.emptyList()));
+			assertThat(Files.size(logFile), is((long) log.length()));
+		}
+	}
+
+	/**
+	 * Test that a store cannot be opened while it is already open.
+	 */
+	@Test(expected = IOException.class)
+	public void shouldThrowException_whenStoreIsAlreadyOpen() throws IOException {
+		try (ResultStore store = new ResultStore(directory)) {
+			// when
+			new ResultStore(directory).close();
+		}
+	}
+
+	/**
+	 * Test that letters which cannot be written to a record are not stored.
+	 */
+	@Test
+	public void shouldNotStore_whenLettersCannotBeWritten() throws IOException {
+		try (ResultStore store = new ResultStore(directory)) {
+			// when
+			store.put(1, "\u00e9", Collections.singletonList(new WordSquare(1, "\u00e9")));
+			store.put(1, "a\n", Collections.singletonList(new WordSquare(1, "a")));
+
+			// then
+			assertThat(store.size(), is(0));
+			assertThat(store.get(1, "\u00e9"), is(nullValue()));
+		}
+	}
+
+	/**
+	 * Test that the store is opened in the directory the system property is set
+	 * to, and not at all when it is not set.
+	 */
+	@Test
+	public void shouldOpenFromSystemProperty_onlyWhenItIsSet() throws IOException {
+		// given
+		System.setProperty(ResultStore.RESULT_STORE_DIRECTORY_PROPERTY, directory.toString());
+		try (ResultStore store = ResultStore.openFromSystemProperty()) {
+			// when
+			store.put(3, "ddggoooox", WORD_SQUARES);
+
+			// then
+			assertThat(Files.exists(directory.resolve(ResultStore.LOG_FILE_NAME)), is(true));
+			assertThat(store.get(3, "ddggoooox").toString(), is(WORD_SQUARES.toString()));
+		} finally {
+			System.clearProperty(ResultStore.RESULT_STORE_DIRECTORY_PROPERTY);
+		}
+		assertThat(ResultStore.openFromSystemProperty(), is(nullValue()));
+	}
+
+	/**
+	 * Get different letters for each puzzle number, whatever order they are in:
+	 * one letter for the puzzle number modulo 26, and a 'b' for each time 26 goes
+	 * into it.
+	 * 
+	 * @param puzzle The puzzle number.
+	 * @return The letters.
+	 */
+	private static String getLetters(final int puzzle) {
+		final StringBuilder letters = new StringBuilder();
+		for (int count = 0; count < puzzle / 26; count++) {
+			letters.append('b');
+		}
+		return letters.append((char) ('a' + puzzle % 26)).toString();
+	}
+}
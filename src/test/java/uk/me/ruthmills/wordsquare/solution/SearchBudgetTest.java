@@ -0,0 +1,138 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Instant;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the Search Budget class.
+ * 
+ * @author ruth
+ */
+public class SearchBudgetTest {
+
+	/**
+	 * Test that the search is told to stop once the maximum number of nodes have
+	 * been spent.
+	 */
+	@Test
+	public void shouldStopSearch_whenNodeLimitIsReached() {
+		// given
+		final StopSignal stopSignal = new StopSignal();
+		final SearchBudget budget = new SearchBudget(new SearchOptions().setMaxNodes(3), stopSignal);
+
+		// when
+		final boolean[] spent = { budget.spendNode(), budget.spendNode(), budget.spendNode(), budget.spendNode() };
+
+		// then
+		assertThat(spent, is(new boolean[] { true, true, true, false }));
+		assertThat(budget.getStatus(), is(SearchStatus.NODE_LIMIT_REACHED));
+		assertThat(stopSignal.isStopped(), is(true));
+	}
+
+	/**
+	 * Test that the search is told to stop once the deadline has passed.
+	 */
+	@Test
+	public void shouldStopSearch_whenDeadlineIsReached() {
+		// given
+		final StopSignal stopSignal = new StopSignal();
+		final SearchBudget budget = new SearchBudget(
+				new SearchOptions().setDeadline(Instant.now().minusSeconds(1)).setMaxNodes(1000), stopSignal);
+
+		// when
+		final boolean spent = budget.spendNode();
+
+		// then
+		assertThat(spent, is(false));
+		assertThat(budget.getStatus(), is(SearchStatus.DEADLINE_REACHED));
+		assertThat(stopSignal.isStopped(), is(true));
+	}
+
+	/**
+	 * Test that the search carries on while there is budget left.
+	 */
+	@Test
+	public void shouldNotStopSearch_whenBudgetIsLeft() {
+		// given
+		final StopSignal stopSignal = new StopSignal();
+		final SearchBudget budget = new SearchBudget(
+				new SearchOptions().setDeadline(Instant.now().plusSeconds(60)).setMaxNodes(1000), stopSignal);
+
+		// when
+		boolean spent = true;
+		for (int node = 0; node < 1000; node++) {
+			spent &= budget.spendNode();
+		}
+
+		// then
+		assertThat(spent, is(true));
+		assertThat(budget.getStatus(), is(SearchStatus.FINISHED));
+		assertThat(stopSignal.isStopped(), is(false));
+	}
+
+	/**
+	 * Test that copies of the budget share the node limit between them, and that
+	 * nodes given back by one copy can be spent by another.
+	 */
+	@Test
+	public void shouldShareNodeLimit_betweenCopies() {
+		// given
+		final StopSignal stopSignal = new StopSignal();
+		final SearchBudget budget = new SearchBudget(new SearchOptions().setMaxNodes(300), stopSignal);
+		final SearchBudget first = budget.copy();
+		final SearchBudget second = budget.copy();
+
+		// when
+		boolean spent = true;
+		for (int node = 0; node < 10; node++) {
+			spent &= first.spendNode();
+		}
+		first.returnUnspentNodes();
+		int secondNodes = 0;
+		while (second.spendNode()) {
+			secondNodes++;
+		}
+
+		// then
+		assertThat(spent, is(true));
+		assertThat(secondNodes, is(290));
+		assertThat(budget.getStatus(), is(SearchStatus.NODE_LIMIT_REACHED));
+		assertThat(first.getStatus(), is(SearchStatus.NODE_LIMIT_REACHED));
+		assertThat(stopSignal.isStopped(), is(true));
+	}
+
+	/**
+	 * Test that a copy of a budget with only a deadline still stops the search
+	 * once the deadline has passed.
+	 */
+	@Test
+	public void shouldStopSearch_whenDeadlineIsReachedOnCopy() {
+		// given
+		final StopSignal stopSignal = new StopSignal();
+		final SearchBudget budget = new SearchBudget(
+				new SearchOptions().setDeadline(Instant.now().minusSeconds(1)), stopSignal);
+
+		// when
+		final boolean spent = budget.copy().spendNode();
+
+		// then
+		assertThat(spent, is(false));
+		assertThat(budget.getStatus(), is(SearchStatus.DEADLINE_REACHED));
+		assertThat(stopSignal.isStopped(), is(true));
+	}
+
+	/**
+	 * Test that the search is only budgeted if there is a deadline or a node limit.
+	 */
+	@Test
+	public void shouldBeBudgeted_onlyWithDeadlineOrNodeLimit() {
+		// then
+		assertThat(SearchBudget.isBudgeted(new SearchOptions()), is(false));
+		assertThat(SearchBudget.isBudgeted(new SearchOptions().setDeadline(Instant.now())), is(true));
+		assertThat(SearchBudget.isBudgeted(new SearchOptions().setMaxNodes(1)), is(true));
+	}
+}
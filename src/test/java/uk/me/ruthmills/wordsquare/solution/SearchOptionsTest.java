@@ -0,0 +1,132 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the Search Options class.
+ * 
+ * @author ruth
+ */
+public class SearchOptionsTest {
+
+	/**
+	 * Test that the options have the expected defaults.
+	 */
+	@Test
+	public void shouldHaveExpectedDefaults() {
+		// when
+		final SearchOptions options = new SearchOptions();
+
+		// then
+		assertThat(options.isFirstMatchOnly(), is(false));
+		assertThat(options.isForwardChecking(), is(true));
+		assertThat(options.isParityChecking(), is(true));
+		assertThat(options.isParallel(), is(false));
+		assertThat(options.getSplitDepth(), is(2));
+		assertThat(options.getNogoodCacheCapacity(), is(0));
+		assertThat(options.getDeadline(), is(nullValue()));
+		assertThat(options.getMaxNodes(), is(0L));
+		assertThat(options.getCheckpointFile(), is(nullValue()));
+		assertThat(options.getCheckpointInterval(), is(Duration.ofMinutes(1)));
+		assertThat(options.getShardIndex(), is(0));
+		assertThat(options.getShardCount(), is(1));
+		assertThat(options.getResultStore(), is(nullValue()));
+		assertThat(options.getResultCache(), is(nullValue()));
+	}
+
+	/**
+	 * Test that the setters can be chained.
+	 */
+	@Test
+	public void shouldChainSetters() {
+		// given
+		final Instant deadline = Instant.now();
+		final Path checkpointFile = Paths.get("checkpoint.txt");
+		final ResultCache resultCache = new ResultCache(10, 0);
+
+		// when
+		final SearchOptions options = new SearchOptions().setFirstMatchOnly(true).setForwardChecking(false)
+				.setParityChecking(false).setParallel(true).setSplitDepth(3).setNogoodCacheCapacity(100)
+				.setDeadline(deadline).setMaxNodes(1000)
+				.setCheckpointFile(checkpointFile).setCheckpointInterval(Duration.ofSeconds(10))
+				.setShard(1, 4).setResultCache(resultCache);
+
+		// then
+		assertThat(options.isFirstMatchOnly(), is(true));
+		assertThat(options.isForwardChecking(), is(false));
+		assertThat(options.isParityChecking(), is(false));
+		assertThat(options.isParallel(), is(true));
+		assertThat(options.getSplitDepth(), is(3));
+		assertThat(options.getNogoodCacheCapacity(), is(100));
+		assertThat(options.getDeadline(), is(deadline));
+		assertThat(options.getMaxNodes(), is(1000L));
+		assertThat(options.getCheckpointFile(), is(checkpointFile));
+		assertThat(options.getCheckpointInterval(), is(Duration.ofSeconds(10)));
+		assertThat(options.getShardIndex(), is(1));
+		assertThat(options.getShardCount(), is(4));
+		assertThat(options.getResultCache(), is(resultCache));
+	}
+
+	/**
+	 * Test that the split depth must be at least 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenSplitDepthIsLessThanOne() {
+		// when
+		new SearchOptions().setSplitDepth(0);
+	}
+
+	/**
+	 * Test that the nogood cache capacity must not be negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenNogoodCacheCapacityIsNegative() {
+		// when
+		new SearchOptions().setNogoodCacheCapacity(-1);
+	}
+
+	/**
+	 * Test that the maximum number of nodes must not be negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenMaxNodesIsNegative() {
+		// when
+		new SearchOptions().setMaxNodes(-1);
+	}
+
+	/**
+	 * Test that the checkpoint interval must not be negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenCheckpointIntervalIsNegative() {
+		// when
+		new SearchOptions().setCheckpointInterval(Duration.ofSeconds(-1));
+	}
+
+	/**
+	 * Test that the shard count must be at least 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenShardCountIsLessThanOne() {
+		// when
+		new SearchOptions().setShard(0, 0);
+	}
+
+	/**
+	 * Test that the shard index must be less than the shard count.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowIllegalArgumentException_whenShardIndexIsOutOfRange() {
+		// when
+		new SearchOptions().setShard(4, 4);
+	}
+}
@@ -0,0 +1,40 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the Search Result class.
+ * 
+ * @author ruth
+ */
+public class SearchResultTest {
+
+	/**
+	 * Test that a search result is finished only if its status is FINISHED.
+	 */
+	@Test
+	public void shouldBeFinished_onlyWhenStatusIsFinished() {
+		// given
+		final WordSquare wordSquare = new WordSquare(3, "dog", "oxo", "god");
+
+		// when
+		final SearchResult finished = new SearchResult(Collections.singletonList(wordSquare), SearchStatus.FINISHED);
+		final SearchResult deadlineReached = new SearchResult(Collections.emptyList(),
+				SearchStatus.DEADLINE_REACHED);
+		final SearchResult nodeLimitReached = new SearchResult(Collections.emptyList(),
+				SearchStatus.NODE_LIMIT_REACHED);
+
+		// then
+		assertThat(finished.getWordSquares(), hasSize(1));
+		assertThat(finished.getStatus(), is(SearchStatus.FINISHED));
+		assertThat(finished.isFinished(), is(true));
+		assertThat(deadlineReached.isFinished(), is(false));
+		assertThat(nodeLimitReached.isFinished(), is(false));
+	}
+}
@@ -0,0 +1,59 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the Search Statistics class.
+ * 
+ * @author ruth
+ */
+public class SearchStatisticsTest {
+
+	/**
+	 * Test that the counters start at zero.
+	 */
+	@Test
+	public void shouldStartAtZero() {
+		// when
+		final SearchStatistics statistics = new SearchStatistics();
+
+		// then
+		assertThat(statistics.getNodesVisited(), is(0L));
+		assertThat(statistics.getNodesPruned(), is(0L));
+		assertThat(statistics.getNodesPrunedByParity(), is(0L));
+		assertThat(statistics.getNogoodCacheHits(), is(0L));
+		assertThat(statistics.getNogoodCacheMisses(), is(0L));
+	}
+
+	/**
+	 * Test that the counters are incremented.
+	 */
+	@Test
+	public void shouldCountNodes() {
+		// given
+		final SearchStatistics statistics = new SearchStatistics();
+
+		// when
+		statistics.nodeVisited();
+		statistics.nodeVisited();
+		statistics.nodePruned();
+		statistics.nodePrunedByParity();
+		statistics.nodePrunedByParity();
+		statistics.nodePrunedByParity();
+		statistics.nogoodCacheHit();
+		statistics.nogoodCacheMiss();
+		statistics.nogoodCacheMiss();
+
+		// then
+		assertThat(statistics.getNodesVisited(), is(2L));
+		assertThat(statistics.getNodesPruned(), is(1L));
+		assertThat(statistics.getNodesPrunedByParity(), is(3L));
+		assertThat(statistics.getNogoodCacheHits(), is(1L));
+		assertThat(statistics.getNogoodCacheMisses(), is(2L));
+		assertThat(statistics.toString(),
+				is("nodesVisited=2, nodesPruned=1, nodesPrunedByParity=3, nogoodCacheHits=1, nogoodCacheMisses=2"));
+	}
+}
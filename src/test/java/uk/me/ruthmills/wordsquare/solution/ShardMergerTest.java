@@ -0,0 +1,92 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+
+/**
+ * Test suite for the Shard Merger class.
+ * 
+ * @author ruth
+ */
+public class ShardMergerTest {
+
+	// Temporary folder for the result files.
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * Test that merging the result files of each shard gives the same file as the
+	 * whole search.
+	 */
+	@Test
+	public void shouldMergeShardFilesIntoSameFileAsWholeSearch() throws InvalidWordSquareException, IOException {
+		// given
+		final Path wholeFile = temporaryFolder.getRoot().toPath().resolve("whole.txt");
+		ShardMerger.writeWordSquares(WordSquareGenerator.getValidWordSquares(3, "aaaabbtte", false), wholeFile);
+		final List<Path> shardFiles = new ArrayList<>();
+		for (int shardIndex = 0; shardIndex < 3; shardIndex++) {
+			final Path shardFile = temporaryFolder.getRoot().toPath().resolve("shard" + shardIndex + ".txt");
+			ShardMerger.writeWordSquares(WordSquareGenerator.getValidWordSquares(3, "aaaabbtte",
+					new SearchOptions().setShard(shardIndex, 3), new SearchStatistics()), shardFile);
+			shardFiles.add(shardFile);
+		}
+		final Path mergedFile = temporaryFolder.getRoot().toPath().resolve("merged.txt");
+
+		// when
+		ShardMerger.merge(shardFiles, mergedFile);
+
+		// then
+		assertThat(Files.readAllLines(mergedFile, StandardCharsets.US_ASCII),
+				is(Files.readAllLines(wholeFile, StandardCharsets.US_ASCII)));
+	}
+
+	/**
+	 * Test that word squares can be read from a file in the format the command line
+	 * prints them in, and are sorted with any duplicates taken out.
+	 */
+	@Test
+	public void shouldReadAndMergeWordSquares() throws IOException {
+		// given
+		final Path firstFile = temporaryFolder.newFile("first.txt").toPath();
+		Files.write(firstFile, Arrays.asList("god", "oxo", "dog", "", "a", ""), StandardCharsets.US_ASCII);
+		final Path secondFile = temporaryFolder.newFile("second.txt").toPath();
+		Files.write(secondFile, Arrays.asList("a", "", "dog", "oxo", "god"), StandardCharsets.US_ASCII);
+
+		// when
+		final List<WordSquare> wordSquares = ShardMerger.mergeWordSquares(Arrays.asList(firstFile, secondFile));
+
+		// then
+		assertThat(wordSquares.toString(), is("[a\n, dog\noxo\ngod\n, god\noxo\ndog\n]"));
+	}
+
+	/**
+	 * Test that words of word squares are compared in the order the search comes to
+	 * them.
+	 */
+	@Test
+	public void shouldCompareWordsInSearchOrder() {
+		// then
+		assertThat(ShardMerger.compareWords(Arrays.asList("aba", "bat", "ate"), Arrays.asList("eta", "tab", "aba")),
+				lessThan(0));
+		assertThat(ShardMerger.compareWords(Arrays.asList("dog", "oxo", "god"), Arrays.asList("dog", "oxo", "god")),
+				is(0));
+		assertThat(ShardMerger.compareWords(Arrays.asList("god", "oxo", "dog"), Arrays.asList("dog", "oxo", "god")),
+				greaterThan(0));
+	}
+}
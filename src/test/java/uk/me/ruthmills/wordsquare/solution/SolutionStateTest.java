@@ -1,16 +1,24 @@
 package uk.me.ruthmills.wordsquare.solution;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.Test;
 
-import uk.me.ruthmills.wordsquare.exception.FirstWordSquareSolvedException;
 import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+import uk.me.ruthmills.wordsquare.letters.AvailableLettersFactory;
 
 /**
  * Test suite for the Solution State class.
@@ -75,7 +83,7 @@ public class SolutionStateTest {
 	 */
 	@Test
 	public void shouldAddValidWordSquare()
-			throws FirstWordSquareSolvedException, InvalidWordSquareException, IOException {
+			throws InvalidWordSquareException, IOException {
 		// given
 		final SolutionState solutionState = new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS);
 
@@ -93,7 +101,7 @@ public class SolutionStateTest {
 	 */
 	@Test
 	public void shouldThrowInvalidWordSquareException_whenAddingInvalidWordSquare()
-			throws FirstWordSquareSolvedException, InvalidWordSquareException, IOException {
+			throws InvalidWordSquareException, IOException {
 		// given
 		final SolutionState solutionState = new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS);
 
@@ -108,23 +116,39 @@ public class SolutionStateTest {
 	}
 
 	/**
-	 * Test that a First Word Square Solved Exception is thrown when we add a valid
-	 * word square and the firstMatchOnly flag is true.
+	 * Test that the stop signal is raised when we add a valid word square and the
+	 * firstMatchOnly flag is true.
 	 */
 	@Test
-	public void shouldThrowFirstWordSquareSolvedException_whenAddingFirstWordSquare_andFirstMatchOnlyIsTrue()
-			throws FirstWordSquareSolvedException, InvalidWordSquareException, IOException {
+	public void shouldStopSearch_whenAddingFirstWordSquare_andFirstMatchOnlyIsTrue()
+			throws InvalidWordSquareException, IOException {
 		// given
 		final SolutionState solutionState = new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS, true);
 
 		// when
-		try {
-			solutionState.addWordSquare(VALID_WORD_SQUARE);
-			fail("Expected FirstWordSquareSolvedException was not thrown!");
-		} catch (FirstWordSquareSolvedException ex) {
-			// then
-			assertThat(ex.getWordSquare(), is(VALID_WORD_SQUARE));
-		}
+		solutionState.addWordSquare(VALID_WORD_SQUARE);
+
+		// then
+		assertThat(solutionState.getStopSignal().isStopped(), is(true));
+		assertThat(solutionState.getWordSquares(), hasSize(1));
+		assertThat(solutionState.getWordSquares().get(0), is(VALID_WORD_SQUARE));
+	}
+
+	/**
+	 * Test that the stop signal is not raised when we add a valid word square and
+	 * the firstMatchOnly flag is false.
+	 */
+	@Test
+	public void shouldNotStopSearch_whenAddingWordSquare_andFirstMatchOnlyIsFalse()
+			throws InvalidWordSquareException, IOException {
+		// given
+		final SolutionState solutionState = new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS, false);
+
+		// when
+		solutionState.addWordSquare(VALID_WORD_SQUARE);
+
+		// then
+		assertThat(solutionState.getStopSignal().isStopped(), is(false));
 	}
 
 	/**
@@ -133,7 +157,7 @@ public class SolutionStateTest {
 	 */
 	@Test
 	public void shouldGetAllValidSolutionsFor3LetterStartingWord()
-			throws FirstWordSquareSolvedException, InvalidWordSquareException, IOException {
+			throws InvalidWordSquareException, IOException {
 		// given
 		final SolutionState solutionState = new SolutionState(3, "ddggoooox");
 		final String startingWord = "dog";
@@ -152,7 +176,7 @@ public class SolutionStateTest {
 	 */
 	@Test
 	public void shouldGetAllValidSolutionsFor5LetterStartingWord()
-			throws FirstWordSquareSolvedException, InvalidWordSquareException, IOException {
+			throws InvalidWordSquareException, IOException {
 		// given
 		final SolutionState solutionState = new SolutionState(5, "aaaeeeefhhmoonssrrrrttttw");
 		final String startingWord = "feast";
@@ -179,12 +203,298 @@ public class SolutionStateTest {
 		final String startingWord = "feast";
 
 		// when
-		try {
-			solutionState.getValidWordSquares(startingWord);
-			fail("Expected FirstWordSquareSolvedException was not thrown");
-		} catch (FirstWordSquareSolvedException ex) {
-			// then
-			assertThat(ex.getWordSquare().getWords().toString(), is("[feast, earth, armer, steno, throw]"));
+		solutionState.getValidWordSquares(startingWord);
+
+		// then
+		assertThat(solutionState.getStopSignal().isStopped(), is(true));
+		assertThat(solutionState.getWordSquares(), hasSize(1));
+		assertThat(solutionState.getWordSquares().get(0).getWords().toString(),
+				is("[feast, earth, armer, steno, throw]"));
+	}
+
+	/**
+	 * Test getting the letters already fixed in a column by the words we have so
+	 * far.
+	 */
+	@Test
+	public void shouldGetColumnPrefix() {
+		// given
+		final List<String> words = Arrays.asList("feast", "earth");
+
+		// when
+		final String prefix = SolutionState.getColumnPrefix(words, 2);
+
+		// then
+		assertThat(prefix, is("ar"));
+	}
+
+	/**
+	 * Test that forward checking spots a column which can no longer be completed.
+	 * After "dog" and "oxo", the last column begins "go", so it can only be
+	 * completed by "god", "goo" or "gox" - which needs a "d", "o" or "x" to be left
+	 * over.
+	 */
+	@Test
+	public void shouldDetectColumnWhichCannotBeCompleted() throws IOException {
+		// given
+		final SolutionState solutionState = new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS);
+		final List<String> words = Arrays.asList("dog", "oxo");
+
+		// then
+		assertThat(solutionState.canCompleteAllColumns(words, AvailableLettersFactory.getMutableInstance("dgo")), is(true));
+		assertThat(solutionState.canCompleteAllColumns(words, AvailableLettersFactory.getMutableInstance("gox")), is(true));
+		assertThat(solutionState.canCompleteAllColumns(words, AvailableLettersFactory.getMutableInstance("ggg")), is(false));
+	}
+
+	/**
+	 * Test that forward checking prunes the search, without changing the word
+	 * squares we find.
+	 */
+	@Test
+	public void shouldPruneSearch_whenForwardCheckingIsEnabled()
+			throws InvalidWordSquareException, IOException {
+		// given
+		final SolutionState withForwardChecking = new SolutionState(5, "aaaeeeefhhmoonssrrrrttttw",
+				new SearchOptions().setForwardChecking(true).setParityChecking(false), new SearchStatistics());
+		final SolutionState withoutForwardChecking = new SolutionState(5, "aaaeeeefhhmoonssrrrrttttw",
+				new SearchOptions().setForwardChecking(false).setParityChecking(false), new SearchStatistics());
+
+		// when
+		withForwardChecking.getValidWordSquares("feast");
+		withoutForwardChecking.getValidWordSquares("feast");
+
+		// then
+		assertThat(withForwardChecking.getWordSquares().toString(),
+				is(withoutForwardChecking.getWordSquares().toString()));
+		assertThat(withForwardChecking.getStatistics().getNodesPruned(), greaterThan(0L));
+		assertThat(withoutForwardChecking.getStatistics().getNodesPruned(), is(0L));
+		assertThat(withForwardChecking.getStatistics().getNodesVisited(),
+				lessThan(withoutForwardChecking.getStatistics().getNodesVisited()));
+	}
+
+	/**
+	 * Test that letter parity checking spots letters which can no longer fill the
+	 * undecided squares. After "dog", the rest of the first column ("o", "g") is
+	 * already decided, which leaves a 2*2 word square to fill.
+	 */
+	@Test
+	public void shouldDetectLettersWhichCannotFillUndecidedSquares() throws IOException {
+		// given
+		final SolutionState solutionState = new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS);
+		final List<String> words = Collections.singletonList("dog");
+
+		// then
+		// "og" decided, leaving "doox" - only "d" and "x" have odd counts.
+		assertThat(solutionState.canFillUndecidedSquares(words, AvailableLettersFactory.getMutableInstance("dgooox")),
+				is(true));
+		// "og" decided, leaving "dxyz" - four letters have odd counts.
+		assertThat(solutionState.canFillUndecidedSquares(words, AvailableLettersFactory.getMutableInstance("dgoxyz")),
+				is(false));
+		// the decided "g" is not available.
+		assertThat(solutionState.canFillUndecidedSquares(words, AvailableLettersFactory.getMutableInstance("ddooox")),
+				is(false));
+	}
+
+	/**
+	 * Test that letter parity checking prunes the search, without changing the
+	 * word squares we find.
+	 */
+	@Test
+	public void shouldPruneSearch_whenParityCheckingIsEnabled()
+			throws InvalidWordSquareException, IOException {
+		// given
+		final SolutionState withParityChecking = new SolutionState(5, "aaaeeeefhhmoonssrrrrttttw",
+				new SearchOptions().setForwardChecking(false).setParityChecking(true), new SearchStatistics());
+		final SolutionState withoutParityChecking = new SolutionState(5, "aaaeeeefhhmoonssrrrrttttw",
+				new SearchOptions().setForwardChecking(false).setParityChecking(false), new SearchStatistics());
+
+		// when
+		withParityChecking.getValidWordSquares("feast");
+		withoutParityChecking.getValidWordSquares("feast");
+
+		// then
+		assertThat(withParityChecking.getWordSquares().toString(),
+				is(withoutParityChecking.getWordSquares().toString()));
+		assertThat(withParityChecking.getStatistics().getNodesPrunedByParity(), greaterThan(0L));
+		assertThat(withoutParityChecking.getStatistics().getNodesPrunedByParity(), is(0L));
+		assertThat(withParityChecking.getStatistics().getNodesVisited(),
+				lessThan(withoutParityChecking.getStatistics().getNodesVisited()));
+	}
+
+	/**
+	 * Test that the solution state is back where it started once the search has
+	 * finished, as the same state is shared all the way down the search.
+	 */
+	@Test
+	public void shouldRestoreWordsAndLetters_afterSearching()
+			throws InvalidWordSquareException, IOException {
+		// given
+		final SolutionState solutionState = new SolutionState(5, "aaaeeeefhhmoonssrrrrttttw");
+
+		// when
+		solutionState.getValidWordSquares("feast");
+
+		// then
+		assertThat(solutionState.getWordSquares(), hasSize(2));
+		assertThat(solutionState.getWords(), hasSize(0));
+		assertThat(solutionState.getLetters().toString(), is("aaaeeeefhhmnoorrrrssttttw"));
+	}
+
+	/**
+	 * Test getting the words which could come next, without searching any further.
+	 */
+	@Test
+	public void shouldGetNextWords_withoutChangingSolutionState() throws IOException {
+		// given
+		final SolutionState solutionState = new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS);
+
+		// when
+		final List<String> nextWords = solutionState.getNextWords("dog");
+
+		// then
+		assertThat(nextWords, hasItem("oxo"));
+		assertThat(solutionState.getStatistics().getNodesVisited(), is(1L));
+		assertThat(solutionState.getWords(), hasSize(0));
+		assertThat(solutionState.getLetters().toString(), is(AVAILABLE_LETTERS));
+	}
+
+	/**
+	 * Test that a copy of the solution state has its own letters, words, and word
+	 * squares, but shares the options, statistics and stop signal.
+	 */
+	@Test
+	public void shouldCopySolutionState() throws InvalidWordSquareException, IOException {
+		// given
+		final SolutionState solutionState = new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS);
+		solutionState.placeWord("dog");
+
+		// when
+		final SolutionState copy = solutionState.copy();
+		copy.placeWord("oxo");
+		copy.addWordSquare(VALID_WORD_SQUARE);
+
+		// then
+		assertThat(solutionState.getWords(), is(Collections.singletonList("dog")));
+		assertThat(solutionState.getLetters().toString(), is("dgooox"));
+		assertThat(solutionState.getWordSquares(), hasSize(0));
+		assertThat(copy.getWords(), is(Arrays.asList("dog", "oxo")));
+		assertThat(copy.getLetters().toString(), is("dgo"));
+		assertThat(copy.getWordSquares(), hasSize(1));
+		assertThat(copy.getOptions(), is(solutionState.getOptions()));
+		assertThat(copy.getStatistics(), is(solutionState.getStatistics()));
+		assertThat(copy.getStopSignal(), is(solutionState.getStopSignal()));
+	}
+
+	/**
+	 * Test that forward checking narrows down the candidates for the next word to
+	 * those whose letters can still complete their columns. After "feast", the
+	 * next word must begin with "e", and its second letter must be one which can
+	 * follow "a" in a column, its third letter one which can follow "s", and so on.
+	 */
+	@Test
+	public void shouldNarrowDownNextWordCandidates_whenForwardCheckingIsEnabled() throws IOException {
+		// given
+		final SolutionState withForwardChecking = new SolutionState(5, "aaaeeeefhhmoonssrrrrttttw",
+				new SearchOptions().setForwardChecking(true), new SearchStatistics());
+		final SolutionState withoutForwardChecking = new SolutionState(5, "aaaeeeefhhmoonssrrrrttttw",
+				new SearchOptions().setForwardChecking(false), new SearchStatistics());
+		withForwardChecking.placeWord("feast");
+		withoutForwardChecking.placeWord("feast");
+
+		// when
+		final List<String> narrowedCandidates = getCandidateWords(withForwardChecking);
+		final List<String> allCandidates = getCandidateWords(withoutForwardChecking);
+
+		// then
+		assertThat(narrowedCandidates, hasItem("earth"));
+		assertThat(allCandidates.containsAll(narrowedCandidates), is(true));
+		assertThat(narrowedCandidates.size(), lessThan(allCandidates.size()));
+		for (final String candidate : allCandidates) {
+			assertThat(candidate.charAt(0), is('e'));
+		}
+	}
+
+	/**
+	 * Test that pairs of first and second words are spread evenly between the
+	 * shards, and always go to the same shard.
+	 */
+	@Test
+	public void shouldSpreadPairsEvenlyBetweenShards() {
+		// given
+		final int size = 100;
+		final int shardCount = 4;
+		final int[] pairs = new int[shardCount];
+
+		// when
+		for (int firstIndex = 0; firstIndex < size; firstIndex++) {
+			for (int secondIndex = 0; secondIndex < size; secondIndex++) {
+				pairs[SolutionState.getShardIndex(firstIndex, secondIndex, size, shardCount)]++;
+			}
+		}
+
+		// then
+		for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+			assertThat(pairs[shardIndex], greaterThan(2400));
+			assertThat(pairs[shardIndex], lessThan(2600));
+		}
+		assertThat(SolutionState.getShardIndex(12, 34, size, shardCount),
+				is(SolutionState.getShardIndex(12, 34, size, shardCount)));
+		assertThat(SolutionState.getShardIndex(12, 34, size, 1), is(0));
+	}
+
+	/**
+	 * Test that the nogood cache remembers the states with no completion, so that
+	 * searching the same words again skips them, without changing the word squares
+	 * we find.
+	 */
+	@Test
+	public void shouldSkipStatesWithNoCompletion_whenNogoodCacheIsEnabled()
+			throws InvalidWordSquareException, IOException {
+		// given
+		final SolutionState solutionState = new SolutionState(5, "aaaeeeefhhmoonssrrrrttttw",
+				new SearchOptions().setNogoodCacheCapacity(1000), new SearchStatistics());
+
+		// when
+		solutionState.getValidWordSquares("feast");
+		final long missesFirstTime = solutionState.getStatistics().getNogoodCacheMisses();
+		solutionState.getValidWordSquares("feast");
+
+		// then
+		assertThat(solutionState.getWordSquares(), hasSize(4));
+		assertThat(missesFirstTime, greaterThan(0L));
+		assertThat(solutionState.getStatistics().getNogoodCacheHits(), greaterThan(0L));
+		assertThat(solutionState.getNogoodCache().size(), greaterThan(0));
+	}
+
+	/**
+	 * Test that there is no nogood cache by default.
+	 */
+	@Test
+	public void shouldNotHaveNogoodCache_byDefault() throws InvalidWordSquareException, IOException {
+		// given
+		final SolutionState solutionState = new SolutionState(5, "aaaeeeefhhmoonssrrrrttttw");
+
+		// when
+		solutionState.getValidWordSquares("feast");
+
+		// then
+		assertThat(solutionState.getNogoodCache(), is(nullValue()));
+		assertThat(solutionState.getStatistics().getNogoodCacheMisses(), is(0L));
+	}
+
+	/**
+	 * Get the candidate words for the next word.
+	 * 
+	 * @param solutionState The solution state.
+	 * @return The candidate words.
+	 */
+	private static List<String> getCandidateWords(final SolutionState solutionState) {
+		final List<String> words = new ArrayList<>();
+		final WordCandidates candidates = solutionState.findNextWordCandidates();
+		for (int index = candidates.next(candidates.getStartIndex()); index < candidates.getEndIndex(); index = candidates
+				.next(index + 1)) {
+			words.add(solutionState.getWordPrefixIndex().getWord(index));
 		}
+		return words;
 	}
 }
@@ -0,0 +1,198 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+
+import org.junit.Test;
+
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+
+/**
+ * Test suite for the Solver Metrics class.
+ * 
+ * @author ruth
+ */
+public class SolverMetricsTest {
+
+	/**
+	 * Test that the metrics start at zero.
+	 */
+	@Test
+	public void shouldStartAtZero() {
+		// when
+		final SolverMetrics metrics = new SolverMetrics();
+
+		// then
+		assertThat(metrics.getSearchesInFlight(), is(0L));
+		assertThat(metrics.getSearchesEnded(), is(0L));
+		assertThat(metrics.getNodesVisited(), is(0L));
+		assertThat(metrics.getSolutionsFound(), is(0L));
+		assertThat(metrics.getCandidatesTested(), is(new long[SolverMetrics.MAX_DEPTH]));
+		assertThat(metrics.getCandidatesPruned(), is(new long[SolverMetrics.MAX_DEPTH]));
+		assertThat(metrics.getNodesPruned(), is(new long[SolverMetrics.MAX_DEPTH]));
+		assertThat(metrics.getShortlistsBuilt(), is(0L));
+		assertThat(metrics.getAverageShortlistSize(), is(0.0));
+		assertThat(metrics.getMaxShortlistSize(), is(0L));
+		assertThat(metrics.getNogoodCacheHitRate(), is(0.0));
+		assertThat(metrics.getResultCacheHitRate(), is(0.0));
+		assertThat(metrics.getResultStoreHitRate(), is(0.0));
+	}
+
+	/**
+	 * Test that the searches in flight go up when a search starts, and down when
+	 * it ends.
+	 */
+	@Test
+	public void shouldCountSearchesInFlight() {
+		// given
+		final SolverMetrics metrics = new SolverMetrics();
+
+		// when
+		final long startNanos = metrics.searchStarted();
+		metrics.searchStarted();
+
+		// then
+		assertThat(metrics.getSearchesInFlight(), is(2L));
+
+		// when
+		metrics.searchEnded(startNanos);
+
+		// then
+		assertThat(metrics.getSearchesInFlight(), is(1L));
+		assertThat(metrics.getSearchesEnded(), is(1L));
+		assertThat(metrics.toString(), is("searchesInFlight=1, searchesEnded=1, nodesVisited=0, solutionsFound=0, "
+				+ "shortlistsBuilt=0, shortlistMillis=0, searchMillis=" + metrics.getSearchMillis()));
+	}
+
+	/**
+	 * Test that the candidates and pruned nodes are counted at each depth, and
+	 * that any depth beyond the last is counted with the last.
+	 */
+	@Test
+	public void shouldCountCandidatesAtEachDepth() {
+		// given
+		final SolverMetrics metrics = new SolverMetrics();
+
+		// when
+		metrics.candidatesTested(1, 10, 4);
+		metrics.candidatesTested(1, 5, 5);
+		metrics.candidatesTested(2, 3, 0);
+		metrics.candidatesTested(SolverMetrics.MAX_DEPTH + 5, 7, 1);
+		metrics.nodePruned(2);
+		metrics.nodePruned(2);
+
+		// then
+		final long[] candidatesTested = metrics.getCandidatesTested();
+		final long[] candidatesPruned = metrics.getCandidatesPruned();
+		final long[] nodesPruned = metrics.getNodesPruned();
+		assertThat(candidatesTested[0], is(0L));
+		assertThat(candidatesTested[1], is(15L));
+		assertThat(candidatesPruned[1], is(9L));
+		assertThat(candidatesTested[2], is(3L));
+		assertThat(candidatesPruned[2], is(0L));
+		assertThat(nodesPruned[2], is(2L));
+		assertThat(candidatesTested[SolverMetrics.MAX_DEPTH - 1], is(7L));
+		assertThat(candidatesPruned[SolverMetrics.MAX_DEPTH - 1], is(1L));
+	}
+
+	/**
+	 * Test that the shortlist sizes and times are added up.
+	 */
+	@Test
+	public void shouldCountShortlists() {
+		// given
+		final SolverMetrics metrics = new SolverMetrics();
+
+		// when
+		metrics.shortlistBuilt(10, 1_000_000);
+		metrics.shortlistBuilt(30, 2_500_000);
+
+		// then
+		assertThat(metrics.getShortlistsBuilt(), is(2L));
+		assertThat(metrics.getAverageShortlistSize(), is(20.0));
+		assertThat(metrics.getMaxShortlistSize(), is(30L));
+		assertThat(metrics.getShortlistMillis(), is(3L));
+	}
+
+	/**
+	 * Test that the hit rates of the caches are worked out from the hits and
+	 * misses.
+	 */
+	@Test
+	public void shouldWorkOutHitRates() {
+		// given
+		final SolverMetrics metrics = new SolverMetrics();
+
+		// when
+		metrics.nogoodCacheHit();
+		metrics.nogoodCacheMiss();
+		metrics.resultCacheHit();
+		metrics.resultCacheHit();
+		metrics.resultCacheHit();
+		metrics.resultCacheMiss();
+		metrics.resultStoreMiss();
+
+		// then
+		assertThat(metrics.getNogoodCacheHitRate(), is(closeTo(0.5, 1e-9)));
+		assertThat(metrics.getResultCacheHitRate(), is(closeTo(0.75, 1e-9)));
+		assertThat(metrics.getResultStoreHitRate(), is(0.0));
+	}
+
+	/**
+	 * Test that a search updates the metrics of every search.
+	 */
+	@Test
+	public void shouldUpdateMetrics_whenSearching() throws InvalidWordSquareException, IOException {
+		// given
+		final SolverMetrics metrics = SolverMetrics.getInstance();
+		final long searchesEnded = metrics.getSearchesEnded();
+		final long nodesVisited = metrics.getNodesVisited();
+		final long solutionsFound = metrics.getSolutionsFound();
+		final long candidatesTested = metrics.getCandidatesTested()[1];
+		final long shortlistsBuilt = metrics.getShortlistsBuilt();
+		final SearchStatistics statistics = new SearchStatistics();
+
+		// when
+		final List<WordSquare> wordSquares = WordSquareGenerator.getValidWordSquares(3, "ddggoooox",
+				new SearchOptions(), statistics);
+
+		// then
+		assertThat(wordSquares.size(), is(2));
+		assertThat(metrics.getSearchesEnded(), is(greaterThanOrEqualTo(searchesEnded + 1)));
+		assertThat(metrics.getNodesVisited(),
+				is(greaterThanOrEqualTo(nodesVisited + statistics.getNodesVisited())));
+		assertThat(metrics.getSolutionsFound(), is(greaterThanOrEqualTo(solutionsFound + 2)));
+		assertThat(metrics.getCandidatesTested()[1], is(greaterThan(candidatesTested)));
+		assertThat(metrics.getShortlistsBuilt(), is(greaterThanOrEqualTo(shortlistsBuilt + 1)));
+	}
+
+	/**
+	 * Test that the metrics can be read through the platform MBean server once
+	 * registered.
+	 */
+	@Test
+	public void shouldRegisterWithPlatformMBeanServer() throws JMException {
+		// when
+		SolverMetrics.register();
+		SolverMetrics.register();
+
+		// then
+		final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		assertThat(mbeanServer.isRegistered(SolverMetrics.getObjectName()), is(true));
+		final long nodesVisited = (Long) mbeanServer.getAttribute(SolverMetrics.getObjectName(), "NodesVisited");
+		assertThat(nodesVisited, is(lessThanOrEqualTo(SolverMetrics.getInstance().getNodesVisited())));
+		assertThat(((long[]) mbeanServer.getAttribute(SolverMetrics.getObjectName(), "CandidatesTested")).length,
+				is(SolverMetrics.MAX_DEPTH));
+	}
+}
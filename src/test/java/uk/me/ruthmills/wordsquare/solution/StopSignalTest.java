@@ -0,0 +1,58 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the Stop Signal class.
+ * 
+ * @author ruth
+ */
+public class StopSignalTest {
+
+	/**
+	 * Test that a new stop signal has not been stopped.
+	 */
+	@Test
+	public void shouldNotBeStopped_whenNew() {
+		// when
+		final StopSignal stopSignal = new StopSignal();
+
+		// then
+		assertThat(stopSignal.isStopped(), is(false));
+	}
+
+	/**
+	 * Test that a stop signal is stopped once we have told it to stop.
+	 */
+	@Test
+	public void shouldBeStopped_whenStopped() {
+		// given
+		final StopSignal stopSignal = new StopSignal();
+
+		// when
+		stopSignal.stop();
+
+		// then
+		assertThat(stopSignal.isStopped(), is(true));
+	}
+
+	/**
+	 * Test that a stop signal raised on one thread is seen on another.
+	 */
+	@Test
+	public void shouldBeStopped_whenStoppedOnAnotherThread() throws InterruptedException {
+		// given
+		final StopSignal stopSignal = new StopSignal();
+		final Thread thread = new Thread(stopSignal::stop);
+
+		// when
+		thread.start();
+		thread.join();
+
+		// then
+		assertThat(stopSignal.isStopped(), is(true));
+	}
+}
@@ -0,0 +1,114 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the Word Candidates class.
+ * 
+ * @author ruth
+ */
+public class WordCandidatesTest {
+
+	/**
+	 * Test that every word in the range is a candidate after a reset.
+	 */
+	@Test
+	public void shouldHaveEveryWordInRange_afterReset() {
+		// given
+		final WordCandidates candidates = new WordCandidates(100);
+
+		// when
+		candidates.reset(60, 70);
+
+		// then
+		assertThat(candidates.getStartIndex(), is(60));
+		assertThat(candidates.getEndIndex(), is(70));
+		assertThat(getCandidates(candidates).size(), is(10));
+		assertThat(candidates.next(60), is(60));
+	}
+
+	/**
+	 * Test that only the candidates in at least one of the bitsets are kept.
+	 */
+	@Test
+	public void shouldRetainCandidatesInAnyBitset() {
+		// given
+		final WordCandidates candidates = new WordCandidates(8).reset(1, 7);
+		final long[][] bitsets = { { 0b00000110L }, { 0b01010000L }, { 0b11111111L } };
+
+		// when
+		candidates.retainAny(bitsets, 2);
+
+		// then
+		assertThat(getCandidates(candidates).toString(), is("[1, 2, 4, 6]"));
+	}
+
+	/**
+	 * Test that only the candidates also in a bitset are kept.
+	 */
+	@Test
+	public void shouldRetainCandidatesInBitset() {
+		// given
+		final WordCandidates candidates = new WordCandidates(8).reset(1, 7);
+
+		// when
+		candidates.retainAll(new long[] { 0b10101010L });
+
+		// then
+		assertThat(getCandidates(candidates).toString(), is("[1, 3, 5]"));
+	}
+
+	/**
+	 * Test that a candidate can be taken away.
+	 */
+	@Test
+	public void shouldRemoveCandidate() {
+		// given
+		final WordCandidates candidates = new WordCandidates(100).reset(60, 70);
+
+		// when
+		candidates.remove(60);
+		candidates.remove(65);
+
+		// then
+		assertThat(getCandidates(candidates).toString(), is("[61, 62, 63, 64, 66, 67, 68, 69]"));
+	}
+
+	/**
+	 * Test that a copy is independent, and limited to a smaller range.
+	 */
+	@Test
+	public void shouldCopyCandidatesToSmallerRange() {
+		// given
+		final WordCandidates candidates = new WordCandidates(8).reset(0, 8);
+
+		// when
+		final WordCandidates copy = candidates.copy(2, 5);
+		candidates.retainAny(new long[][] { { 0L } }, 1);
+
+		// then
+		assertThat(getCandidates(copy).toString(), is("[2, 3, 4]"));
+		assertThat(getCandidates(candidates).toString(), is("[]"));
+	}
+
+	/**
+	 * Get the positions of all the candidates.
+	 * 
+	 * @param candidates The candidates.
+	 * @return The positions of the candidates.
+	 */
+	private static List<Integer> getCandidates(final WordCandidates candidates) {
+		final List<Integer> positions = new ArrayList<>();
+		for (int index = candidates.next(candidates.getStartIndex()); index < candidates.getEndIndex(); index = candidates
+				.next(index + 1)) {
+			positions.add(index);
+		}
+		return positions;
+	}
+}
@@ -0,0 +1,64 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import uk.me.ruthmills.wordsquare.letters.AvailableLetters;
+import uk.me.ruthmills.wordsquare.letters.AvailableLettersFactory;
+
+/**
+ * Test suite for the Word Length Bucket class.
+ * 
+ * @author ruth
+ */
+public class WordLengthBucketTest {
+
+	/**
+	 * Test that the word shortlists built from a bucket are the same as the Word
+	 * Shortlist builds, for several sets of letters of the same length.
+	 */
+	@Test
+	public void shouldBuildSameWordShortlistsAsWordShortlist() throws IOException {
+		// given
+		final WordLengthBucket bucket = new WordLengthBucket(5);
+		final String[] lettersStrings = { "aaaeeeefhhmoonssrrrrttttw", "aabbeeeeeeeehmosrrrruttvv", "zzzzz", "",
+				"aaaeeeefhhmoonssrrrrttttw!" };
+
+		for (final String lettersString : lettersStrings) {
+			// when
+			final AvailableLetters letters = AvailableLettersFactory.getInstance(lettersString);
+
+			// then
+			assertThat(bucket.getWordShortlist(letters, lettersString),
+					is(WordShortlist.getWordShortlist(5, letters)));
+		}
+		assertThat(bucket.getLength(), is(5));
+	}
+
+	/**
+	 * Test that the mask of a string has a bit for each letter it uses.
+	 */
+	@Test
+	public void shouldGetLetterMask() {
+		// when/then
+		assertThat(WordLengthBucket.getLetterMask(""), is(0));
+		assertThat(WordLengthBucket.getLetterMask("abba"), is(0b11));
+		assertThat(WordLengthBucket.getLetterMask("dog"), is((1 << 3) | (1 << 14) | (1 << 6)));
+		assertThat(WordLengthBucket.getLetterMask("z"), is(1 << 25));
+	}
+
+	/**
+	 * Test that the mask of a string using a letter outside 'a' to 'z' has every
+	 * bit set, so that it is checked in full.
+	 */
+	@Test
+	public void shouldGetFullLetterMask_whenStringHasOtherLetters() {
+		// when/then
+		assertThat(WordLengthBucket.getLetterMask("dOg"), is(-1));
+		assertThat(WordLengthBucket.getLetterMask("it's"), is(-1));
+	}
+}
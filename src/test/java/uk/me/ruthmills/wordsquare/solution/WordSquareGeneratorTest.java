@@ -1,13 +1,21 @@
 package uk.me.ruthmills.wordsquare.solution;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
 
@@ -18,6 +26,10 @@ import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
  */
 public class WordSquareGeneratorTest {
 
+	// Temporary folder for the checkpoint files.
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	/**
 	 * Test we can get all valid solutions for a 3-letter word square (there are two
 	 * in this case).
@@ -55,4 +67,435 @@ public class WordSquareGeneratorTest {
 		assertThat(solutions, hasSize(1));
 		assertThat(solutions.get(0).getWords().toString(), is("[dog, oxo, god]"));
 	}
+
+	/**
+	 * Test that we reject letters which could never fill the word square, without
+	 * searching for a solution.
+	 */
+	@Test
+	public void shouldGetNoSolutions_whenLettersFailParityCheck() throws InvalidWordSquareException, IOException {
+		// given
+		final int length = 3;
+		final String letters = "dddgooxyz"; // "d", "g", "x", "y" and "z" all have an odd count.
+		final SearchStatistics statistics = new SearchStatistics();
+
+		// when
+		final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(length, letters,
+				new SearchOptions(), statistics);
+
+		// then
+		assertThat(solutions, hasSize(0));
+		assertThat(statistics.getNodesVisited(), is(0L));
+	}
+
+	/**
+	 * Test that we reject letters which do not total exactly n*n.
+	 */
+	@Test
+	public void shouldGetNoSolutions_whenThereAreTooManyLetters() throws InvalidWordSquareException, IOException {
+		// given
+		final int length = 3;
+		final String letters = "ddggooooxx";
+
+		// when
+		final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(length, letters, false);
+
+		// then
+		assertThat(solutions, hasSize(0));
+	}
+
+	/**
+	 * Test that a parallel search gets the same solutions, in the same order, as a
+	 * search on one thread.
+	 */
+	@Test
+	public void shouldGetSameSolutions_whenSearchIsParallel() throws InvalidWordSquareException, IOException {
+		// given
+		final int length = 5;
+		final String letters = "aaaeeeefhhmoonssrrrrttttw";
+
+		// when
+		final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(length, letters,
+				new SearchOptions(), new SearchStatistics());
+		final List<WordSquare> parallelSolutions = WordSquareGenerator.getValidWordSquares(length, letters,
+				new SearchOptions().setParallel(true), new SearchStatistics());
+
+		// then
+		assertThat(parallelSolutions.toString(), is(solutions.toString()));
+	}
+
+	/**
+	 * Test that counting the word squares gets the same number as getting them,
+	 * whichever options are set.
+	 */
+	@Test
+	public void shouldCountSameNumberOfSolutions() throws InvalidWordSquareException, IOException {
+		for (final SearchOptions options : new SearchOptions[] { new SearchOptions(),
+				new SearchOptions().setParallel(true), new SearchOptions().setNogoodCacheCapacity(1000) }) {
+			for (final String letters : new String[] { "ddggoooox", "aaaabbtte" }) {
+				// given
+				final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(3, letters, options,
+						new SearchStatistics());
+
+				// when
+				final long count = WordSquareGenerator.countWordSquares(3, letters, options, new SearchStatistics());
+
+				// then
+				assertThat(count, is((long) solutions.size()));
+			}
+		}
+	}
+
+	/**
+	 * Test that counting the word squares visits the same nodes as getting them.
+	 */
+	@Test
+	public void shouldCountSolutionsFor5LetterWordSquare() throws InvalidWordSquareException, IOException {
+		// given
+		final int length = 5;
+		final String letters = "aaaeeeefhhmoonssrrrrttttw";
+		final SearchStatistics statistics = new SearchStatistics();
+		WordSquareGenerator.getValidWordSquares(length, letters, new SearchOptions(), statistics);
+		final SearchStatistics countStatistics = new SearchStatistics();
+
+		// when
+		final long count = WordSquareGenerator.countWordSquares(length, letters, new SearchOptions(),
+				countStatistics);
+
+		// then
+		assertThat(count, is(2L));
+		assertThat(countStatistics.toString(), is(statistics.toString()));
+	}
+
+	/**
+	 * Test that counting stops at the first word square if the firstMatchOnly flag
+	 * is true, and that there are none for letters which could never fill the word
+	 * square.
+	 */
+	@Test
+	public void shouldCountAtMostOneSolution_whenFirstMatchOnly() throws IOException {
+		// when
+		final long count = WordSquareGenerator.countWordSquares(3, "ddggoooox",
+				new SearchOptions().setFirstMatchOnly(true), new SearchStatistics());
+		final long parallelCount = WordSquareGenerator.countWordSquares(3, "ddggoooox",
+				new SearchOptions().setFirstMatchOnly(true).setParallel(true), new SearchStatistics());
+		final long noCount = WordSquareGenerator.countWordSquares(3, "dddgooxyz");
+
+		// then
+		assertThat(count, is(1L));
+		assertThat(parallelCount, is(1L));
+		assertThat(noCount, is(0L));
+	}
+
+	/**
+	 * Test that the search stops after visiting the maximum number of nodes, and
+	 * says so, both on one thread and in parallel.
+	 */
+	@Test
+	public void shouldStopSearch_whenNodeLimitIsReached() throws InvalidWordSquareException, IOException {
+		for (final boolean parallel : new boolean[] { false, true }) {
+			// given
+			final SearchStatistics statistics = new SearchStatistics();
+
+			// when
+			final SearchResult result = WordSquareGenerator.searchWordSquares(5, "aaaeeeefhhmoonssrrrrttttw",
+					new SearchOptions().setMaxNodes(100).setParallel(parallel), statistics);
+
+			// then
+			assertThat(result.getStatus(), is(SearchStatus.NODE_LIMIT_REACHED));
+			assertThat(result.isFinished(), is(false));
+			assertThat(statistics.getNodesVisited(), lessThanOrEqualTo(100L));
+		}
+	}
+
+	/**
+	 * Test that the search stops once the deadline has passed, and says so.
+	 */
+	@Test
+	public void shouldStopSearch_whenDeadlineIsReached() throws InvalidWordSquareException, IOException {
+		// when
+		final SearchResult result = WordSquareGenerator.searchWordSquares(5, "aaaeeeefhhmoonssrrrrttttw",
+				new SearchOptions().setDeadline(Instant.now().minusSeconds(1)), new SearchStatistics());
+
+		// then
+		assertThat(result.getStatus(), is(SearchStatus.DEADLINE_REACHED));
+		assertThat(result.getWordSquares(), hasSize(0));
+	}
+
+	/**
+	 * Test that the search finishes, and says so, when the budget is big enough.
+	 */
+	@Test
+	public void shouldFinishSearch_whenBudgetIsBigEnough() throws InvalidWordSquareException, IOException {
+		// given
+		final SearchStatistics statistics = new SearchStatistics();
+		final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(5, "aaaeeeefhhmoonssrrrrttttw",
+				new SearchOptions(), statistics);
+
+		// when
+		final SearchResult result = WordSquareGenerator.searchWordSquares(5, "aaaeeeefhhmoonssrrrrttttw",
+				new SearchOptions().setDeadline(Instant.now().plusSeconds(600))
+						.setMaxNodes(statistics.getNodesVisited()),
+				new SearchStatistics());
+
+		// then
+		assertThat(result.getStatus(), is(SearchStatus.FINISHED));
+		assertThat(result.getWordSquares().toString(), is(solutions.toString()));
+	}
+
+	/**
+	 * Test that the search returns the word squares found before it ran out of
+	 * budget.
+	 */
+	@Test
+	public void shouldReturnPartialSolutions_whenNodeLimitIsReached() throws InvalidWordSquareException, IOException {
+		// given
+		final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(3, "ddggoooox", false);
+		final SearchStatistics statistics = new SearchStatistics();
+		WordSquareGenerator.getValidWordSquares(3, "ddggoooox", new SearchOptions().setFirstMatchOnly(true),
+				statistics);
+		final long nodesToFirstSolution = statistics.getNodesVisited();
+
+		// when
+		final SearchResult result = WordSquareGenerator.searchWordSquares(3, "ddggoooox",
+				new SearchOptions().setMaxNodes(nodesToFirstSolution), new SearchStatistics());
+
+		// then
+		assertThat(result.getWordSquares().toString(), is(solutions.subList(0, 1).toString()));
+		assertThat(result.getStatus(), is(SearchStatus.NODE_LIMIT_REACHED));
+	}
+
+	/**
+	 * Test that a search stopped at any node, and resumed from its checkpoint,
+	 * gets the same solutions as a search which was never stopped.
+	 */
+	@Test
+	public void shouldGetSameSolutions_whenSearchIsResumedFromCheckpoint()
+			throws InvalidWordSquareException, IOException {
+		for (final SearchOptions options : new SearchOptions[] { new SearchOptions(),
+				new SearchOptions().setNogoodCacheCapacity(1000) }) {
+			// given
+			final SearchStatistics statistics = new SearchStatistics();
+			final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(3, "aaaabbtte", options,
+					statistics);
+			final Path checkpointFile = temporaryFolder.getRoot().toPath().resolve("checkpoint.txt");
+
+			for (long maxNodes = 1; maxNodes <= statistics.getNodesVisited(); maxNodes++) {
+				// when
+				final SearchResult stoppedResult = WordSquareGenerator.searchWordSquares(3, "aaaabbtte",
+						options.setCheckpointFile(checkpointFile).setMaxNodes(maxNodes), new SearchStatistics());
+				final SearchResult resumedResult = WordSquareGenerator.resumeWordSquares(checkpointFile,
+						options.setCheckpointFile(null).setMaxNodes(0), new SearchStatistics());
+
+				// then
+				assertThat(resumedResult.getStatus(), is(SearchStatus.FINISHED));
+				assertThat(resumedResult.getWordSquares().toString(), is(solutions.toString()));
+				assertThat(stoppedResult.isFinished(), is(maxNodes == statistics.getNodesVisited()));
+			}
+		}
+	}
+
+	/**
+	 * Test that a search which is stopped and resumed several times gets the same
+	 * solutions as a search which was never stopped, and that resuming from the
+	 * checkpoint of a finished search just gets its solutions.
+	 */
+	@Test
+	public void shouldGetSameSolutions_whenSearchIsResumedSeveralTimes()
+			throws InvalidWordSquareException, IOException {
+		// given
+		final int length = 5;
+		final String letters = "aaaeeeefhhmoonssrrrrttttw";
+		final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(length, letters, false);
+		final Path checkpointFile = temporaryFolder.getRoot().toPath().resolve("checkpoint.txt");
+		final SearchOptions options = new SearchOptions().setCheckpointFile(checkpointFile).setMaxNodes(100);
+
+		// when
+		SearchResult result = WordSquareGenerator.searchWordSquares(length, letters, options,
+				new SearchStatistics());
+		int resumes = 0;
+		while (!result.isFinished()) {
+			result = WordSquareGenerator.resumeWordSquares(checkpointFile, options, new SearchStatistics());
+			resumes++;
+		}
+		final SearchResult finishedResult = WordSquareGenerator.resumeWordSquares(checkpointFile, options,
+				new SearchStatistics());
+
+		// then
+		assertThat(resumes, greaterThan(1));
+		assertThat(result.getWordSquares().toString(), is(solutions.toString()));
+		assertThat(finishedResult.isFinished(), is(true));
+		assertThat(finishedResult.getWordSquares().toString(), is(solutions.toString()));
+	}
+
+	/**
+	 * Test that the shards of a search between them get the same solutions as the
+	 * whole search, each exactly once, however many shards there are.
+	 */
+	@Test
+	public void shouldGetSameSolutions_whenSearchIsSplitIntoShards() throws InvalidWordSquareException, IOException {
+		for (final String letters : new String[] { "aaaabbtte", "aaaeeeefhhmoonssrrrrttttw" }) {
+			// given
+			final int length = (int) Math.sqrt(letters.length());
+			final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(length, letters, false);
+
+			for (int shardCount = 1; shardCount <= 4; shardCount++) {
+				// when
+				final List<WordSquare> shardSolutions = new ArrayList<>();
+				long shardCountTotal = 0;
+				for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+					shardSolutions.addAll(WordSquareGenerator.getValidWordSquares(length, letters,
+							new SearchOptions().setShard(shardIndex, shardCount), new SearchStatistics()));
+					shardCountTotal += WordSquareGenerator.countWordSquares(length, letters,
+							new SearchOptions().setShard(shardIndex, shardCount).setParallel(true),
+							new SearchStatistics());
+				}
+				ShardMerger.sortInSearchOrder(shardSolutions);
+
+				// then
+				assertThat(shardSolutions.toString(), is(solutions.toString()));
+				assertThat(shardCountTotal, is((long) solutions.size()));
+			}
+		}
+	}
+
+	/**
+	 * Test that a stream of word squares gets the same solutions, in the same
+	 * order, as the list - and can be cut short.
+	 */
+	@Test
+	public void shouldStreamSameSolutions() throws InvalidWordSquareException, IOException {
+		// given
+		final int length = 5;
+		final String letters = "aaaeeeefhhmoonssrrrrttttw";
+		final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(length, letters,
+				new SearchOptions(), new SearchStatistics());
+
+		// when
+		final List<WordSquare> streamedSolutions = WordSquareGenerator
+				.streamValidWordSquares(length, letters, new SearchOptions(), new SearchStatistics())
+				.collect(Collectors.toList());
+		final List<WordSquare> firstTwoSolutions = WordSquareGenerator
+				.streamValidWordSquares(length, letters, new SearchOptions(), new SearchStatistics()).limit(2)
+				.collect(Collectors.toList());
+		final List<WordSquare> parallelSolutions = WordSquareGenerator
+				.streamValidWordSquares(length, letters, new SearchOptions().setParallel(true), new SearchStatistics())
+				.collect(Collectors.toList());
+
+		// then
+		assertThat(streamedSolutions.toString(), is(solutions.toString()));
+		assertThat(firstTwoSolutions.toString(), is(solutions.subList(0, 2).toString()));
+		assertThat(parallelSolutions.toString(), is(solutions.toString()));
+	}
+
+	/**
+	 * Test that a stream of word squares is empty for letters which could never
+	 * fill the word square.
+	 */
+	@Test
+	public void shouldStreamNoSolutions_whenLettersFailParityCheck() throws IOException {
+		// when
+		final long count = WordSquareGenerator
+				.streamValidWordSquares(3, "dddgooxyz", new SearchOptions(), new SearchStatistics()).count();
+
+		// then
+		assertThat(count, is(0L));
+	}
+
+	/**
+	 * Test that all the word squares found by a search are added to the result
+	 * store, and a search for the same letters in another order then gets them
+	 * from the store without searching.
+	 */
+	@Test
+	public void shouldGetSolutionsFromResultStore_afterSearchingOnce() throws InvalidWordSquareException, IOException {
+		try (ResultStore store = new ResultStore(temporaryFolder.getRoot().toPath())) {
+			// given
+			final SearchOptions options = new SearchOptions().setResultStore(store);
+			final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(3, "ddggoooox", options,
+					new SearchStatistics());
+
+			// when
+			final SearchStatistics statistics = new SearchStatistics();
+			final SearchResult result = WordSquareGenerator.searchWordSquares(3, "oooxddggo", options, statistics);
+			final SearchStatistics firstMatchStatistics = new SearchStatistics();
+			final List<WordSquare> firstSolution = WordSquareGenerator.getValidWordSquares(3, "ddggoooox",
+					new SearchOptions().setResultStore(store).setFirstMatchOnly(true).setParallel(true),
+					firstMatchStatistics);
+
+			// then
+			assertThat(store.size(), is(1));
+			assertThat(result.getWordSquares().toString(), is(solutions.toString()));
+			assertThat(result.getStatus(), is(SearchStatus.FINISHED));
+			assertThat(statistics.getNodesVisited(), is(0L));
+			assertThat(firstSolution.toString(), is("[dog\noxo\ngod\n]"));
+			assertThat(firstMatchStatistics.getNodesVisited(), is(0L));
+		}
+	}
+
+	/**
+	 * Test that the word squares are not added to the result store when the search
+	 * did not find them all.
+	 */
+	@Test
+	public void shouldNotAddToResultStore_whenSearchDidNotFindAllSolutions()
+			throws InvalidWordSquareException, IOException {
+		try (ResultStore store = new ResultStore(temporaryFolder.getRoot().toPath())) {
+			// when
+			WordSquareGenerator.getValidWordSquares(3, "ddggoooox",
+					new SearchOptions().setResultStore(store).setFirstMatchOnly(true), new SearchStatistics());
+			WordSquareGenerator.getValidWordSquares(3, "ddggoooox",
+					new SearchOptions().setResultStore(store).setMaxNodes(1), new SearchStatistics());
+			WordSquareGenerator.getValidWordSquares(3, "ddggoooox",
+					new SearchOptions().setResultStore(store).setShard(0, 2), new SearchStatistics());
+
+			// then
+			assertThat(store.size(), is(0));
+		}
+	}
+
+	/**
+	 * Test that the word squares found by a search are added to the result cache,
+	 * and a search for the same letters in another order then gets them from the
+	 * cache without searching.
+	 */
+	@Test
+	public void shouldGetSolutionsFromResultCache_afterSearchingOnce() throws InvalidWordSquareException, IOException {
+		// given
+		final ResultCache cache = new ResultCache(10, 0);
+		final SearchOptions options = new SearchOptions().setResultCache(cache);
+		final List<WordSquare> solutions = WordSquareGenerator.getValidWordSquares(4, "eeeeddoonnnsssrv", options,
+				new SearchStatistics());
+
+		// when
+		final SearchStatistics statistics = new SearchStatistics();
+		final SearchResult result = WordSquareGenerator.searchWordSquares(4, "vrssseeeeddoonnn",
+				new SearchOptions().setResultCache(cache).setFirstMatchOnly(true), statistics);
+
+		// then
+		assertThat(result.getWordSquares().toString(), is(solutions.subList(0, 1).toString()));
+		assertThat(result.getStatus(), is(SearchStatus.FINISHED));
+		assertThat(statistics.getNodesVisited(), is(0L));
+		assertThat(cache.getHits(), is(1L));
+		assertThat(cache.getMisses(), is(1L));
+	}
+
+	/**
+	 * Test that the word squares are not added to the result cache when the search
+	 * ran out of budget, or was of only one shard.
+	 */
+	@Test
+	public void shouldNotAddToResultCache_whenSearchDidNotFinish() throws InvalidWordSquareException, IOException {
+		// given
+		final ResultCache cache = new ResultCache(10, 0);
+
+		// when
+		WordSquareGenerator.getValidWordSquares(3, "ddggoooox",
+				new SearchOptions().setResultCache(cache).setMaxNodes(1), new SearchStatistics());
+		WordSquareGenerator.getValidWordSquares(3, "ddggoooox",
+				new SearchOptions().setResultCache(cache).setShard(0, 2), new SearchStatistics());
+
+		// then
+		assertThat(cache.size(), is(0));
+	}
 }
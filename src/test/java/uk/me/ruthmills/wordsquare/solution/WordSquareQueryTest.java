@@ -0,0 +1,46 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import org.junit.Test;
+
+/**
+ * Test suite for the Word Square Query class.
+ * 
+ * @author ruth
+ */
+public class WordSquareQueryTest {
+
+	/**
+	 * Test that a query holds its length and letters.
+	 */
+	@Test
+	public void shouldHoldLengthAndLetters() {
+		// when
+		final WordSquareQuery query = new WordSquareQuery(3, "ddggoooox");
+
+		// then
+		assertThat(query.getLength(), is(3));
+		assertThat(query.getLetters(), is("ddggoooox"));
+		assertThat(query.toString(), is("3 ddggoooox"));
+	}
+
+	/**
+	 * Test that queries for the same length and letters are equal, and others are
+	 * not.
+	 */
+	@Test
+	public void shouldBeEqual_whenLengthAndLettersAreEqual() {
+		// given
+		final WordSquareQuery query = new WordSquareQuery(3, "ddggoooox");
+
+		// when/then
+		assertThat(query, is(new WordSquareQuery(3, "ddggoooox")));
+		assertThat(query.hashCode(), is(new WordSquareQuery(3, "ddggoooox").hashCode()));
+		assertThat(query, is(not(new WordSquareQuery(4, "ddggoooox"))));
+		assertThat(query, is(not(new WordSquareQuery(3, "ddggooooy"))));
+		assertThat(query.equals(null), is(false));
+	}
+}
@@ -0,0 +1,201 @@
+package uk.me.ruthmills.wordsquare.solution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.Test;
+
+import uk.me.ruthmills.wordsquare.exception.InvalidWordSquareException;
+
+/**
+ * Test suite for the Word Square Spliterator class.
+ * 
+ * @author ruth
+ */
+public class WordSquareSpliteratorTest {
+
+	// Length of words in word square.
+	private static final int WORD_LENGTH = 5;
+
+	// Available letters.
+	private static final String AVAILABLE_LETTERS = "aaaeeeefhhmoonssrrrrttttw";
+
+	/**
+	 * Test that we get the same word squares, in the same order, and visit the same
+	 * nodes, as the recursive search.
+	 */
+	@Test
+	public void shouldGetSameWordSquaresAsRecursiveSearch() throws InvalidWordSquareException, IOException {
+		// given
+		final SearchStatistics statistics = new SearchStatistics();
+		final List<WordSquare> wordSquares = WordSquareGenerator.getValidWordSquares(WORD_LENGTH, AVAILABLE_LETTERS,
+				new SearchOptions(), statistics);
+		final SearchStatistics spliteratorStatistics = new SearchStatistics();
+		final WordSquareSpliterator spliterator = new WordSquareSpliterator(
+				new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS, new SearchOptions(), spliteratorStatistics));
+
+		// when
+		final List<WordSquare> spliteratorWordSquares = new ArrayList<>();
+		while (spliterator.tryAdvance(spliteratorWordSquares::add)) {
+		}
+
+		// then
+		assertThat(spliteratorWordSquares.toString(), is(wordSquares.toString()));
+		assertThat(spliteratorStatistics.toString(), is(statistics.toString()));
+	}
+
+	/**
+	 * Test that the spliterator uses the nogood cache in the same way as the
+	 * recursive search.
+	 */
+	@Test
+	public void shouldUseNogoodCacheLikeRecursiveSearch() throws InvalidWordSquareException, IOException {
+		// given
+		final SearchOptions options = new SearchOptions().setNogoodCacheCapacity(1000);
+		final SearchStatistics statistics = new SearchStatistics();
+		final List<WordSquare> wordSquares = WordSquareGenerator.getValidWordSquares(WORD_LENGTH, AVAILABLE_LETTERS,
+				options, statistics);
+		final SearchStatistics spliteratorStatistics = new SearchStatistics();
+		final WordSquareSpliterator spliterator = new WordSquareSpliterator(
+				new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS, options, spliteratorStatistics));
+
+		// when
+		final List<WordSquare> spliteratorWordSquares = new ArrayList<>();
+		spliterator.forEachRemaining(spliteratorWordSquares::add);
+
+		// then
+		assertThat(spliteratorWordSquares.toString(), is(wordSquares.toString()));
+		assertThat(spliteratorStatistics.toString(), is(statistics.toString()));
+	}
+
+	/**
+	 * Test that the spliterator only searches as far as it needs to.
+	 */
+	@Test
+	public void shouldOnlySearchAsFarAsNextWordSquare() throws IOException {
+		// given
+		final SearchStatistics allStatistics = new SearchStatistics();
+		final WordSquareSpliterator all = new WordSquareSpliterator(
+				new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS, new SearchOptions(), allStatistics));
+		final SearchStatistics oneStatistics = new SearchStatistics();
+		final WordSquareSpliterator one = new WordSquareSpliterator(
+				new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS, new SearchOptions(), oneStatistics));
+
+		// when
+		all.forEachRemaining(wordSquare -> {
+		});
+		final boolean advanced = one.tryAdvance(wordSquare -> {
+		});
+
+		// then
+		assertThat(advanced, is(true));
+		assertThat(oneStatistics.getNodesVisited(), lessThan(allStatistics.getNodesVisited()));
+	}
+
+	/**
+	 * Test that the spliterator stops after the first word square if the
+	 * firstMatchOnly flag is true.
+	 */
+	@Test
+	public void shouldStopAfterFirstWordSquare_whenFirstMatchOnlyIsTrue() throws IOException {
+		// given
+		final SolutionState solutionState = new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS,
+				new SearchOptions().setFirstMatchOnly(true), new SearchStatistics());
+		final WordSquareSpliterator spliterator = new WordSquareSpliterator(solutionState);
+
+		// when
+		final List<WordSquare> wordSquares = StreamSupport.stream(spliterator, false).collect(Collectors.toList());
+
+		// then
+		assertThat(wordSquares, hasSize(1));
+		assertThat(solutionState.getStopSignal().isStopped(), is(true));
+	}
+
+	/**
+	 * Test that splitting the spliterator, again and again, still gets the same
+	 * word squares in the same order.
+	 */
+	@Test
+	public void shouldGetSameWordSquares_whenSplit() throws InvalidWordSquareException, IOException {
+		// given
+		final List<WordSquare> wordSquares = WordSquareGenerator.getValidWordSquares(WORD_LENGTH, AVAILABLE_LETTERS,
+				new SearchOptions(), new SearchStatistics());
+		final WordSquareSpliterator spliterator = new WordSquareSpliterator(
+				new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS, new SearchOptions(), new SearchStatistics()));
+
+		// when
+		final List<WordSquare> splitWordSquares = new ArrayList<>();
+		collect(spliterator, splitWordSquares);
+
+		// then
+		assertThat(splitWordSquares.toString(), is(wordSquares.toString()));
+	}
+
+	/**
+	 * Test that a spliterator cannot be split once it has started advancing.
+	 */
+	@Test
+	public void shouldNotSplit_afterAdvancing() throws IOException {
+		// given
+		final WordSquareSpliterator spliterator = new WordSquareSpliterator(
+				new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS, new SearchOptions(), new SearchStatistics()));
+		assertThat(spliterator.trySplit(), notNullValue());
+
+		// when
+		spliterator.tryAdvance(wordSquare -> {
+		});
+
+		// then
+		assertThat(spliterator.trySplit(), is((Spliterator<WordSquare>) null));
+	}
+
+	/**
+	 * Split a spliterator as far as it will go, and collect the word squares from
+	 * each part in order.
+	 * 
+	 * @param spliterator The spliterator.
+	 * @param wordSquares The list to collect the word squares into.
+	 */
+	private static void collect(final Spliterator<WordSquare> spliterator, final List<WordSquare> wordSquares) {
+		final Spliterator<WordSquare> prefix = spliterator.trySplit();
+		if (prefix != null) {
+			collect(prefix, wordSquares);
+			collect(spliterator, wordSquares);
+		} else {
+			spliterator.forEachRemaining(wordSquares::add);
+		}
+	}
+
+	/**
+	 * Test that the spliterator stops once the maximum number of nodes have been
+	 * visited.
+	 */
+	@Test
+	public void shouldStop_whenNodeLimitIsReached() throws IOException {
+		// given
+		final SearchStatistics statistics = new SearchStatistics();
+		final SolutionState state = new SolutionState(WORD_LENGTH, AVAILABLE_LETTERS,
+				new SearchOptions().setMaxNodes(10), statistics);
+		final WordSquareSpliterator spliterator = new WordSquareSpliterator(state);
+
+		// when
+		final boolean advanced = spliterator.tryAdvance(wordSquare -> {
+		});
+
+		// then
+		assertThat(advanced, is(false));
+		assertThat(state.getSearchStatus(), is(SearchStatus.NODE_LIMIT_REACHED));
+		assertThat(statistics.getNodesVisited(), lessThanOrEqualTo(10L));
+	}
+}